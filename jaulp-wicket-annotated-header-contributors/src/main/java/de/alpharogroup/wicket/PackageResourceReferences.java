@@ -16,27 +16,50 @@
 package de.alpharogroup.wicket;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.LinkedHashMap;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.wicket.markup.head.CssHeaderItem;
 import org.apache.wicket.markup.head.HeaderItem;
 import org.apache.wicket.markup.head.IHeaderResponse;
 import org.apache.wicket.markup.head.JavaScriptHeaderItem;
+import org.apache.wicket.request.resource.CssResourceReference;
+import org.apache.wicket.request.resource.JavaScriptResourceReference;
 import org.apache.wicket.request.resource.PackageResourceReference;
 
 import de.alpharogroup.io.annotations.ImportResource;
 import de.alpharogroup.io.annotations.ImportResourcesExtensions;
 import de.alpharogroup.wicket.base.enums.ResourceReferenceType;
+import de.alpharogroup.wicket.index.ImportResourcesIndex;
+import de.alpharogroup.wicket.index.ImportResourcesIndex.IndexedResource;
 import lombok.NoArgsConstructor;
 
 /**
  * The Class PackageResourceReferences.
+ * 
+ * The resources of the annotated classes are read from the {@link ImportResourcesIndex} that is
+ * written at compile time from the {@link de.alpharogroup.wicket.index.ImportResourcesProcessor}.
+ * A package is scanned for annotated classes as before if a classpath root that contains the
+ * package has no index, for instance a jar that was compiled without the processor.
+ * 
+ * The package resource references of a component class are resolved once from the class, its
+ * superclasses and all their interfaces, from the top superclass down to the component class and
+ * the interfaces of a class before the class itself, so the resources of a subclass are rendered
+ * after the resources it inherits. The resolution is cached as an unmodifiable set, so the header
+ * contribution of a component class is a single lookup in a {@link ConcurrentHashMap}. The header
+ * items of a component class are built once from the resolution and cached in the same way. A
+ * header item keeps the scope of the class that imports the resource, so an inherited resource has
+ * the same URL for all subclasses.
  */
 @NoArgsConstructor
 public class PackageResourceReferences
@@ -97,84 +120,239 @@ public class PackageResourceReferences
 		return instance;
 	}
 
+	/** The index of the annotated classes, loaded on first use. */
+	private ImportResourcesIndex importResourcesIndex;
+
+	/** The flag if the index of the annotated classes was loaded. */
+	private boolean importResourcesIndexLoaded;
+
 	/** The package resource reference map. */
-	private final Map<Class<?>, Set<PackageResourceReferenceWrapper>> packageResourceReferenceMap = new LinkedHashMap<>();
+	private final Map<Class<?>, Set<PackageResourceReferenceWrapper>> packageResourceReferenceMap = new ConcurrentHashMap<>();
+
+	/** The resolved package resource references of the component classes. */
+	private final ConcurrentMap<Class<?>, Set<PackageResourceReferenceWrapper>> resolvedPackageResourceReferences = new ConcurrentHashMap<>();
+
+	/** The header items of the component classes. */
+	private final ConcurrentMap<Class<?>, List<HeaderItem>> headerItems = new ConcurrentHashMap<>();
+
+	/** The header items of the annotated package resources. */
+	private final Set<HeaderItem> annotatedHeaderItems = Collections
+		.newSetFromMap(new ConcurrentHashMap<HeaderItem, Boolean>());
+
+	/** The annotated package resources by the name of their scope and their name, built on use. */
+	private volatile Map<String, PackageResourceReferenceWrapper> packageResourceReferencesByName;
+
+	/** The generation of the package resource reference map, increased on every change. */
+	private volatile long generation;
 
 	/**
-	 * Adds the found package resource references.
+	 * Adds a new {@link PackageResourceReferenceWrapper} for the given resource to the given set.
 	 *
 	 * @param packageResourceReferences
 	 *            the package resource references
-	 * @param iface
-	 *            the iface
-	 * @return the sets the
+	 * @param scope
+	 *            the annotated class
+	 * @param resourceType
+	 *            the resource type
+	 * @param resourceName
+	 *            the resource name
 	 */
-	private Set<PackageResourceReferenceWrapper> addFoundPackageResourceReferences(
-		Set<PackageResourceReferenceWrapper> packageResourceReferences, final Class<?> iface)
+	private void addPackageResourceReference(
+		final Set<PackageResourceReferenceWrapper> packageResourceReferences, final Class<?> scope,
+		final String resourceType, final String resourceName)
 	{
-		final Set<PackageResourceReferenceWrapper> prr = PackageResourceReferences.getInstance()
-			.getPackageResourceReferenceMap().get(iface);
-		if ((packageResourceReferences != null) && !packageResourceReferences.isEmpty())
+		if (resourceType.equalsIgnoreCase("js"))
 		{
-			if ((prr != null) && !prr.isEmpty())
-			{
-				packageResourceReferences.addAll(prr);
-			}
-			else
-			{
+			final PackageResourceReference t = new PackageResourceReference(scope, resourceName);
 
-			}
+			packageResourceReferences
+				.add(new PackageResourceReferenceWrapper(t, ResourceReferenceType.JS));
 		}
-		else
+		else if (resourceType.equalsIgnoreCase("css"))
 		{
-			if ((prr != null) && !prr.isEmpty())
-			{
-				packageResourceReferences = prr;
-			}
+			final PackageResourceReference t = new PackageResourceReference(scope, resourceName);
+			packageResourceReferences
+				.add(new PackageResourceReferenceWrapper(t, ResourceReferenceType.CSS));
 		}
-		return packageResourceReferences;
 	}
 
 	/**
-	 * Adds the package resource reference from interfaces.
+	 * Adds the package resource references of all interfaces of the given type and then of the
+	 * given type itself to the given set.
 	 *
 	 * @param packageResourceReferences
 	 *            the package resource references
-	 * @param searchClass
-	 *            the search class
-	 * @return 's a set with the founded interfaces from the given search class.
+	 * @param visited
+	 *            the types that are already added
+	 * @param type
+	 *            the type
+	 */
+	private void addPackageResourceReferences(
+		final Set<PackageResourceReferenceWrapper> packageResourceReferences,
+		final Set<Class<?>> visited, final Class<?> type)
+	{
+		if (!visited.add(type))
+		{
+			return;
+		}
+		for (final Class<?> iface : type.getInterfaces())
+		{
+			addPackageResourceReferences(packageResourceReferences, visited, iface);
+		}
+		final Set<PackageResourceReferenceWrapper> prr = packageResourceReferenceMap.get(type);
+		if (prr != null)
+		{
+			packageResourceReferences.addAll(prr);
+		}
+	}
+
+	/**
+	 * Caches the given resolved value of the given component class, if no other value is cached
+	 * already and the package resource reference map was not changed since the given generation.
+	 *
+	 * @param <V>
+	 *            the generic type of the value
+	 * @param cache
+	 *            the cache
+	 * @param componentClass
+	 *            the component class
+	 * @param resolved
+	 *            the resolved value
+	 * @param resolvedGeneration
+	 *            the generation of the package resource reference map the value was resolved with
+	 * @return the cached value or the given value if the given value was not cached
+	 */
+	private <V> V cacheResolved(final ConcurrentMap<Class<?>, V> cache,
+		final Class<?> componentClass, final V resolved, final long resolvedGeneration)
+	{
+		final V existing = cache.putIfAbsent(componentClass, resolved);
+		if (existing != null)
+		{
+			return existing;
+		}
+		if (resolvedGeneration != generation)
+		{
+			// the map was changed during the resolution
+			cache.remove(componentClass, resolved);
+		}
+		return resolved;
+	}
+
+	/**
+	 * Clears the resolved package resource references and the header items. This method has to be
+	 * invoked after the package resource reference map was changed directly.
+	 */
+	public synchronized void clearResolvedPackageResourceReferences()
+	{
+		generation++;
+		resolvedPackageResourceReferences.clear();
+		headerItems.clear();
+		packageResourceReferencesByName = null;
+	}
+
+	/**
+	 * Finds the annotated package resource reference with the given scope and name. The annotated
+	 * package resources are indexed by their scope and name on the first call after a change of
+	 * the package resource reference map.
+	 *
+	 * @param scopeName
+	 *            the class name of the scope
+	 * @param name
+	 *            the name of the package resource
+	 * @return the package resource reference or null if no annotated class imports a package
+	 *         resource with the given scope and name
+	 */
+	public PackageResourceReferenceWrapper findPackageResourceReference(final String scopeName,
+		final String name)
+	{
+		Map<String, PackageResourceReferenceWrapper> byName = packageResourceReferencesByName;
+		if (byName == null)
+		{
+			byName = indexByName();
+		}
+		return byName.get(scopeName + "/" + name);
+	}
+
+	/**
+	 * Gets the class loader for loading the index and the annotated classes.
+	 *
+	 * @return the class loader
+	 */
+	private ClassLoader getClassLoader()
+	{
+		final ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+		if (classLoader != null)
+		{
+			return classLoader;
+		}
+		return PackageResourceReferences.class.getClassLoader();
+	}
+
+	/**
+	 * Gets the index of the annotated classes.
+	 *
+	 * @return the index or null if the classpath has no index
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
 	 */
-	private Set<PackageResourceReferenceWrapper> addPackageResourceReferenceFromInterfaces(
-		Set<PackageResourceReferenceWrapper> packageResourceReferences, final Class<?> searchClass)
+	private synchronized ImportResourcesIndex getImportResourcesIndex() throws IOException
 	{
-		final Class<?>[] interfaces = searchClass.getInterfaces();
-		for (final Class<?> iface : interfaces)
+		if (!importResourcesIndexLoaded)
 		{
-			packageResourceReferences = addFoundPackageResourceReferences(packageResourceReferences,
-				iface);
+			importResourcesIndex = ImportResourcesIndex.load(getClassLoader());
+			importResourcesIndexLoaded = true;
 		}
-		return packageResourceReferences;
+		return importResourcesIndex;
 	}
 
 	/**
-	 * Gets the package resource reference.
+	 * Gets the package resource references of the given component class, its superclasses and all
+	 * their interfaces.
 	 *
 	 * @param componentClass
 	 *            the component class
-	 * @return the package resource reference
+	 * @return an unmodifiable set of the package resource references that is shared between all
+	 *         callers
 	 */
 	public Set<PackageResourceReferenceWrapper> getPackageResourceReference(
 		final Class<?> componentClass)
 	{
-		Set<PackageResourceReferenceWrapper> packageResourceReference = PackageResourceReferences
-			.getInstance().getPackageResourceReferenceMap().get(componentClass);
-		packageResourceReference = addPackageResourceReferenceFromInterfaces(
-			packageResourceReference, componentClass);
-		return packageResourceReference;
+		Set<PackageResourceReferenceWrapper> resolved = resolvedPackageResourceReferences
+			.get(componentClass);
+		if (resolved == null)
+		{
+			final long currentGeneration = generation;
+			resolved = cacheResolved(resolvedPackageResourceReferences, componentClass,
+				resolvePackageResourceReferences(componentClass), currentGeneration);
+		}
+		return resolved;
 	}
 
 	/**
-	 * Gets the package resource reference map.
+	 * Gets the header items of the package resource references of the given component class. The
+	 * header items are built once and shared between all callers.
+	 *
+	 * @param componentClass
+	 *            the component class
+	 * @return an unmodifiable list of the header items
+	 */
+	public List<HeaderItem> getHeaderItems(final Class<?> componentClass)
+	{
+		List<HeaderItem> resolved = headerItems.get(componentClass);
+		if (resolved == null)
+		{
+			final long currentGeneration = generation;
+			final List<HeaderItem> items = newHeaderItems(
+				getPackageResourceReference(componentClass));
+			annotatedHeaderItems.addAll(items);
+			resolved = cacheResolved(headerItems, componentClass, items, currentGeneration);
+		}
+		return resolved;
+	}
+
+	/**
+	 * Gets the package resource reference map. Direct changes in this map have to be followed from
+	 * a call of {@link #clearResolvedPackageResourceReferences()}.
 	 *
 	 * @return the package resource reference map
 	 */
@@ -183,6 +361,33 @@ public class PackageResourceReferences
 		return packageResourceReferenceMap;
 	}
 
+	/**
+	 * Indexes the annotated package resources by the name of their scope and their name.
+	 *
+	 * @return the index
+	 */
+	private synchronized Map<String, PackageResourceReferenceWrapper> indexByName()
+	{
+		Map<String, PackageResourceReferenceWrapper> byName = packageResourceReferencesByName;
+		if (byName == null)
+		{
+			byName = new HashMap<>();
+			for (final Set<PackageResourceReferenceWrapper> packageResourceReferences : packageResourceReferenceMap
+				.values())
+			{
+				for (final PackageResourceReferenceWrapper packageResourceReference : packageResourceReferences)
+				{
+					final PackageResourceReference reference = packageResourceReference
+						.getPackageResourceReference();
+					byName.put(reference.getScope().getName() + "/" + reference.getName(),
+						packageResourceReference);
+				}
+			}
+			packageResourceReferencesByName = byName;
+		}
+		return byName;
+	}
+
 	/**
 	 * Initialize resources from the given packages.
 	 *
@@ -215,6 +420,12 @@ public class PackageResourceReferences
 	public void initializeResources(final String packageName)
 		throws ClassNotFoundException, IOException
 	{
+		final ImportResourcesIndex index = getImportResourcesIndex();
+		if ((index != null) && index.covers(getClassLoader(), packageName))
+		{
+			initializeResources(index, packageName);
+			return;
+		}
 		final Map<Class<?>, ImportResource[]> resourcesMap = ImportResourcesExtensions
 			.getImportResources(packageName);
 
@@ -225,23 +436,40 @@ public class PackageResourceReferences
 			final Set<PackageResourceReferenceWrapper> packageResourceReferences = new LinkedHashSet<>();
 			for (final ImportResource importResource : value)
 			{
-				if (importResource.resourceType().equalsIgnoreCase("js"))
-				{
-					final PackageResourceReference t = new PackageResourceReference(key,
-						importResource.resourceName());
+				addPackageResourceReference(packageResourceReferences, key,
+					importResource.resourceType(), importResource.resourceName());
+			}
+			PackageResourceReferences.getInstance().putPackageResourceReferences(key,
+				packageResourceReferences);
+		}
+	}
 
-					packageResourceReferences
-						.add(new PackageResourceReferenceWrapper(t, ResourceReferenceType.JS));
-				}
-				else if (importResource.resourceType().equalsIgnoreCase("css"))
-				{
-					final PackageResourceReference t = new PackageResourceReference(key,
-						importResource.resourceName());
-					packageResourceReferences
-						.add(new PackageResourceReferenceWrapper(t, ResourceReferenceType.CSS));
-				}
+	/**
+	 * Initialize resources from the given package with the given index. The annotated classes are
+	 * loaded without initializing them.
+	 *
+	 * @param index
+	 *            the index of the annotated classes
+	 * @param packageName
+	 *            the package name
+	 * @throws ClassNotFoundException
+	 *             occurs if a given class cannot be located by the specified class loader
+	 */
+	private void initializeResources(final ImportResourcesIndex index, final String packageName)
+		throws ClassNotFoundException
+	{
+		final ClassLoader classLoader = getClassLoader();
+		for (final Entry<String, List<IndexedResource>> entry : index.getResources(packageName)
+			.entrySet())
+		{
+			final Class<?> key = Class.forName(entry.getKey(), false, classLoader);
+			final Set<PackageResourceReferenceWrapper> packageResourceReferences = new LinkedHashSet<>();
+			for (final IndexedResource indexedResource : entry.getValue())
+			{
+				addPackageResourceReference(packageResourceReferences, key,
+					indexedResource.getResourceType(), indexedResource.getResourceName());
 			}
-			PackageResourceReferences.getInstance().getPackageResourceReferenceMap().put(key,
+			PackageResourceReferences.getInstance().putPackageResourceReferences(key,
 				packageResourceReferences);
 		}
 	}
@@ -262,4 +490,96 @@ public class PackageResourceReferences
 		initializeResources(Arrays.asList(packageNames));
 	}
 
+	/**
+	 * Checks if the given header item is a header item of an annotated package resource.
+	 *
+	 * @param item
+	 *            the header item
+	 * @return true if the given header item is a header item of an annotated package resource
+	 */
+	public boolean isAnnotatedHeaderItem(final HeaderItem item)
+	{
+		return annotatedHeaderItems.contains(item);
+	}
+
+	/**
+	 * Factory method for creating the header items of the given package resource references in the
+	 * scope of the class that imports them. This method can be overridden so users can provide
+	 * their own version of the header items.
+	 *
+	 * @param packageResourceReferences
+	 *            the package resource references
+	 * @return an unmodifiable list of the new header items
+	 */
+	protected List<HeaderItem> newHeaderItems(
+		final Set<PackageResourceReferenceWrapper> packageResourceReferences)
+	{
+		if (packageResourceReferences.isEmpty())
+		{
+			return Collections.emptyList();
+		}
+		final List<HeaderItem> items = new ArrayList<>(packageResourceReferences.size());
+		for (final PackageResourceReferenceWrapper packageResourceReference : packageResourceReferences)
+		{
+			final PackageResourceReference reference = packageResourceReference
+				.getPackageResourceReference();
+			if (packageResourceReference.getType().equals(ResourceReferenceType.JS))
+			{
+				items.add(JavaScriptHeaderItem.forReference(
+					new JavaScriptResourceReference(reference.getScope(), reference.getName())));
+			}
+			if (packageResourceReference.getType().equals(ResourceReferenceType.CSS))
+			{
+				items.add(CssHeaderItem.forReference(
+					new CssResourceReference(reference.getScope(), reference.getName())));
+			}
+		}
+		return Collections.unmodifiableList(items);
+	}
+
+	/**
+	 * Puts the given package resource references of the given annotated class and clears the
+	 * resolved package resource references.
+	 *
+	 * @param key
+	 *            the annotated class
+	 * @param packageResourceReferences
+	 *            the package resource references
+	 */
+	private void putPackageResourceReferences(final Class<?> key,
+		final Set<PackageResourceReferenceWrapper> packageResourceReferences)
+	{
+		packageResourceReferenceMap.put(key, Collections.unmodifiableSet(packageResourceReferences));
+		clearResolvedPackageResourceReferences();
+	}
+
+	/**
+	 * Resolves the package resource references of the given component class, its superclasses and
+	 * all their interfaces from the top superclass down to the given component class.
+	 *
+	 * @param componentClass
+	 *            the component class
+	 * @return an unmodifiable set of the package resource references
+	 */
+	private Set<PackageResourceReferenceWrapper> resolvePackageResourceReferences(
+		final Class<?> componentClass)
+	{
+		final Set<PackageResourceReferenceWrapper> packageResourceReferences = new LinkedHashSet<>();
+		final Set<Class<?>> visited = new HashSet<>();
+		final List<Class<?>> hierarchy = new ArrayList<>();
+		for (Class<?> type = componentClass; type != null; type = type.getSuperclass())
+		{
+			hierarchy.add(type);
+		}
+		for (int i = hierarchy.size() - 1; i >= 0; i--)
+		{
+			addPackageResourceReferences(packageResourceReferences, visited, hierarchy.get(i));
+		}
+		if (packageResourceReferences.isEmpty())
+		{
+			return Collections.emptySet();
+		}
+		return Collections.unmodifiableSet(packageResourceReferences);
+	}
+
 }
@@ -0,0 +1,70 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.bundle;
+
+import java.util.Set;
+
+import org.apache.wicket.markup.head.HeaderItem;
+import org.apache.wicket.markup.head.IHeaderResponse;
+import org.apache.wicket.markup.html.DecoratingHeaderResponse;
+import org.apache.wicket.request.resource.ResourceReference;
+
+/**
+ * The Class {@link BundledResourceFilteringHeaderResponse} decorates the header responses of the
+ * ajax requests of a page. The annotated package resources that the page has already rendered with
+ * a bundle are skipped, because the browser can not know that they are contained in the bundle and
+ * would load them a second time. All other header items are rendered without a bundle.
+ */
+public class BundledResourceFilteringHeaderResponse extends DecoratingHeaderResponse
+{
+
+	/** The keys of the package resources that the page has rendered with a bundle. */
+	private final Set<String> bundledMembers;
+
+	/** The bundles. */
+	private final PackageResourceBundles bundles;
+
+	/**
+	 * Instantiates a new {@link BundledResourceFilteringHeaderResponse}.
+	 *
+	 * @param real
+	 *            the decorated header response
+	 * @param bundles
+	 *            the bundles
+	 */
+	public BundledResourceFilteringHeaderResponse(final IHeaderResponse real,
+		final PackageResourceBundles bundles)
+	{
+		super(real);
+		this.bundles = bundles;
+		this.bundledMembers = bundles.getBundledMembers();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void render(final HeaderItem item)
+	{
+		final ResourceReference reference = BundlingHeaderResponse.getBundleReference(item);
+		if ((reference != null) && bundledMembers.contains(bundles.getMember(reference)))
+		{
+			return;
+		}
+		super.render(item);
+	}
+
+}
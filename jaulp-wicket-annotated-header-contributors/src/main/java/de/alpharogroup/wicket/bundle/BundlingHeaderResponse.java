@@ -0,0 +1,254 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.bundle;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.wicket.markup.head.CssHeaderItem;
+import org.apache.wicket.markup.head.CssReferenceHeaderItem;
+import org.apache.wicket.markup.head.HeaderItem;
+import org.apache.wicket.markup.head.IHeaderResponse;
+import org.apache.wicket.markup.head.JavaScriptHeaderItem;
+import org.apache.wicket.markup.head.JavaScriptReferenceHeaderItem;
+import org.apache.wicket.markup.html.DecoratingHeaderResponse;
+import org.apache.wicket.request.resource.ResourceReference;
+
+import de.alpharogroup.wicket.PackageResourceReferences;
+import de.alpharogroup.wicket.base.enums.ResourceReferenceType;
+
+/**
+ * The Class {@link BundlingHeaderResponse} collects the header items of a page and replaces the
+ * annotated package resources with one bundle per resource type. The bundle is rendered at the
+ * position of the first annotated package resource of its type, all other header items keep their
+ * order. A single annotated package resource of a type is rendered without a bundle. If another
+ * header item of the same type is rendered between the annotated package resources of a type, the
+ * resources of that type are rendered without a bundle, because the bundle would move them in
+ * front of a header item they might depend on. The package
+ * resources of the rendered bundles are kept in the page, so the
+ * {@link BundledResourceFilteringHeaderResponse} can skip them in the ajax requests of the page.
+ */
+public class BundlingHeaderResponse extends DecoratingHeaderResponse
+{
+
+	/** The bundles. */
+	private final PackageResourceBundles bundles;
+
+	/** The annotated css resources of the page. */
+	private final Set<ResourceReference> cssReferences = new LinkedHashSet<>();
+
+	/** The header items of the page in the order they were rendered. */
+	private final List<HeaderItem> items = new ArrayList<>();
+
+	/** The annotated javascript resources of the page. */
+	private final Set<ResourceReference> jsReferences = new LinkedHashSet<>();
+
+	/**
+	 * Instantiates a new {@link BundlingHeaderResponse}.
+	 *
+	 * @param real
+	 *            the decorated header response
+	 * @param bundles
+	 *            the bundles
+	 */
+	public BundlingHeaderResponse(final IHeaderResponse real, final PackageResourceBundles bundles)
+	{
+		super(real);
+		this.bundles = bundles;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void close()
+	{
+		final boolean jsBundled = isBundled(ResourceReferenceType.JS, jsReferences);
+		final boolean cssBundled = isBundled(ResourceReferenceType.CSS, cssReferences);
+		boolean jsRendered = false;
+		boolean cssRendered = false;
+		final List<String> members = new ArrayList<>();
+		for (final HeaderItem item : items)
+		{
+			final ResourceReferenceType type = getBundleType(item);
+			if (type == ResourceReferenceType.JS && jsBundled)
+			{
+				if (!jsRendered)
+				{
+					getRealResponse().render(bundles.newHeaderItem(type, jsReferences));
+					addMembers(members, jsReferences);
+					jsRendered = true;
+				}
+			}
+			else if (type == ResourceReferenceType.CSS && cssBundled)
+			{
+				if (!cssRendered)
+				{
+					getRealResponse().render(bundles.newHeaderItem(type, cssReferences));
+					addMembers(members, cssReferences);
+					cssRendered = true;
+				}
+			}
+			else
+			{
+				getRealResponse().render(item);
+			}
+		}
+		bundles.setBundledMembers(members);
+		items.clear();
+		jsReferences.clear();
+		cssReferences.clear();
+		super.close();
+	}
+
+	/**
+	 * Adds the keys of the given package resources to the given list.
+	 *
+	 * @param members
+	 *            the list of the keys
+	 * @param references
+	 *            the package resource references
+	 */
+	private void addMembers(final List<String> members, final Set<ResourceReference> references)
+	{
+		for (final ResourceReference reference : references)
+		{
+			members.add(bundles.getMember(reference));
+		}
+	}
+
+	/**
+	 * Gets the resource type of the bundle of the given header item.
+	 *
+	 * @param item
+	 *            the header item
+	 * @return the resource type or null if the header item is not bundled
+	 */
+	static ResourceReferenceType getBundleType(final HeaderItem item)
+	{
+		if (!PackageResourceReferences.getInstance().isAnnotatedHeaderItem(item))
+		{
+			return null;
+		}
+		if (item instanceof JavaScriptReferenceHeaderItem)
+		{
+			return ResourceReferenceType.JS;
+		}
+		if (item instanceof CssReferenceHeaderItem)
+		{
+			return ResourceReferenceType.CSS;
+		}
+		return null;
+	}
+
+	/**
+	 * Gets the package resource reference of the given header item.
+	 *
+	 * @param item
+	 *            the header item
+	 * @return the package resource reference or null if the header item is not bundled
+	 */
+	static ResourceReference getBundleReference(final HeaderItem item)
+	{
+		final ResourceReferenceType type = getBundleType(item);
+		if (type == ResourceReferenceType.JS)
+		{
+			return ((JavaScriptReferenceHeaderItem)item).getReference();
+		}
+		if (type == ResourceReferenceType.CSS)
+		{
+			return ((CssReferenceHeaderItem)item).getReference();
+		}
+		return null;
+	}
+
+	/**
+	 * Checks if the given annotated package resources of the given type are rendered as a bundle.
+	 * This is the case if there are at least two of them and no other header item of the same type
+	 * was rendered between them.
+	 *
+	 * @param type
+	 *            the resource type
+	 * @param references
+	 *            the annotated package resources of the given type
+	 * @return true if the given package resources are rendered as a bundle
+	 */
+	private boolean isBundled(final ResourceReferenceType type,
+		final Set<ResourceReference> references)
+	{
+		if (references.size() < 2)
+		{
+			return false;
+		}
+		boolean started = false;
+		boolean interrupted = false;
+		for (final HeaderItem item : items)
+		{
+			if (getBundleType(item) == type)
+			{
+				if (interrupted)
+				{
+					return false;
+				}
+				started = true;
+			}
+			else if (started && isOfType(item, type))
+			{
+				interrupted = true;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Checks if the given header item is a javascript or css header item of the given type.
+	 *
+	 * @param item
+	 *            the header item
+	 * @param type
+	 *            the resource type
+	 * @return true if the given header item is of the given type
+	 */
+	private static boolean isOfType(final HeaderItem item, final ResourceReferenceType type)
+	{
+		if (type == ResourceReferenceType.JS)
+		{
+			return item instanceof JavaScriptHeaderItem;
+		}
+		return item instanceof CssHeaderItem;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void render(final HeaderItem item)
+	{
+		final ResourceReferenceType type = getBundleType(item);
+		if (type == ResourceReferenceType.JS)
+		{
+			jsReferences.add(getBundleReference(item));
+		}
+		else if (type == ResourceReferenceType.CSS)
+		{
+			cssReferences.add(getBundleReference(item));
+		}
+		items.add(item);
+	}
+
+}
@@ -0,0 +1,54 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.bundle;
+
+import org.apache.wicket.util.time.Time;
+
+import lombok.Getter;
+
+/**
+ * The Class {@link PackageResourceBundle} holds the concatenated content of the package resources
+ * of a bundle.
+ */
+@Getter
+public class PackageResourceBundle
+{
+
+	/** The concatenated content. */
+	private final byte[] content;
+
+	/** The hash of the content. */
+	private final String contentHash;
+
+	/** The time the content was built. */
+	private final Time lastModified;
+
+	/**
+	 * Instantiates a new {@link PackageResourceBundle}.
+	 *
+	 * @param content
+	 *            the concatenated content
+	 * @param contentHash
+	 *            the hash of the content
+	 */
+	public PackageResourceBundle(final byte[] content, final String contentHash)
+	{
+		this.content = content;
+		this.contentHash = contentHash;
+		this.lastModified = Time.now();
+	}
+
+}
@@ -0,0 +1,61 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.bundle;
+
+import org.apache.wicket.request.resource.IResource;
+import org.apache.wicket.request.resource.ResourceReference;
+
+import de.alpharogroup.wicket.base.enums.ResourceReferenceType;
+import lombok.Getter;
+
+/**
+ * The Class {@link PackageResourceBundleReference} is the reference of the bundles of one resource
+ * type. The package resources of a bundle are the values of the parameter
+ * {@link PackageResourceBundles#MEMBER}. They are validated from the annotated package resources,
+ * so every node of a cluster can serve a bundle that another node has rendered.
+ */
+public class PackageResourceBundleReference extends ResourceReference
+{
+
+	/** The serialVersionUID. */
+	private static final long serialVersionUID = 1L;
+
+	/** The resource type of the bundles. */
+	@Getter
+	private final ResourceReferenceType type;
+
+	/**
+	 * Instantiates a new {@link PackageResourceBundleReference}.
+	 *
+	 * @param type
+	 *            the resource type of the bundles
+	 */
+	public PackageResourceBundleReference(final ResourceReferenceType type)
+	{
+		super(PackageResourceBundleReference.class, "bundle." + type.name().toLowerCase());
+		this.type = type;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public IResource getResource()
+	{
+		return new PackageResourceBundleResource(type);
+	}
+
+}
@@ -0,0 +1,104 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.bundle;
+
+import java.net.HttpURLConnection;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.wicket.request.http.WebResponse;
+import org.apache.wicket.request.resource.AbstractResource;
+import org.apache.wicket.util.string.StringValue;
+
+import de.alpharogroup.wicket.base.enums.ResourceReferenceType;
+
+/**
+ * The Class {@link PackageResourceBundleResource} serves the bundles of one resource type from the
+ * {@link PackageResourceBundles}. A bundle with a package resource that is not an annotated package
+ * resource of its resource type is answered with not found. A bundle that is requested with its
+ * current content hash is cached by the browser for the maximum duration, all other requests of a
+ * bundle are not cached.
+ */
+public class PackageResourceBundleResource extends AbstractResource
+{
+
+	/** The serialVersionUID. */
+	private static final long serialVersionUID = 1L;
+
+	/** The resource type of the bundles. */
+	private final ResourceReferenceType type;
+
+	/**
+	 * Instantiates a new {@link PackageResourceBundleResource}.
+	 *
+	 * @param type
+	 *            the resource type of the bundles
+	 */
+	public PackageResourceBundleResource(final ResourceReferenceType type)
+	{
+		this.type = type;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected ResourceResponse newResourceResponse(final Attributes attributes)
+	{
+		final ResourceResponse response = new ResourceResponse();
+		final List<String> members = new ArrayList<>();
+		for (final StringValue member : attributes.getParameters()
+			.getValues(PackageResourceBundles.MEMBER))
+		{
+			members.add(member.toString());
+		}
+		final PackageResourceBundle bundle = PackageResourceBundles.get().getBundle(type, members);
+		if (bundle == null)
+		{
+			response.setError(HttpURLConnection.HTTP_NOT_FOUND);
+			return response;
+		}
+		response.setContentType(
+			type == ResourceReferenceType.CSS ? "text/css" : "text/javascript");
+		response.setTextEncoding(PackageResourceBundles.ENCODING);
+		response.setLastModified(bundle.getLastModified());
+		if (bundle.getContentHash().equals(
+			attributes.getParameters().get(PackageResourceBundles.VERSION).toOptionalString()))
+		{
+			response.setCacheDurationToMaximum();
+			response.setCacheScope(WebResponse.CacheScope.PUBLIC);
+		}
+		else
+		{
+			response.disableCaching();
+		}
+		if (response.dataNeedsToBeWritten(attributes))
+		{
+			final byte[] content = bundle.getContent();
+			response.setContentLength(content.length);
+			response.setWriteCallback(new WriteCallback()
+			{
+				@Override
+				public void writeData(final Attributes attributes)
+				{
+					attributes.getResponse().write(content);
+				}
+			});
+		}
+		return response;
+	}
+
+}
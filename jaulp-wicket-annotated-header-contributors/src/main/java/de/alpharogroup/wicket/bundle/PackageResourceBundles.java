@@ -0,0 +1,541 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.bundle;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.wicket.Application;
+import org.apache.wicket.MetaDataKey;
+import org.apache.wicket.Page;
+import org.apache.wicket.WicketRuntimeException;
+import org.apache.wicket.css.ICssCompressor;
+import org.apache.wicket.javascript.IJavaScriptCompressor;
+import org.apache.wicket.markup.head.CssHeaderItem;
+import org.apache.wicket.markup.head.HeaderItem;
+import org.apache.wicket.markup.head.IHeaderResponse;
+import org.apache.wicket.markup.head.JavaScriptHeaderItem;
+import org.apache.wicket.markup.html.IHeaderResponseDecorator;
+import org.apache.wicket.request.IRequestHandler;
+import org.apache.wicket.request.component.IRequestablePage;
+import org.apache.wicket.request.cycle.RequestCycle;
+import org.apache.wicket.request.handler.IPageRequestHandler;
+import org.apache.wicket.request.http.WebRequest;
+import org.apache.wicket.request.mapper.parameter.PageParameters;
+import org.apache.wicket.request.resource.PackageResourceReference;
+import org.apache.wicket.request.resource.ResourceReference;
+import org.apache.wicket.resource.CssUrlReplacer;
+import org.apache.wicket.resource.IScopeAwareTextResourceProcessor;
+import org.apache.wicket.util.io.Streams;
+import org.apache.wicket.util.lang.Args;
+import org.apache.wicket.util.resource.IResourceStream;
+import org.apache.wicket.util.resource.ResourceStreamNotFoundException;
+
+import de.alpharogroup.wicket.PackageResourceReferenceWrapper;
+import de.alpharogroup.wicket.PackageResourceReferences;
+import de.alpharogroup.wicket.base.enums.ResourceReferenceType;
+import lombok.Getter;
+
+/**
+ * The Class {@link PackageResourceBundles} bundles the annotated package resources of a page. The
+ * javascript and css resources that the components of a page render with
+ * {@link de.alpharogroup.wicket.header.contributors.HeaderResponseExtensions} are collected from
+ * the {@link BundlingHeaderResponse} and rendered as one concatenated bundle per resource type.
+ * The package resources of a requested bundle are validated without any state of the
+ * application: every member has to be an annotated package resource of the resource type of the
+ * bundle and no member may occur twice, other bundle requests are rejected without building a
+ * bundle. So a bundle can be served from every node of a cluster and after a restart. A bundle is
+ * built on its first use and cached by the hash of its content, the least recently used bundle is
+ * evicted if the maximum number of cached bundles is reached and built again on its next use. The
+ * url of a bundle contains the hash of its content, so the bundle can be cached by the browser
+ * until its content changes. The bundles are installed per application, for instance:
+ *
+ * <pre>
+ * public void init()
+ * {
+ * 	super.init();
+ * 	PackageResourceBundles.install(this);
+ * }
+ * </pre>
+ *
+ * Ajax responses are not bundled, the {@link BundledResourceFilteringHeaderResponse} skips the
+ * package resources that the browser has already loaded with a bundle of the page.
+ */
+public class PackageResourceBundles
+{
+
+	/** The encoding of the package resources and the bundles. */
+	public static final String ENCODING = "UTF-8";
+
+	/** The default maximum number of cached bundles. */
+	public static final int DEFAULT_MAX_BUNDLES = 1000;
+
+	/** The name of the parameter with the package resources of a bundle. */
+	public static final String MEMBER = "r";
+
+	/** The name of the parameter with the content hash of a bundle. */
+	public static final String VERSION = "v";
+
+	/** The key for the bundled package resources in the page meta data. */
+	private static final MetaDataKey<HashSet<String>> BUNDLED_MEMBERS = new MetaDataKey<HashSet<String>>()
+	{
+		private static final long serialVersionUID = 1L;
+	};
+
+	/** The key for the bundles in the application meta data. */
+	private static final MetaDataKey<PackageResourceBundles> KEY = new MetaDataKey<PackageResourceBundles>()
+	{
+		private static final long serialVersionUID = 1L;
+	};
+
+	/**
+	 * Gets the bundles of the current application.
+	 *
+	 * @return the bundles or null if the bundles are not installed
+	 */
+	public static PackageResourceBundles get()
+	{
+		return Application.get().getMetaData(KEY);
+	}
+
+	/**
+	 * Installs new bundles with the default maximum number of cached bundles in the given
+	 * application.
+	 *
+	 * @param application
+	 *            the application
+	 * @return the installed bundles
+	 */
+	public static PackageResourceBundles install(final Application application)
+	{
+		return install(application, new PackageResourceBundles(DEFAULT_MAX_BUNDLES));
+	}
+
+	/**
+	 * Gets the page of the current request.
+	 *
+	 * @return the page or null if the current request does not render a page
+	 */
+	private static Page getPage()
+	{
+		final RequestCycle requestCycle = RequestCycle.get();
+		if (requestCycle == null)
+		{
+			return null;
+		}
+		final IRequestHandler handler = requestCycle.getActiveRequestHandler();
+		if (handler instanceof IPageRequestHandler)
+		{
+			final IRequestablePage page = ((IPageRequestHandler)handler).getPage();
+			if (page instanceof Page)
+			{
+				return (Page)page;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Installs the given bundles in the given application. The {@link BundlingHeaderResponse}
+	 * decorates the header responses of the application after an existing header response
+	 * decorator, the header responses of ajax requests are decorated with the
+	 * {@link BundledResourceFilteringHeaderResponse}.
+	 *
+	 * @param application
+	 *            the application
+	 * @param bundles
+	 *            the bundles
+	 * @return the installed bundles
+	 */
+	public static PackageResourceBundles install(final Application application,
+		final PackageResourceBundles bundles)
+	{
+		Args.notNull(application, "application");
+		Args.notNull(bundles, "bundles");
+		application.setMetaData(KEY, bundles);
+		application.getResourceReferenceRegistry().registerResourceReference(bundles.jsReference);
+		application.getResourceReferenceRegistry().registerResourceReference(bundles.cssReference);
+		final IHeaderResponseDecorator decorator = application.getHeaderResponseDecorator();
+		application.setHeaderResponseDecorator(new IHeaderResponseDecorator()
+		{
+			@Override
+			public IHeaderResponse decorate(final IHeaderResponse response)
+			{
+				final IHeaderResponse decorated = decorator == null ? response
+					: decorator.decorate(response);
+				final RequestCycle requestCycle = RequestCycle.get();
+				if ((requestCycle != null) && (requestCycle.getRequest() instanceof WebRequest)
+					&& ((WebRequest)requestCycle.getRequest()).isAjax())
+				{
+					return new BundledResourceFilteringHeaderResponse(decorated, bundles);
+				}
+				return new BundlingHeaderResponse(decorated, bundles);
+			}
+		});
+		return bundles;
+	}
+
+	/** The bundles by their content hash in the order of their last access. */
+	private final Map<String, PackageResourceBundle> bundles = newLruMap();
+
+	/** The content hashes by the keys of the package resources of the bundles. */
+	private final Map<String, String> contentHashes = newLruMap();
+
+	/** The reference of the css bundles. */
+	@Getter
+	private final PackageResourceBundleReference cssReference = new PackageResourceBundleReference(
+		ResourceReferenceType.CSS);
+
+	/** The reference of the javascript bundles. */
+	@Getter
+	private final PackageResourceBundleReference jsReference = new PackageResourceBundleReference(
+		ResourceReferenceType.JS);
+
+	/** The maximum number of cached bundles. */
+	@Getter
+	private final int maxBundles;
+
+	/**
+	 * Instantiates a new {@link PackageResourceBundles}.
+	 *
+	 * @param maxBundles
+	 *            the maximum number of cached bundles
+	 */
+	public PackageResourceBundles(final int maxBundles)
+	{
+		this.maxBundles = Args.withinRange(1, Integer.MAX_VALUE, maxBundles, "maxBundles");
+	}
+
+	/**
+	 * Builds the bundle of the given package resources.
+	 *
+	 * @param type
+	 *            the resource type
+	 * @param references
+	 *            the package resource references
+	 * @return the new bundle or null if one of the references is not a package resource reference
+	 */
+	protected PackageResourceBundle newBundle(final ResourceReferenceType type,
+		final List<ResourceReference> references)
+	{
+		final StringBuilder content = new StringBuilder();
+		for (final ResourceReference reference : references)
+		{
+			if (!(reference instanceof PackageResourceReference))
+			{
+				return null;
+			}
+			content.append(readContent(type, (PackageResourceReference)reference));
+			content.append(type == ResourceReferenceType.JS ? ";\n" : "\n");
+		}
+		final byte[] bytes = content.toString().getBytes(StandardCharsets.UTF_8);
+		return new PackageResourceBundle(bytes, hash(bytes));
+	}
+
+	/**
+	 * Gets the bundle of the given package resources, the bundle is built if it is not cached. If
+	 * the maximum number of cached bundles is reached the least recently used bundle is evicted.
+	 *
+	 * @param type
+	 *            the resource type
+	 * @param members
+	 *            the keys of the package resources
+	 * @return the bundle or null if one of the package resources is not an annotated package
+	 *         resource of the given resource type or occurs twice
+	 */
+	public PackageResourceBundle getBundle(final ResourceReferenceType type,
+		final List<String> members)
+	{
+		final String key = newKey(type, members);
+		synchronized (bundles)
+		{
+			final String contentHash = contentHashes.get(key);
+			final PackageResourceBundle bundle = contentHash == null ? null
+				: bundles.get(contentHash);
+			if (bundle != null)
+			{
+				return bundle;
+			}
+		}
+		final List<ResourceReference> references = getPackageResourceReferences(type, members);
+		if (references == null)
+		{
+			return null;
+		}
+		PackageResourceBundle bundle = newBundle(type, references);
+		if (bundle == null)
+		{
+			return null;
+		}
+		synchronized (bundles)
+		{
+			final PackageResourceBundle existing = bundles.get(bundle.getContentHash());
+			if (existing != null)
+			{
+				bundle = existing;
+			}
+			else
+			{
+				bundles.put(bundle.getContentHash(), bundle);
+			}
+			contentHashes.put(key, bundle.getContentHash());
+		}
+		return bundle;
+	}
+
+	/**
+	 * Gets the keys of the package resources that the current page has rendered with a bundle.
+	 *
+	 * @return the keys of the package resources, empty if the current request does not render a
+	 *         page or the page has not rendered a bundle
+	 */
+	public Set<String> getBundledMembers()
+	{
+		final Page page = getPage();
+		final Set<String> members = page == null ? null : page.getMetaData(BUNDLED_MEMBERS);
+		return members == null ? new HashSet<String>() : members;
+	}
+
+	/**
+	 * Gets the key of the given package resource in a bundle.
+	 *
+	 * @param reference
+	 *            the package resource reference
+	 * @return the key
+	 */
+	public String getMember(final ResourceReference reference)
+	{
+		return reference.getScope().getName() + "/" + reference.getName();
+	}
+
+	/**
+	 * Gets the annotated package resources of the given keys.
+	 *
+	 * @param type
+	 *            the resource type
+	 * @param members
+	 *            the keys of the package resources
+	 * @return the package resource references or null if the given keys are empty, one of the
+	 *         package resources is not an annotated package resource of the given resource type or
+	 *         occurs twice
+	 */
+	private List<ResourceReference> getPackageResourceReferences(final ResourceReferenceType type,
+		final List<String> members)
+	{
+		if (members.isEmpty() || (new HashSet<>(members).size() != members.size()))
+		{
+			return null;
+		}
+		final List<ResourceReference> references = new ArrayList<>(members.size());
+		for (final String member : members)
+		{
+			final int separator = member.lastIndexOf('/');
+			if (separator < 0)
+			{
+				return null;
+			}
+			final PackageResourceReferenceWrapper wrapper = PackageResourceReferences.getInstance()
+				.findPackageResourceReference(member.substring(0, separator),
+					member.substring(separator + 1));
+			if ((wrapper == null) || (wrapper.getType() != type))
+			{
+				return null;
+			}
+			references.add(wrapper.getPackageResourceReference());
+		}
+		return references;
+	}
+
+	/**
+	 * Creates a new map that evicts its least recently used entry if the maximum number of cached
+	 * bundles is exceeded.
+	 *
+	 * @param <V>
+	 *            the generic type of the values
+	 * @return the new map
+	 */
+	private <V> Map<String, V> newLruMap()
+	{
+		return new LinkedHashMap<String, V>(16, 0.75f, true)
+		{
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<String, V> eldest)
+			{
+				return size() > maxBundles;
+			}
+		};
+	}
+
+	/**
+	 * Creates the key of the bundle of the given package resources.
+	 *
+	 * @param type
+	 *            the resource type
+	 * @param members
+	 *            the keys of the package resources
+	 * @return the key of the bundle
+	 */
+	private String newKey(final ResourceReferenceType type, final List<String> members)
+	{
+		return type + ":" + members;
+	}
+
+	/**
+	 * Computes the hash of the given content.
+	 *
+	 * @param content
+	 *            the content
+	 * @return the hash as hex string
+	 */
+	private String hash(final byte[] content)
+	{
+		try
+		{
+			final byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+			final StringBuilder hash = new StringBuilder(digest.length * 2);
+			for (final byte b : digest)
+			{
+				hash.append(Character.forDigit((b >> 4) & 0xf, 16))
+					.append(Character.forDigit(b & 0xf, 16));
+			}
+			return hash.toString();
+		}
+		catch (final NoSuchAlgorithmException e)
+		{
+			throw new WicketRuntimeException(e);
+		}
+	}
+
+	/**
+	 * Factory method for creating the header item of the bundle of the given package resources.
+	 * The url of the header item contains the content hash of the bundle, so the bundle is built
+	 * when the header item is created and it is not cached yet. This method can be overridden so
+	 * users can provide their own version of the header item.
+	 *
+	 * @param type
+	 *            the resource type
+	 * @param references
+	 *            the package resource references
+	 * @return the new header item
+	 */
+	public HeaderItem newHeaderItem(final ResourceReferenceType type,
+		final Collection<? extends ResourceReference> references)
+	{
+		final PageParameters parameters = new PageParameters();
+		final List<String> members = new ArrayList<>();
+		for (final ResourceReference reference : references)
+		{
+			final String member = getMember(reference);
+			parameters.add(MEMBER, member);
+			members.add(member);
+		}
+		final PackageResourceBundle bundle = getBundle(type, members);
+		if (bundle != null)
+		{
+			parameters.add(VERSION, bundle.getContentHash());
+		}
+		if (type == ResourceReferenceType.CSS)
+		{
+			return CssHeaderItem.forReference(cssReference, parameters, null);
+		}
+		return JavaScriptHeaderItem.forReference(jsReference, parameters, null);
+	}
+
+	/**
+	 * Sets the keys of the package resources that the current page has rendered with a bundle. The
+	 * keys are kept in the meta data of the page, so the ajax requests of the page can skip the
+	 * package resources that the browser has already loaded.
+	 *
+	 * @param members
+	 *            the keys of the package resources
+	 */
+	public void setBundledMembers(final Collection<String> members)
+	{
+		final Page page = getPage();
+		if (page != null)
+		{
+			page.setMetaData(BUNDLED_MEMBERS, members.isEmpty() ? null : new HashSet<>(members));
+		}
+	}
+
+	/**
+	 * Reads the content of the given package resource. The content is compressed with the
+	 * compressor of the resource settings, the relative urls of css resources are replaced, so they
+	 * still work from the url of the bundle.
+	 *
+	 * @param type
+	 *            the resource type
+	 * @param reference
+	 *            the package resource reference
+	 * @return the content
+	 */
+	private String readContent(final ResourceReferenceType type,
+		final PackageResourceReference reference)
+	{
+		final IResourceStream resourceStream = reference.getResource().getResourceStream();
+		if (resourceStream == null)
+		{
+			throw new WicketRuntimeException("Package resource not found: " + reference);
+		}
+		String content;
+		try
+		{
+			try (InputStream inputStream = resourceStream.getInputStream())
+			{
+				content = Streams.readString(inputStream, ENCODING);
+			}
+			finally
+			{
+				resourceStream.close();
+			}
+		}
+		catch (final IOException | ResourceStreamNotFoundException e)
+		{
+			throw new WicketRuntimeException("Failed to read package resource: " + reference, e);
+		}
+		if (type == ResourceReferenceType.JS)
+		{
+			final IJavaScriptCompressor compressor = Application.get().getResourceSettings()
+				.getJavaScriptCompressor();
+			return compressor == null ? content : compressor.compress(content);
+		}
+		final ICssCompressor compressor = Application.get().getResourceSettings()
+			.getCssCompressor();
+		if (compressor instanceof IScopeAwareTextResourceProcessor)
+		{
+			return ((IScopeAwareTextResourceProcessor)compressor).process(content,
+				reference.getScope(), reference.getName());
+		}
+		if (compressor != null)
+		{
+			content = compressor.compress(content);
+		}
+		return new CssUrlReplacer().process(content, reference.getScope(), reference.getName());
+	}
+
+}
@@ -0,0 +1,219 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.caching;
+
+import java.io.IOException;
+import java.util.Set;
+
+import org.apache.wicket.Application;
+import org.apache.wicket.request.Response;
+import org.apache.wicket.request.http.WebResponse;
+import org.apache.wicket.request.resource.AbstractResource;
+import org.apache.wicket.request.resource.AbstractResource.WriteCallback;
+import org.apache.wicket.request.resource.IResource.Attributes;
+import org.apache.wicket.request.resource.caching.FilenameWithVersionResourceCachingStrategy;
+import org.apache.wicket.request.resource.caching.IStaticCacheableResource;
+import org.apache.wicket.request.resource.caching.version.CachingResourceVersion;
+import org.apache.wicket.request.resource.caching.version.IResourceVersion;
+import org.apache.wicket.request.resource.caching.version.LastModifiedResourceVersion;
+import org.apache.wicket.request.resource.caching.version.MessageDigestResourceVersion;
+import org.apache.wicket.request.resource.caching.version.RequestCycleCachedResourceVersion;
+import org.apache.wicket.util.lang.Args;
+
+import de.alpharogroup.wicket.PackageResourceReferenceWrapper;
+import de.alpharogroup.wicket.PackageResourceReferences;
+import lombok.Getter;
+
+/**
+ * The Class {@link FingerprintResourceCachingStrategy} embeds the hash of the content of a package
+ * resource in its url, for instance <code>MenuPanel-ver-3f2a...c1.js</code>. The hash is computed
+ * once per resource. A request with the current hash is served with the single header
+ * <code>Cache-Control: public, max-age=31536000, immutable</code>, so browsers never revalidate the
+ * resource. The requested hash is compared from the super class, that makes the response public
+ * only for the current hash. A request with another hash, for instance from a page of a node with
+ * another release during a rolling deploy, or without a hash is served with the current content
+ * but is not cached. Because the hash is computed only once, the hash is used only with the
+ * deployment configuration, with the development configuration the url contains the last
+ * modification time of the resource, so an edited resource gets a new url. The strategy is
+ * installed per application, for instance:
+ *
+ * <pre>
+ * public void init()
+ * {
+ * 	super.init();
+ * 	PackageResourceReferences.getInstance().initializeResources(packageNames);
+ * 	FingerprintResourceCachingStrategy.install(this);
+ * }
+ * </pre>
+ */
+public class FingerprintResourceCachingStrategy extends FilenameWithVersionResourceCachingStrategy
+{
+
+	/** The name of the cache control header. */
+	public static final String CACHE_CONTROL = "Cache-Control";
+
+	/** The cache control of resources that never change under their url. */
+	public static final String IMMUTABLE_CACHE_CONTROL = "public, max-age="
+		+ Math.round(WebResponse.MAX_CACHE_DURATION.seconds()) + ", immutable";
+
+	/**
+	 * The {@link WriteCallback} that replaces the cache control headers of the response with the
+	 * single header {@link FingerprintResourceCachingStrategy#IMMUTABLE_CACHE_CONTROL} before the
+	 * content is written. The headers of the response are written after the response was
+	 * decorated, so the cache control of a resource can only be replaced from its write callback.
+	 */
+	private static final class ImmutableWriteCallback extends WriteCallback
+	{
+
+		/** The write callback of the resource. */
+		private final WriteCallback writeCallback;
+
+		/**
+		 * Instantiates a new {@link ImmutableWriteCallback}.
+		 *
+		 * @param writeCallback
+		 *            the write callback of the resource
+		 */
+		private ImmutableWriteCallback(final WriteCallback writeCallback)
+		{
+			this.writeCallback = writeCallback;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void writeData(final Attributes attributes) throws IOException
+		{
+			final Response response = attributes.getResponse();
+			if (response instanceof WebResponse)
+			{
+				((WebResponse)response).setHeader(CACHE_CONTROL, IMMUTABLE_CACHE_CONTROL);
+			}
+			writeCallback.writeData(attributes);
+		}
+
+	}
+
+	/**
+	 * Installs a new {@link FingerprintResourceCachingStrategy} in the given application. With the
+	 * deployment configuration the hashes of the package resources that are known from the
+	 * {@link PackageResourceReferences} are computed, all other package resources are hashed on
+	 * first access. With the development configuration the strategy uses the last modification
+	 * time of the resources, which is looked up once per request.
+	 *
+	 * @param application
+	 *            the application
+	 * @return the installed strategy
+	 */
+	public static FingerprintResourceCachingStrategy install(final Application application)
+	{
+		Args.notNull(application, "application");
+		if (!application.usesDeploymentConfig())
+		{
+			final FingerprintResourceCachingStrategy strategy = new FingerprintResourceCachingStrategy(
+				new RequestCycleCachedResourceVersion(new LastModifiedResourceVersion()));
+			application.getResourceSettings().setCachingStrategy(strategy);
+			return strategy;
+		}
+		final FingerprintResourceCachingStrategy strategy = new FingerprintResourceCachingStrategy();
+		application.getResourceSettings().setCachingStrategy(strategy);
+		strategy.computeVersions(PackageResourceReferences.getInstance());
+		return strategy;
+	}
+
+	/** The resource version that computes the hashes. */
+	@Getter
+	private final IResourceVersion resourceVersion;
+
+	/**
+	 * Instantiates a new {@link FingerprintResourceCachingStrategy} that caches the message digest
+	 * of the content of the resources.
+	 */
+	public FingerprintResourceCachingStrategy()
+	{
+		this(new CachingResourceVersion(new MessageDigestResourceVersion()));
+	}
+
+	/**
+	 * Instantiates a new {@link FingerprintResourceCachingStrategy}.
+	 *
+	 * @param resourceVersion
+	 *            the resource version that computes the hashes
+	 */
+	public FingerprintResourceCachingStrategy(final IResourceVersion resourceVersion)
+	{
+		this(DEFAULT_VERSION_PREFIX, resourceVersion);
+	}
+
+	/**
+	 * Instantiates a new {@link FingerprintResourceCachingStrategy}.
+	 *
+	 * @param versionPrefix
+	 *            the prefix of the version in the file name
+	 * @param resourceVersion
+	 *            the resource version that computes the hashes
+	 */
+	public FingerprintResourceCachingStrategy(final String versionPrefix,
+		final IResourceVersion resourceVersion)
+	{
+		super(versionPrefix, resourceVersion);
+		this.resourceVersion = resourceVersion;
+	}
+
+	/**
+	 * Computes the hashes of the package resources of the given {@link PackageResourceReferences}.
+	 *
+	 * @param packageResourceReferences
+	 *            the package resource references
+	 */
+	public void computeVersions(final PackageResourceReferences packageResourceReferences)
+	{
+		for (final Set<PackageResourceReferenceWrapper> wrappers : packageResourceReferences
+			.getPackageResourceReferenceMap().values())
+		{
+			for (final PackageResourceReferenceWrapper wrapper : wrappers)
+			{
+				resourceVersion.getVersion(wrapper.getPackageResourceReference().getResource());
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * A resource that is requested with its current hash is cached as immutable, a resource that is
+	 * requested with another hash or without a hash is not cached. A response that is not modified
+	 * has no content, so it keeps the cache control headers of wicket.
+	 */
+	@Override
+	public void decorateResponse(final AbstractResource.ResourceResponse response,
+		final IStaticCacheableResource resource)
+	{
+		super.decorateResponse(response, resource);
+		if (response.getCacheScope() != WebResponse.CacheScope.PUBLIC)
+		{
+			response.disableCaching();
+			return;
+		}
+		final WriteCallback writeCallback = response.getWriteCallback();
+		if (writeCallback != null)
+		{
+			response.setWriteCallback(new ImmutableWriteCallback(writeCallback));
+		}
+	}
+
+}
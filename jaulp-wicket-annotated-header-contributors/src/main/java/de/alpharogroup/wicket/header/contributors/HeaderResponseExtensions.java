@@ -15,19 +15,12 @@
  */
 package de.alpharogroup.wicket.header.contributors;
 
-import java.util.Set;
+import java.util.List;
 
-import org.apache.wicket.markup.head.CssHeaderItem;
-import org.apache.wicket.markup.head.CssReferenceHeaderItem;
+import org.apache.wicket.markup.head.HeaderItem;
 import org.apache.wicket.markup.head.IHeaderResponse;
-import org.apache.wicket.markup.head.JavaScriptHeaderItem;
-import org.apache.wicket.markup.head.JavaScriptReferenceHeaderItem;
-import org.apache.wicket.request.resource.CssResourceReference;
-import org.apache.wicket.request.resource.JavaScriptResourceReference;
 
-import de.alpharogroup.wicket.PackageResourceReferenceWrapper;
 import de.alpharogroup.wicket.PackageResourceReferences;
-import de.alpharogroup.wicket.base.enums.ResourceReferenceType;
 
 /**
  * The Class WicketComponentExtensions is a helper class for the migration from wicket-version 1.4.x
@@ -39,7 +32,10 @@ public final class HeaderResponseExtensions
 {
 
 	/**
-	 * Render header response.
+	 * Render header response. The resources of the superclasses and interfaces of the given
+	 * component class are rendered in the scope of the class that imports them. The header items
+	 * are built once per component class, a header item that was already rendered is skipped from
+	 * the response.
 	 * 
 	 * @param response
 	 *            the response
@@ -49,36 +45,11 @@ public final class HeaderResponseExtensions
 	public static void renderHeaderResponse(final IHeaderResponse response,
 		final Class<?> componentClass)
 	{
-		final Set<PackageResourceReferenceWrapper> headerContributors = PackageResourceReferences
-			.getInstance().getPackageResourceReference(componentClass);
-		if ((null != headerContributors) && !headerContributors.isEmpty())
+		final List<HeaderItem> headerItems = PackageResourceReferences.getInstance()
+			.getHeaderItems(componentClass);
+		for (int i = 0; i < headerItems.size(); i++)
 		{
-			for (final PackageResourceReferenceWrapper packageResourceReference : headerContributors)
-			{
-				if (packageResourceReference.getType().equals(ResourceReferenceType.JS))
-				{
-					final JavaScriptResourceReference reference = new JavaScriptResourceReference(
-						componentClass,
-						packageResourceReference.getPackageResourceReference().getName());
-					if (!response.wasRendered(reference))
-					{
-						final JavaScriptReferenceHeaderItem headerItem = JavaScriptHeaderItem
-							.forReference(reference);
-						response.render(headerItem);
-					}
-				}
-				if (packageResourceReference.getType().equals(ResourceReferenceType.CSS))
-				{
-					final CssResourceReference reference = new CssResourceReference(componentClass,
-						packageResourceReference.getPackageResourceReference().getName());
-					if (!response.wasRendered(reference))
-					{
-						final CssReferenceHeaderItem headerItem = CssHeaderItem
-							.forReference(reference);
-						response.render(headerItem);
-					}
-				}
-			}
+			response.render(headerItems.get(i));
 		}
 	}
 
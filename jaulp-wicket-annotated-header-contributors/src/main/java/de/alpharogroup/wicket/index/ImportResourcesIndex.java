@@ -0,0 +1,370 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.index;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeSet;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * The Class {@link ImportResourcesIndex} holds the classes with the annotation
+ * {@link de.alpharogroup.io.annotations.ImportResources} and their resources. The index is written
+ * at compile time from the {@link ImportResourcesProcessor} into the file {@link #LOCATION}, so the
+ * annotated classes are known at startup without scanning the classpath. Every line of the file is
+ * either a package of the compiled classes or a resource of an annotated class:
+ *
+ * <pre>
+ * P	de.alpharogroup.wicket.components.menu.suckerfish
+ * R	de.alpharogroup.wicket.components.menu.suckerfish.MenuPanel	js	MenuPanel.js
+ * </pre>
+ *
+ * An index that is loaded from a class loader knows the classpath roots of its index files. A
+ * package is only covered if every classpath root that contains the package has an index file, so
+ * the annotated classes of a jar that was compiled without the processor are not missed.
+ */
+public class ImportResourcesIndex
+{
+
+	/**
+	 * The Class {@link IndexedResource} is a resource of an annotated class in the index.
+	 */
+	@Getter
+	@ToString
+	@AllArgsConstructor
+	public static class IndexedResource
+	{
+
+		/** The resource name. */
+		private final String resourceName;
+
+		/** The resource type. */
+		private final String resourceType;
+
+	}
+
+	/** The location of the index files in the classpath. */
+	public static final String LOCATION = "META-INF/jaulp-wicket/import-resources.index";
+
+	/** The prefix of a package line. */
+	private static final String PACKAGE = "P";
+
+	/** The prefix of a resource line. */
+	private static final String RESOURCE = "R";
+
+	/** The separator of the values of a line. */
+	private static final char SEPARATOR = '\t';
+
+	/**
+	 * Gets the classpath root of the given url of a resource with the given path.
+	 *
+	 * @param url
+	 *            the url of the resource
+	 * @param path
+	 *            the path of the resource in the classpath
+	 * @return the classpath root
+	 */
+	private static String getRoot(final URL url, final String path)
+	{
+		String location = url.toExternalForm();
+		if (location.endsWith("/"))
+		{
+			location = location.substring(0, location.length() - 1);
+		}
+		if (location.endsWith(path))
+		{
+			location = location.substring(0, location.length() - path.length());
+		}
+		return location.endsWith("/") ? location : location + "/";
+	}
+
+	/**
+	 * Loads and merges all index files from the given class loader.
+	 *
+	 * @param classLoader
+	 *            the class loader
+	 * @return the index or null if the class loader has no index file
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	public static ImportResourcesIndex load(final ClassLoader classLoader) throws IOException
+	{
+		final Enumeration<URL> urls = classLoader.getResources(LOCATION);
+		if (!urls.hasMoreElements())
+		{
+			return null;
+		}
+		final ImportResourcesIndex index = new ImportResourcesIndex();
+		while (urls.hasMoreElements())
+		{
+			final URL url = urls.nextElement();
+			index.roots.add(getRoot(url, LOCATION));
+			try (InputStream inputStream = url.openStream())
+			{
+				index.read(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+			}
+		}
+		return index;
+	}
+
+	/** The packages of the compiled classes. */
+	private final Set<String> packages = new TreeSet<>();
+
+	/** The resources by the binary names of the annotated classes. */
+	private final Map<String, List<IndexedResource>> resources = new LinkedHashMap<>();
+
+	/** The classpath roots of the loaded index files. */
+	private final Set<String> roots = new TreeSet<>();
+
+	/**
+	 * Adds the given package of compiled classes.
+	 *
+	 * @param packageName
+	 *            the package name
+	 */
+	public void addPackage(final String packageName)
+	{
+		packages.add(packageName);
+	}
+
+	/**
+	 * Adds the given resource of the given annotated class.
+	 *
+	 * @param className
+	 *            the binary name of the annotated class
+	 * @param resourceType
+	 *            the resource type
+	 * @param resourceName
+	 *            the resource name
+	 */
+	public void addResource(final String className, final String resourceType,
+		final String resourceName)
+	{
+		List<IndexedResource> classResources = resources.get(className);
+		if (classResources == null)
+		{
+			classResources = new ArrayList<>();
+			resources.put(className, classResources);
+		}
+		classResources.add(new IndexedResource(resourceName, resourceType));
+	}
+
+	/**
+	 * Checks if the given package or one of its subpackages was compiled with the index.
+	 *
+	 * @param packageName
+	 *            the package name
+	 * @return true if the index covers the given package
+	 */
+	public boolean covers(final String packageName)
+	{
+		for (final String indexedPackage : packages)
+		{
+			if (isInPackage(indexedPackage, packageName))
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Checks if the given package or one of its subpackages was compiled with the index and if
+	 * every classpath root of the given class loader that contains the given package has an index
+	 * file. Otherwise the package has to be scanned for annotated classes.
+	 *
+	 * @param classLoader
+	 *            the class loader
+	 * @param packageName
+	 *            the package name
+	 * @return true if the index covers the given package in all classpath roots
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	public boolean covers(final ClassLoader classLoader, final String packageName)
+		throws IOException
+	{
+		if (!covers(packageName))
+		{
+			return false;
+		}
+		final String path = packageName.replace('.', '/');
+		final Enumeration<URL> urls = classLoader.getResources(path);
+		while (urls.hasMoreElements())
+		{
+			if (!roots.contains(getRoot(urls.nextElement(), path)))
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Gets the resources of the given annotated class.
+	 *
+	 * @param className
+	 *            the binary name of the annotated class
+	 * @return an unmodifiable list of the resources, empty if the class is not in the index
+	 */
+	public List<IndexedResource> getClassResources(final String className)
+	{
+		final List<IndexedResource> classResources = resources.get(className);
+		if (classResources == null)
+		{
+			return Collections.emptyList();
+		}
+		return Collections.unmodifiableList(classResources);
+	}
+
+	/**
+	 * Gets the binary names of the annotated classes.
+	 *
+	 * @return an unmodifiable set of the binary names of the annotated classes
+	 */
+	public Set<String> getClassNames()
+	{
+		return Collections.unmodifiableSet(resources.keySet());
+	}
+
+	/**
+	 * Gets the packages of the compiled classes.
+	 *
+	 * @return an unmodifiable set of the packages
+	 */
+	public Set<String> getPackages()
+	{
+		return Collections.unmodifiableSet(packages);
+	}
+
+	/**
+	 * Gets the resources of the annotated classes in the given package and its subpackages.
+	 *
+	 * @param packageName
+	 *            the package name
+	 * @return the resources by the binary names of the annotated classes
+	 */
+	public Map<String, List<IndexedResource>> getResources(final String packageName)
+	{
+		final Map<String, List<IndexedResource>> packageResources = new LinkedHashMap<>();
+		for (final Entry<String, List<IndexedResource>> entry : resources.entrySet())
+		{
+			final int lastDot = entry.getKey().lastIndexOf('.');
+			final String classPackage = lastDot < 0 ? "" : entry.getKey().substring(0, lastDot);
+			if (isInPackage(classPackage, packageName))
+			{
+				packageResources.put(entry.getKey(), entry.getValue());
+			}
+		}
+		return packageResources;
+	}
+
+	/**
+	 * Checks if the given package is the given parent package or one of its subpackages.
+	 *
+	 * @param packageName
+	 *            the package name
+	 * @param parentPackageName
+	 *            the parent package name
+	 * @return true if the given package is in the given parent package
+	 */
+	private boolean isInPackage(final String packageName, final String parentPackageName)
+	{
+		return packageName.equals(parentPackageName)
+			|| packageName.startsWith(parentPackageName + ".");
+	}
+
+	/**
+	 * Reads the lines of an index file and adds them to this index.
+	 *
+	 * @param reader
+	 *            the reader of the index file
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	public void read(final Reader reader) throws IOException
+	{
+		final BufferedReader lines = new BufferedReader(reader);
+		String line;
+		while ((line = lines.readLine()) != null)
+		{
+			final String[] values = line.split(String.valueOf(SEPARATOR));
+			if (PACKAGE.equals(values[0]) && (values.length == 2))
+			{
+				addPackage(values[1]);
+			}
+			else if (RESOURCE.equals(values[0]) && (values.length == 4))
+			{
+				addResource(values[1], values[2], values[3]);
+			}
+		}
+	}
+
+	/**
+	 * Removes the resources of the given annotated class.
+	 *
+	 * @param className
+	 *            the binary name of the annotated class
+	 */
+	public void removeResources(final String className)
+	{
+		resources.remove(className);
+	}
+
+	/**
+	 * Writes this index in the format of an index file.
+	 *
+	 * @param writer
+	 *            the writer
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	public void write(final Writer writer) throws IOException
+	{
+		for (final String packageName : packages)
+		{
+			writer.append(PACKAGE).append(SEPARATOR).append(packageName).append('\n');
+		}
+		for (final Entry<String, List<IndexedResource>> entry : resources.entrySet())
+		{
+			for (final IndexedResource resource : entry.getValue())
+			{
+				writer.append(RESOURCE).append(SEPARATOR).append(entry.getKey()).append(SEPARATOR)
+					.append(resource.getResourceType()).append(SEPARATOR)
+					.append(resource.getResourceName()).append('\n');
+			}
+		}
+		writer.flush();
+	}
+
+}
@@ -0,0 +1,246 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.index;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * The Class {@link ImportResourcesProcessor} writes the {@link ImportResourcesIndex} of the classes
+ * with the annotation {@link de.alpharogroup.io.annotations.ImportResources} at compile time. The
+ * processor is registered as a service, so it runs in every project that has this library on the
+ * classpath. An existing index in the class output is merged, so incremental compilations keep the
+ * entries of the classes that were not compiled again. The processor sees all compiled classes and
+ * not only the annotated ones, so the index is also written and updated if the annotation is
+ * removed from the last class of a compilation.
+ */
+@SupportedAnnotationTypes("*")
+public class ImportResourcesProcessor extends AbstractProcessor
+{
+
+	/** The name of the annotation ImportResources. */
+	static final String IMPORT_RESOURCES = "de.alpharogroup.io.annotations.ImportResources";
+
+	/** The binary names of the compiled classes. */
+	private final Set<String> compiledClasses = new HashSet<>();
+
+	/** The index of the compiled classes. */
+	private final ImportResourcesIndex index = new ImportResourcesIndex();
+
+	/** The flag if annotated classes were processed. */
+	private boolean processed;
+
+	/**
+	 * Adds the binary names of the given type and its nested types to the compiled classes.
+	 *
+	 * @param type
+	 *            the type
+	 */
+	private void addCompiledClass(final TypeElement type)
+	{
+		compiledClasses.add(processingEnv.getElementUtils().getBinaryName(type).toString());
+		for (final TypeElement nestedType : ElementFilter.typesIn(type.getEnclosedElements()))
+		{
+			addCompiledClass(nestedType);
+		}
+	}
+
+	/**
+	 * Gets the value of the given member of the given annotation.
+	 *
+	 * @param annotation
+	 *            the annotation
+	 * @param name
+	 *            the name of the member
+	 * @return the value or null if the annotation has no member with the given name
+	 */
+	private Object getValue(final AnnotationMirror annotation, final String name)
+	{
+		for (final Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : processingEnv
+			.getElementUtils().getElementValuesWithDefaults(annotation).entrySet())
+		{
+			if (entry.getKey().getSimpleName().contentEquals(name))
+			{
+				return entry.getValue().getValue();
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public SourceVersion getSupportedSourceVersion()
+	{
+		return SourceVersion.latestSupported();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean process(final Set<? extends TypeElement> annotations,
+		final RoundEnvironment roundEnv)
+	{
+		if (roundEnv.processingOver())
+		{
+			if (processed)
+			{
+				writeIndex();
+			}
+			return false;
+		}
+		for (final TypeElement type : ElementFilter.typesIn(roundEnv.getRootElements()))
+		{
+			final PackageElement packageElement = processingEnv.getElementUtils().getPackageOf(type);
+			index.addPackage(packageElement.getQualifiedName().toString());
+			addCompiledClass(type);
+		}
+		final TypeElement annotation = processingEnv.getElementUtils()
+			.getTypeElement(IMPORT_RESOURCES);
+		if (annotation != null)
+		{
+			for (final Element element : roundEnv.getElementsAnnotatedWith(annotation))
+			{
+				if (element instanceof TypeElement)
+				{
+					processType((TypeElement)element);
+				}
+			}
+		}
+		processed = true;
+		return false;
+	}
+
+	/**
+	 * Adds the resources of the given annotated type to the index.
+	 *
+	 * @param type
+	 *            the annotated type
+	 */
+	private void processType(final TypeElement type)
+	{
+		final String className = processingEnv.getElementUtils().getBinaryName(type).toString();
+		for (final AnnotationMirror annotation : type.getAnnotationMirrors())
+		{
+			if (!((TypeElement)annotation.getAnnotationType().asElement()).getQualifiedName()
+				.contentEquals(IMPORT_RESOURCES))
+			{
+				continue;
+			}
+			final Object resources = getValue(annotation, "resources");
+			if (!(resources instanceof List))
+			{
+				continue;
+			}
+			for (final Object resource : (List<?>)resources)
+			{
+				final Object value = ((AnnotationValue)resource).getValue();
+				if (value instanceof AnnotationMirror)
+				{
+					final AnnotationMirror importResource = (AnnotationMirror)value;
+					index.addResource(className,
+						String.valueOf(getValue(importResource, "resourceType")),
+						String.valueOf(getValue(importResource, "resourceName")));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Merges the existing index of the class output with the index of the compiled classes and
+	 * writes the merged index.
+	 */
+	private void writeIndex()
+	{
+		final ImportResourcesIndex merged = new ImportResourcesIndex();
+		try
+		{
+			final FileObject existing = processingEnv.getFiler()
+				.getResource(StandardLocation.CLASS_OUTPUT, "", ImportResourcesIndex.LOCATION);
+			try (Reader reader = new InputStreamReader(existing.openInputStream(),
+				StandardCharsets.UTF_8))
+			{
+				merged.read(reader);
+			}
+		}
+		catch (final IOException e)
+		{
+			// no index from a previous compilation
+		}
+		for (final String className : new ArrayList<>(merged.getClassNames()))
+		{
+			if (compiledClasses.contains(className))
+			{
+				merged.removeResources(className);
+			}
+		}
+		for (final String packageName : index.getPackages())
+		{
+			merged.addPackage(packageName);
+		}
+		for (final String className : index.getClassNames())
+		{
+			for (final ImportResourcesIndex.IndexedResource resource : index
+				.getClassResources(className))
+			{
+				merged.addResource(className, resource.getResourceType(),
+					resource.getResourceName());
+			}
+		}
+		try
+		{
+			final FileObject file = processingEnv.getFiler()
+				.createResource(StandardLocation.CLASS_OUTPUT, "", ImportResourcesIndex.LOCATION);
+			try (Writer writer = new OutputStreamWriter(file.openOutputStream(),
+				StandardCharsets.UTF_8))
+			{
+				merged.write(writer);
+			}
+		}
+		catch (final IOException e)
+		{
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+				"Failed to write " + ImportResourcesIndex.LOCATION + ": " + e.getMessage());
+		}
+	}
+
+}
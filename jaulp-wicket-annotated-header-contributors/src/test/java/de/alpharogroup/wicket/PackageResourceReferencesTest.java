@@ -0,0 +1,218 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.wicket.markup.head.CssReferenceHeaderItem;
+import org.apache.wicket.markup.head.HeaderItem;
+import org.apache.wicket.markup.head.JavaScriptReferenceHeaderItem;
+import org.apache.wicket.request.resource.PackageResourceReference;
+import org.apache.wicket.request.resource.ResourceReference;
+import org.testng.AssertJUnit;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import de.alpharogroup.wicket.base.enums.ResourceReferenceType;
+
+/**
+ * Test for the resolution cache of the class {@link PackageResourceReferences}.
+ */
+public class PackageResourceReferencesTest
+{
+
+	interface Marked
+	{
+	}
+
+	interface Sortable
+	{
+	}
+
+	static class Base implements Marked
+	{
+	}
+
+	static class Sub extends Base implements Sortable
+	{
+	}
+
+	static class Plain
+	{
+	}
+
+	/**
+	 * A set that runs the given action on its first iteration, like a change of the package
+	 * resource reference map from another thread during the resolution.
+	 */
+	static class InterruptingSet extends LinkedHashSet<PackageResourceReferenceWrapper>
+	{
+		private static final long serialVersionUID = 1L;
+
+		private Runnable action;
+
+		InterruptingSet(final Set<PackageResourceReferenceWrapper> packageResourceReferences,
+			final Runnable action)
+		{
+			super(packageResourceReferences);
+			this.action = action;
+		}
+
+		@Override
+		public Iterator<PackageResourceReferenceWrapper> iterator()
+		{
+			if (action != null)
+			{
+				final Runnable current = action;
+				action = null;
+				current.run();
+			}
+			return super.iterator();
+		}
+	}
+
+	private PackageResourceReferences references;
+
+	private static Set<PackageResourceReferenceWrapper> newReferences(final Class<?> scope,
+		final String... names)
+	{
+		final Set<PackageResourceReferenceWrapper> packageResourceReferences = new LinkedHashSet<>();
+		for (final String name : names)
+		{
+			packageResourceReferences.add(new PackageResourceReferenceWrapper(
+				new PackageResourceReference(scope, name), name.endsWith(".css")
+					? ResourceReferenceType.CSS : ResourceReferenceType.JS));
+		}
+		return packageResourceReferences;
+	}
+
+	private static List<String> names(final Set<PackageResourceReferenceWrapper> resolved)
+	{
+		final List<String> names = new ArrayList<>();
+		for (final PackageResourceReferenceWrapper wrapper : resolved)
+		{
+			names.add(wrapper.getPackageResourceReference().getName());
+		}
+		return names;
+	}
+
+	private void put(final Class<?> scope, final String... names)
+	{
+		references.getPackageResourceReferenceMap().put(scope, newReferences(scope, names));
+		references.clearResolvedPackageResourceReferences();
+	}
+
+	@BeforeMethod
+	public void setUp()
+	{
+		references = new PackageResourceReferences();
+		put(Marked.class, "marked.js");
+		put(Base.class, "base.js", "base.css");
+		put(Sortable.class, "sortable.js");
+		put(Sub.class, "sub.js");
+	}
+
+	@Test
+	public void testHeaderItemsAreInTheScopeOfTheDeclaringClass()
+	{
+		final List<HeaderItem> items = references.getHeaderItems(Sub.class);
+		final List<Class<?>> scopes = new ArrayList<>();
+		for (final HeaderItem item : items)
+		{
+			final ResourceReference reference = item instanceof JavaScriptReferenceHeaderItem
+				? ((JavaScriptReferenceHeaderItem)item).getReference()
+				: ((CssReferenceHeaderItem)item).getReference();
+			scopes.add(reference.getScope());
+		}
+		AssertJUnit.assertEquals(
+			Arrays.<Class<?>> asList(Marked.class, Base.class, Base.class, Sortable.class, Sub.class),
+			scopes);
+		AssertJUnit.assertEquals(references.getHeaderItems(Base.class), items.subList(0, 3));
+		AssertJUnit.assertSame(items, references.getHeaderItems(Sub.class));
+		AssertJUnit.assertTrue(references.isAnnotatedHeaderItem(items.get(0)));
+	}
+
+	@Test
+	public void testHierarchyIsResolvedFromTheTopSuperclass()
+	{
+		AssertJUnit.assertEquals("[marked.js, base.js, base.css, sortable.js, sub.js]",
+			names(references.getPackageResourceReference(Sub.class)).toString());
+		AssertJUnit.assertEquals("[marked.js, base.js, base.css]",
+			names(references.getPackageResourceReference(Base.class)).toString());
+		AssertJUnit.assertEquals("[sub.js]",
+			names(references.getPackageResourceReferenceMap().get(Sub.class)).toString());
+	}
+
+	@Test
+	public void testResolutionDuringChangeIsNotCached()
+	{
+		final Set<PackageResourceReferenceWrapper> sortable = references
+			.getPackageResourceReferenceMap().get(Sortable.class);
+		references.getPackageResourceReferenceMap().put(Sortable.class,
+			new InterruptingSet(sortable, new Runnable()
+			{
+				@Override
+				public void run()
+				{
+					references.clearResolvedPackageResourceReferences();
+				}
+			}));
+		final Set<PackageResourceReferenceWrapper> resolved = references
+			.getPackageResourceReference(Sub.class);
+		AssertJUnit.assertEquals(5, resolved.size());
+		final Set<PackageResourceReferenceWrapper> again = references
+			.getPackageResourceReference(Sub.class);
+		AssertJUnit.assertNotSame(resolved, again);
+		AssertJUnit.assertSame(again, references.getPackageResourceReference(Sub.class));
+	}
+
+	@Test
+	public void testResolutionIsCachedUntilTheMapChanges()
+	{
+		final Set<PackageResourceReferenceWrapper> resolved = references
+			.getPackageResourceReference(Sub.class);
+		AssertJUnit.assertSame(resolved, references.getPackageResourceReference(Sub.class));
+		put(Plain.class, "plain.js");
+		final Set<PackageResourceReferenceWrapper> again = references
+			.getPackageResourceReference(Sub.class);
+		AssertJUnit.assertNotSame(resolved, again);
+		AssertJUnit.assertEquals(resolved, again);
+	}
+
+	@Test
+	public void testUnannotatedClassResolvesToEmptySet()
+	{
+		final Set<PackageResourceReferenceWrapper> resolved = references
+			.getPackageResourceReference(Object.class);
+		AssertJUnit.assertNotNull(resolved);
+		AssertJUnit.assertTrue(resolved.isEmpty());
+		AssertJUnit.assertSame(Collections.emptySet(), resolved);
+		AssertJUnit.assertTrue(references.getHeaderItems(Object.class).isEmpty());
+	}
+
+	@Test(expectedExceptions = UnsupportedOperationException.class)
+	public void testResolutionIsUnmodifiable()
+	{
+		references.getPackageResourceReference(Sub.class).clear();
+	}
+
+}
@@ -0,0 +1,258 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.bundle;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.wicket.markup.head.CssHeaderItem;
+import org.apache.wicket.markup.head.CssReferenceHeaderItem;
+import org.apache.wicket.markup.head.HeaderItem;
+import org.apache.wicket.markup.head.IHeaderResponse;
+import org.apache.wicket.markup.head.JavaScriptHeaderItem;
+import org.apache.wicket.markup.head.JavaScriptReferenceHeaderItem;
+import org.apache.wicket.request.Response;
+import org.apache.wicket.request.resource.CssResourceReference;
+import org.apache.wicket.request.resource.JavaScriptResourceReference;
+import org.apache.wicket.request.resource.PackageResourceReference;
+import org.testng.AssertJUnit;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import de.alpharogroup.wicket.PackageResourceReferenceWrapper;
+import de.alpharogroup.wicket.PackageResourceReferences;
+import de.alpharogroup.wicket.base.enums.ResourceReferenceType;
+import de.alpharogroup.wicket.bundle.PackageResourceBundlesTest.KeyBundles;
+
+/**
+ * Test for the classes {@link BundlingHeaderResponse} and
+ * {@link BundledResourceFilteringHeaderResponse}.
+ */
+public class BundlingHeaderResponseTest
+{
+
+	static class First
+	{
+	}
+
+	static class Second
+	{
+	}
+
+	static class Single
+	{
+	}
+
+	/**
+	 * A header response that records the rendered header items.
+	 */
+	static class RecordingHeaderResponse implements IHeaderResponse
+	{
+		final List<HeaderItem> rendered = new ArrayList<>();
+
+		private boolean closed;
+
+		@Override
+		public void close()
+		{
+			closed = true;
+		}
+
+		@Override
+		public Response getResponse()
+		{
+			return null;
+		}
+
+		@Override
+		public boolean isClosed()
+		{
+			return closed;
+		}
+
+		@Override
+		public void markRendered(final Object object)
+		{
+		}
+
+		@Override
+		public void render(final HeaderItem item)
+		{
+			rendered.add(item);
+		}
+
+		@Override
+		public boolean wasRendered(final Object object)
+		{
+			return false;
+		}
+	}
+
+	private final KeyBundles bundles = new KeyBundles(10);
+
+	private final RecordingHeaderResponse real = new RecordingHeaderResponse();
+
+	private static void put(final Class<?> scope, final String... names)
+	{
+		final Set<PackageResourceReferenceWrapper> references = new LinkedHashSet<>();
+		for (final String name : names)
+		{
+			references.add(new PackageResourceReferenceWrapper(
+				new PackageResourceReference(scope, name), name.endsWith(".css")
+					? ResourceReferenceType.CSS : ResourceReferenceType.JS));
+		}
+		PackageResourceReferences.getInstance().getPackageResourceReferenceMap().put(scope,
+			references);
+	}
+
+	private static HeaderItem item(final Class<?> scope, final int index)
+	{
+		return PackageResourceReferences.getInstance().getHeaderItems(scope).get(index);
+	}
+
+	private void assertBundle(final HeaderItem item, final ResourceReferenceType type)
+	{
+		if (type == ResourceReferenceType.JS)
+		{
+			AssertJUnit.assertSame(bundles.getJsReference(),
+				((JavaScriptReferenceHeaderItem)item).getReference());
+		}
+		else
+		{
+			AssertJUnit.assertSame(bundles.getCssReference(),
+				((CssReferenceHeaderItem)item).getReference());
+		}
+	}
+
+	@BeforeMethod
+	public void setUp()
+	{
+		put(First.class, "first.js", "first.css");
+		put(Second.class, "second.js", "second.css");
+		put(Single.class, "single.js");
+		PackageResourceReferences.getInstance().clearResolvedPackageResourceReferences();
+	}
+
+	@AfterMethod
+	public void tearDown()
+	{
+		for (final Class<?> scope : Arrays.asList(First.class, Second.class, Single.class))
+		{
+			PackageResourceReferences.getInstance().getPackageResourceReferenceMap().remove(scope);
+		}
+		PackageResourceReferences.getInstance().clearResolvedPackageResourceReferences();
+	}
+
+	@Test
+	public void testAjaxSkipsBundledResources()
+	{
+		final Set<String> bundled = new HashSet<>();
+		bundled.add(bundles.getMember(new PackageResourceReference(First.class, "first.js")));
+		bundled.add(bundles.getMember(new PackageResourceReference(Second.class, "second.js")));
+		final KeyBundles pageBundles = new KeyBundles(10)
+		{
+			@Override
+			public Set<String> getBundledMembers()
+			{
+				return bundled;
+			}
+		};
+		final HeaderItem other = JavaScriptHeaderItem
+			.forReference(new JavaScriptResourceReference(First.class, "first.js"));
+		final IHeaderResponse response = new BundledResourceFilteringHeaderResponse(real,
+			pageBundles);
+		response.render(item(First.class, 0));
+		response.render(item(First.class, 1));
+		response.render(other);
+		response.render(item(Second.class, 0));
+		response.render(item(Single.class, 0));
+		AssertJUnit.assertEquals(
+			Arrays.asList(item(First.class, 1), other, item(Single.class, 0)), real.rendered);
+	}
+
+	@Test
+	public void testBundlesAreRenderedAtTheFirstResourceOfTheirType()
+	{
+		final HeaderItem otherJs = JavaScriptHeaderItem
+			.forReference(new JavaScriptResourceReference(Single.class, "other.js"));
+		final HeaderItem otherCss = CssHeaderItem
+			.forReference(new CssResourceReference(Single.class, "other.css"));
+		final IHeaderResponse response = new BundlingHeaderResponse(real, bundles);
+		response.render(otherJs);
+		response.render(item(First.class, 0));
+		response.render(item(First.class, 1));
+		response.render(item(Second.class, 0));
+		response.render(item(Second.class, 1));
+		response.render(otherCss);
+		AssertJUnit.assertTrue(real.rendered.isEmpty());
+		response.close();
+		AssertJUnit.assertEquals(4, real.rendered.size());
+		AssertJUnit.assertSame(otherJs, real.rendered.get(0));
+		assertBundle(real.rendered.get(1), ResourceReferenceType.JS);
+		assertBundle(real.rendered.get(2), ResourceReferenceType.CSS);
+		AssertJUnit.assertSame(otherCss, real.rendered.get(3));
+		AssertJUnit.assertTrue(real.isClosed());
+		AssertJUnit.assertEquals(2, bundles.built.size());
+		AssertJUnit.assertEquals(Arrays.asList(
+			bundles.getMember(new PackageResourceReference(First.class, "first.js")),
+			bundles.getMember(new PackageResourceReference(Second.class, "second.js"))),
+			bundles.built.get(0));
+	}
+
+	@Test
+	public void testResourcesAroundAnotherItemOfTheirTypeAreNotBundled()
+	{
+		final HeaderItem otherJs = JavaScriptHeaderItem
+			.forReference(new JavaScriptResourceReference(Single.class, "other.js"));
+		final HeaderItem otherCss = CssHeaderItem
+			.forReference(new CssResourceReference(Single.class, "other.css"));
+		final IHeaderResponse response = new BundlingHeaderResponse(real, bundles);
+		response.render(item(First.class, 0));
+		response.render(otherJs);
+		response.render(item(First.class, 1));
+		response.render(item(Second.class, 0));
+		response.render(item(Second.class, 1));
+		response.render(otherCss);
+		response.close();
+		AssertJUnit.assertEquals(5, real.rendered.size());
+		AssertJUnit.assertSame(item(First.class, 0), real.rendered.get(0));
+		AssertJUnit.assertSame(otherJs, real.rendered.get(1));
+		assertBundle(real.rendered.get(2), ResourceReferenceType.CSS);
+		AssertJUnit.assertSame(item(Second.class, 0), real.rendered.get(3));
+		AssertJUnit.assertSame(otherCss, real.rendered.get(4));
+		AssertJUnit.assertEquals(1, bundles.built.size());
+	}
+
+	@Test
+	public void testSingleResourceIsNotBundled()
+	{
+		final IHeaderResponse response = new BundlingHeaderResponse(real, bundles);
+		response.render(item(Single.class, 0));
+		response.render(item(First.class, 1));
+		response.render(item(Second.class, 1));
+		response.close();
+		AssertJUnit.assertEquals(2, real.rendered.size());
+		AssertJUnit.assertSame(item(Single.class, 0), real.rendered.get(0));
+		assertBundle(real.rendered.get(1), ResourceReferenceType.CSS);
+		AssertJUnit.assertEquals(1, bundles.built.size());
+	}
+
+}
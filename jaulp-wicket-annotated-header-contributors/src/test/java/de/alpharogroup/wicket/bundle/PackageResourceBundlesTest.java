@@ -0,0 +1,179 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.bundle;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.wicket.request.resource.PackageResourceReference;
+import org.apache.wicket.request.resource.ResourceReference;
+import org.testng.AssertJUnit;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import de.alpharogroup.wicket.PackageResourceReferenceWrapper;
+import de.alpharogroup.wicket.PackageResourceReferences;
+import de.alpharogroup.wicket.base.enums.ResourceReferenceType;
+
+/**
+ * Test for the bundle cache of the class {@link PackageResourceBundles}.
+ */
+public class PackageResourceBundlesTest
+{
+
+	/**
+	 * Bundles that concatenate the keys of their package resources instead of their content.
+	 */
+	static class KeyBundles extends PackageResourceBundles
+	{
+		final List<List<String>> built = new ArrayList<>();
+
+		KeyBundles(final int maxBundles)
+		{
+			super(maxBundles);
+		}
+
+		@Override
+		protected PackageResourceBundle newBundle(final ResourceReferenceType type,
+			final List<ResourceReference> references)
+		{
+			final List<String> members = new ArrayList<>();
+			for (final ResourceReference reference : references)
+			{
+				members.add(getMember(reference));
+			}
+			built.add(members);
+			final String content = members.toString();
+			return new PackageResourceBundle(content.getBytes(StandardCharsets.UTF_8), content);
+		}
+	}
+
+	private static String member(final String name)
+	{
+		return PackageResourceBundlesTest.class.getName() + "/" + name;
+	}
+
+	private static List<String> members(final String... names)
+	{
+		final List<String> members = new ArrayList<>();
+		for (final String name : names)
+		{
+			members.add(member(name));
+		}
+		return members;
+	}
+
+	@BeforeMethod
+	public void setUp()
+	{
+		final Set<PackageResourceReferenceWrapper> references = new LinkedHashSet<>();
+		for (final String name : Arrays.asList("a.js", "b.js", "c.js", "d.js", "e.css"))
+		{
+			references.add(new PackageResourceReferenceWrapper(
+				new PackageResourceReference(PackageResourceBundlesTest.class, name),
+				name.endsWith(".css") ? ResourceReferenceType.CSS : ResourceReferenceType.JS));
+		}
+		PackageResourceReferences.getInstance().getPackageResourceReferenceMap()
+			.put(PackageResourceBundlesTest.class, references);
+		PackageResourceReferences.getInstance().clearResolvedPackageResourceReferences();
+	}
+
+	@AfterMethod
+	public void tearDown()
+	{
+		PackageResourceReferences.getInstance().getPackageResourceReferenceMap()
+			.remove(PackageResourceBundlesTest.class);
+		PackageResourceReferences.getInstance().clearResolvedPackageResourceReferences();
+	}
+
+	@Test
+	public void testBundleIsCached()
+	{
+		final KeyBundles bundles = new KeyBundles(10);
+		final List<String> members = members("a.js", "b.js");
+		final PackageResourceBundle bundle = bundles.getBundle(ResourceReferenceType.JS, members);
+		AssertJUnit.assertNotNull(bundle);
+		AssertJUnit.assertSame(bundle, bundles.getBundle(ResourceReferenceType.JS, members));
+		AssertJUnit.assertEquals(1, bundles.built.size());
+	}
+
+	@Test
+	public void testBundleIsServedWithoutHeaderItem()
+	{
+		// another node or a restarted application serves the bundle of a rendered header item
+		final KeyBundles rendering = new KeyBundles(10);
+		rendering.newHeaderItem(ResourceReferenceType.JS,
+			Arrays.asList(new PackageResourceReference(PackageResourceBundlesTest.class, "a.js"),
+				new PackageResourceReference(PackageResourceBundlesTest.class, "b.js")));
+		final KeyBundles serving = new KeyBundles(10);
+		final PackageResourceBundle bundle = serving.getBundle(ResourceReferenceType.JS,
+			members("a.js", "b.js"));
+		AssertJUnit.assertNotNull(bundle);
+		AssertJUnit.assertEquals(rendering.getBundle(ResourceReferenceType.JS,
+			members("a.js", "b.js")).getContentHash(), bundle.getContentHash());
+		AssertJUnit.assertEquals(1, serving.built.size());
+	}
+
+	@Test
+	public void testDuplicateMembersAreRejected()
+	{
+		final KeyBundles bundles = new KeyBundles(10);
+		AssertJUnit.assertNull(
+			bundles.getBundle(ResourceReferenceType.JS, members("a.js", "b.js", "a.js")));
+		AssertJUnit.assertNull(bundles.getBundle(ResourceReferenceType.JS, members()));
+		AssertJUnit.assertTrue(bundles.built.isEmpty());
+	}
+
+	@Test
+	public void testLeastRecentlyUsedBundleIsEvicted()
+	{
+		final KeyBundles bundles = new KeyBundles(2);
+		final List<String> ab = members("a.js", "b.js");
+		final List<String> bc = members("b.js", "c.js");
+		final PackageResourceBundle first = bundles.getBundle(ResourceReferenceType.JS, ab);
+		final PackageResourceBundle second = bundles.getBundle(ResourceReferenceType.JS, bc);
+		AssertJUnit.assertSame(first, bundles.getBundle(ResourceReferenceType.JS, ab));
+		bundles.getBundle(ResourceReferenceType.JS, members("c.js", "d.js"));
+		AssertJUnit.assertSame(first, bundles.getBundle(ResourceReferenceType.JS, ab));
+		AssertJUnit.assertNotSame(second, bundles.getBundle(ResourceReferenceType.JS, bc));
+		AssertJUnit.assertEquals(4, bundles.built.size());
+	}
+
+	@Test
+	public void testUnannotatedMembersAreRejected()
+	{
+		final KeyBundles bundles = new KeyBundles(10);
+		// not annotated
+		AssertJUnit.assertNull(
+			bundles.getBundle(ResourceReferenceType.JS, members("a.js", "unknown.js")));
+		AssertJUnit.assertNull(bundles.getBundle(ResourceReferenceType.JS,
+			Arrays.asList(member("a.js"), "java.lang.Object/b.js")));
+		AssertJUnit.assertNull(
+			bundles.getBundle(ResourceReferenceType.JS, Arrays.asList(member("a.js"), "b.js")));
+		// annotated with another resource type
+		AssertJUnit.assertNull(
+			bundles.getBundle(ResourceReferenceType.JS, members("a.js", "e.css")));
+		AssertJUnit.assertNull(
+			bundles.getBundle(ResourceReferenceType.CSS, members("a.js", "b.js")));
+		AssertJUnit.assertTrue(bundles.built.isEmpty());
+	}
+
+}
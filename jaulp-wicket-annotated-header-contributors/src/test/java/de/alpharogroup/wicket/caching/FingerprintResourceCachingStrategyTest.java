@@ -0,0 +1,102 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.caching;
+
+import java.util.Collection;
+
+import org.apache.wicket.request.resource.PackageResourceReference;
+import org.apache.wicket.request.resource.caching.IStaticCacheableResource;
+import org.apache.wicket.util.tester.WicketTester;
+import org.testng.AssertJUnit;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Test for the class {@link FingerprintResourceCachingStrategy}.
+ */
+public class FingerprintResourceCachingStrategyTest
+{
+
+	private PackageResourceReference reference;
+
+	private FingerprintResourceCachingStrategy strategy;
+
+	private WicketTester tester;
+
+	private String version;
+
+	@BeforeMethod
+	public void setUp()
+	{
+		tester = new WicketTester();
+		strategy = new FingerprintResourceCachingStrategy();
+		tester.getApplication().getResourceSettings().setCachingStrategy(strategy);
+		reference = new PackageResourceReference(FingerprintResourceCachingStrategyTest.class,
+			"fingerprint.js");
+		version = strategy.getResourceVersion()
+			.getVersion((IStaticCacheableResource)reference.getResource());
+	}
+
+	@AfterMethod
+	public void tearDown()
+	{
+		tester.destroy();
+	}
+
+	private String urlFor()
+	{
+		return tester.getRequestCycle().urlFor(reference, null).toString();
+	}
+
+	@Test
+	public void testCurrentHashIsImmutable()
+	{
+		tester.executeUrl(urlFor());
+		AssertJUnit.assertEquals(200, tester.getLastResponse().getStatus());
+		AssertJUnit.assertTrue(tester.getLastResponseAsString().contains("fingerprint"));
+		final Collection<String> cacheControl = tester.getLastResponse()
+			.getHeaders(FingerprintResourceCachingStrategy.CACHE_CONTROL);
+		AssertJUnit.assertEquals(1, cacheControl.size());
+		AssertJUnit.assertEquals(FingerprintResourceCachingStrategy.IMMUTABLE_CACHE_CONTROL,
+			cacheControl.iterator().next());
+		AssertJUnit.assertEquals("public, max-age=31536000, immutable",
+			FingerprintResourceCachingStrategy.IMMUTABLE_CACHE_CONTROL);
+	}
+
+	@Test
+	public void testFingerprintedUrl()
+	{
+		AssertJUnit.assertNotNull(version);
+		AssertJUnit.assertTrue(urlFor().endsWith("/fingerprint-ver-" + version + ".js"));
+	}
+
+	@Test
+	public void testStaleHashIsNotCached()
+	{
+		final String stale = (version.charAt(0) == '0' ? '1' : '0') + version.substring(1);
+		tester.executeUrl(urlFor().replace(version, stale));
+		AssertJUnit.assertEquals(200, tester.getLastResponse().getStatus());
+		AssertJUnit.assertTrue(tester.getLastResponseAsString().contains("fingerprint"));
+		final String cacheControl = tester.getLastResponse()
+			.getHeader(FingerprintResourceCachingStrategy.CACHE_CONTROL);
+		AssertJUnit.assertTrue(cacheControl.startsWith("no-cache"));
+		AssertJUnit.assertFalse(tester.getLastResponse()
+			.getHeaders(FingerprintResourceCachingStrategy.CACHE_CONTROL).toString()
+			.contains("immutable"));
+	}
+
+}
@@ -0,0 +1,187 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.header.contributors;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.wicket.MarkupContainer;
+import org.apache.wicket.markup.IMarkupResourceStreamProvider;
+import org.apache.wicket.markup.head.HeaderItem;
+import org.apache.wicket.markup.head.IHeaderResponse;
+import org.apache.wicket.markup.html.DecoratingHeaderResponse;
+import org.apache.wicket.markup.html.IHeaderResponseDecorator;
+import org.apache.wicket.markup.html.WebMarkupContainer;
+import org.apache.wicket.markup.html.WebPage;
+import org.apache.wicket.request.resource.PackageResourceReference;
+import org.apache.wicket.util.resource.IResourceStream;
+import org.apache.wicket.util.resource.StringResourceStream;
+import org.apache.wicket.util.tester.WicketTester;
+import org.testng.AssertJUnit;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import de.alpharogroup.wicket.PackageResourceReferenceWrapper;
+import de.alpharogroup.wicket.PackageResourceReferences;
+import de.alpharogroup.wicket.base.enums.ResourceReferenceType;
+
+/**
+ * Test for the class {@link HeaderResponseExtensions}.
+ */
+public class HeaderResponseExtensionsTest
+{
+
+	/**
+	 * A component that contributes the package resources of its class.
+	 */
+	static class HeadComponent extends WebMarkupContainer
+	{
+		private static final long serialVersionUID = 1L;
+
+		HeadComponent(final String id)
+		{
+			super(id);
+		}
+
+		@Override
+		public void renderHead(final IHeaderResponse response)
+		{
+			super.renderHead(response);
+			HeaderResponseExtensions.renderHeaderResponse(response, HeadComponent.class);
+		}
+	}
+
+	/**
+	 * A page with two components of the same class.
+	 */
+	public static class HeadComponentsPage extends WebPage implements IMarkupResourceStreamProvider
+	{
+		private static final long serialVersionUID = 1L;
+
+		public HeadComponentsPage()
+		{
+			add(new HeadComponent("first"));
+			add(new HeadComponent("second"));
+		}
+
+		@Override
+		public IResourceStream getMarkupResourceStream(final MarkupContainer container,
+			final Class<?> containerClass)
+		{
+			return new StringResourceStream("<html><head></head><body>"
+				+ "<span wicket:id=\"first\"></span><span wicket:id=\"second\"></span>"
+				+ "</body></html>");
+		}
+	}
+
+	private final List<HeaderItem> rendered = new ArrayList<>();
+
+	private WicketTester tester;
+
+	private static int count(final String text, final String part)
+	{
+		int count = 0;
+		for (int i = text.indexOf(part); i >= 0; i = text.indexOf(part, i + 1))
+		{
+			count++;
+		}
+		return count;
+	}
+
+	private List<HeaderItem> render()
+	{
+		rendered.clear();
+		tester.startPage(HeadComponentsPage.class);
+		final List<HeaderItem> items = new ArrayList<>();
+		for (final HeaderItem item : rendered)
+		{
+			if (PackageResourceReferences.getInstance().isAnnotatedHeaderItem(item))
+			{
+				items.add(item);
+			}
+		}
+		return items;
+	}
+
+	@BeforeMethod
+	public void setUp()
+	{
+		final Set<PackageResourceReferenceWrapper> references = new LinkedHashSet<>();
+		references.add(new PackageResourceReferenceWrapper(
+			new PackageResourceReference(HeadComponent.class, "head.js"),
+			ResourceReferenceType.JS));
+		references.add(new PackageResourceReferenceWrapper(
+			new PackageResourceReference(HeadComponent.class, "head.css"),
+			ResourceReferenceType.CSS));
+		PackageResourceReferences.getInstance().getPackageResourceReferenceMap()
+			.put(HeadComponent.class, references);
+		PackageResourceReferences.getInstance().clearResolvedPackageResourceReferences();
+		tester = new WicketTester();
+		tester.getApplication().setHeaderResponseDecorator(new IHeaderResponseDecorator()
+		{
+			@Override
+			public IHeaderResponse decorate(final IHeaderResponse response)
+			{
+				return new DecoratingHeaderResponse(response)
+				{
+					@Override
+					public void render(final HeaderItem item)
+					{
+						rendered.add(item);
+						super.render(item);
+					}
+				};
+			}
+		});
+	}
+
+	@AfterMethod
+	public void tearDown()
+	{
+		tester.destroy();
+		PackageResourceReferences.getInstance().getPackageResourceReferenceMap()
+			.remove(HeadComponent.class);
+		PackageResourceReferences.getInstance().clearResolvedPackageResourceReferences();
+	}
+
+	@Test
+	public void testPrebuiltHeaderItemsAreSharedAndRenderedOnce()
+	{
+		final List<HeaderItem> first = render();
+		AssertJUnit.assertEquals(4, first.size());
+		AssertJUnit.assertSame(first.get(0), first.get(2));
+		AssertJUnit.assertSame(first.get(1), first.get(3));
+		final String markup = tester.getLastResponseAsString();
+		AssertJUnit.assertEquals(1, count(markup, "head.js"));
+		AssertJUnit.assertEquals(1, count(markup, "head.css"));
+
+		final List<HeaderItem> second = render();
+		AssertJUnit.assertEquals(first.size(), second.size());
+		for (int i = 0; i < first.size(); i++)
+		{
+			AssertJUnit.assertSame(first.get(i), second.get(i));
+		}
+		AssertJUnit.assertEquals(1, count(tester.getLastResponseAsString(), "head.js"));
+		AssertJUnit.assertEquals(1, count(tester.getLastResponseAsString(), "head.css"));
+		AssertJUnit.assertSame(
+			PackageResourceReferences.getInstance().getHeaderItems(HeadComponent.class).get(0),
+			first.get(0));
+	}
+
+}
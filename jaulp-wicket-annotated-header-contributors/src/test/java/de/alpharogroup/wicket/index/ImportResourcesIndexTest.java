@@ -0,0 +1,169 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.index;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.testng.AssertJUnit;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Test for the class {@link ImportResourcesIndex}.
+ */
+public class ImportResourcesIndexTest
+{
+
+	private static final String INDEX = "P\tde.example.menu\n"
+		+ "R\tde.example.menu.MenuPanel\tjs\tMenuPanel.js\n"
+		+ "R\tde.example.menu.MenuPanel\tcss\tMenuPanel.css\n";
+
+	private static final String PACKAGE = "de.example.menu";
+
+	private File directory;
+
+	private File newRoot(final String name, final boolean indexed) throws IOException
+	{
+		final File root = new File(directory, name);
+		new File(root, PACKAGE.replace('.', '/')).mkdirs();
+		if (indexed)
+		{
+			final File index = new File(root, ImportResourcesIndex.LOCATION);
+			index.getParentFile().mkdirs();
+			Files.write(index.toPath(), INDEX.getBytes(StandardCharsets.UTF_8));
+		}
+		return root;
+	}
+
+	private ClassLoader newClassLoader(final File... roots) throws IOException
+	{
+		final URL[] urls = new URL[roots.length];
+		for (int i = 0; i < roots.length; i++)
+		{
+			urls[i] = roots[i].toURI().toURL();
+		}
+		// no parent, so the test classes do not contain the package
+		return new URLClassLoader(urls, null);
+	}
+
+	private void delete(final File file)
+	{
+		final File[] children = file.listFiles();
+		if (children != null)
+		{
+			for (final File child : children)
+			{
+				delete(child);
+			}
+		}
+		file.delete();
+	}
+
+	@BeforeMethod
+	public void setUp() throws IOException
+	{
+		directory = Files.createTempDirectory("import-resources-index").toFile();
+	}
+
+	@AfterMethod
+	public void tearDown()
+	{
+		delete(directory);
+	}
+
+	@Test
+	public void testCovers() throws IOException
+	{
+		final ImportResourcesIndex index = new ImportResourcesIndex();
+		index.read(new StringReader(INDEX));
+		AssertJUnit.assertTrue(index.covers(PACKAGE));
+		AssertJUnit.assertTrue(index.covers("de.example"));
+		AssertJUnit.assertFalse(index.covers("de.example.menu.sub"));
+		AssertJUnit.assertFalse(index.covers("de.examples"));
+	}
+
+	@Test
+	public void testCoversAllIndexedRoots() throws IOException
+	{
+		final ClassLoader classLoader = newClassLoader(newRoot("a", true), newRoot("b", true));
+		final ImportResourcesIndex index = ImportResourcesIndex.load(classLoader);
+		AssertJUnit.assertTrue(index.covers(classLoader, PACKAGE));
+	}
+
+	@Test
+	public void testFallbackForRootWithoutIndex() throws IOException
+	{
+		final ClassLoader classLoader = newClassLoader(newRoot("a", true), newRoot("b", false));
+		final ImportResourcesIndex index = ImportResourcesIndex.load(classLoader);
+		AssertJUnit.assertTrue(index.covers(PACKAGE));
+		AssertJUnit.assertFalse(index.covers(classLoader, PACKAGE));
+	}
+
+	@Test
+	public void testLoadWithoutIndex() throws IOException
+	{
+		AssertJUnit.assertNull(ImportResourcesIndex.load(newClassLoader(newRoot("a", false))));
+	}
+
+	@Test
+	public void testMerge() throws IOException
+	{
+		final ImportResourcesIndex index = new ImportResourcesIndex();
+		index.read(new StringReader(INDEX));
+		index.read(new StringReader(
+			"P\tde.example.tabs\nR\tde.example.tabs.TabPanel\tjs\tTabPanel.js\n"));
+		AssertJUnit.assertEquals(Arrays.asList("de.example.menu", "de.example.tabs"),
+			Arrays.asList(index.getPackages().toArray()));
+		AssertJUnit.assertEquals(Collections.singleton("de.example.tabs.TabPanel"),
+			index.getResources("de.example.tabs").keySet());
+		AssertJUnit.assertEquals(2, index.getResources("de.example").size());
+	}
+
+	@Test
+	public void testRead() throws IOException
+	{
+		final ImportResourcesIndex index = new ImportResourcesIndex();
+		index.read(new StringReader(INDEX + "X\tunknown\n\nR\tincomplete\n"));
+		AssertJUnit.assertEquals(Collections.singleton("de.example.menu.MenuPanel"),
+			index.getClassNames());
+		AssertJUnit.assertEquals("MenuPanel.css",
+			index.getClassResources("de.example.menu.MenuPanel").get(1).getResourceName());
+		AssertJUnit.assertEquals("css",
+			index.getClassResources("de.example.menu.MenuPanel").get(1).getResourceType());
+		AssertJUnit.assertTrue(index.getClassResources("de.example.Unknown").isEmpty());
+	}
+
+	@Test
+	public void testWrite() throws IOException
+	{
+		final ImportResourcesIndex index = new ImportResourcesIndex();
+		index.read(new StringReader(INDEX));
+		final StringWriter writer = new StringWriter();
+		index.write(writer);
+		AssertJUnit.assertEquals(INDEX, writer.toString());
+	}
+
+}
@@ -0,0 +1,160 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.index;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+
+import org.testng.AssertJUnit;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Test for the class {@link ImportResourcesProcessor}.
+ */
+public class ImportResourcesProcessorTest
+{
+
+	private static final String ANNOTATED_MENU = "package de.example.menu;\n"
+		+ "import de.alpharogroup.io.annotations.ImportResource;\n"
+		+ "import de.alpharogroup.io.annotations.ImportResources;\n"
+		+ "@ImportResources(resources = {\n"
+		+ "	@ImportResource(resourceName = \"Menu.js\", resourceType = \"js\"),\n"
+		+ "	@ImportResource(resourceName = \"Menu.css\", resourceType = \"css\") })\n"
+		+ "public class Menu { public static class Item {} }\n";
+
+	private static final String PLAIN_MENU = "package de.example.menu;\n"
+		+ "public class Menu {}\n";
+
+	private static final String TABS = "package de.example.tabs;\n"
+		+ "@de.alpharogroup.io.annotations.ImportResources(resources = {\n"
+		+ "	@de.alpharogroup.io.annotations.ImportResource(resourceName = \"Tabs.js\", "
+		+ "resourceType = \"js\") })\n"
+		+ "public class Tabs {}\n";
+
+	private File output;
+
+	private void compile(final String className, final String source)
+	{
+		final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		final JavaFileObject file = new SimpleJavaFileObject(
+			URI.create("string:///" + className.replace('.', '/') + ".java"),
+			JavaFileObject.Kind.SOURCE)
+		{
+			@Override
+			public CharSequence getCharContent(final boolean ignoreEncodingErrors)
+			{
+				return source;
+			}
+		};
+		final List<String> options = Arrays.asList("-proc:only", "-d", output.getPath(),
+			"-classpath", System.getProperty("java.class.path"));
+		final JavaCompiler.CompilationTask task = compiler.getTask(null, null, null, options,
+			null, Collections.singletonList(file));
+		task.setProcessors(Collections.singletonList(new ImportResourcesProcessor()));
+		AssertJUnit.assertTrue(task.call());
+	}
+
+	private void delete(final File file)
+	{
+		final File[] children = file.listFiles();
+		if (children != null)
+		{
+			for (final File child : children)
+			{
+				delete(child);
+			}
+		}
+		file.delete();
+	}
+
+	private ImportResourcesIndex readIndex() throws IOException
+	{
+		final ImportResourcesIndex index = new ImportResourcesIndex();
+		index.read(new StringReader(new String(
+			Files.readAllBytes(new File(output, ImportResourcesIndex.LOCATION).toPath()),
+			StandardCharsets.UTF_8)));
+		return index;
+	}
+
+	@BeforeMethod
+	public void setUp() throws IOException
+	{
+		output = Files.createTempDirectory("import-resources-processor").toFile();
+	}
+
+	@AfterMethod
+	public void tearDown()
+	{
+		delete(output);
+	}
+
+	@Test
+	public void testIncrementalCompilation() throws IOException
+	{
+		compile("de.example.menu.Menu", ANNOTATED_MENU);
+		compile("de.example.tabs.Tabs", TABS);
+		ImportResourcesIndex index = readIndex();
+		AssertJUnit.assertEquals(Arrays.asList("de.example.menu", "de.example.tabs"),
+			new ArrayList<>(index.getPackages()));
+		AssertJUnit.assertEquals(2, index.getClassNames().size());
+		compile("de.example.menu.Menu", PLAIN_MENU);
+		index = readIndex();
+		AssertJUnit.assertEquals(Collections.singleton("de.example.tabs.Tabs"),
+			index.getClassNames());
+		AssertJUnit.assertTrue(index.covers("de.example.menu"));
+	}
+
+	@Test
+	public void testIndex() throws IOException
+	{
+		compile("de.example.menu.Menu", ANNOTATED_MENU);
+		final ImportResourcesIndex index = readIndex();
+		AssertJUnit.assertEquals(Collections.singleton("de.example.menu"), index.getPackages());
+		AssertJUnit.assertEquals(Collections.singleton("de.example.menu.Menu"),
+			index.getClassNames());
+		final List<ImportResourcesIndex.IndexedResource> resources = index
+			.getClassResources("de.example.menu.Menu");
+		AssertJUnit.assertEquals(2, resources.size());
+		AssertJUnit.assertEquals("Menu.js", resources.get(0).getResourceName());
+		AssertJUnit.assertEquals("js", resources.get(0).getResourceType());
+		AssertJUnit.assertEquals("Menu.css", resources.get(1).getResourceName());
+	}
+
+	@Test
+	public void testPackageWithoutAnnotatedClasses() throws IOException
+	{
+		compile("de.example.menu.Menu", PLAIN_MENU);
+		final ImportResourcesIndex index = readIndex();
+		AssertJUnit.assertTrue(index.getClassNames().isEmpty());
+		AssertJUnit.assertTrue(index.covers("de.example.menu"));
+	}
+
+}
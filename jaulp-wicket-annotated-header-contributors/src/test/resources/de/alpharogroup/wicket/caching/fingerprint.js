@@ -0,0 +1 @@
+var fingerprint = true;
@@ -33,6 +33,7 @@ import org.apache.wicket.util.time.Time;
 import org.joda.time.DateTime;
 
 import de.alpharogroup.wicket.base.application.plugins.SecuritySettingsPlugin;
+import de.alpharogroup.wicket.base.request.mapper.RoutingIndexRequestMapper;
 import lombok.Getter;
 
 /**
@@ -75,6 +76,9 @@ public abstract class BaseWebApplication extends WebApplication
 	@Getter
 	private final WicketConfigurationPropertiesResolver configurationPropertiesResolver;
 
+	/** The routing index for the mounted pages. */
+	private RoutingIndexRequestMapper routingIndex;
+
 	/**
 	 * Initialization block.
 	 **/
@@ -104,6 +108,25 @@ public abstract class BaseWebApplication extends WebApplication
 		return BaseWebApplication.DEFAULT_HTTPS_PORT;
 	}
 
+	/**
+	 * Gets the routing index for the mounted pages. The routing index is created on the first call
+	 * and is added to the compound root request mapper like any other mounted request mapper, so a
+	 * root request mapper that decorates the compound root request mapper, for instance the
+	 * <code>HttpsMapper</code>, decorates the mounted pages as well. The mounted pages are
+	 * unmounted with {@link #unmount(String)} as usual.
+	 *
+	 * @return the routing index
+	 */
+	public RoutingIndexRequestMapper getRoutingIndex()
+	{
+		if (routingIndex == null)
+		{
+			routingIndex = newRoutingIndexRequestMapper();
+			getRootRequestMapperAsCompound().add(routingIndex);
+		}
+		return routingIndex;
+	}
+
 	/**
 	 * Gets the elapsed duration since this application was initialized.
 	 *
@@ -133,6 +156,20 @@ public abstract class BaseWebApplication extends WebApplication
 		onApplicationConfigurations();
 	}
 
+	/**
+	 * Checks if the pages that are mounted with
+	 * {@link #mountPage(String, Class, IPageParametersEncoder)} are mounted in the routing index.
+	 * The routing index finds the mounted page for a request in a trie of the mount paths, this
+	 * pays off for applications with many mounted pages. Overwrite this method to enable the
+	 * routing index.
+	 *
+	 * @return true, if the routing index is enabled
+	 */
+	protected boolean isRoutingIndexEnabled()
+	{
+		return false;
+	}
+
 	/**
 	 * Checks if is on development mode.
 	 *
@@ -159,7 +196,15 @@ public abstract class BaseWebApplication extends WebApplication
 	public <T extends Page> void mountPage(final String path, final Class<T> pageClass,
 		final IPageParametersEncoder pageParametersEncoder)
 	{
-		mount(new MountedMapper(path, pageClass, pageParametersEncoder));
+		final MountedMapper mapper = new MountedMapper(path, pageClass, pageParametersEncoder);
+		if (isRoutingIndexEnabled())
+		{
+			getRoutingIndex().mount(path, mapper);
+		}
+		else
+		{
+			mount(mapper);
+		}
 	}
 
 	/**
@@ -195,6 +240,18 @@ public abstract class BaseWebApplication extends WebApplication
 		return new DiskDataStore(this.getName(), fileStoreFolder, maxSizePerSession);
 	}
 
+	/**
+	 * Factory method for create the new {@link RoutingIndexRequestMapper}. This method is invoked
+	 * on the first call of {@link #getRoutingIndex()} and can be overridden so users can provide
+	 * their own version of a new {@link RoutingIndexRequestMapper}.
+	 *
+	 * @return the new {@link RoutingIndexRequestMapper}
+	 */
+	protected RoutingIndexRequestMapper newRoutingIndexRequestMapper()
+	{
+		return new RoutingIndexRequestMapper();
+	}
+
 	/**
 	 * Factory method to create a new {@link WicketConfigurationPropertiesResolver}.
 	 *
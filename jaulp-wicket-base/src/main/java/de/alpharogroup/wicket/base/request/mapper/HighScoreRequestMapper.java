@@ -15,18 +15,22 @@
  */
 package de.alpharogroup.wicket.base.request.mapper;
 
-import java.util.Collection;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
-import java.util.Set;
-import java.util.TreeSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 
+import org.apache.wicket.core.request.handler.IPageClassRequestHandler;
 import org.apache.wicket.request.IRequestHandler;
 import org.apache.wicket.request.IRequestMapper;
 import org.apache.wicket.request.Request;
 import org.apache.wicket.request.Url;
+import org.apache.wicket.request.Url.QueryParameter;
+import org.apache.wicket.request.handler.resource.ResourceReferenceRequestHandler;
 import org.apache.wicket.request.mapper.CompoundRequestMapper;
+import org.apache.wicket.request.mapper.parameter.PageParameters;
 import org.apache.wicket.util.lang.Args;
 
 /**
@@ -50,78 +54,408 @@ import org.apache.wicket.util.lang.Args;
  * ...
  * }
  * </pre>
+ * 
+ * A request is mapped from the request mappers in descending order of their compatibility score.
+ * Request mappers with the same score keep their order, that is the last registered request mapper
+ * comes first. The order is computed in a scratch array of the current thread, so no objects are
+ * created for mapping a request.
+ * 
+ * Optionally the decisions can be cached with {@link #setDecisionCacheSize(int)}. The cache maps
+ * the shape of the url, that is the segments and the names of the query parameters, to the score
+ * and to the request mapper that mapped the last request with this shape. The page info parameter
+ * of wicket like <code>?3-1.IBehaviorListener.0-form</code> is part of the shape without its
+ * name, so all versions of a page share one decision. The cache is split in segments with their
+ * own lock, so concurrent requests rarely wait for each other. A request with a known shape is
+ * mapped from this request mapper without computing the scores, if it cannot map the request all
+ * request mappers are asked again. The cache is cleared if a request mapper is registered or
+ * unregistered. Note that request mappers which decide by the values of the query parameters or by
+ * the headers of the request should not be used with the decision cache.
+ * 
+ * The urls of request handlers can be cached in the same way with
+ * {@link #setHandlerCacheEnabled(boolean)}. The handler cache maps the class of the request
+ * handler, the class of its page or its resource reference and for pages the shape of the page
+ * parameters, that is the sorted names of the named parameters and the number of the indexed
+ * parameters, to the request mapper that mapped the last request handler with these keys, so the
+ * url of a bookmarkable link is usually created with a single request mapper. The shape of the
+ * page parameters is part of the key, because a page can be mounted more than once, for instance
+ * on <code>/a/${id}</code> and on <code>/a</code>. The request mapper of <code>/a</code> maps the
+ * page with an id too, but only to <code>/a?id=1</code>, so the request mapper that mapped the
+ * page without an id must not be used for the page with an id. Other request handlers are not
+ * cached, because their class alone does not tell which request mapper maps them. If the cached
+ * request mapper cannot map the request handler all request mappers are asked again. Note that
+ * request mappers which decide by the values of the page parameters should not be used with the
+ * handler cache.
+ * 
+ * The calls of the request mappers can be recorded in the {@link RequestMapperMetrics} that are
+ * returned from {@link #getMetrics()}, the metrics are not recorded until they are enabled.
  */
 public class HighScoreRequestMapper extends CompoundRequestMapper
 {
 
+	/**
+	 * The cached decision for an url shape.
+	 */
+	private static final class Decision
+	{
+
+		/** The index of the request mapper that mapped the last request or -1 if unknown. */
+		private volatile int index = -1;
+
+		/** The compatibility score. */
+		private volatile int score;
+
+		/** The flag if the compatibility score is known. */
+		private volatile boolean scored;
+
+	}
+
+	/**
+	 * The key of the handler cache.
+	 */
+	private static final class HandlerKey
+	{
+
+		/** The class of the request handler. */
+		private final Class<?> handlerClass;
+
+		/** The shape of the page parameters or an empty string for resources. */
+		private final String parameters;
+
+		/** The class of the page or the resource reference of the request handler. */
+		private final Object target;
+
+		/**
+		 * Instantiates a new {@link HandlerKey}.
+		 *
+		 * @param handler
+		 *            the request handler
+		 * @param target
+		 *            the class of the page or the resource reference of the request handler
+		 * @param parameters
+		 *            the shape of the page parameters
+		 */
+		private HandlerKey(final IRequestHandler handler, final Object target,
+			final String parameters)
+		{
+			this.handlerClass = handler.getClass();
+			this.target = target;
+			this.parameters = parameters;
+		}
+
+		/**
+		 * Creates the shape of the given page parameters, that is the sorted names of the named
+		 * parameters and the number of the indexed parameters.
+		 *
+		 * @param pageParameters
+		 *            the page parameters or null
+		 * @return the shape of the page parameters
+		 */
+		private static String newShape(final PageParameters pageParameters)
+		{
+			if (pageParameters == null)
+			{
+				return "";
+			}
+			final StringBuilder shape = new StringBuilder();
+			shape.append(pageParameters.getIndexedCount());
+			final String[] names = pageParameters.getNamedKeys().toArray(new String[0]);
+			Arrays.sort(names);
+			for (final String name : names)
+			{
+				shape.append('&').append(name);
+			}
+			return shape.toString();
+		}
+
+		/**
+		 * Creates the key of the given request handler.
+		 *
+		 * @param handler
+		 *            the request handler
+		 * @return the key or null if the request handler is not cached
+		 */
+		private static HandlerKey of(final IRequestHandler handler)
+		{
+			Object target = null;
+			String parameters = "";
+			if (handler instanceof IPageClassRequestHandler)
+			{
+				final IPageClassRequestHandler pageHandler = (IPageClassRequestHandler)handler;
+				target = pageHandler.getPageClass();
+				parameters = newShape(pageHandler.getPageParameters());
+			}
+			else if (handler instanceof ResourceReferenceRequestHandler)
+			{
+				target = ((ResourceReferenceRequestHandler)handler).getResourceReference();
+			}
+			return target != null ? new HandlerKey(handler, target, parameters) : null;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean equals(final Object obj)
+		{
+			if (this == obj)
+			{
+				return true;
+			}
+			if (!(obj instanceof HandlerKey))
+			{
+				return false;
+			}
+			final HandlerKey other = (HandlerKey)obj;
+			return handlerClass == other.handlerClass && target.equals(other.target)
+				&& parameters.equals(other.parameters);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public int hashCode()
+		{
+			return 31 * (31 * handlerClass.hashCode() + target.hashCode()) + parameters.hashCode();
+		}
+
+	}
+
+	/**
+	 * The snapshot of the request mappers with the caches that hold their indexes. The snapshot is
+	 * immutable and replaced as a whole, so a reader never sees the caches of other request
+	 * mappers.
+	 */
+	private static final class Snapshot
+	{
+
+		/** The decision cache or null if the decisions are not cached. */
+		private final LruCache<String, Decision> decisionCache;
+
+		/** The handler cache or null if the urls of the request handlers are not cached. */
+		private final Map<HandlerKey, Integer> handlerCache;
+
+		/** The request mappers that are iterated without an iterator. */
+		private final IRequestMapper[] mappers;
+
+		/**
+		 * Instantiates a new {@link Snapshot}.
+		 *
+		 * @param mappers
+		 *            the request mappers
+		 * @param decisionCache
+		 *            the decision cache or null
+		 * @param handlerCache
+		 *            the handler cache or null
+		 */
+		private Snapshot(final IRequestMapper[] mappers,
+			final LruCache<String, Decision> decisionCache,
+			final Map<HandlerKey, Integer> handlerCache)
+		{
+			this.mappers = mappers;
+			this.decisionCache = decisionCache;
+			this.handlerCache = handlerCache;
+		}
+
+	}
+
+	/**
+	 * The scratch arrays of a thread for ordering the request mappers by their score.
+	 */
+	private static final class Scratch
+	{
+
+		/** The flag if the scratch arrays are in use from a nested call. */
+		private boolean inUse;
+
+		/** The indexes of the request mappers in descending order of their score. */
+		private int[] order = new int[0];
+
+		/** The scores of the request mappers by their index. */
+		private int[] scores = new int[0];
+
+		/**
+		 * Ensures that the scratch arrays can hold the given number of request mappers.
+		 *
+		 * @param size
+		 *            the number of request mappers
+		 */
+		private void ensureCapacity(final int size)
+		{
+			if (scores.length < size)
+			{
+				scores = new int[size];
+				order = new int[size];
+			}
+		}
+
+	}
+
+	/** The number of segments of the decision cache. */
+	private static final int DECISION_CACHE_SEGMENTS = 16;
+
+	/** The shape of the page info parameter of wicket. */
+	private static final String PAGE_INFO_SHAPE = "{pageInfo}";
+
+	/**
+	 * Checks if the given query parameter is the page info parameter of wicket like
+	 * <code>3-1.IBehaviorListener.0-form</code>, whose name starts with the page id or the render
+	 * count and that has no value.
+	 *
+	 * @param parameter
+	 *            the query parameter
+	 * @return true if the given query parameter is the page info parameter
+	 */
+	private static boolean isPageInfo(final QueryParameter parameter)
+	{
+		final String name = parameter.getName();
+		final String value = parameter.getValue();
+		if (name.isEmpty() || ((value != null) && !value.isEmpty()))
+		{
+			return false;
+		}
+		final int start = name.charAt(0) == '-' ? 1 : 0;
+		return (start < name.length()) && Character.isDigit(name.charAt(start));
+	}
+
+	/** The maximum number of cached decisions, zero if the decisions are not cached. */
+	private int decisionCacheSize;
+
+	/** The flag if the urls of the request handlers are cached. */
+	private boolean handlerCacheEnabled;
+
+	/** The metrics of the request mappers, created on the first call of {@link #getMetrics()}. */
+	private volatile RequestMapperMetrics metrics;
+
 	/** The request mappers. */
-	private List<IRequestMapper> requestMappers = new CopyOnWriteArrayList<>();
+	private final List<IRequestMapper> requestMappers;
 
-	/** The comparator. */
-	private Comparator<RequestMapperBean> comparator;
+	/** The snapshot of the request mappers and their caches. */
+	private volatile Snapshot snapshot = new Snapshot(new IRequestMapper[0], null, null);
+
+	/** The scratch arrays of the threads. */
+	private final ThreadLocal<Scratch> scratch = new ThreadLocal<Scratch>()
+	{
+		@Override
+		protected Scratch initialValue()
+		{
+			return new Scratch();
+		}
+	};
 
 	/**
 	 * Instantiates a new {@link HighScoreRequestMapper}.
 	 */
 	public HighScoreRequestMapper()
 	{
+		this.requestMappers = new CopyOnWriteArrayList<>();
 	}
 
 	/**
-	 * Instantiates a new {@link HighScoreRequestMapper}.
+	 * Instantiates a new {@link HighScoreRequestMapper}. The given list is copied, so later changes
+	 * of the list are not seen from this request mapper. Use {@link #register(IRequestMapper)} and
+	 * {@link #unregister(IRequestMapper)} to change the request mappers.
 	 *
 	 * @param requestMappers
-	 *            the request mappers
+	 *            the request mappers, request mappers with the same compatibility score are asked
+	 *            in the order of the list
 	 */
 	public HighScoreRequestMapper(final List<IRequestMapper> requestMappers)
 	{
-		this.requestMappers = Args.notNull(requestMappers, "requestMappers");
+		this.requestMappers = new CopyOnWriteArrayList<>(
+			Args.notNull(requestMappers, "requestMappers"));
+		updateMappers();
 	}
 
 	/**
-	 * Gets the Comparator for this SortedProperties.
-	 * 
-	 * @return The Comparator.
+	 * {@inheritDoc}
 	 */
-	private Comparator<RequestMapperBean> getComparator()
+	@Override
+	public int getCompatibilityScore(final Request request)
 	{
-		if (this.comparator == null)
+		final Snapshot currentSnapshot = this.snapshot;
+		final LruCache<String, Decision> cache = currentSnapshot.decisionCache;
+		Decision decision = null;
+		if (cache != null)
 		{
-			this.comparator = newComparator();
+			decision = getDecision(cache, request);
+			if (decision.scored)
+			{
+				return decision.score;
+			}
 		}
-		return this.comparator;
+		final IRequestMapper[] mappers = currentSnapshot.mappers;
+		int score = Integer.MIN_VALUE;
+		for (int i = 0; i < mappers.length; i++)
+		{
+			score = Math.max(score, getCompatibilityScore(mappers, i, request));
+		}
+		if (decision != null)
+		{
+			decision.score = score;
+			decision.scored = true;
+		}
+		return score;
 	}
 
 	/**
-	 * {@inheritDoc}
+	 * Gets the compatibility score of the request mapper with the given index and records the call
+	 * in the metrics.
+	 *
+	 * @param mappers
+	 *            the request mappers
+	 * @param index
+	 *            the index of the request mapper
+	 * @param request
+	 *            the request
+	 * @return the compatibility score
 	 */
-	@Override
-	public int getCompatibilityScore(final Request request)
+	private int getCompatibilityScore(final IRequestMapper[] mappers, final int index,
+		final Request request)
 	{
-		int score = Integer.MIN_VALUE;
-		for (final IRequestMapper requestMapper : this.requestMappers)
+		final IRequestMapper mapper = mappers[index];
+		final RequestMapperMetrics metrics = this.metrics;
+		if ((metrics == null) || !metrics.isEnabled())
 		{
-			score = Math.max(score, requestMapper.getCompatibilityScore(request));
+			return mapper.getCompatibilityScore(request);
 		}
+		final long start = System.nanoTime();
+		final int score = mapper.getCompatibilityScore(request);
+		metrics.record(mapper, index, RequestMapperMetrics.Operation.COMPATIBILITY_SCORE,
+			System.nanoTime() - start, 0 < score);
 		return score;
 	}
 
 	/**
-	 * Initialize request mappers.
+	 * Gets the maximum number of cached decisions.
+	 *
+	 * @return the maximum number of cached decisions, zero if the decisions are not cached
+	 */
+	public synchronized int getDecisionCacheSize()
+	{
+		return decisionCacheSize;
+	}
+
+	/**
+	 * Gets the cached decision for the shape of the url of the given request, a new decision is
+	 * cached if the shape is unknown.
 	 *
+	 * @param cache
+	 *            the decision cache
 	 * @param request
 	 *            the request
-	 * @return the collection
+	 * @return the decision
 	 */
-	private Collection<RequestMapperBean> initializeRequestMappers(final Request request)
+	private Decision getDecision(final LruCache<String, Decision> cache, final Request request)
 	{
-		final Set<RequestMapperBean> mapperBeans = new TreeSet<>(getComparator());
-		for (final IRequestMapper requestMapper : this.requestMappers)
+		final String shape = newShape(request.getUrl());
+		Decision decision = cache.get(shape);
+		if (decision == null)
 		{
-			mapperBeans.add(
-				new RequestMapperBean(requestMapper, requestMapper.getCompatibilityScore(request)));
+			decision = new Decision();
+			cache.put(shape, decision);
 		}
-		return mapperBeans;
+		return decision;
 	}
 
 	/**
@@ -130,41 +464,199 @@ public class HighScoreRequestMapper extends CompoundRequestMapper
 	@Override
 	public Url mapHandler(final IRequestHandler handler)
 	{
-		for (final IRequestMapper requestMapper : this.requestMappers)
+		// the request mappers and the cache are read from one snapshot, so the cache is never
+		// filled with the indexes of other request mappers
+		final Snapshot currentSnapshot = this.snapshot;
+		final Map<HandlerKey, Integer> cache = currentSnapshot.handlerCache;
+		final IRequestMapper[] mappers = currentSnapshot.mappers;
+		final HandlerKey key = cache != null ? HandlerKey.of(handler) : null;
+		if (key != null)
 		{
-			final Url url = requestMapper.mapHandler(handler);
+			final Integer index = cache.get(key);
+			if ((index != null) && (index < mappers.length))
+			{
+				final Url url = mapHandler(mappers, index, handler);
+				if (url != null)
+				{
+					return url;
+				}
+			}
+		}
+		for (int i = 0; i < mappers.length; i++)
+		{
+			final Url url = mapHandler(mappers, i, handler);
 			if (url != null)
 			{
+				if (key != null)
+				{
+					cache.put(key, i);
+				}
 				return url;
 			}
 		}
 		return null;
 	}
 
+	/**
+	 * Gets the metrics of the request mappers. The metrics are created with
+	 * {@link #newRequestMapperMetrics()} on the first call of this method.
+	 *
+	 * @return the metrics of the request mappers
+	 */
+	public RequestMapperMetrics getMetrics()
+	{
+		RequestMapperMetrics current = this.metrics;
+		if (current == null)
+		{
+			synchronized (this)
+			{
+				current = this.metrics;
+				if (current == null)
+				{
+					current = Args.notNull(newRequestMapperMetrics(), "metrics");
+					current.update(this.snapshot.mappers);
+					this.metrics = current;
+				}
+			}
+		}
+		return current;
+	}
+
+	/**
+	 * Maps the given request handler with the request mapper with the given index and records the
+	 * call in the metrics.
+	 *
+	 * @param mappers
+	 *            the request mappers
+	 * @param index
+	 *            the index of the request mapper
+	 * @param handler
+	 *            the request handler
+	 * @return the url or null if the request mapper cannot map the request handler
+	 */
+	private Url mapHandler(final IRequestMapper[] mappers, final int index,
+		final IRequestHandler handler)
+	{
+		final IRequestMapper mapper = mappers[index];
+		final RequestMapperMetrics metrics = this.metrics;
+		if ((metrics == null) || !metrics.isEnabled())
+		{
+			return mapper.mapHandler(handler);
+		}
+		final long start = System.nanoTime();
+		final Url url = mapper.mapHandler(handler);
+		metrics.record(mapper, index, RequestMapperMetrics.Operation.MAP_HANDLER,
+			System.nanoTime() - start, url != null);
+		return url;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
 	public IRequestHandler mapRequest(final Request request)
 	{
-		for (final RequestMapperBean mapperBean : initializeRequestMappers(request))
+		// the request mappers and the cache are read from one snapshot, so the cache is never
+		// filled with the indexes of other request mappers
+		final Snapshot currentSnapshot = this.snapshot;
+		final LruCache<String, Decision> cache = currentSnapshot.decisionCache;
+		final IRequestMapper[] mappers = currentSnapshot.mappers;
+		final int size = mappers.length;
+		Decision decision = null;
+		if (cache != null)
 		{
-			final IRequestHandler handler = mapperBean.getMapper().mapRequest(request);
-			if (handler != null)
+			decision = getDecision(cache, request);
+			final int index = decision.index;
+			if ((index >= 0) && (index < size))
 			{
-				return handler;
+				final IRequestHandler handler = mapRequest(mappers, index, request);
+				if (handler != null)
+				{
+					return handler;
+				}
 			}
 		}
-		return null;
+		Scratch current = scratch.get();
+		if (current.inUse)
+		{
+			current = new Scratch();
+		}
+		current.inUse = true;
+		try
+		{
+			current.ensureCapacity(size);
+			final int[] scores = current.scores;
+			final int[] order = current.order;
+			for (int i = 0; i < size; i++)
+			{
+				final int score = getCompatibilityScore(mappers, i, request);
+				// stable insertion sort in descending order of the score
+				int j = i - 1;
+				while ((j >= 0) && (scores[order[j]] < score))
+				{
+					order[j + 1] = order[j];
+					j--;
+				}
+				order[j + 1] = i;
+				scores[i] = score;
+			}
+			for (int i = 0; i < size; i++)
+			{
+				final IRequestHandler handler = mapRequest(mappers, order[i], request);
+				if (handler != null)
+				{
+					if (decision != null)
+					{
+						decision.index = order[i];
+					}
+					return handler;
+				}
+			}
+			return null;
+		}
+		finally
+		{
+			current.inUse = false;
+		}
+	}
+
+	/**
+	 * Maps the given request with the request mapper with the given index and records the call in
+	 * the metrics.
+	 *
+	 * @param mappers
+	 *            the request mappers
+	 * @param index
+	 *            the index of the request mapper
+	 * @param request
+	 *            the request
+	 * @return the request handler or null if the request mapper cannot map the request
+	 */
+	private IRequestHandler mapRequest(final IRequestMapper[] mappers, final int index,
+		final Request request)
+	{
+		final IRequestMapper mapper = mappers[index];
+		final RequestMapperMetrics metrics = this.metrics;
+		if ((metrics == null) || !metrics.isEnabled())
+		{
+			return mapper.mapRequest(request);
+		}
+		final long start = System.nanoTime();
+		final IRequestHandler handler = mapper.mapRequest(request);
+		metrics.record(mapper, index, RequestMapperMetrics.Operation.MAP_REQUEST,
+			System.nanoTime() - start, handler != null);
+		return handler;
 	}
 
 	/**
-	 * Factory method for creating a new Comparator for sort the compatibility score. This method is
-	 * invoked in the method initializeRequestMappers and can be overridden so users can provide
-	 * their own version of a Comparator.
+	 * Factory method for creating a new Comparator for sort the compatibility score in descending
+	 * order.
 	 *
 	 * @return the new Comparator.
+	 * @deprecated the request mappers are ordered without a comparator, this method is not invoked
+	 *             anymore and will be removed in the next major version.
 	 */
+	@Deprecated
 	protected Comparator<RequestMapperBean> newComparator()
 	{
 		return new Comparator<RequestMapperBean>()
@@ -172,11 +664,71 @@ public class HighScoreRequestMapper extends CompoundRequestMapper
 			@Override
 			public int compare(final RequestMapperBean o1, final RequestMapperBean o2)
 			{
-				return o1.getCompatibilityScore() - o2.getCompatibilityScore();
+				return Integer.compare(o2.getCompatibilityScore(), o1.getCompatibilityScore());
 			}
 		};
 	}
 
+	/**
+	 * Checks if the urls of the request handlers are cached.
+	 *
+	 * @return true if the urls of the request handlers are cached
+	 */
+	public synchronized boolean isHandlerCacheEnabled()
+	{
+		return handlerCacheEnabled;
+	}
+
+	/**
+	 * Factory method for creating the new {@link RequestMapperMetrics}. This method is invoked on
+	 * the first call of {@link #getMetrics()} and not from the constructor, so the fields of the
+	 * derived classes are initialized. It can be overridden so users can provide their own version
+	 * of a new {@link RequestMapperMetrics}.
+	 *
+	 * @return the new {@link RequestMapperMetrics}
+	 */
+	protected RequestMapperMetrics newRequestMapperMetrics()
+	{
+		return new RequestMapperMetrics();
+	}
+
+	/**
+	 * Factory method for creating the shape of the given url, that is the segments and the sorted
+	 * names of the query parameters. The page info parameter of wicket is replaced with a constant
+	 * name, because its name changes with every version of a page. The shape is the key of the
+	 * decision cache. This method can be overridden so users can provide their own version of a
+	 * shape, for instance for ignoring segments that are never relevant for the choice of the
+	 * request mapper.
+	 *
+	 * @param url
+	 *            the url
+	 * @return the new shape
+	 */
+	protected String newShape(final Url url)
+	{
+		final StringBuilder shape = new StringBuilder();
+		for (final String segment : url.getSegments())
+		{
+			shape.append('/').append(segment);
+		}
+		final List<QueryParameter> parameters = url.getQueryParameters();
+		if (!parameters.isEmpty())
+		{
+			final String[] names = new String[parameters.size()];
+			for (int i = 0; i < names.length; i++)
+			{
+				final QueryParameter parameter = parameters.get(i);
+				names[i] = isPageInfo(parameter) ? PAGE_INFO_SHAPE : parameter.getName();
+			}
+			Arrays.sort(names);
+			for (int i = 0; i < names.length; i++)
+			{
+				shape.append(i == 0 ? '?' : '&').append(names[i]);
+			}
+		}
+		return shape.toString();
+	}
+
 	/**
 	 * Register.
 	 *
@@ -184,9 +736,41 @@ public class HighScoreRequestMapper extends CompoundRequestMapper
 	 *            the encoder
 	 * @return the high score request mapper
 	 */
-	public HighScoreRequestMapper register(final IRequestMapper encoder)
+	public synchronized HighScoreRequestMapper register(final IRequestMapper encoder)
 	{
 		this.requestMappers.add(0, encoder);
+		updateMappers();
+		return this;
+	}
+
+	/**
+	 * Sets the maximum number of cached decisions. The decisions are not cached by default.
+	 *
+	 * @param decisionCacheSize
+	 *            the maximum number of cached decisions, zero disables the decision cache
+	 * @return the high score request mapper
+	 */
+	public synchronized HighScoreRequestMapper setDecisionCacheSize(final int decisionCacheSize)
+	{
+		this.decisionCacheSize = Args.withinRange(0, Integer.MAX_VALUE, decisionCacheSize,
+			"decisionCacheSize");
+		updateMappers();
+		return this;
+	}
+
+	/**
+	 * Sets the flag if the urls of the request handlers are cached. The urls are not cached by
+	 * default.
+	 *
+	 * @param handlerCacheEnabled
+	 *            the flag if the urls of the request handlers are cached
+	 * @return the high score request mapper
+	 */
+	public synchronized HighScoreRequestMapper setHandlerCacheEnabled(
+		final boolean handlerCacheEnabled)
+	{
+		this.handlerCacheEnabled = handlerCacheEnabled;
+		updateMappers();
 		return this;
 	}
 
@@ -197,10 +781,28 @@ public class HighScoreRequestMapper extends CompoundRequestMapper
 	 *            the encoder
 	 * @return the high score request mapper
 	 */
-	public HighScoreRequestMapper unregister(final IRequestMapper encoder)
+	public synchronized HighScoreRequestMapper unregister(final IRequestMapper encoder)
 	{
 		this.requestMappers.remove(encoder);
+		updateMappers();
 		return this;
 	}
 
+	/**
+	 * Replaces the snapshot of the request mappers with a new snapshot with a new decision cache
+	 * and a new handler cache.
+	 */
+	private void updateMappers()
+	{
+		final IRequestMapper[] mappers = this.requestMappers
+			.toArray(new IRequestMapper[this.requestMappers.size()]);
+		if (this.metrics != null)
+		{
+			this.metrics.update(mappers);
+		}
+		this.snapshot = new Snapshot(mappers, 0 < decisionCacheSize
+			? new LruCache<String, Decision>(decisionCacheSize, DECISION_CACHE_SEGMENTS) : null,
+			handlerCacheEnabled ? new ConcurrentHashMap<HandlerKey, Integer>() : null);
+	}
+
 }
@@ -0,0 +1,191 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.base.request.mapper;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.wicket.util.lang.Args;
+
+import lombok.Getter;
+
+/**
+ * A bounded and thread safe cache that evicts the least recently used entry if the maximum size
+ * is exceeded. The cache can be split in segments with their own lock, so concurrent threads do
+ * not wait for each other if they access different segments. In this case every segment holds its
+ * share of the maximum size and evicts its own least recently used entry.
+ *
+ * @param <K>
+ *            the generic type of the keys
+ * @param <V>
+ *            the generic type of the values
+ */
+public class LruCache<K, V>
+{
+
+	/** The maximum number of entries. */
+	@Getter
+	private final int maxSize;
+
+	/** The segments with the entries in access order, every segment is its own lock. */
+	private final Map<K, V>[] segments;
+
+	/**
+	 * Instantiates a new {@link LruCache} with one segment.
+	 *
+	 * @param maxSize
+	 *            the maximum number of entries
+	 */
+	public LruCache(final int maxSize)
+	{
+		this(maxSize, 1);
+	}
+
+	/**
+	 * Instantiates a new {@link LruCache}.
+	 *
+	 * @param maxSize
+	 *            the maximum number of entries
+	 * @param segmentCount
+	 *            the number of segments, at most the maximum number of entries
+	 */
+	@SuppressWarnings("unchecked")
+	public LruCache(final int maxSize, final int segmentCount)
+	{
+		this.maxSize = Args.withinRange(1, Integer.MAX_VALUE, maxSize, "maxSize");
+		Args.withinRange(1, Integer.MAX_VALUE, segmentCount, "segmentCount");
+		this.segments = new Map[Math.min(maxSize, segmentCount)];
+		for (int i = 0; i < segments.length; i++)
+		{
+			// the first segments take the remainder of the maximum size
+			final int segmentSize = maxSize / segments.length
+				+ (i < maxSize % segments.length ? 1 : 0);
+			segments[i] = new LinkedHashMap<K, V>(16, 0.75f, true)
+			{
+				/** The serialVersionUID. */
+				private static final long serialVersionUID = 1L;
+
+				/**
+				 * {@inheritDoc}
+				 */
+				@Override
+				protected boolean removeEldestEntry(final Map.Entry<K, V> eldest)
+				{
+					return size() > segmentSize;
+				}
+			};
+		}
+	}
+
+	/**
+	 * Removes all entries.
+	 */
+	public void clear()
+	{
+		for (final Map<K, V> segment : segments)
+		{
+			synchronized (segment)
+			{
+				segment.clear();
+			}
+		}
+	}
+
+	/**
+	 * Gets the value of the given key.
+	 *
+	 * @param key
+	 *            the key
+	 * @return the value or null if the cache has no entry for the given key
+	 */
+	public V get(final K key)
+	{
+		final Map<K, V> segment = segmentFor(key);
+		synchronized (segment)
+		{
+			return segment.get(key);
+		}
+	}
+
+	/**
+	 * Puts the given value for the given key.
+	 *
+	 * @param key
+	 *            the key
+	 * @param value
+	 *            the value
+	 */
+	public void put(final K key, final V value)
+	{
+		final Map<K, V> segment = segmentFor(key);
+		synchronized (segment)
+		{
+			segment.put(key, value);
+		}
+	}
+
+	/**
+	 * Removes the entry of the given key.
+	 *
+	 * @param key
+	 *            the key
+	 */
+	public void remove(final K key)
+	{
+		final Map<K, V> segment = segmentFor(key);
+		synchronized (segment)
+		{
+			segment.remove(key);
+		}
+	}
+
+	/**
+	 * Gets the segment of the given key.
+	 *
+	 * @param key
+	 *            the key
+	 * @return the segment
+	 */
+	private Map<K, V> segmentFor(final K key)
+	{
+		if (segments.length == 1)
+		{
+			return segments[0];
+		}
+		final int hash = key.hashCode();
+		// spread the high bits into the low bits that select the segment
+		return segments[((hash ^ (hash >>> 16)) & 0x7fffffff) % segments.length];
+	}
+
+	/**
+	 * Gets the number of entries.
+	 *
+	 * @return the number of entries
+	 */
+	public int size()
+	{
+		int size = 0;
+		for (final Map<K, V> segment : segments)
+		{
+			synchronized (segment)
+			{
+				size += segment.size();
+			}
+		}
+		return size;
+	}
+
+}
@@ -0,0 +1,107 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.base.request.mapper;
+
+import lombok.Getter;
+
+/**
+ * The Class {@link OperationMetricsSnapshot} holds the metrics of one operation of a request mapper
+ * at the time the snapshot was taken. The latencies are counted in a histogram with buckets of
+ * powers of two, the bucket with the index i counts the latencies of at least 2^(i-1) and less than
+ * 2^i nanoseconds.
+ */
+@Getter
+public class OperationMetricsSnapshot
+{
+
+	/** The number of calls. */
+	private final long calls;
+
+	/** The number of latencies in the buckets of the histogram. */
+	private final long[] histogram;
+
+	/**
+	 * The number of hits, that is the number of compatible scores, mapped requests or mapped
+	 * request handlers.
+	 */
+	private final long hits;
+
+	/** The sum of the latencies in nanoseconds. */
+	private final long totalNanos;
+
+	/**
+	 * Instantiates a new {@link OperationMetricsSnapshot}.
+	 *
+	 * @param calls
+	 *            the number of calls
+	 * @param hits
+	 *            the number of hits
+	 * @param totalNanos
+	 *            the sum of the latencies in nanoseconds
+	 * @param histogram
+	 *            the number of latencies in the buckets of the histogram
+	 */
+	public OperationMetricsSnapshot(final long calls, final long hits, final long totalNanos,
+		final long[] histogram)
+	{
+		this.calls = calls;
+		this.hits = hits;
+		this.totalNanos = totalNanos;
+		this.histogram = histogram;
+	}
+
+	/**
+	 * Gets the mean latency in nanoseconds.
+	 *
+	 * @return the mean latency in nanoseconds or zero if there were no calls
+	 */
+	public long getMeanNanos()
+	{
+		return calls == 0 ? 0 : totalNanos / calls;
+	}
+
+	/**
+	 * Gets the upper bound of the bucket of the histogram that contains the given percentile.
+	 *
+	 * @param percentile
+	 *            the percentile between zero and one hundred
+	 * @return the upper bound of the latency in nanoseconds or zero if there were no calls
+	 */
+	public long percentileNanos(final double percentile)
+	{
+		long total = 0;
+		for (final long count : histogram)
+		{
+			total += count;
+		}
+		if (total == 0)
+		{
+			return 0;
+		}
+		final double rank = total * Math.min(100.0, Math.max(0.0, percentile)) / 100.0;
+		long seen = 0;
+		for (int i = 0; i < histogram.length; i++)
+		{
+			seen += histogram[i];
+			if ((0 < seen) && (rank <= seen))
+			{
+				return i == 0 ? 0 : (1L << i) - 1;
+			}
+		}
+		return (1L << (histogram.length - 1)) - 1;
+	}
+
+}
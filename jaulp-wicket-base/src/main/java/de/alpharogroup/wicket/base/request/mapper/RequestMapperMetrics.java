@@ -0,0 +1,317 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.base.request.mapper;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.wicket.WicketRuntimeException;
+import org.apache.wicket.request.IRequestMapper;
+import org.apache.wicket.util.lang.Args;
+
+/**
+ * The Class {@link RequestMapperMetrics} records the call counts, the hit counts and the latency
+ * histograms of the operations of every request mapper of a {@link HighScoreRequestMapper}. The
+ * metrics are not recorded by default, because every call of a request mapper is timed, and can
+ * be switched on with {@link #setEnabled(boolean)}. The metrics can be read with
+ * {@link #getSnapshot()} or through JMX after the metrics are registered with
+ * {@link #registerMBean(ObjectName)}, for instance:
+ *
+ * <pre>
+ * HighScoreRequestMapper mapper = new HighScoreRequestMapper();
+ * mapper.getMetrics().setEnabled(true);
+ * mapper.getMetrics().registerMBean(new ObjectName("de.alpharogroup.wicket:type=RequestMapperMetrics"));
+ * </pre>
+ */
+public class RequestMapperMetrics implements RequestMapperMetricsMXBean
+{
+
+	/**
+	 * The operations of a request mapper.
+	 */
+	public enum Operation
+	{
+
+		/** The compatibility score, a score greater than zero is a hit. */
+		COMPATIBILITY_SCORE,
+
+		/** Mapping a request, a request handler is a hit. */
+		MAP_REQUEST,
+
+		/** Mapping a request handler, an url is a hit. */
+		MAP_HANDLER
+
+	}
+
+	/**
+	 * The metrics of a request mapper.
+	 */
+	private static final class Entry
+	{
+
+		/** The request mapper. */
+		private final IRequestMapper mapper;
+
+		/** The metrics of the operations by their ordinal. */
+		private final OperationMetrics[] operations;
+
+		/**
+		 * Instantiates a new {@link Entry}.
+		 *
+		 * @param mapper
+		 *            the request mapper
+		 */
+		private Entry(final IRequestMapper mapper)
+		{
+			this.mapper = mapper;
+			this.operations = new OperationMetrics[Operation.values().length];
+			for (int i = 0; i < operations.length; i++)
+			{
+				operations[i] = new OperationMetrics();
+			}
+		}
+
+	}
+
+	/**
+	 * The metrics of an operation of a request mapper.
+	 */
+	private static final class OperationMetrics
+	{
+
+		/** The number of calls. */
+		private final LongAdder calls = new LongAdder();
+
+		/** The number of latencies in the buckets of the histogram. */
+		private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+
+		/** The number of hits. */
+		private final LongAdder hits = new LongAdder();
+
+		/** The sum of the latencies in nanoseconds. */
+		private final LongAdder totalNanos = new LongAdder();
+
+		/**
+		 * Records a call.
+		 *
+		 * @param nanos
+		 *            the latency in nanoseconds
+		 * @param hit
+		 *            the flag if the call was a hit
+		 */
+		private void record(final long nanos, final boolean hit)
+		{
+			calls.increment();
+			if (hit)
+			{
+				hits.increment();
+			}
+			totalNanos.add(nanos);
+			final int bucket = nanos <= 0 ? 0 : 64 - Long.numberOfLeadingZeros(nanos);
+			histogram.incrementAndGet(Math.min(bucket, BUCKETS - 1));
+		}
+
+		/**
+		 * Takes a snapshot of these metrics.
+		 *
+		 * @return the snapshot
+		 */
+		private OperationMetricsSnapshot snapshot()
+		{
+			final long[] counts = new long[BUCKETS];
+			for (int i = 0; i < counts.length; i++)
+			{
+				counts[i] = histogram.get(i);
+			}
+			return new OperationMetricsSnapshot(calls.sum(), hits.sum(), totalNanos.sum(), counts);
+		}
+
+	}
+
+	/** The number of buckets of the latency histograms, the last bucket counts all slower calls. */
+	public static final int BUCKETS = 40;
+
+	/** The flag if the metrics are recorded. */
+	private volatile boolean enabled;
+
+	/** The metrics of the request mappers in the order of the request mappers. */
+	private volatile Entry[] entries = new Entry[0];
+
+	/** The name the metrics are registered with in the platform MBean server. */
+	private ObjectName objectName;
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<RequestMapperMetricsSnapshot> getSnapshot()
+	{
+		final Entry[] entries = this.entries;
+		final List<RequestMapperMetricsSnapshot> snapshot = new ArrayList<>(entries.length);
+		for (int i = 0; i < entries.length; i++)
+		{
+			final OperationMetrics[] operations = entries[i].operations;
+			snapshot.add(new RequestMapperMetricsSnapshot(i, String.valueOf(entries[i].mapper),
+				operations[Operation.COMPATIBILITY_SCORE.ordinal()].snapshot(),
+				operations[Operation.MAP_REQUEST.ordinal()].snapshot(),
+				operations[Operation.MAP_HANDLER.ordinal()].snapshot()));
+		}
+		return snapshot;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isEnabled()
+	{
+		return enabled;
+	}
+
+	/**
+	 * Records a call of the given request mapper. The call is ignored if the given request mapper
+	 * is not at the given index anymore.
+	 *
+	 * @param mapper
+	 *            the request mapper
+	 * @param index
+	 *            the index of the request mapper
+	 * @param operation
+	 *            the operation
+	 * @param nanos
+	 *            the latency in nanoseconds
+	 * @param hit
+	 *            the flag if the call was a hit
+	 */
+	public void record(final IRequestMapper mapper, final int index, final Operation operation,
+		final long nanos, final boolean hit)
+	{
+		final Entry[] entries = this.entries;
+		if ((index < entries.length) && (entries[index].mapper == mapper))
+		{
+			entries[index].operations[operation.ordinal()].record(nanos, hit);
+		}
+	}
+
+	/**
+	 * Registers these metrics in the platform MBean server with the given name.
+	 *
+	 * @param name
+	 *            the name
+	 */
+	public synchronized void registerMBean(final ObjectName name)
+	{
+		Args.notNull(name, "name");
+		unregisterMBean();
+		try
+		{
+			ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+			objectName = name;
+		}
+		catch (final JMException e)
+		{
+			throw new WicketRuntimeException("Failed to register the request mapper metrics.", e);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized void reset()
+	{
+		final Entry[] entries = this.entries;
+		final Entry[] reset = new Entry[entries.length];
+		for (int i = 0; i < entries.length; i++)
+		{
+			reset[i] = new Entry(entries[i].mapper);
+		}
+		this.entries = reset;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void setEnabled(final boolean enabled)
+	{
+		this.enabled = enabled;
+	}
+
+	/**
+	 * Unregisters these metrics from the platform MBean server if they are registered.
+	 */
+	public synchronized void unregisterMBean()
+	{
+		if (objectName != null)
+		{
+			final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			try
+			{
+				if (server.isRegistered(objectName))
+				{
+					server.unregisterMBean(objectName);
+				}
+			}
+			catch (final JMException e)
+			{
+				throw new WicketRuntimeException("Failed to unregister the request mapper metrics.",
+					e);
+			}
+			finally
+			{
+				objectName = null;
+			}
+		}
+	}
+
+	/**
+	 * Updates the request mappers, the metrics of request mappers that are still registered are
+	 * kept.
+	 *
+	 * @param mappers
+	 *            the request mappers
+	 */
+	synchronized void update(final IRequestMapper[] mappers)
+	{
+		final Entry[] entries = this.entries;
+		final Entry[] updated = new Entry[mappers.length];
+		for (int i = 0; i < mappers.length; i++)
+		{
+			for (final Entry entry : entries)
+			{
+				if (entry.mapper == mappers[i])
+				{
+					updated[i] = entry;
+					break;
+				}
+			}
+			if (updated[i] == null)
+			{
+				updated[i] = new Entry(mappers[i]);
+			}
+		}
+		this.entries = updated;
+	}
+
+}
@@ -0,0 +1,54 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.base.request.mapper;
+
+import java.util.List;
+
+/**
+ * The interface {@link RequestMapperMetricsMXBean} exposes the {@link RequestMapperMetrics} of a
+ * {@link HighScoreRequestMapper} through JMX.
+ */
+public interface RequestMapperMetricsMXBean
+{
+
+	/**
+	 * Gets the snapshots of the metrics of the request mappers.
+	 *
+	 * @return the snapshots in the order of the request mappers
+	 */
+	List<RequestMapperMetricsSnapshot> getSnapshot();
+
+	/**
+	 * Checks if the metrics are recorded.
+	 *
+	 * @return true if the metrics are recorded
+	 */
+	boolean isEnabled();
+
+	/**
+	 * Resets the metrics of all request mappers.
+	 */
+	void reset();
+
+	/**
+	 * Sets the flag if the metrics are recorded.
+	 *
+	 * @param enabled
+	 *            the flag if the metrics are recorded
+	 */
+	void setEnabled(boolean enabled);
+
+}
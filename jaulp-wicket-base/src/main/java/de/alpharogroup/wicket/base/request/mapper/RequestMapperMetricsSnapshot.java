@@ -0,0 +1,68 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.base.request.mapper;
+
+import lombok.Getter;
+
+/**
+ * The Class {@link RequestMapperMetricsSnapshot} holds the metrics of a request mapper at the time
+ * the snapshot was taken.
+ */
+@Getter
+public class RequestMapperMetricsSnapshot
+{
+
+	/** The metrics of the compatibility score. */
+	private final OperationMetricsSnapshot compatibilityScore;
+
+	/** The index of the request mapper. */
+	private final int index;
+
+	/** The metrics of mapping request handlers. */
+	private final OperationMetricsSnapshot mapHandler;
+
+	/** The name of the request mapper. */
+	private final String mapper;
+
+	/** The metrics of mapping requests. */
+	private final OperationMetricsSnapshot mapRequest;
+
+	/**
+	 * Instantiates a new {@link RequestMapperMetricsSnapshot}.
+	 *
+	 * @param index
+	 *            the index of the request mapper
+	 * @param mapper
+	 *            the name of the request mapper
+	 * @param compatibilityScore
+	 *            the metrics of the compatibility score
+	 * @param mapRequest
+	 *            the metrics of mapping requests
+	 * @param mapHandler
+	 *            the metrics of mapping request handlers
+	 */
+	public RequestMapperMetricsSnapshot(final int index, final String mapper,
+		final OperationMetricsSnapshot compatibilityScore,
+		final OperationMetricsSnapshot mapRequest, final OperationMetricsSnapshot mapHandler)
+	{
+		this.index = index;
+		this.mapper = mapper;
+		this.compatibilityScore = compatibilityScore;
+		this.mapRequest = mapRequest;
+		this.mapHandler = mapHandler;
+	}
+
+}
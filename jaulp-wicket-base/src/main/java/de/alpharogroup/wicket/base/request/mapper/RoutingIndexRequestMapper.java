@@ -0,0 +1,593 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.base.request.mapper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.wicket.request.IRequestHandler;
+import org.apache.wicket.request.IRequestMapper;
+import org.apache.wicket.request.Request;
+import org.apache.wicket.request.Url;
+import org.apache.wicket.request.mapper.CompoundRequestMapper;
+import org.apache.wicket.util.lang.Args;
+
+/**
+ * Compound {@link IRequestMapper} with a routing index for mounted request mappers. The mount paths
+ * are indexed in a trie of their segments, so a request is only mapped from the mounted request
+ * mappers whose mount path matches the segments of the url. The cost of the lookup depends on the
+ * depth of the url and not on the number of mounted request mappers. Placeholder segments like
+ * <code>${id}</code> match any segment and optional segments like <code>#{id}</code> match any
+ * segment or no segment. As with the {@link org.apache.wicket.core.request.mapper.MountedMapper}
+ * a mount path matches every url that starts with it.
+ * 
+ * The trie only narrows the mounted request mappers, the request is mapped as in the
+ * {@link CompoundRequestMapper} from the request mapper with the highest compatibility score. All
+ * request mappers that are added with {@link #add(IRequestMapper)} are not indexed and are always
+ * scored. With the same score they are asked before the mounted request mappers, so a page that is
+ * mounted on a short path like <code>/</code> or <code>/product/${id}</code> does not shadow the
+ * resources and pages of the added request mappers. The order is computed in scratch arrays of the
+ * current thread like in the {@link HighScoreRequestMapper}. For instance:
+ * 
+ * <pre>
+ * RoutingIndexRequestMapper routingIndex = new RoutingIndexRequestMapper();
+ * getRootRequestMapperAsCompound().add(routingIndex);
+ * routingIndex.mount(&quot;/product/${id}&quot;, new MountedMapper(&quot;/product/${id}&quot;, ProductPage.class));
+ * </pre>
+ */
+public class RoutingIndexRequestMapper extends CompoundRequestMapper
+{
+
+	/**
+	 * A mounted request mapper with its mount path.
+	 */
+	private static final class Mount
+	{
+
+		/** The mapper. */
+		private final IRequestMapper mapper;
+
+		/** The sequence number of the mount, later mounts win ties. */
+		private final long sequence;
+
+		/** The parsed segments of the mount path. */
+		private final String[] segments;
+
+		/**
+		 * Instantiates a new {@link Mount}.
+		 *
+		 * @param segments
+		 *            the parsed segments of the mount path
+		 * @param mapper
+		 *            the mapper
+		 * @param sequence
+		 *            the sequence number of the mount
+		 */
+		private Mount(final String[] segments, final IRequestMapper mapper, final long sequence)
+		{
+			this.segments = segments;
+			this.mapper = mapper;
+			this.sequence = sequence;
+		}
+
+	}
+
+	/**
+	 * The scratch arrays of a thread for ordering the request mappers by their score.
+	 */
+	private static final class Scratch
+	{
+
+		/** The flag if the scratch arrays are in use from a nested call. */
+		private boolean inUse;
+
+		/** The request mappers in descending order of their score. */
+		private IRequestMapper[] mappers = new IRequestMapper[0];
+
+		/** The scores of the ordered request mappers. */
+		private int[] scores = new int[0];
+
+		/** The number of ordered request mappers. */
+		private int size;
+
+		/**
+		 * Adds the given request mapper behind the request mappers with the same or a higher
+		 * score.
+		 *
+		 * @param mapper
+		 *            the request mapper
+		 * @param score
+		 *            the compatibility score of the request mapper
+		 */
+		private void add(final IRequestMapper mapper, final int score)
+		{
+			if (size == scores.length)
+			{
+				mappers = Arrays.copyOf(mappers, Math.max(8, size * 2));
+				scores = Arrays.copyOf(scores, mappers.length);
+			}
+			// stable insertion sort in descending order of the score
+			int i = size - 1;
+			while ((i >= 0) && (scores[i] < score))
+			{
+				mappers[i + 1] = mappers[i];
+				scores[i + 1] = scores[i];
+				i--;
+			}
+			mappers[i + 1] = mapper;
+			scores[i + 1] = score;
+			size++;
+		}
+
+		/**
+		 * Removes the request mappers, so the scratch arrays do not hold them after the request.
+		 */
+		private void clear()
+		{
+			Arrays.fill(mappers, 0, size, null);
+			size = 0;
+		}
+
+	}
+
+	/**
+	 * A node of the trie of the mount path segments.
+	 */
+	private static final class Node
+	{
+
+		/** The children for literal segments. */
+		private final Map<String, Node> literals = new HashMap<>();
+
+		/** The mounts that end at this node. */
+		private final List<Mount> mounts = new ArrayList<>();
+
+		/** The child for an optional segment. */
+		private Node optional;
+
+		/** The child for a placeholder segment. */
+		private Node placeholder;
+
+		/**
+		 * Gets the child node for the given segment of a mount path or creates it.
+		 *
+		 * @param segment
+		 *            the segment of a mount path
+		 * @return the child node
+		 */
+		private Node child(final String segment)
+		{
+			if (isOptional(segment))
+			{
+				return optional != null ? optional : (optional = new Node());
+			}
+			if (isPlaceholder(segment))
+			{
+				return placeholder != null ? placeholder : (placeholder = new Node());
+			}
+			Node child = literals.get(segment);
+			if (child == null)
+			{
+				child = new Node();
+				literals.put(segment, child);
+			}
+			return child;
+		}
+
+	}
+
+	/**
+	 * A mounted request mapper that matches a url with the number of literal segments it matches.
+	 */
+	private static final class Candidate
+	{
+
+		/** The number of matched literal segments. */
+		private final int literals;
+
+		/** The mount. */
+		private final Mount mount;
+
+		/**
+		 * Instantiates a new {@link Candidate}.
+		 *
+		 * @param mount
+		 *            the mount
+		 * @param literals
+		 *            the number of matched literal segments
+		 */
+		private Candidate(final Mount mount, final int literals)
+		{
+			this.mount = mount;
+			this.literals = literals;
+		}
+
+		/**
+		 * Checks if this candidate comes before the given candidate.
+		 *
+		 * @param other
+		 *            the other candidate
+		 * @return true if this candidate comes before the given candidate
+		 */
+		private boolean isBefore(final Candidate other)
+		{
+			if (literals != other.literals)
+			{
+				return literals > other.literals;
+			}
+			return mount.sequence > other.mount.sequence;
+		}
+
+	}
+
+	/**
+	 * Checks if the given segment of a mount path is an optional segment like <code>#{id}</code>.
+	 *
+	 * @param segment
+	 *            the segment
+	 * @return true if the segment is an optional segment
+	 */
+	private static boolean isOptional(final String segment)
+	{
+		return segment.startsWith("#{") && segment.endsWith("}");
+	}
+
+	/**
+	 * Checks if the given segment of a mount path is a placeholder segment like
+	 * <code>${id}</code>.
+	 *
+	 * @param segment
+	 *            the segment
+	 * @return true if the segment is a placeholder segment
+	 */
+	private static boolean isPlaceholder(final String segment)
+	{
+		return segment.startsWith("${") && segment.endsWith("}");
+	}
+
+	/**
+	 * Parses the segments of the given mount path.
+	 *
+	 * @param path
+	 *            the mount path
+	 * @return the segments
+	 */
+	private static String[] parse(final String path)
+	{
+		final List<String> segments = new ArrayList<>();
+		for (final String segment : path.split("/"))
+		{
+			if (!segment.isEmpty())
+			{
+				segments.add(segment);
+			}
+		}
+		return segments.toArray(new String[segments.size()]);
+	}
+
+	/** The mounted request mappers. */
+	private final List<Mount> mountList = new ArrayList<>();
+
+	/** The mounted request mappers, the last mounted comes first. */
+	private volatile IRequestMapper[] mounted = new IRequestMapper[0];
+
+	/** The root of the trie, the trie is rebuilt on every change. */
+	private volatile Node root = new Node();
+
+	/** The scratch arrays of the threads. */
+	private final ThreadLocal<Scratch> scratch = new ThreadLocal<Scratch>()
+	{
+		@Override
+		protected Scratch initialValue()
+		{
+			return new Scratch();
+		}
+	};
+
+	/** The sequence number of the last mount. */
+	private long sequence;
+
+	/**
+	 * Instantiates a new {@link RoutingIndexRequestMapper}.
+	 */
+	public RoutingIndexRequestMapper()
+	{
+	}
+
+	/**
+	 * Instantiates a new {@link RoutingIndexRequestMapper} that asks the given request mapper for
+	 * all requests that are not mapped from a mounted request mapper.
+	 *
+	 * @param delegate
+	 *            the request mapper for all requests that are not mapped from a mounted request
+	 *            mapper
+	 */
+	public RoutingIndexRequestMapper(final IRequestMapper delegate)
+	{
+		add(Args.notNull(delegate, "delegate"));
+	}
+
+	/**
+	 * Collects the mounts that match the given url segments from the given node into the given
+	 * candidates.
+	 *
+	 * @param node
+	 *            the node
+	 * @param segments
+	 *            the url segments
+	 * @param index
+	 *            the index of the next url segment
+	 * @param literals
+	 *            the number of matched literal segments
+	 * @param candidates
+	 *            the candidates
+	 */
+	private void collect(final Node node, final List<String> segments, final int index,
+		final int literals, final List<Candidate> candidates)
+	{
+		for (final Mount mount : node.mounts)
+		{
+			addCandidate(candidates, new Candidate(mount, literals));
+		}
+		if (index < segments.size())
+		{
+			final Node literal = node.literals.get(segments.get(index));
+			if (literal != null)
+			{
+				collect(literal, segments, index + 1, literals + 1, candidates);
+			}
+			if (node.placeholder != null)
+			{
+				collect(node.placeholder, segments, index + 1, literals, candidates);
+			}
+			if (node.optional != null)
+			{
+				collect(node.optional, segments, index + 1, literals, candidates);
+			}
+		}
+		if (node.optional != null)
+		{
+			collect(node.optional, segments, index, literals, candidates);
+		}
+	}
+
+	/**
+	 * Adds the given candidate in order, a mount that is already a candidate keeps the better
+	 * match.
+	 *
+	 * @param candidates
+	 *            the ordered candidates
+	 * @param candidate
+	 *            the candidate
+	 */
+	private void addCandidate(final List<Candidate> candidates, final Candidate candidate)
+	{
+		for (int i = 0; i < candidates.size(); i++)
+		{
+			final Candidate existing = candidates.get(i);
+			if (existing.mount == candidate.mount)
+			{
+				if (!candidate.isBefore(existing))
+				{
+					return;
+				}
+				candidates.remove(i);
+				break;
+			}
+		}
+		int position = candidates.size();
+		while ((position > 0) && candidate.isBefore(candidates.get(position - 1)))
+		{
+			position--;
+		}
+		candidates.add(position, candidate);
+	}
+
+	/**
+	 * Gets the mounted request mappers that match the url of the given request, the best match
+	 * comes first.
+	 *
+	 * @param request
+	 *            the request
+	 * @return the matching mounted request mappers, the returned list must not be modified
+	 */
+	protected List<IRequestMapper> getCandidates(final Request request)
+	{
+		final List<Candidate> candidates = new ArrayList<>();
+		collect(root, request.getUrl().getSegments(), 0, 0, candidates);
+		final List<IRequestMapper> mappers = new ArrayList<>(candidates.size());
+		for (final Candidate candidate : candidates)
+		{
+			mappers.add(candidate.mount.mapper);
+		}
+		return Collections.unmodifiableList(mappers);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getCompatibilityScore(final Request request)
+	{
+		int score = super.getCompatibilityScore(request);
+		for (final IRequestMapper mapper : getCandidates(request))
+		{
+			score = Math.max(score, mapper.getCompatibilityScore(request));
+		}
+		return score;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Url mapHandler(final IRequestHandler handler)
+	{
+		for (final IRequestMapper mapper : mounted)
+		{
+			final Url url = mapper.mapHandler(handler);
+			if (url != null)
+			{
+				return url;
+			}
+		}
+		return super.mapHandler(handler);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public IRequestHandler mapRequest(final Request request)
+	{
+		final List<IRequestMapper> candidates = getCandidates(request);
+		Scratch current = scratch.get();
+		if (current.inUse)
+		{
+			current = new Scratch();
+		}
+		current.inUse = true;
+		try
+		{
+			// the added request mappers come before the candidates and the sort is stable, so they
+			// win ties and the candidates keep the order of their match
+			for (final IRequestMapper mapper : this)
+			{
+				current.add(mapper, mapper.getCompatibilityScore(request));
+			}
+			for (final IRequestMapper mapper : candidates)
+			{
+				current.add(mapper, mapper.getCompatibilityScore(request));
+			}
+			for (int i = 0; i < current.size; i++)
+			{
+				final IRequestHandler handler = current.mappers[i].mapRequest(request);
+				if (handler != null)
+				{
+					return handler;
+				}
+			}
+			return null;
+		}
+		finally
+		{
+			current.clear();
+			current.inUse = false;
+		}
+	}
+
+	/**
+	 * Mounts the given request mapper on the given path. The given request mapper is only asked
+	 * for requests whose url matches the given path.
+	 *
+	 * @param path
+	 *            the mount path of the request mapper
+	 * @param mapper
+	 *            the request mapper
+	 * @return this {@link RoutingIndexRequestMapper}
+	 */
+	public synchronized RoutingIndexRequestMapper mount(final String path,
+		final IRequestMapper mapper)
+	{
+		Args.notNull(path, "path");
+		Args.notNull(mapper, "mapper");
+		mountList.add(new Mount(parse(path), mapper, ++sequence));
+		rebuild();
+		return this;
+	}
+
+	/**
+	 * Rebuilds the trie from the mounted request mappers.
+	 */
+	private void rebuild()
+	{
+		final Node newRoot = new Node();
+		final IRequestMapper[] newMounted = new IRequestMapper[mountList.size()];
+		int i = newMounted.length;
+		for (final Mount mount : mountList)
+		{
+			newMounted[--i] = mount.mapper;
+			Node node = newRoot;
+			for (final String segment : mount.segments)
+			{
+				node = node.child(segment);
+			}
+			node.mounts.add(mount);
+		}
+		root = newRoot;
+		mounted = newMounted;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * The mounted request mappers that map the given path are unmounted as well.
+	 */
+	@Override
+	public void unmount(final String path)
+	{
+		super.unmount(path);
+		// a compound request mapper of the mounted request mappers removes the ones that map the
+		// given path, so the request for the path is created by wicket
+		final IRequestMapper[] current = mounted;
+		final CompoundRequestMapper matching = new CompoundRequestMapper();
+		for (final IRequestMapper mapper : current)
+		{
+			matching.add(mapper);
+		}
+		matching.unmount(path);
+		final Set<IRequestMapper> kept = Collections.newSetFromMap(
+			new IdentityHashMap<IRequestMapper, Boolean>());
+		for (final IRequestMapper mapper : matching)
+		{
+			kept.add(mapper);
+		}
+		for (final IRequestMapper mapper : current)
+		{
+			if (!kept.contains(mapper))
+			{
+				unmount(mapper);
+			}
+		}
+	}
+
+	/**
+	 * Unmounts the given request mapper.
+	 *
+	 * @param mapper
+	 *            the request mapper
+	 * @return this {@link RoutingIndexRequestMapper}
+	 */
+	public synchronized RoutingIndexRequestMapper unmount(final IRequestMapper mapper)
+	{
+		for (int i = mountList.size() - 1; i >= 0; i--)
+		{
+			if (mountList.get(i).mapper == mapper)
+			{
+				mountList.remove(i);
+			}
+		}
+		rebuild();
+		return this;
+	}
+
+}
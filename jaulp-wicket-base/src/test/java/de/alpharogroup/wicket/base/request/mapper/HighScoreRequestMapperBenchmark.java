@@ -0,0 +1,160 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.base.request.mapper;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.wicket.mock.MockWebRequest;
+import org.apache.wicket.request.IRequestCycle;
+import org.apache.wicket.request.IRequestHandler;
+import org.apache.wicket.request.IRequestMapper;
+import org.apache.wicket.request.Request;
+import org.apache.wicket.request.Url;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmark for mapping a request with the {@link HighScoreRequestMapper} with 50 mounted request
+ * mappers. The benchmark compares the selection of the {@link HighScoreRequestMapper} with the
+ * former selection that created a {@link TreeSet} of {@link RequestMapperBean}s per request. Run it
+ * with the main method from the test classpath, with the option -prof gc the allocation rate is
+ * shown.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class HighScoreRequestMapperBenchmark
+{
+
+	private static final int MAPPERS = 50;
+
+	private static final IRequestHandler HANDLER = new IRequestHandler()
+	{
+		@Override
+		public void detach(final IRequestCycle requestCycle)
+		{
+		}
+
+		@Override
+		public void respond(final IRequestCycle requestCycle)
+		{
+		}
+	};
+
+	private static class MountMapper implements IRequestMapper
+	{
+		private final String path;
+
+		private MountMapper(final String path)
+		{
+			this.path = path;
+		}
+
+		@Override
+		public int getCompatibilityScore(final Request request)
+		{
+			final List<String> segments = request.getUrl().getSegments();
+			return !segments.isEmpty() && segments.get(0).equals(path) ? 1 : 0;
+		}
+
+		@Override
+		public Url mapHandler(final IRequestHandler requestHandler)
+		{
+			return null;
+		}
+
+		@Override
+		public IRequestHandler mapRequest(final Request request)
+		{
+			return getCompatibilityScore(request) > 0 ? HANDLER : null;
+		}
+	}
+
+	public static void main(final String[] args) throws RunnerException
+	{
+		new Runner(new OptionsBuilder()
+			.include(HighScoreRequestMapperBenchmark.class.getSimpleName()).build()).run();
+	}
+
+	private final List<IRequestMapper> list = new ArrayList<>();
+	private HighScoreRequestMapper mapper;
+	private Request request;
+
+	@Benchmark
+	public IRequestHandler highScore()
+	{
+		return mapper.mapRequest(request);
+	}
+
+	@Benchmark
+	public IRequestHandler legacyTreeSet()
+	{
+		final TreeSet<RequestMapperBean> beans = new TreeSet<>(new Comparator<RequestMapperBean>()
+		{
+			@Override
+			public int compare(final RequestMapperBean o1, final RequestMapperBean o2)
+			{
+				return o1.getCompatibilityScore() - o2.getCompatibilityScore();
+			}
+		});
+		for (final IRequestMapper requestMapper : list)
+		{
+			beans.add(
+				new RequestMapperBean(requestMapper, requestMapper.getCompatibilityScore(request)));
+		}
+		for (final RequestMapperBean bean : beans)
+		{
+			final IRequestHandler handler = bean.getMapper().mapRequest(request);
+			if (handler != null)
+			{
+				return handler;
+			}
+		}
+		return null;
+	}
+
+	@Setup
+	public void setUp()
+	{
+		mapper = new HighScoreRequestMapper();
+		for (int i = 0; i < MAPPERS; i++)
+		{
+			final MountMapper mountMapper = new MountMapper("page" + i);
+			mapper.register(mountMapper);
+			list.add(0, mountMapper);
+		}
+		request = new MockWebRequest(Url.parse("page25/detail?id=42"));
+	}
+
+}
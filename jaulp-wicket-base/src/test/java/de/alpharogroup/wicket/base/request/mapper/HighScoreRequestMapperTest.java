@@ -0,0 +1,390 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.base.request.mapper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.wicket.core.request.handler.IPageClassRequestHandler;
+import org.apache.wicket.markup.html.WebPage;
+import org.apache.wicket.mock.MockWebRequest;
+import org.apache.wicket.request.IRequestCycle;
+import org.apache.wicket.request.IRequestHandler;
+import org.apache.wicket.request.IRequestMapper;
+import org.apache.wicket.request.Request;
+import org.apache.wicket.request.Url;
+import org.apache.wicket.request.component.IRequestablePage;
+import org.apache.wicket.request.mapper.parameter.PageParameters;
+import org.testng.AssertJUnit;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Test for the class {@link HighScoreRequestMapper}.
+ */
+public class HighScoreRequestMapperTest
+{
+
+	private static class NamedHandler implements IRequestHandler
+	{
+		private final String name;
+
+		private NamedHandler(final String name)
+		{
+			this.name = name;
+		}
+
+		@Override
+		public void detach(final IRequestCycle requestCycle)
+		{
+		}
+
+		@Override
+		public void respond(final IRequestCycle requestCycle)
+		{
+		}
+	}
+
+	private static class MetricsRequestMapper extends HighScoreRequestMapper
+	{
+		private final RequestMapperMetrics sharedMetrics = new RequestMapperMetrics();
+
+		@Override
+		protected RequestMapperMetrics newRequestMapperMetrics()
+		{
+			return sharedMetrics;
+		}
+	}
+
+	private static class PageHandler implements IPageClassRequestHandler
+	{
+		private final PageParameters parameters;
+
+		private PageHandler()
+		{
+			this(new PageParameters());
+		}
+
+		private PageHandler(final PageParameters parameters)
+		{
+			this.parameters = parameters;
+		}
+
+		@Override
+		public void detach(final IRequestCycle requestCycle)
+		{
+		}
+
+		@Override
+		public Class<? extends IRequestablePage> getPageClass()
+		{
+			return WebPage.class;
+		}
+
+		@Override
+		public PageParameters getPageParameters()
+		{
+			return parameters;
+		}
+
+		@Override
+		public void respond(final IRequestCycle requestCycle)
+		{
+		}
+	}
+
+	private static class HandlerMapper implements IRequestMapper
+	{
+		private final String url;
+		private final IRequestHandler only;
+		private int mapped;
+
+		private HandlerMapper(final String url, final IRequestHandler only)
+		{
+			this.url = url;
+			this.only = only;
+		}
+
+		@Override
+		public int getCompatibilityScore(final Request request)
+		{
+			return 0;
+		}
+
+		@Override
+		public Url mapHandler(final IRequestHandler requestHandler)
+		{
+			mapped++;
+			return only == null || only == requestHandler ? Url.parse(url) : null;
+		}
+
+		@Override
+		public IRequestHandler mapRequest(final Request request)
+		{
+			return null;
+		}
+	}
+
+	private static class MountMapper implements IRequestMapper
+	{
+		private final String path;
+		private final String placeholder;
+
+		private MountMapper(final String path, final String placeholder)
+		{
+			this.path = path;
+			this.placeholder = placeholder;
+		}
+
+		@Override
+		public int getCompatibilityScore(final Request request)
+		{
+			return 0;
+		}
+
+		@Override
+		public Url mapHandler(final IRequestHandler requestHandler)
+		{
+			if (!(requestHandler instanceof PageHandler))
+			{
+				return null;
+			}
+			if (placeholder == null)
+			{
+				// the parameters would be appended as query parameters
+				return Url.parse(path);
+			}
+			final PageParameters parameters = ((PageHandler)requestHandler).getPageParameters();
+			if (parameters.get(placeholder).isEmpty())
+			{
+				return null;
+			}
+			return Url.parse(path + "/" + parameters.get(placeholder));
+		}
+
+		@Override
+		public IRequestHandler mapRequest(final Request request)
+		{
+			return null;
+		}
+	}
+
+	private static class ScoredMapper implements IRequestMapper
+	{
+		private final NamedHandler handler;
+		private final int score;
+		private final List<String> asked;
+		private boolean mapping = true;
+		private int scored;
+
+		private ScoredMapper(final String name, final int score, final List<String> asked)
+		{
+			this.handler = new NamedHandler(name);
+			this.score = score;
+			this.asked = asked;
+		}
+
+		@Override
+		public int getCompatibilityScore(final Request request)
+		{
+			scored++;
+			return score;
+		}
+
+		@Override
+		public Url mapHandler(final IRequestHandler requestHandler)
+		{
+			return null;
+		}
+
+		@Override
+		public IRequestHandler mapRequest(final Request request)
+		{
+			asked.add(handler.name);
+			return mapping ? handler : null;
+		}
+	}
+
+	private final List<String> asked = new ArrayList<>();
+
+	private String map(final HighScoreRequestMapper mapper, final String url)
+	{
+		asked.clear();
+		final IRequestHandler handler = mapper.mapRequest(new MockWebRequest(Url.parse(url)));
+		return handler != null ? ((NamedHandler)handler).name : null;
+	}
+
+	@BeforeMethod
+	public void setUp()
+	{
+		asked.clear();
+	}
+
+	@Test
+	public void testDecisionCacheHit()
+	{
+		final ScoredMapper high = new ScoredMapper("high", 5, asked);
+		final ScoredMapper low = new ScoredMapper("low", 1, asked);
+		final HighScoreRequestMapper mapper = new HighScoreRequestMapper().register(low)
+			.register(high)
+			.setDecisionCacheSize(10);
+		AssertJUnit.assertEquals("high", map(mapper, "page?3"));
+		AssertJUnit.assertEquals("high", map(mapper, "page?4-1.IBehaviorListener.0-form-x"));
+		AssertJUnit.assertEquals("[high]", asked.toString());
+		AssertJUnit.assertEquals(1, high.scored);
+		AssertJUnit.assertEquals(1, low.scored);
+	}
+
+	@Test
+	public void testDecisionCacheInvalidation()
+	{
+		final ScoredMapper high = new ScoredMapper("high", 5, asked);
+		final HighScoreRequestMapper mapper = new HighScoreRequestMapper()
+			.register(new ScoredMapper("low", 1, asked))
+			.register(high)
+			.setDecisionCacheSize(10);
+		AssertJUnit.assertEquals("high", map(mapper, "page"));
+		final ScoredMapper highest = new ScoredMapper("highest", 9, asked);
+		mapper.register(highest);
+		AssertJUnit.assertEquals("highest", map(mapper, "page"));
+		mapper.unregister(highest);
+		AssertJUnit.assertEquals("high", map(mapper, "page"));
+		mapper.unregister(high);
+		AssertJUnit.assertEquals("low", map(mapper, "page"));
+	}
+
+	@Test
+	public void testDecisionCacheMiss()
+	{
+		final ScoredMapper high = new ScoredMapper("high", 5, asked);
+		final HighScoreRequestMapper mapper = new HighScoreRequestMapper()
+			.register(new ScoredMapper("low", 1, asked))
+			.register(high)
+			.setDecisionCacheSize(10);
+		AssertJUnit.assertEquals("high", map(mapper, "page?id=1"));
+		high.mapping = false;
+		AssertJUnit.assertEquals("low", map(mapper, "page?id=2"));
+		AssertJUnit.assertEquals("[high, high, low]", asked.toString());
+		AssertJUnit.assertEquals("low", map(mapper, "page?id=3"));
+		AssertJUnit.assertEquals("[low]", asked.toString());
+	}
+
+	@Test
+	public void testDescendingOrderOfScores()
+	{
+		final ScoredMapper high = new ScoredMapper("high", 5, asked);
+		final ScoredMapper middle = new ScoredMapper("middle", 3, asked);
+		final HighScoreRequestMapper mapper = new HighScoreRequestMapper()
+			.register(new ScoredMapper("low", 1, asked)).register(high).register(middle);
+		AssertJUnit.assertEquals("high", map(mapper, "page"));
+		high.mapping = false;
+		middle.mapping = false;
+		AssertJUnit.assertEquals("low", map(mapper, "page"));
+		AssertJUnit.assertEquals("[high, middle, low]", asked.toString());
+	}
+
+	@Test
+	public void testHandlerCacheWithoutPageClass()
+	{
+		final NamedHandler specific = new NamedHandler("specific");
+		final HighScoreRequestMapper mapper = new HighScoreRequestMapper()
+			.register(new HandlerMapper("generic", null))
+			.register(new HandlerMapper("specific", specific))
+			.setHandlerCacheEnabled(true);
+		AssertJUnit.assertEquals(Url.parse("generic").getSegments(),
+			mapper.mapHandler(new NamedHandler("other")).getSegments());
+		AssertJUnit.assertEquals(Url.parse("specific").getSegments(),
+			mapper.mapHandler(specific).getSegments());
+	}
+
+	@Test
+	public void testHandlerCacheWithPageClass()
+	{
+		final HandlerMapper generic = new HandlerMapper("generic", null);
+		final HandlerMapper other = new HandlerMapper("other", new NamedHandler("other"));
+		final HighScoreRequestMapper mapper = new HighScoreRequestMapper().register(generic)
+			.register(other)
+			.setHandlerCacheEnabled(true);
+		mapper.mapHandler(new PageHandler());
+		mapper.mapHandler(new PageHandler());
+		AssertJUnit.assertEquals(1, other.mapped);
+		AssertJUnit.assertEquals(2, generic.mapped);
+	}
+
+	@Test
+	public void testHandlerCacheWithPageMountedTwice()
+	{
+		final HighScoreRequestMapper mapper = new HighScoreRequestMapper()
+			.register(new MountMapper("a", null))
+			.register(new MountMapper("a", "id"))
+			.setHandlerCacheEnabled(true);
+		AssertJUnit.assertEquals(Url.parse("a").getSegments(),
+			mapper.mapHandler(new PageHandler()).getSegments());
+		AssertJUnit.assertEquals(Url.parse("a/1").getSegments(),
+			mapper.mapHandler(new PageHandler(new PageParameters().set("id", 1))).getSegments());
+		AssertJUnit.assertEquals(Url.parse("a/2").getSegments(),
+			mapper.mapHandler(new PageHandler(new PageParameters().set("id", 2))).getSegments());
+		AssertJUnit.assertEquals(Url.parse("a").getSegments(),
+			mapper.mapHandler(new PageHandler()).getSegments());
+	}
+
+	@Test
+	public void testListIsCopied()
+	{
+		final List<IRequestMapper> requestMappers = new ArrayList<>();
+		requestMappers.add(new ScoredMapper("first", 1, asked));
+		final HighScoreRequestMapper mapper = new HighScoreRequestMapper(requestMappers);
+		requestMappers.add(0, new ScoredMapper("second", 2, asked));
+		AssertJUnit.assertEquals("first", map(mapper, "page"));
+	}
+
+	@Test
+	public void testMetrics()
+	{
+		final MetricsRequestMapper mapper = new MetricsRequestMapper();
+		mapper.register(new ScoredMapper("high", 5, asked));
+		map(mapper, "page");
+		AssertJUnit.assertSame(mapper.sharedMetrics, mapper.getMetrics());
+		AssertJUnit.assertFalse(mapper.getMetrics().isEnabled());
+		AssertJUnit.assertEquals(0,
+			mapper.getMetrics().getSnapshot().get(0).getMapRequest().getCalls());
+		mapper.getMetrics().setEnabled(true);
+		map(mapper, "page");
+		AssertJUnit.assertEquals(1,
+			mapper.getMetrics().getSnapshot().get(0).getMapRequest().getCalls());
+	}
+
+	@Test
+	public void testShapeWithoutPageInfo()
+	{
+		final HighScoreRequestMapper mapper = new HighScoreRequestMapper();
+		AssertJUnit.assertEquals(mapper.newShape(Url.parse("page?3&q=a")),
+			mapper.newShape(Url.parse("page?12-3.ILinkListener-link&q=b")));
+		AssertJUnit.assertFalse(mapper.newShape(Url.parse("page?3"))
+			.equals(mapper.newShape(Url.parse("page?id=3"))));
+	}
+
+	@Test
+	public void testTieResolvesToLastRegistered()
+	{
+		final HighScoreRequestMapper mapper = new HighScoreRequestMapper()
+			.register(new ScoredMapper("first", 2, asked))
+			.register(new ScoredMapper("second", 2, asked))
+			.register(new ScoredMapper("low", 1, asked));
+		AssertJUnit.assertEquals("second", map(mapper, "page"));
+	}
+
+}
@@ -0,0 +1,202 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.base.request.mapper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.wicket.mock.MockWebRequest;
+import org.apache.wicket.request.IRequestCycle;
+import org.apache.wicket.request.IRequestHandler;
+import org.apache.wicket.request.IRequestMapper;
+import org.apache.wicket.request.Request;
+import org.apache.wicket.request.Url;
+import org.apache.wicket.request.mapper.CompoundRequestMapper;
+import org.testng.AssertJUnit;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Test for the class {@link RoutingIndexRequestMapper}.
+ */
+public class RoutingIndexRequestMapperTest
+{
+
+	private static class NamedHandler implements IRequestHandler
+	{
+		private final String name;
+
+		private NamedHandler(final String name)
+		{
+			this.name = name;
+		}
+
+		@Override
+		public void detach(final IRequestCycle requestCycle)
+		{
+		}
+
+		@Override
+		public void respond(final IRequestCycle requestCycle)
+		{
+		}
+	}
+
+	private static class RecordingMapper implements IRequestMapper
+	{
+		private final NamedHandler handler;
+		private final List<String> asked;
+		private final String prefix;
+		private final int score;
+
+		private RecordingMapper(final String name, final List<String> asked)
+		{
+			this(name, 0, null, asked);
+		}
+
+		private RecordingMapper(final String name, final int score, final String prefix,
+			final List<String> asked)
+		{
+			this.handler = new NamedHandler(name);
+			this.score = score;
+			this.prefix = prefix;
+			this.asked = asked;
+		}
+
+		@Override
+		public int getCompatibilityScore(final Request request)
+		{
+			return score;
+		}
+
+		@Override
+		public Url mapHandler(final IRequestHandler requestHandler)
+		{
+			return null;
+		}
+
+		@Override
+		public IRequestHandler mapRequest(final Request request)
+		{
+			asked.add(handler.name);
+			final String url = String.join("/", request.getUrl().getSegments());
+			return prefix == null || url.startsWith(prefix) ? handler : null;
+		}
+	}
+
+	private final List<String> asked = new ArrayList<>();
+	private RecordingMapper home;
+	private RoutingIndexRequestMapper mapper;
+
+	private String map(final String url)
+	{
+		asked.clear();
+		final IRequestHandler handler = mapper.mapRequest(new MockWebRequest(Url.parse(url)));
+		return handler != null ? ((NamedHandler)handler).name : null;
+	}
+
+	@BeforeMethod
+	public void setUp()
+	{
+		mapper = new RoutingIndexRequestMapper(new RecordingMapper("fallback", 0, "unknown", asked));
+		home = new RecordingMapper("home", asked);
+		mapper.mount("/", home);
+		mapper.mount("/product/${id}", new RecordingMapper("product", asked));
+		mapper.mount("/product/list", new RecordingMapper("list", asked));
+		mapper.mount("/blog/#{year}/archive", new RecordingMapper("archive", asked));
+		for (int i = 0; i < 100; i++)
+		{
+			mapper.mount("/page" + i, new RecordingMapper("page" + i, asked));
+		}
+	}
+
+	@Test
+	public void testLiteralBeforePlaceholder()
+	{
+		AssertJUnit.assertEquals("list", map("product/list"));
+		AssertJUnit.assertEquals("product", map("product/42"));
+	}
+
+	@Test
+	public void testOnlyMatchingMappersAreAsked()
+	{
+		AssertJUnit.assertEquals("page42", map("page42/extra"));
+		AssertJUnit.assertEquals("[fallback, page42]", asked.toString());
+	}
+
+	@Test
+	public void testOptionalSegment()
+	{
+		AssertJUnit.assertEquals("archive", map("blog/2016/archive"));
+		AssertJUnit.assertEquals("archive", map("blog/archive"));
+	}
+
+	@Test
+	public void testResourceIsNotShadowedByMountedPage()
+	{
+		mapper.mount("/shop/${id}", new RecordingMapper("shop", 2, null, asked));
+		mapper.add(new RecordingMapper("image", 2, "shop/image", asked));
+		AssertJUnit.assertEquals("image", map("shop/image"));
+		AssertJUnit.assertEquals("shop", map("shop/42"));
+		mapper.mount("/shop/image", new RecordingMapper("gallery", 3, null, asked));
+		AssertJUnit.assertEquals("gallery", map("shop/image"));
+	}
+
+	@Test
+	public void testCandidatesOfNewMount()
+	{
+		final List<IRequestMapper> candidates = mapper
+			.getCandidates(new MockWebRequest(Url.parse("product/42")));
+		AssertJUnit.assertEquals(2, candidates.size());
+		AssertJUnit.assertEquals(candidates,
+			mapper.getCandidates(new MockWebRequest(Url.parse("product/43"))));
+
+		mapper.mount("/product/42", new RecordingMapper("special", asked));
+		AssertJUnit.assertEquals(3,
+			mapper.getCandidates(new MockWebRequest(Url.parse("product/42"))).size());
+		AssertJUnit.assertEquals("special", map("product/42"));
+	}
+
+	@Test
+	public void testUnmountPath()
+	{
+		final CompoundRequestMapper rootMapper = new CompoundRequestMapper();
+		final RoutingIndexRequestMapper routingIndex = new RoutingIndexRequestMapper();
+		rootMapper.add(routingIndex);
+		routingIndex.mount("/cart", new RecordingMapper("cart", 0, "cart", asked));
+		routingIndex.mount("/shop/${id}", new RecordingMapper("shop", 0, "shop/", asked));
+		routingIndex.add(new RecordingMapper("checkout", 0, "checkout", asked));
+
+		rootMapper.unmount("cart");
+		rootMapper.unmount("checkout");
+
+		AssertJUnit.assertNull(rootMapper.mapRequest(new MockWebRequest(Url.parse("cart"))));
+		AssertJUnit.assertNull(rootMapper.mapRequest(new MockWebRequest(Url.parse("checkout"))));
+		AssertJUnit.assertEquals("shop", ((NamedHandler)rootMapper
+			.mapRequest(new MockWebRequest(Url.parse("shop/42")))).name);
+	}
+
+	@Test
+	public void testUnmatchedUrl()
+	{
+		AssertJUnit.assertEquals("fallback", map("unknown/path"));
+		AssertJUnit.assertEquals("home", map("other/path"));
+		mapper.unmount(home);
+		AssertJUnit.assertEquals("fallback", map("unknown/path"));
+		AssertJUnit.assertNull(map("other/path"));
+	}
+
+}
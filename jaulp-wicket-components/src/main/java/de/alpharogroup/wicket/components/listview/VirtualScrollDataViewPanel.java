@@ -0,0 +1,394 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.components.listview;
+
+import java.io.Serializable;
+import java.util.List;
+
+import org.apache.wicket.AttributeModifier;
+import org.apache.wicket.Component;
+import org.apache.wicket.ajax.AbstractDefaultAjaxBehavior;
+import org.apache.wicket.ajax.AjaxRequestTarget;
+import org.apache.wicket.markup.head.IHeaderResponse;
+import org.apache.wicket.markup.head.JavaScriptHeaderItem;
+import org.apache.wicket.markup.head.OnDomReadyHeaderItem;
+import org.apache.wicket.markup.html.WebMarkupContainer;
+import org.apache.wicket.markup.repeater.Item;
+import org.apache.wicket.markup.repeater.ReuseIfModelsEqualStrategy;
+import org.apache.wicket.markup.repeater.data.DataView;
+import org.apache.wicket.markup.repeater.data.IDataProvider;
+import org.apache.wicket.model.AbstractReadOnlyModel;
+import org.apache.wicket.model.IModel;
+import org.apache.wicket.model.util.ListModel;
+import org.apache.wicket.request.cycle.RequestCycle;
+import org.apache.wicket.request.resource.JavaScriptResourceReference;
+import org.apache.wicket.util.lang.Args;
+
+import de.alpharogroup.wicket.base.BasePanel;
+import lombok.Getter;
+
+/**
+ * The Class VirtualScrollDataViewPanel is a variant of the {@link DataViewPanel} that scrolls
+ * through all rows instead of paging. Only a window of the visible rows and some overscan rows is
+ * rendered, the rest of the scroll height is filled with an empty spacer. While the user scrolls,
+ * the window is moved with a lightweight Ajax request that re-renders only the window and the
+ * existing row components are reused for rows that stay in the window. So the size of the
+ * component tree, the page store and the render time does not depend on the number of rows. All
+ * rows must have the same height of {@link #getRowHeight()} pixels.
+ *
+ * @param <T>
+ *            the generic type of model object
+ */
+public abstract class VirtualScrollDataViewPanel<T extends Serializable>
+	extends
+		BasePanel<List<T>>
+{
+
+	/** The Constant serialVersionUID. */
+	private static final long serialVersionUID = 1L;
+
+	/** The data view. */
+	@Getter
+	private final DataView<T> dataView;
+
+	/** The number of rows that are rendered above and below the visible rows. */
+	@Getter
+	private final int overscan;
+
+	/** The height of a row in pixels. */
+	@Getter
+	private final int rowHeight;
+
+	/** The spacer that has the height of all rows. */
+	@Getter
+	private final WebMarkupContainer spacer;
+
+	/** The total number of rows the spacer was rendered with. */
+	private long spacerRows = -1;
+
+	/** The viewport that scrolls. */
+	@Getter
+	private final WebMarkupContainer viewport;
+
+	/** The number of visible rows. */
+	@Getter
+	private final int visibleRows;
+
+	/** The window that contains the rendered rows. */
+	@Getter
+	private final WebMarkupContainer window;
+
+	/** The data provider for the rows of the window. */
+	@Getter
+	private final WindowDataProvider<T> windowDataProvider;
+
+	/**
+	 * instance block for set the markup id, with other words make this component ajaxifiable.
+	 **/
+	{
+		setOutputMarkupId(true);
+		setOutputMarkupPlaceholderTag(true);
+	}
+
+	/**
+	 * Instantiates a new {@link VirtualScrollDataViewPanel}.
+	 *
+	 * @param id
+	 *            the id
+	 * @param model
+	 *            the model
+	 */
+	public VirtualScrollDataViewPanel(final String id, final IModel<List<T>> model)
+	{
+		super(id, Args.notNull(model, "model"));
+		this.rowHeight = Args.withinRange(1, Integer.MAX_VALUE, newRowHeight(), "rowHeight");
+		this.visibleRows = Args.withinRange(1, Integer.MAX_VALUE, newVisibleRows(), "visibleRows");
+		this.overscan = Args.withinRange(0, Integer.MAX_VALUE, newOverscan(), "overscan");
+		this.windowDataProvider = new WindowDataProvider<>(newDataProvider(model),
+			visibleRows + 2L * overscan);
+		add(viewport = newViewport("viewport"));
+		viewport.add(spacer = newSpacer("spacer"));
+		spacer.add(window = newWindow("window"));
+		window.add(dataView = newDataView("dataView", windowDataProvider));
+		add(newScrollBehavior());
+	}
+
+	/**
+	 * Instantiates a new {@link VirtualScrollDataViewPanel}.
+	 *
+	 * @param id
+	 *            the id
+	 * @param list
+	 *            the list
+	 */
+	public VirtualScrollDataViewPanel(final String id, final List<T> list)
+	{
+		this(id, new ListModel<>(list));
+	}
+
+	/**
+	 * Abstract factory method that creates a new {@link IDataProvider} for all rows. This method
+	 * is invoked in the constructor from the derived classes and have to be implemented so users
+	 * can provide their own version of a {@link IDataProvider}.
+	 *
+	 * @param model
+	 *            the model
+	 * @return the new {@link IDataProvider}.
+	 */
+	protected abstract IDataProvider<T> newDataProvider(final IModel<List<T>> model);
+
+	/**
+	 * Factory method for create a new {@link DataView} for the rows of the window. This method is
+	 * invoked in the constructor from the derived classes and can be overridden so users can
+	 * provide their own version of a new {@link DataView}.
+	 *
+	 * @param id
+	 *            the id
+	 * @param dataProvider
+	 *            the data provider for the rows of the window
+	 * @return the new {@link DataView}
+	 */
+	protected DataView<T> newDataView(final String id, final IDataProvider<T> dataProvider)
+	{
+		final DataView<T> dataView = new DataView<T>(id, dataProvider)
+		{
+			/** The Constant serialVersionUID. */
+			private static final long serialVersionUID = 1L;
+
+			/**
+			 * {@inheritDoc}
+			 */
+			@Override
+			protected void populateItem(final Item<T> item)
+			{
+				item.add(AttributeModifier.append("style", "height:" + rowHeight + "px;"));
+				item.add(newListComponent("item", item));
+			}
+
+		};
+		dataView.setItemsPerPage(windowDataProvider.getWindowSize());
+		dataView.setItemReuseStrategy(ReuseIfModelsEqualStrategy.getInstance());
+		return dataView;
+	}
+
+	/**
+	 * Abstract factory method that creates a new item {@link Component} in the {@link DataView}.
+	 * This method is invoked in the constructor from the derived classes and have to be implemented
+	 * so users can provide their own version of a new item {@link Component} in the
+	 * {@link DataView}.
+	 *
+	 * @param id
+	 *            the id
+	 * @param item
+	 *            the item
+	 * @return the new item {@link Component} in the {@link DataView}.
+	 */
+	protected abstract Component newListComponent(final String id, final Item<T> item);
+
+	/**
+	 * Factory method for create the number of rows that are rendered above and below the visible
+	 * rows. This method is invoked in the constructor from the derived classes and can be
+	 * overridden so users can provide their own version of the overscan.
+	 *
+	 * @return the number of overscan rows
+	 */
+	protected int newOverscan()
+	{
+		return 10;
+	}
+
+	/**
+	 * Factory method for create the height of a row in pixels. This method is invoked in the
+	 * constructor from the derived classes and can be overridden so users can provide their own
+	 * version of the row height.
+	 *
+	 * @return the height of a row in pixels
+	 */
+	protected int newRowHeight()
+	{
+		return 30;
+	}
+
+	/**
+	 * Factory method for create the behavior that moves the window while scrolling. This method is
+	 * invoked in the constructor from the derived classes and can be overridden so users can
+	 * provide their own version of the behavior.
+	 *
+	 * @return the new behavior
+	 */
+	protected AbstractDefaultAjaxBehavior newScrollBehavior()
+	{
+		return new AbstractDefaultAjaxBehavior()
+		{
+			/** The Constant serialVersionUID. */
+			private static final long serialVersionUID = 1L;
+
+			/**
+			 * {@inheritDoc}
+			 */
+			@Override
+			public void renderHead(final Component component, final IHeaderResponse response)
+			{
+				super.renderHead(component, response);
+				response.render(JavaScriptHeaderItem.forReference(new JavaScriptResourceReference(
+					VirtualScrollDataViewPanel.class, "VirtualScrollDataViewPanel.js")));
+				response.render(OnDomReadyHeaderItem.forScript(String.format(
+					"Jaulp.VirtualScroll.init('%s', '%s', %d, %d, %d, %d);",
+					viewport.getMarkupId(), getCallbackUrl(), rowHeight, overscan,
+					windowDataProvider.getWindowSize(), windowDataProvider.getFirst())));
+			}
+
+			/**
+			 * {@inheritDoc}
+			 */
+			@Override
+			protected void respond(final AjaxRequestTarget target)
+			{
+				final long first = RequestCycle.get().getRequest().getRequestParameters()
+					.getParameterValue("first").toLong(0);
+				onScroll(target, first);
+			}
+		};
+	}
+
+	/**
+	 * Factory method for create the spacer that has the height of all rows. This method is invoked
+	 * in the constructor from the derived classes and can be overridden so users can provide their
+	 * own version of the spacer.
+	 *
+	 * @param id
+	 *            the id
+	 * @return the new spacer
+	 */
+	protected WebMarkupContainer newSpacer(final String id)
+	{
+		final WebMarkupContainer spacer = new WebMarkupContainer(id)
+		{
+			/** The Constant serialVersionUID. */
+			private static final long serialVersionUID = 1L;
+
+			/**
+			 * {@inheritDoc}
+			 */
+			@Override
+			protected void onBeforeRender()
+			{
+				spacerRows = windowDataProvider.getTotalSize();
+				super.onBeforeRender();
+			}
+		};
+		spacer.setOutputMarkupId(true);
+		spacer.add(AttributeModifier.replace("style", new AbstractReadOnlyModel<String>()
+		{
+			/** The Constant serialVersionUID. */
+			private static final long serialVersionUID = 1L;
+
+			/**
+			 * {@inheritDoc}
+			 */
+			@Override
+			public String getObject()
+			{
+				return "position:relative;height:" + spacerRows * rowHeight + "px;";
+			}
+		}));
+		return spacer;
+	}
+
+	/**
+	 * Factory method for create the viewport that scrolls. This method is invoked in the
+	 * constructor from the derived classes and can be overridden so users can provide their own
+	 * version of the viewport.
+	 *
+	 * @param id
+	 *            the id
+	 * @return the new viewport
+	 */
+	protected WebMarkupContainer newViewport(final String id)
+	{
+		final WebMarkupContainer viewport = new WebMarkupContainer(id);
+		viewport.setOutputMarkupId(true);
+		viewport.add(AttributeModifier.replace("style",
+			"overflow-y:auto;position:relative;height:" + visibleRows * rowHeight + "px;"));
+		return viewport;
+	}
+
+	/**
+	 * Factory method for create the number of visible rows. This method is invoked in the
+	 * constructor from the derived classes and can be overridden so users can provide their own
+	 * version of the number of visible rows.
+	 *
+	 * @return the number of visible rows
+	 */
+	protected int newVisibleRows()
+	{
+		return 20;
+	}
+
+	/**
+	 * Factory method for create the window that contains the rendered rows. This method is invoked
+	 * in the constructor from the derived classes and can be overridden so users can provide their
+	 * own version of the window.
+	 *
+	 * @param id
+	 *            the id
+	 * @return the new window
+	 */
+	protected WebMarkupContainer newWindow(final String id)
+	{
+		final WebMarkupContainer window = new WebMarkupContainer(id);
+		window.setOutputMarkupId(true);
+		window.add(AttributeModifier.replace("style", new AbstractReadOnlyModel<String>()
+		{
+			/** The Constant serialVersionUID. */
+			private static final long serialVersionUID = 1L;
+
+			/**
+			 * {@inheritDoc}
+			 */
+			@Override
+			public String getObject()
+			{
+				return "position:absolute;left:0;right:0;top:"
+					+ windowDataProvider.getFirst() * rowHeight + "px;";
+			}
+		}));
+		return window;
+	}
+
+	/**
+	 * Callback method that moves the window to the given row and re-renders the window. The spacer
+	 * is re-rendered as well if the number of rows has changed.
+	 *
+	 * @param target
+	 *            the target
+	 * @param first
+	 *            the index of the first row of the window
+	 */
+	protected void onScroll(final AjaxRequestTarget target, final long first)
+	{
+		windowDataProvider.setFirst(first);
+		if (spacerRows != windowDataProvider.getTotalSize())
+		{
+			target.add(spacer);
+		}
+		else
+		{
+			target.add(window);
+		}
+	}
+
+}
@@ -0,0 +1,41 @@
+window.Jaulp = window.Jaulp || {};
+Jaulp.VirtualScroll = {
+	init : function(viewportId, callbackUrl, rowHeight, overscan, windowSize, first) {
+		var viewport = document.getElementById(viewportId);
+		if (!viewport) {
+			return;
+		}
+		var state = { first : first, pending : false, scheduled : false };
+		var update = function() {
+			state.scheduled = false;
+			if (state.pending) {
+				return;
+			}
+			var top = Math.floor(viewport.scrollTop / rowHeight);
+			var visible = Math.ceil(viewport.clientHeight / rowHeight);
+			if (top >= state.first && top + visible <= state.first + windowSize) {
+				return;
+			}
+			state.first = Math.max(0, top - overscan);
+			state.pending = true;
+			Wicket.Ajax.get({
+				u : callbackUrl,
+				ep : { first : state.first },
+				coh : [ function() {
+					state.pending = false;
+					schedule();
+				} ]
+			});
+		};
+		var schedule = function() {
+			if (!state.scheduled) {
+				state.scheduled = true;
+				(window.requestAnimationFrame || function(callback) {
+					window.setTimeout(callback, 50);
+				})(update);
+			}
+		};
+		viewport.scrollTop = first * rowHeight;
+		viewport.addEventListener('scroll', schedule);
+	}
+};
@@ -0,0 +1,125 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.components.listview;
+
+import java.util.Iterator;
+
+import org.apache.wicket.markup.repeater.data.IDataProvider;
+import org.apache.wicket.model.IModel;
+import org.apache.wicket.util.lang.Args;
+
+import lombok.Getter;
+
+/**
+ * The Class {@link WindowDataProvider} decorates an {@link IDataProvider} and provides only a
+ * window of its rows that starts at {@link #getFirst()} and contains at most
+ * {@link #getWindowSize()} rows. A repeater with this data provider renders only the rows of the
+ * window.
+ *
+ * @param <T>
+ *            the generic type of model object
+ */
+public class WindowDataProvider<T> implements IDataProvider<T>
+{
+
+	/** The Constant serialVersionUID. */
+	private static final long serialVersionUID = 1L;
+
+	/** The decorated data provider. */
+	@Getter
+	private final IDataProvider<T> dataProvider;
+
+	/** The index of the first row of the window. */
+	@Getter
+	private long first;
+
+	/** The maximum number of rows of the window. */
+	@Getter
+	private final long windowSize;
+
+	/**
+	 * Instantiates a new {@link WindowDataProvider}.
+	 *
+	 * @param dataProvider
+	 *            the decorated data provider
+	 * @param windowSize
+	 *            the maximum number of rows of the window
+	 */
+	public WindowDataProvider(final IDataProvider<T> dataProvider, final long windowSize)
+	{
+		this.dataProvider = Args.notNull(dataProvider, "dataProvider");
+		this.windowSize = Args.withinRange(1L, Long.MAX_VALUE, windowSize, "windowSize");
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void detach()
+	{
+		dataProvider.detach();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Iterator<? extends T> iterator(final long first, final long count)
+	{
+		return dataProvider.iterator(this.first + first, count);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public IModel<T> model(final T object)
+	{
+		return dataProvider.model(object);
+	}
+
+	/**
+	 * Moves the window to the given index. The index is limited to the rows of the decorated data
+	 * provider.
+	 *
+	 * @param first
+	 *            the index of the first row of the window
+	 */
+	public void setFirst(final long first)
+	{
+		this.first = Math.max(0, Math.min(first, getTotalSize() - 1));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long size()
+	{
+		return Math.max(0, Math.min(windowSize, getTotalSize() - first));
+	}
+
+	/**
+	 * Gets the number of all rows of the decorated data provider.
+	 *
+	 * @return the number of all rows
+	 */
+	public long getTotalSize()
+	{
+		return dataProvider.size();
+	}
+
+}
@@ -0,0 +1,185 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.components.listview;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.wicket.Component;
+import org.apache.wicket.ajax.AbstractDefaultAjaxBehavior;
+import org.apache.wicket.markup.html.basic.Label;
+import org.apache.wicket.markup.repeater.Item;
+import org.apache.wicket.markup.repeater.data.IDataProvider;
+import org.apache.wicket.markup.repeater.data.ListDataProvider;
+import org.apache.wicket.model.IModel;
+import org.apache.wicket.util.tester.WicketTester;
+import org.testng.AssertJUnit;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Test for the class {@link VirtualScrollDataViewPanel}.
+ */
+public class VirtualScrollDataViewPanelTest
+{
+
+	public static class RowsPanel extends VirtualScrollDataViewPanel<String>
+	{
+		private static final long serialVersionUID = 1L;
+
+		/** The rows in the order their list components were created. */
+		private final List<String> created = new ArrayList<>();
+
+		public RowsPanel(final String id, final List<String> list)
+		{
+			super(id, list);
+		}
+
+		@Override
+		protected IDataProvider<String> newDataProvider(final IModel<List<String>> model)
+		{
+			return new ListDataProvider<>(model.getObject());
+		}
+
+		@Override
+		protected Component newListComponent(final String id, final Item<String> item)
+		{
+			created.add(item.getModelObject());
+			return new Label(id, item.getModel());
+		}
+
+		@Override
+		protected int newOverscan()
+		{
+			return 1;
+		}
+
+		@Override
+		protected int newVisibleRows()
+		{
+			return 3;
+		}
+	}
+
+	private RowsPanel panel;
+	private List<String> rows;
+	private WicketTester tester;
+
+	/**
+	 * Gets the rendered items of the window mapped by their row.
+	 */
+	private Map<String, Item<String>> items()
+	{
+		final Map<String, Item<String>> items = new LinkedHashMap<>();
+		final Iterator<Item<String>> iterator = panel.getDataView().getItems();
+		while (iterator.hasNext())
+		{
+			final Item<String> item = iterator.next();
+			items.put(item.getModelObject(), item);
+		}
+		return items;
+	}
+
+	/**
+	 * Executes the scroll callback of the panel like the script does when the user scrolls.
+	 */
+	private void scroll(final long first)
+	{
+		final AbstractDefaultAjaxBehavior behavior = panel
+			.getBehaviors(AbstractDefaultAjaxBehavior.class).get(0);
+		tester.getRequest().setParameter("first", String.valueOf(first));
+		tester.executeBehavior(behavior);
+	}
+
+	@BeforeMethod
+	public void setUp()
+	{
+		tester = new WicketTester();
+		rows = new ArrayList<>();
+		for (int i = 0; i < 100; i++)
+		{
+			rows.add("row" + i);
+		}
+		panel = new RowsPanel("panel", rows);
+	}
+
+	@AfterMethod
+	public void tearDown()
+	{
+		tester.destroy();
+	}
+
+	@Test
+	public void testOnlyWindowIsRendered()
+	{
+		tester.startComponentInPage(panel);
+		tester.assertNoErrorMessage();
+
+		// 3 visible rows and 1 overscan row above and below
+		AssertJUnit.assertEquals(5, panel.getDataView().size());
+		AssertJUnit.assertEquals(Arrays.asList("row0", "row1", "row2", "row3", "row4"),
+			panel.created);
+		final String markup = tester.getLastResponseAsString();
+		AssertJUnit.assertTrue(markup.contains("row4"));
+		AssertJUnit.assertFalse(markup.contains("row5"));
+		AssertJUnit.assertTrue(markup.contains("height:" + 100 * 30 + "px;"));
+	}
+
+	@Test
+	public void testScrollRendersOnlyWindowAndReusesRows()
+	{
+		tester.startComponentInPage(panel);
+		final Map<String, Item<String>> before = items();
+		panel.created.clear();
+
+		scroll(2);
+
+		tester.assertComponentOnAjaxResponse(panel.getWindow());
+		final String response = tester.getLastResponseAsString();
+		final String spacerId = panel.getSpacer().getMarkupId();
+		AssertJUnit.assertFalse(response.contains("id=\"" + spacerId + "\""));
+		AssertJUnit.assertTrue(response.contains("top:" + 2 * 30 + "px;"));
+
+		// only the rows that moved into the window get new components
+		AssertJUnit.assertEquals(Arrays.asList("row5", "row6"), panel.created);
+		final Map<String, Item<String>> after = items();
+		AssertJUnit.assertEquals(Arrays.asList("row2", "row3", "row4", "row5", "row6"),
+			new ArrayList<>(after.keySet()));
+		for (final String row : Arrays.asList("row2", "row3", "row4"))
+		{
+			AssertJUnit.assertSame(before.get(row), after.get(row));
+		}
+	}
+
+	@Test
+	public void testScrollRendersSpacerIfSizeHasChanged()
+	{
+		tester.startComponentInPage(panel);
+		rows.add("row100");
+
+		scroll(2);
+
+		tester.assertComponentOnAjaxResponse(panel.getSpacer());
+		AssertJUnit.assertTrue(
+			tester.getLastResponseAsString().contains("height:" + 101 * 30 + "px;"));
+	}
+
+}
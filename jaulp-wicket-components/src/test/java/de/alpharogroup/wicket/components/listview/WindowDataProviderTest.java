@@ -0,0 +1,98 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.components.listview;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.wicket.markup.repeater.data.ListDataProvider;
+import org.testng.AssertJUnit;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Test for the class {@link WindowDataProvider}.
+ */
+public class WindowDataProviderTest
+{
+
+	private List<String> rows;
+	private WindowDataProvider<String> windowDataProvider;
+
+	private List<String> list(final Iterator<? extends String> iterator)
+	{
+		final List<String> list = new ArrayList<>();
+		while (iterator.hasNext())
+		{
+			list.add(iterator.next());
+		}
+		return list;
+	}
+
+	@BeforeMethod
+	public void setUp()
+	{
+		rows = new ArrayList<>();
+		for (int i = 0; i < 10; i++)
+		{
+			rows.add("row" + i);
+		}
+		windowDataProvider = new WindowDataProvider<>(new ListDataProvider<>(rows), 4);
+	}
+
+	@Test
+	public void testWindow()
+	{
+		AssertJUnit.assertEquals(10, windowDataProvider.getTotalSize());
+		AssertJUnit.assertEquals(4, windowDataProvider.size());
+		AssertJUnit.assertEquals(Arrays.asList("row0", "row1", "row2", "row3"),
+			list(windowDataProvider.iterator(0, 4)));
+
+		windowDataProvider.setFirst(3);
+		AssertJUnit.assertEquals(4, windowDataProvider.size());
+		AssertJUnit.assertEquals(Arrays.asList("row3", "row4", "row5", "row6"),
+			list(windowDataProvider.iterator(0, 4)));
+		AssertJUnit.assertEquals(Arrays.asList("row5", "row6"),
+			list(windowDataProvider.iterator(2, 2)));
+	}
+
+	@Test
+	public void testWindowAtTheEnd()
+	{
+		windowDataProvider.setFirst(8);
+		AssertJUnit.assertEquals(2, windowDataProvider.size());
+		AssertJUnit.assertEquals(Arrays.asList("row8", "row9"),
+			list(windowDataProvider.iterator(0, 2)));
+	}
+
+	@Test
+	public void testFirstIsLimitedToRows()
+	{
+		windowDataProvider.setFirst(20);
+		AssertJUnit.assertEquals(9, windowDataProvider.getFirst());
+		AssertJUnit.assertEquals(1, windowDataProvider.size());
+		windowDataProvider.setFirst(-1);
+		AssertJUnit.assertEquals(0, windowDataProvider.getFirst());
+
+		rows.clear();
+		windowDataProvider.setFirst(5);
+		AssertJUnit.assertEquals(0, windowDataProvider.getFirst());
+		AssertJUnit.assertEquals(0, windowDataProvider.size());
+	}
+
+}
@@ -0,0 +1,85 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.data.export;
+
+import java.util.List;
+
+import org.apache.wicket.extensions.markup.html.repeater.data.table.ISortableDataProvider;
+import org.apache.wicket.extensions.markup.html.repeater.data.table.export.IExportableColumn;
+import org.apache.wicket.request.resource.ContentDisposition;
+import org.apache.wicket.request.resource.ResourceStreamResource;
+import org.apache.wicket.util.time.Duration;
+
+/**
+ * The class {@link DataExportResource} serves the rows of a data provider as a delimited text file
+ * download. The rows are streamed with a {@link DataExportResourceStreamWriter}, so the export of
+ * large data uses constant memory. The current sort state and filter state of the data provider
+ * are used, for instance:
+ *
+ * <pre>
+ * add(new ResourceLink&lt;Void&gt;(&quot;export&quot;,
+ * 	new DataExportResource&lt;&gt;(dataProvider, columns, DelimitedFormat.CSV, &quot;persons&quot;)));
+ * </pre>
+ *
+ * @param <T>
+ *            the generic type of the rows
+ * @param <S>
+ *            the generic type for the sort property
+ */
+public class DataExportResource<T, S> extends ResourceStreamResource
+{
+
+	/** The serialVersionUID. */
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Instantiates a new {@link DataExportResource}.
+	 *
+	 * @param dataProvider
+	 *            the data provider
+	 * @param columns
+	 *            the exported columns
+	 * @param format
+	 *            the format
+	 * @param fileName
+	 *            the file name without the extension
+	 */
+	public DataExportResource(final ISortableDataProvider<T, S> dataProvider,
+		final List<? extends IExportableColumn<T, ?>> columns, final DelimitedFormat format,
+		final String fileName)
+	{
+		this(new DataExportResourceStreamWriter<>(dataProvider, columns, format),
+			fileName + "." + format.getExtension());
+	}
+
+	/**
+	 * Instantiates a new {@link DataExportResource}.
+	 *
+	 * @param writer
+	 *            the writer of the export
+	 * @param fileName
+	 *            the file name
+	 */
+	public DataExportResource(final DataExportResourceStreamWriter<T, S> writer,
+		final String fileName)
+	{
+		super(writer);
+		setFileName(fileName);
+		setContentDisposition(ContentDisposition.ATTACHMENT);
+		setCacheDuration(Duration.NONE);
+	}
+
+}
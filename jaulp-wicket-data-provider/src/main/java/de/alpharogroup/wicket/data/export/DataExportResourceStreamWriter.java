@@ -0,0 +1,375 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.data.export;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Serializable;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.wicket.Application;
+import org.apache.wicket.Session;
+import org.apache.wicket.extensions.markup.html.repeater.data.table.ISortableDataProvider;
+import org.apache.wicket.extensions.markup.html.repeater.data.table.export.IExportableColumn;
+import org.apache.wicket.markup.repeater.data.IDataProvider;
+import org.apache.wicket.model.IModel;
+import org.apache.wicket.util.convert.IConverter;
+import org.apache.wicket.util.lang.Args;
+import org.apache.wicket.util.resource.AbstractResourceStreamWriter;
+
+import de.alpharogroup.wicket.data.provider.PushdownDataProvider;
+import de.alpharogroup.wicket.data.provider.source.DataQuery;
+import de.alpharogroup.wicket.data.provider.source.IDataSource;
+import de.alpharogroup.wicket.data.provider.source.IKeysetDataSource;
+import de.alpharogroup.wicket.data.provider.source.KeysetPage;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * The class {@link DataExportResourceStreamWriter} streams the rows of a data provider as delimited
+ * text to the client. The rows are requested in chunks of {@link #getChunkSize()} rows and every
+ * chunk is written and flushed before the next chunk is requested, so the memory usage of the
+ * export does not depend on the number of rows. The chunks of a {@link PushdownDataProvider} are
+ * requested from its {@link IDataSource}, an {@link IKeysetDataSource} continues every chunk after
+ * the key of the previous chunk, so no chunk skips the rows before it. Keyset chunks and the chunks
+ * of a provider with an approximate count are requested until the data source returns no more rows,
+ * so an estimated count never cuts the export short. The chunks of any other data provider are
+ * requested with {@link ISortableDataProvider#iterator(long, long)}, the providers of this module
+ * serve them from their cached sorted view. One buffered writer is used for the whole export and
+ * the fields are escaped directly into it. Use the {@link DataExportResource} to serve the export.
+ *
+ * @param <T>
+ *            the generic type of the rows
+ * @param <S>
+ *            the generic type for the sort property
+ */
+public class DataExportResourceStreamWriter<T, S> extends AbstractResourceStreamWriter
+{
+
+	/** The default chunk size. */
+	public static final int DEFAULT_CHUNK_SIZE = 1000;
+
+	/** The serialVersionUID. */
+	private static final long serialVersionUID = 1L;
+
+	/** The size of the buffer of the writer. */
+	private static final int BUFFER_SIZE = 8192;
+
+	/** The name of the charset, the charset itself is not serializable. */
+	private final String charsetName;
+
+	/** The number of rows that are requested at once from the data provider. */
+	@Getter
+	@Setter
+	private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+	/** The exported columns. */
+	private final List<IExportableColumn<T, ?>> columns;
+
+	/** The data provider. */
+	private final ISortableDataProvider<T, S> dataProvider;
+
+	/** The format. */
+	@Getter
+	private final DelimitedFormat format;
+
+	/** The flag if a header row with the display names of the columns is written. */
+	@Getter
+	@Setter
+	private boolean headerRow = true;
+
+	/**
+	 * Instantiates a new {@link DataExportResourceStreamWriter} with the charset UTF-8.
+	 *
+	 * @param dataProvider
+	 *            the data provider
+	 * @param columns
+	 *            the exported columns
+	 * @param format
+	 *            the format
+	 */
+	public DataExportResourceStreamWriter(final ISortableDataProvider<T, S> dataProvider,
+		final List<? extends IExportableColumn<T, ?>> columns, final DelimitedFormat format)
+	{
+		this(dataProvider, columns, format, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Instantiates a new {@link DataExportResourceStreamWriter}.
+	 *
+	 * @param dataProvider
+	 *            the data provider
+	 * @param columns
+	 *            the exported columns
+	 * @param format
+	 *            the format
+	 * @param charset
+	 *            the charset
+	 */
+	public DataExportResourceStreamWriter(final ISortableDataProvider<T, S> dataProvider,
+		final List<? extends IExportableColumn<T, ?>> columns, final DelimitedFormat format,
+		final Charset charset)
+	{
+		this.dataProvider = Args.notNull(dataProvider, "dataProvider");
+		this.columns = new ArrayList<>(Args.notNull(columns, "columns"));
+		this.format = Args.notNull(format, "format");
+		this.charsetName = Args.notNull(charset, "charset").name();
+	}
+
+	/**
+	 * Gets the charset.
+	 *
+	 * @return the charset
+	 */
+	public Charset getCharset()
+	{
+		return Charset.forName(charsetName);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String getContentType()
+	{
+		return format.getContentType() + "; charset=" + charsetName;
+	}
+
+	/**
+	 * Gets the locale for converting the values of the cells.
+	 *
+	 * @return the locale
+	 */
+	protected Locale getLocale()
+	{
+		return Session.exists() ? Session.get().getLocale() : Locale.getDefault();
+	}
+
+	/**
+	 * Converts the given value of a cell to a string. This method can be overridden so users can
+	 * provide their own conversion.
+	 *
+	 * @param value
+	 *            the value of the cell
+	 * @param locale
+	 *            the locale
+	 * @return the string or null for an empty cell
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	protected CharSequence toString(final Object value, final Locale locale)
+	{
+		if (value == null)
+		{
+			return null;
+		}
+		if (value instanceof CharSequence)
+		{
+			return (CharSequence)value;
+		}
+		if (Application.exists())
+		{
+			final IConverter converter = Application.get().getConverterLocator()
+				.getConverter(value.getClass());
+			if (converter != null)
+			{
+				return converter.convertToString(value, locale);
+			}
+		}
+		return value.toString();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void write(final OutputStream output) throws IOException
+	{
+		final Writer writer = new BufferedWriter(new OutputStreamWriter(output, getCharset()),
+			BUFFER_SIZE);
+		final Locale locale = getLocale();
+		final int columnCount = columns.size();
+		try
+		{
+			if (headerRow)
+			{
+				for (int i = 0; i < columnCount; i++)
+				{
+					if (i > 0)
+					{
+						writer.write(format.getDelimiter());
+					}
+					final IModel<String> displayModel = columns.get(i).getDisplayModel();
+					format.writeField(writer, displayModel != null ? displayModel.getObject() : null);
+				}
+				writer.write("\r\n");
+			}
+			if (dataProvider instanceof PushdownDataProvider)
+			{
+				writeChunks(writer, (PushdownDataProvider<?, S, ?>)dataProvider, locale);
+			}
+			else
+			{
+				writeOffsetChunks(writer, dataProvider, dataProvider.size(), locale);
+			}
+			writer.flush();
+		}
+		finally
+		{
+			dataProvider.detach();
+		}
+	}
+
+	/**
+	 * Writes the rows of the given {@link PushdownDataProvider} in chunks. The chunks of an
+	 * {@link IKeysetDataSource} are loaded after the key of the previous chunk until an empty chunk
+	 * is loaded, the chunks of any other {@link IDataSource} are loaded with their offset.
+	 *
+	 * @param <R>
+	 *            the generic type of the rows
+	 * @param <F>
+	 *            the generic type for the filter state
+	 * @param writer
+	 *            the writer
+	 * @param provider
+	 *            the data provider
+	 * @param locale
+	 *            the locale
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	private <R extends Serializable, F extends Serializable> void writeChunks(final Writer writer,
+		final PushdownDataProvider<R, S, F> provider, final Locale locale) throws IOException
+	{
+		final IDataSource<R, S, F> source = provider.getSource();
+		if (!(source instanceof IKeysetDataSource))
+		{
+			// an approximate count can be too low, so the chunks are requested until the end
+			writeOffsetChunks(writer, provider,
+				provider.isApproximateCount() ? Long.MAX_VALUE : provider.size(), locale);
+			return;
+		}
+		Serializable afterKey = null;
+		while (true)
+		{
+			final DataQuery<S, F> query = DataQuery.<S, F> builder().offset(0).limit(chunkSize)
+				.sort(provider.getSort()).filterState(provider.getFilterState()).build();
+			final KeysetPage<R> page = ((IKeysetDataSource<R, S, F>)source).loadAfter(query,
+				afterKey);
+			if (page.getRows().isEmpty())
+			{
+				break;
+			}
+			writeRows(writer, page.getRows().iterator(), locale);
+			writer.flush();
+			afterKey = page.getLastKey();
+		}
+	}
+
+	/**
+	 * Writes the rows of the given data provider in chunks that are requested with their offset.
+	 * The export ends after the given number of rows or after a chunk with less rows than
+	 * requested.
+	 *
+	 * @param writer
+	 *            the writer
+	 * @param provider
+	 *            the data provider
+	 * @param size
+	 *            the maximum number of rows
+	 * @param locale
+	 *            the locale
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	private void writeOffsetChunks(final Writer writer, final IDataProvider<?> provider,
+		final long size, final Locale locale) throws IOException
+	{
+		for (long first = 0; first < size; first += chunkSize)
+		{
+			final long count = Math.min(chunkSize, size - first);
+			final int written = writeRows(writer, provider.iterator(first, count), locale);
+			writer.flush();
+			if (written < count)
+			{
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Writes the cells of the given row.
+	 *
+	 * @param writer
+	 *            the writer
+	 * @param rowModel
+	 *            the model of the row
+	 * @param locale
+	 *            the locale
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	private void writeRow(final Writer writer, final IModel<T> rowModel, final Locale locale)
+		throws IOException
+	{
+		for (int i = 0; i < columns.size(); i++)
+		{
+			if (i > 0)
+			{
+				writer.write(format.getDelimiter());
+			}
+			final IModel<?> dataModel = columns.get(i).getDataModel(rowModel);
+			format.writeField(writer, toString(dataModel.getObject(), locale));
+			dataModel.detach();
+		}
+		writer.write("\r\n");
+		rowModel.detach();
+	}
+
+	/**
+	 * Writes the given rows.
+	 *
+	 * @param writer
+	 *            the writer
+	 * @param rows
+	 *            the rows
+	 * @param locale
+	 *            the locale
+	 * @return the number of written rows
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	@SuppressWarnings("unchecked")
+	private int writeRows(final Writer writer, final Iterator<?> rows, final Locale locale)
+		throws IOException
+	{
+		int written = 0;
+		while (rows.hasNext())
+		{
+			writeRow(writer, dataProvider.model((T)rows.next()), locale);
+			written++;
+		}
+		return written;
+	}
+
+}
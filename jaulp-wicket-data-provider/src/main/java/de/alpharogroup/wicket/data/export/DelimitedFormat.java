@@ -0,0 +1,139 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.data.export;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * The Enum DelimitedFormat contains the formats of the delimited text exports.
+ */
+public enum DelimitedFormat
+{
+
+	/** The format for comma separated values, fields are quoted as described in RFC 4180. */
+	CSV(',', "text/csv", "csv"),
+	/** The format for tab separated values, tabs and line breaks in fields are replaced. */
+	TSV('\t', "text/tab-separated-values", "tsv");
+
+	/** The content type. */
+	private final String contentType;
+
+	/** The delimiter. */
+	private final char delimiter;
+
+	/** The file extension. */
+	private final String extension;
+
+	/**
+	 * Instantiates a new {@link DelimitedFormat}.
+	 *
+	 * @param delimiter
+	 *            the delimiter
+	 * @param contentType
+	 *            the content type
+	 * @param extension
+	 *            the file extension
+	 */
+	DelimitedFormat(final char delimiter, final String contentType, final String extension)
+	{
+		this.delimiter = delimiter;
+		this.contentType = contentType;
+		this.extension = extension;
+	}
+
+	/**
+	 * Gets the content type.
+	 *
+	 * @return the content type
+	 */
+	public String getContentType()
+	{
+		return contentType;
+	}
+
+	/**
+	 * Gets the delimiter.
+	 *
+	 * @return the delimiter
+	 */
+	public char getDelimiter()
+	{
+		return delimiter;
+	}
+
+	/**
+	 * Gets the file extension.
+	 *
+	 * @return the file extension
+	 */
+	public String getExtension()
+	{
+		return extension;
+	}
+
+	/**
+	 * Writes the given field to the given writer. The field is escaped char by char, so no
+	 * intermediate string is created.
+	 *
+	 * @param writer
+	 *            the writer
+	 * @param field
+	 *            the field or null for an empty field
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	public void writeField(final Writer writer, final CharSequence field) throws IOException
+	{
+		if (field == null)
+		{
+			return;
+		}
+		final int length = field.length();
+		if (this == TSV)
+		{
+			for (int i = 0; i < length; i++)
+			{
+				final char c = field.charAt(i);
+				writer.write((c == '\t') || (c == '\r') || (c == '\n') ? ' ' : c);
+			}
+			return;
+		}
+		boolean quote = false;
+		for (int i = 0; !quote && (i < length); i++)
+		{
+			final char c = field.charAt(i);
+			quote = (c == delimiter) || (c == '"') || (c == '\r') || (c == '\n');
+		}
+		if (!quote)
+		{
+			writer.append(field);
+			return;
+		}
+		writer.write('"');
+		for (int i = 0; i < length; i++)
+		{
+			final char c = field.charAt(i);
+			if (c == '"')
+			{
+				writer.write('"');
+			}
+			writer.write(c);
+		}
+		writer.write('"');
+	}
+
+}
@@ -0,0 +1,193 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.data.model;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.wicket.MetaDataKey;
+import org.apache.wicket.request.cycle.RequestCycle;
+
+import de.alpharogroup.wicket.base.application.RequestCycleLocal;
+
+/**
+ * The class {@link BatchLoadingContext} collects the ids of all {@link BatchLoadingModel}s that are
+ * touched in the current request. When the first model is loaded all collected ids are loaded with
+ * one call of the {@link IBatchLoader}, and every entity is resolved only once per request cycle.
+ * The ids and entities are kept per loader, loaders that are equal share their ids and entities.
+ * The context is stored in the {@link RequestCycle}, so it is destroyed when the request is
+ * finished.
+ */
+public class BatchLoadingContext implements Serializable
+{
+
+	/** The serialVersionUID. */
+	private static final long serialVersionUID = 1L;
+
+	/** The context of the current request cycle. */
+	private static final RequestCycleLocal<BatchLoadingContext> CONTEXT = new RequestCycleLocal<>(
+		new MetaDataKey<BatchLoadingContext>()
+		{
+			private static final long serialVersionUID = 1L;
+		});
+
+	/**
+	 * Gets the context of the current request cycle.
+	 *
+	 * @return the context of the current request cycle or null if no request cycle is attached to
+	 *         the current thread.
+	 */
+	public static BatchLoadingContext get()
+	{
+		if (RequestCycle.get() == null)
+		{
+			return null;
+		}
+		BatchLoadingContext context = CONTEXT.get();
+		if (context == null)
+		{
+			context = new BatchLoadingContext();
+			CONTEXT.set(context);
+		}
+		return context;
+	}
+
+	/** The resolved entities per loader, the loaders are compared with their equals method. */
+	private final Map<IBatchLoader<?, ?>, Map<Serializable, Object>> resolved = new HashMap<>();
+
+	/**
+	 * The ids that are not resolved yet per loader, the loaders are compared with their equals
+	 * method.
+	 */
+	private final Map<IBatchLoader<?, ?>, Set<Serializable>> pending = new HashMap<>();
+
+	/**
+	 * Gets the entity with the given id. If the entity is not resolved yet, it is loaded together
+	 * with all pending ids of the given loader.
+	 *
+	 * @param <T>
+	 *            the generic type of the entity
+	 * @param <K>
+	 *            the generic type of the id
+	 * @param loader
+	 *            the loader
+	 * @param id
+	 *            the id
+	 * @return the entity or null if there is no entity with the given id
+	 */
+	@SuppressWarnings("unchecked")
+	public <T, K extends Serializable> T get(final IBatchLoader<T, K> loader, final K id)
+	{
+		final Map<Serializable, Object> entities = getResolved(loader);
+		if (entities.containsKey(id))
+		{
+			return (T)entities.get(id);
+		}
+		final Set<Serializable> ids = getPending(loader);
+		ids.add(id);
+		final Set<K> batch = new LinkedHashSet<>();
+		for (final Serializable pendingId : ids)
+		{
+			batch.add((K)pendingId);
+		}
+		ids.clear();
+		final Map<K, T> loaded = loader.load(batch);
+		for (final K loadedId : batch)
+		{
+			entities.put(loadedId, loaded.get(loadedId));
+		}
+		return (T)entities.get(id);
+	}
+
+	/**
+	 * Gets the pending ids of the given loader.
+	 *
+	 * @param loader
+	 *            the loader
+	 * @return the pending ids
+	 */
+	private Set<Serializable> getPending(final IBatchLoader<?, ?> loader)
+	{
+		Set<Serializable> ids = pending.get(loader);
+		if (ids == null)
+		{
+			ids = new LinkedHashSet<>();
+			pending.put(loader, ids);
+		}
+		return ids;
+	}
+
+	/**
+	 * Gets the resolved entities of the given loader.
+	 *
+	 * @param loader
+	 *            the loader
+	 * @return the resolved entities
+	 */
+	private Map<Serializable, Object> getResolved(final IBatchLoader<?, ?> loader)
+	{
+		Map<Serializable, Object> entities = resolved.get(loader);
+		if (entities == null)
+		{
+			entities = new HashMap<>();
+			resolved.put(loader, entities);
+		}
+		return entities;
+	}
+
+	/**
+	 * Puts the given entity that is already loaded in the current request as resolved.
+	 *
+	 * @param <T>
+	 *            the generic type of the entity
+	 * @param <K>
+	 *            the generic type of the id
+	 * @param loader
+	 *            the loader
+	 * @param id
+	 *            the id
+	 * @param object
+	 *            the entity
+	 */
+	public <T, K extends Serializable> void put(final IBatchLoader<T, K> loader, final K id,
+		final T object)
+	{
+		getResolved(loader).put(id, object);
+		getPending(loader).remove(id);
+	}
+
+	/**
+	 * Registers the given id to be loaded with the next batch of the given loader.
+	 *
+	 * @param <K>
+	 *            the generic type of the id
+	 * @param loader
+	 *            the loader
+	 * @param id
+	 *            the id
+	 */
+	public <K extends Serializable> void register(final IBatchLoader<?, K> loader, final K id)
+	{
+		if (!getResolved(loader).containsKey(id))
+		{
+			getPending(loader).add(id);
+		}
+	}
+
+}
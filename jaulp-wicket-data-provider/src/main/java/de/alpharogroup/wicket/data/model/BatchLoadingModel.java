@@ -0,0 +1,229 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.data.model;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.Set;
+
+import org.apache.wicket.model.LoadableDetachableModel;
+import org.apache.wicket.util.lang.Args;
+
+import lombok.Getter;
+
+/**
+ * The class {@link BatchLoadingModel} is a {@link LoadableDetachableModel} that holds only the id
+ * of the entity, so the entity is never written to the page store. All models that are touched in
+ * the same request are loaded with one call of the {@link IBatchLoader} over the
+ * {@link BatchLoadingContext}. A model can be created with the ids of the other rows of its page,
+ * then the first model of the page that is loaded in a later request registers the ids of the
+ * whole page, so a page that stays in memory is loaded with one batch as well. Two models are equal
+ * if they have the same id, so row items can be reused with the
+ * <code>ReuseIfModelsEqualStrategy</code>.
+ *
+ * @param <T>
+ *            the generic type of the entity
+ * @param <K>
+ *            the generic type of the id
+ */
+public class BatchLoadingModel<T, K extends Serializable> extends LoadableDetachableModel<T>
+{
+
+	/** The serialVersionUID. */
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Factory method to create a new {@link BatchLoadingModel} from an entity that is already
+	 * loaded. The entity is put as resolved in the context of the current request.
+	 *
+	 * @param <T>
+	 *            the generic type of the entity
+	 * @param <K>
+	 *            the generic type of the id
+	 * @param object
+	 *            the entity
+	 * @param loader
+	 *            the loader
+	 * @return the new {@link BatchLoadingModel}
+	 */
+	public static <T, K extends Serializable> BatchLoadingModel<T, K> of(final T object,
+		final IBatchLoader<T, K> loader)
+	{
+		Args.notNull(object, "object");
+		Args.notNull(loader, "loader");
+		return new BatchLoadingModel<>(loader.getId(object), object, loader, null);
+	}
+
+	/**
+	 * Factory method to create a new {@link BatchLoadingModel} from an entity that is already
+	 * loaded and that is loaded together with the entities of the given ids in later requests. The
+	 * entity is put as resolved in the context of the current request.
+	 *
+	 * @param <T>
+	 *            the generic type of the entity
+	 * @param <K>
+	 *            the generic type of the id
+	 * @param object
+	 *            the entity
+	 * @param loader
+	 *            the loader
+	 * @param batch
+	 *            the ids of the entities that are loaded together with the entity, for instance
+	 *            the ids of the rows of the same page. The set is shared and not copied.
+	 * @return the new {@link BatchLoadingModel}
+	 */
+	public static <T, K extends Serializable> BatchLoadingModel<T, K> of(final T object,
+		final IBatchLoader<T, K> loader, final Set<K> batch)
+	{
+		Args.notNull(object, "object");
+		Args.notNull(loader, "loader");
+		return new BatchLoadingModel<>(loader.getId(object), object, loader,
+			Args.notNull(batch, "batch"));
+	}
+
+	/** The id of the entity. */
+	@Getter
+	private final K id;
+
+	/** The loader. */
+	private final IBatchLoader<T, K> loader;
+
+	/** The ids that are loaded together with the id of this model or null. */
+	private final Set<K> batch;
+
+	/**
+	 * Instantiates a new {@link BatchLoadingModel} from an id.
+	 *
+	 * @param id
+	 *            the id of the entity
+	 * @param loader
+	 *            the loader
+	 */
+	public BatchLoadingModel(final K id, final IBatchLoader<T, K> loader)
+	{
+		this.id = Args.notNull(id, "id");
+		this.loader = Args.notNull(loader, "loader");
+		this.batch = null;
+		register();
+	}
+
+	/**
+	 * Instantiates a new {@link BatchLoadingModel} from an entity that is already loaded.
+	 *
+	 * @param id
+	 *            the id of the entity
+	 * @param object
+	 *            the entity
+	 * @param loader
+	 *            the loader
+	 * @param batch
+	 *            the ids that are loaded together with the id or null
+	 */
+	private BatchLoadingModel(final K id, final T object, final IBatchLoader<T, K> loader,
+		final Set<K> batch)
+	{
+		super(object);
+		this.id = Args.notNull(id, "id");
+		this.loader = loader;
+		this.batch = batch;
+		final BatchLoadingContext context = BatchLoadingContext.get();
+		if (context != null)
+		{
+			context.put(loader, id, object);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean equals(final Object obj)
+	{
+		if (this == obj)
+		{
+			return true;
+		}
+		if (!(obj instanceof BatchLoadingModel))
+		{
+			return false;
+		}
+		final BatchLoadingModel<?, ?> other = (BatchLoadingModel<?, ?>)obj;
+		return id.equals(other.id) && loader.equals(other.loader);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int hashCode()
+	{
+		return id.hashCode();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected T load()
+	{
+		final BatchLoadingContext context = BatchLoadingContext.get();
+		if (context == null)
+		{
+			return loader.load(Collections.singleton(id)).get(id);
+		}
+		if (batch != null)
+		{
+			for (final K batchId : batch)
+			{
+				context.register(loader, batchId);
+			}
+		}
+		return context.get(loader, id);
+	}
+
+	/**
+	 * Registers the id of this model in the context of the current request, so the entity is
+	 * loaded with the next batch.
+	 */
+	private void register()
+	{
+		final BatchLoadingContext context = BatchLoadingContext.get();
+		if (context != null)
+		{
+			context.register(loader, id);
+		}
+	}
+
+	/**
+	 * Registers the id after the model is read from the page store, so all models of a page are
+	 * loaded with one batch.
+	 *
+	 * @param in
+	 *            the object input stream
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 * @throws ClassNotFoundException
+	 *             occurs if a class of the serialized object cannot be found
+	 */
+	private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException
+	{
+		in.defaultReadObject();
+		register();
+	}
+
+}
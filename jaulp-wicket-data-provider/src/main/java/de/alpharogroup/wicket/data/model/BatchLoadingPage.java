@@ -0,0 +1,99 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.data.model;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.wicket.model.IModel;
+import org.apache.wicket.util.lang.Args;
+
+import lombok.Getter;
+
+/**
+ * The class {@link BatchLoadingPage} collects the ids of the rows of the last requested page of a
+ * data provider and creates the {@link BatchLoadingModel}s of these rows, so the models of a page
+ * share the ids of the whole page. Data providers that return {@link BatchLoadingModel}s delegate
+ * their <code>iterator</code> and <code>model</code> methods to this class.
+ *
+ * @param <T>
+ *            the generic type of the entity
+ * @param <K>
+ *            the generic type of the id
+ */
+public class BatchLoadingPage<T, K extends Serializable> implements Serializable
+{
+
+	/** The serialVersionUID. */
+	private static final long serialVersionUID = 1L;
+
+	/** The loader. */
+	@Getter
+	private final IBatchLoader<T, K> loader;
+
+	/** The ids of the rows of the last requested page, shared by the models of this page. */
+	private Set<K> pageIds = new LinkedHashSet<>();
+
+	/**
+	 * Instantiates a new {@link BatchLoadingPage}.
+	 *
+	 * @param loader
+	 *            the loader
+	 */
+	public BatchLoadingPage(final IBatchLoader<T, K> loader)
+	{
+		this.loader = Args.notNull(loader, "loader");
+	}
+
+	/**
+	 * Collects the rows of the given page and their ids for the models of this page.
+	 *
+	 * @param iterator
+	 *            the iterator over the rows of the requested page
+	 * @return an iterator over the collected rows
+	 */
+	public Iterator<T> collect(final Iterator<? extends T> iterator)
+	{
+		final List<T> page = new ArrayList<>();
+		final Set<K> ids = new LinkedHashSet<>();
+		while (iterator.hasNext())
+		{
+			final T object = iterator.next();
+			page.add(object);
+			ids.add(loader.getId(object));
+		}
+		pageIds = ids;
+		return page.iterator();
+	}
+
+	/**
+	 * Creates the {@link BatchLoadingModel} of the given row with the ids of the last requested
+	 * page.
+	 *
+	 * @param object
+	 *            the row
+	 * @return the new model
+	 */
+	public IModel<T> model(final T object)
+	{
+		return BatchLoadingModel.of(object, loader, pageIds);
+	}
+
+}
@@ -0,0 +1,61 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.data.model;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Map;
+
+import org.apache.wicket.util.io.IClusterable;
+
+/**
+ * The interface {@link IBatchLoader} loads entities by their ids. It is used from the
+ * {@link BatchLoadingModel} to load all entities that are needed in a request with one call.
+ * <p>
+ * The {@link BatchLoadingContext} batches the ids of loaders that are equal. The default identity
+ * of {@link Object#equals(Object)} batches only the models that share the same loader instance.
+ * Loaders that are copied, for instance for every model, can implement {@link Object#equals(Object)}
+ * and {@link Object#hashCode()}. Equal loaders have to load the same entity type with the same
+ * parameters, because they share the loaded entities.
+ *
+ * @param <T>
+ *            the generic type of the entity
+ * @param <K>
+ *            the generic type of the id
+ */
+public interface IBatchLoader<T, K extends Serializable> extends IClusterable
+{
+
+	/**
+	 * Gets the id of the given entity.
+	 *
+	 * @param object
+	 *            the entity
+	 * @return the id of the given entity
+	 */
+	K getId(T object);
+
+	/**
+	 * Loads the entities with the given ids with one call. Ids without an entity are not contained
+	 * in the result.
+	 *
+	 * @param ids
+	 *            the ids
+	 * @return the loaded entities mapped by their id
+	 */
+	Map<K, T> load(Collection<K> ids);
+
+}
@@ -0,0 +1,96 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.data.navigation;
+
+import org.apache.wicket.markup.html.link.AbstractLink;
+import org.apache.wicket.markup.html.navigation.paging.IPageable;
+import org.apache.wicket.markup.html.navigation.paging.IPagingLabelProvider;
+import org.apache.wicket.markup.html.navigation.paging.PagingNavigation;
+import org.apache.wicket.markup.html.navigation.paging.PagingNavigator;
+
+import de.alpharogroup.wicket.data.provider.KeysetDataProvider;
+
+/**
+ * The class {@link KeysetPagingNavigator} is the navigator for a pageable that is backed by a
+ * {@link KeysetDataProvider}. The page links are limited to the pages around the current page, so
+ * every page that can be reached with a link is only a few pages away from a page whose key is
+ * remembered from the {@link KeysetDataProvider}. For the same reason the link to the last page is
+ * hidden, the last page is reached by paging forward.
+ */
+public class KeysetPagingNavigator extends PagingNavigator
+{
+
+	/** The Constant serialVersionUID. */
+	private static final long serialVersionUID = 1L;
+
+	/** The default number of page links. */
+	public static final int DEFAULT_VIEW_SIZE = 5;
+
+	/**
+	 * Instantiates a new {@link KeysetPagingNavigator}.
+	 *
+	 * @param id
+	 *            the component id
+	 * @param pageable
+	 *            the pageable component
+	 */
+	public KeysetPagingNavigator(final String id, final IPageable pageable)
+	{
+		super(id, pageable);
+	}
+
+	/**
+	 * Gets the number of page links around the current page. This method can be overridden so
+	 * users can provide their own number of page links.
+	 *
+	 * @return the number of page links
+	 */
+	protected int getViewSize()
+	{
+		return DEFAULT_VIEW_SIZE;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * The link to the last page is hidden, because no key is remembered near the last page.
+	 */
+	@Override
+	protected AbstractLink newPagingNavigationLink(final String id, final IPageable pageable,
+		final int pageNumber)
+	{
+		final AbstractLink link = super.newPagingNavigationLink(id, pageable, pageNumber);
+		if (pageNumber < 0)
+		{
+			link.setVisible(false);
+		}
+		return link;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected PagingNavigation newNavigation(final String id, final IPageable pageable,
+		final IPagingLabelProvider labelProvider)
+	{
+		final PagingNavigation navigation = super.newNavigation(id, pageable, labelProvider);
+		navigation.setViewSize(getViewSize());
+		navigation.setMargin(0);
+		return navigation;
+	}
+
+}
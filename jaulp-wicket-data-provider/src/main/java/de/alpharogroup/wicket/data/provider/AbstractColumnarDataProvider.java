@@ -0,0 +1,375 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.data.provider;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.IntPredicate;
+
+import org.apache.wicket.WicketRuntimeException;
+import org.apache.wicket.extensions.markup.html.repeater.data.sort.SortOrder;
+import org.apache.wicket.extensions.markup.html.repeater.data.table.ISortableDataProvider;
+import org.apache.wicket.extensions.markup.html.repeater.data.table.filter.IFilterStateLocator;
+import org.apache.wicket.extensions.markup.html.repeater.util.SingleSortState;
+import org.apache.wicket.extensions.markup.html.repeater.util.SortParam;
+import org.apache.wicket.model.IModel;
+import org.apache.wicket.model.Model;
+import org.apache.wicket.util.lang.Args;
+
+import de.alpharogroup.wicket.data.provider.column.Column;
+import de.alpharogroup.wicket.data.provider.column.ColumnarTable;
+import de.alpharogroup.wicket.data.provider.column.IColumnarTableLoader;
+import de.alpharogroup.wicket.data.provider.sort.IndexSort;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * The Class {@link AbstractColumnarDataProvider} provides the rows of a {@link ColumnarTable}.
+ * Filtering and sorting work on the primitive columns and produce a permutation of row indexes,
+ * the row objects are created with {@link #newRow(int)} only for the rows of the requested page.
+ * The sort property must be the name of a column of the table. The permutation is cached until
+ * the table, the sort state or the filter state changes or the provider is detached. With an
+ * {@link IColumnarTableLoader} only the loader is serialized and the table is loaded again after the
+ * provider was detached or deserialized, otherwise the table is serialized with the provider.
+ *
+ * @param <T>
+ *            the generic type of the Model for the DataProvider.
+ * @param <F>
+ *            the generic type for the Filter.
+ */
+public abstract class AbstractColumnarDataProvider<T extends Serializable, F extends Serializable>
+	implements
+		ISortableDataProvider<T, String>,
+		IFilterStateLocator<F>
+{
+
+	/**
+	 * The serialVersionUID.
+	 */
+	private static final long serialVersionUID = 1L;
+
+	/** The filter. */
+	@Getter
+	@Setter
+	private F filterState;
+
+	/** The cached permutation of the row indexes. */
+	private transient int[] rows;
+
+	/** The fingerprint of the filter state the permutation was computed with. */
+	private transient byte[] rowsFilterFingerprint;
+
+	/** The sort param the permutation was computed with. */
+	private transient SortParam<String> rowsSort;
+
+	/** The table version the permutation was computed from. */
+	private transient long rowsVersion;
+
+	/** The sort state. */
+	@Getter
+	private final SingleSortState<String> sortState;
+
+	/** The table. */
+	private transient ColumnarTable<T> table;
+
+	/** The loader of the table or null if the table is serialized. */
+	@Getter
+	private final IColumnarTableLoader<T> tableLoader;
+
+	/**
+	 * Instantiates a new {@link AbstractColumnarDataProvider}.
+	 *
+	 * @param table
+	 *            the table
+	 */
+	public AbstractColumnarDataProvider(final ColumnarTable<T> table)
+	{
+		this.table = Args.notNull(table, "table");
+		this.tableLoader = null;
+		this.sortState = newSortState();
+	}
+
+	/**
+	 * Instantiates a new {@link AbstractColumnarDataProvider} that loads its table with the given
+	 * loader.
+	 *
+	 * @param tableLoader
+	 *            the loader of the table
+	 */
+	public AbstractColumnarDataProvider(final IColumnarTableLoader<T> tableLoader)
+	{
+		this.tableLoader = Args.notNull(tableLoader, "tableLoader");
+		this.sortState = newSortState();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void detach()
+	{
+		if (tableLoader != null)
+		{
+			table = null;
+		}
+		rows = null;
+		rowsSort = null;
+		rowsFilterFingerprint = null;
+	}
+
+	/**
+	 * Gets the filtered and sorted permutation of the row indexes.
+	 *
+	 * @return the row indexes
+	 */
+	protected int[] getRows()
+	{
+		final ColumnarTable<T> currentTable = getTable();
+		final SortParam<String> sort = getSort();
+		final byte[] fingerprint = Fingerprints.of(getFilterState());
+		if ((rows == null) || (fingerprint == null) || (rowsVersion != currentTable.getVersion())
+			|| !Objects.equals(rowsSort, sort) || !Arrays.equals(rowsFilterFingerprint, fingerprint))
+		{
+			rows = sort(filter(getFilterState()), sort);
+			rowsVersion = currentTable.getVersion();
+			rowsSort = sort;
+			rowsFilterFingerprint = fingerprint;
+		}
+		return rows;
+	}
+
+	/**
+	 * Gets the table. If a table loader is set and the table was detached or not serialized, the
+	 * table is loaded again with the table loader.
+	 *
+	 * @return the table
+	 */
+	public ColumnarTable<T> getTable()
+	{
+		if (table == null)
+		{
+			table = tableLoader.load();
+		}
+		return table;
+	}
+
+	/**
+	 * Returns current sort state.
+	 *
+	 * @return current sort state
+	 */
+	public SortParam<String> getSort()
+	{
+		return sortState.getSort();
+	}
+
+	/**
+	 * Gets the indexes of the rows that match the given filter state.
+	 *
+	 * @param filterState
+	 *            the filter state
+	 * @return the row indexes in table order
+	 */
+	protected int[] filter(final F filterState)
+	{
+		final int rowCount = getTable().getRowCount();
+		final IntPredicate predicate = filterState != null ? newRowFilter(filterState) : null;
+		final int[] result = new int[rowCount];
+		int size = 0;
+		for (int row = 0; row < rowCount; row++)
+		{
+			if ((predicate == null) || predicate.test(row))
+			{
+				result[size++] = row;
+			}
+		}
+		return size == rowCount ? result : Arrays.copyOf(result, size);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Iterator<? extends T> iterator(final long first, final long count)
+	{
+		final int[] rows = getRows();
+		final int from = (int)Math.min(first, rows.length);
+		final int to = (int)Math.min(first + count, rows.length);
+		final List<T> page = new ArrayList<>(to - from);
+		for (int i = from; i < to; i++)
+		{
+			page.add(newRow(rows[i]));
+		}
+		return page.iterator();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public IModel<T> model(final T object)
+	{
+		return Model.of(object);
+	}
+
+	/**
+	 * Factory method for creating the row object of the given row index. This method is invoked
+	 * only for the rows of the requested page and has to be implemented so users can create their
+	 * row objects from the columns of the table.
+	 *
+	 * @param row
+	 *            the row index
+	 * @return the new row object
+	 */
+	protected abstract T newRow(final int row);
+
+	/**
+	 * Factory method for creating the filter of the row indexes for the given filter state. This
+	 * method can be overridden so users can filter with the primitive values of the columns, for
+	 * instance with {@link de.alpharogroup.wicket.data.provider.column.IntColumn#getInt(int)}.
+	 *
+	 * @param filterState
+	 *            the filter state, never null
+	 * @return the filter or null if all rows match
+	 */
+	protected IntPredicate newRowFilter(final F filterState)
+	{
+		return null;
+	}
+
+	/**
+	 * Factory method for creating the new {@link SingleSortState} for the sort state. This method
+	 * is invoked in the constructor and can be overridden so users can provide their own version of
+	 * a new {@link SingleSortState} for the sort state.
+	 *
+	 * @return the new {@link SingleSortState} for the sort state.
+	 */
+	protected SingleSortState<String> newSortState()
+	{
+		return new SingleSortState<>();
+	}
+
+	/**
+	 * Sets the current sort state.
+	 *
+	 * @param property
+	 *            sort property
+	 * @param order
+	 *            sort order
+	 */
+	public void setSort(final String property, final SortOrder order)
+	{
+		sortState.setPropertySortOrder(property, order);
+	}
+
+	/**
+	 * Sets the current sort state.
+	 *
+	 * @param param
+	 *            parameter containing new sorting information
+	 */
+	public void setSort(final SortParam<String> param)
+	{
+		sortState.setSort(param);
+	}
+
+	/**
+	 * Reads the table only if it was serialized without a table loader.
+	 *
+	 * @param in
+	 *            the input stream
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 * @throws ClassNotFoundException
+	 *             if the class of a serialized object could not be found.
+	 */
+	@SuppressWarnings("unchecked")
+	private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException
+	{
+		in.defaultReadObject();
+		this.table = (ColumnarTable<T>)in.readObject();
+	}
+
+	/**
+	 * Writes the table only if no table loader is set.
+	 *
+	 * @param out
+	 *            the output stream
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	private void writeObject(final ObjectOutputStream out) throws IOException
+	{
+		out.defaultWriteObject();
+		out.writeObject(tableLoader == null ? table : null);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long size()
+	{
+		return getRows().length;
+	}
+
+	/**
+	 * Sorts the given row indexes with the column of the given sort param.
+	 *
+	 * @param rows
+	 *            the row indexes
+	 * @param sort
+	 *            the sort param or null
+	 * @return the sorted row indexes
+	 */
+	protected int[] sort(final int[] rows, final SortParam<String> sort)
+	{
+		if (sort == null)
+		{
+			return rows;
+		}
+		final Column column = getTable().getColumn(sort.getProperty());
+		if (column == null)
+		{
+			throw new WicketRuntimeException(
+				"The table has no column for the sort property '" + sort.getProperty() + "'.");
+		}
+		if (sort.isAscending())
+		{
+			IndexSort.sort(rows, column);
+		}
+		else
+		{
+			IndexSort.sort(rows, new IndexSort.RowComparator()
+			{
+				@Override
+				public int compare(final int row1, final int row2)
+				{
+					return column.compare(row2, row1);
+				}
+			});
+		}
+		return rows;
+	}
+
+}
@@ -0,0 +1,111 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.data.provider;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.wicket.model.IModel;
+
+import de.alpharogroup.wicket.data.model.BatchLoadingModel;
+import de.alpharogroup.wicket.data.model.BatchLoadingPage;
+import de.alpharogroup.wicket.data.model.IBatchLoader;
+
+/**
+ * The Class {@link AbstractIdSortableDataProvider} is an {@link AbstractSortableDataProvider} that
+ * returns {@link BatchLoadingModel}s, so only the ids of the rows are written to the page store and
+ * all rows that are touched in a request are loaded with one call of the {@link IBatchLoader}.
+ * The models of a page know the ids of the whole page, so the page is loaded with one call in later
+ * requests as well.
+ *
+ * @param <T>
+ *            the generic type of the Model for the DataProvider.
+ * @param <S>
+ *            the generic type for the SortState.
+ * @param <K>
+ *            the generic type of the id.
+ */
+public class AbstractIdSortableDataProvider<T extends Serializable, S extends Serializable, K extends Serializable>
+	extends
+		AbstractSortableDataProvider<T, S>
+{
+
+	/**
+	 * The serialVersionUID.
+	 */
+	private static final long serialVersionUID = 1L;
+
+	/** The ids of the rows of the last requested page and the loader. */
+	private final BatchLoadingPage<T, K> page;
+
+	/**
+	 * Instantiates a new {@link AbstractIdSortableDataProvider}.
+	 *
+	 * @param loader
+	 *            the loader
+	 */
+	public AbstractIdSortableDataProvider(final IBatchLoader<T, K> loader)
+	{
+		this(new ArrayList<T>(), loader);
+	}
+
+	/**
+	 * Instantiates a new {@link AbstractIdSortableDataProvider}.
+	 *
+	 * @param data
+	 *            the data
+	 * @param loader
+	 *            the loader
+	 */
+	public AbstractIdSortableDataProvider(final List<T> data, final IBatchLoader<T, K> loader)
+	{
+		super(data);
+		this.page = new BatchLoadingPage<>(loader);
+	}
+
+	/**
+	 * Gets the loader.
+	 *
+	 * @return the loader
+	 */
+	public IBatchLoader<T, K> getLoader()
+	{
+		return page.getLoader();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * The ids of the rows of the requested page are collected for the models of this page.
+	 */
+	@Override
+	public Iterator<? extends T> iterator(final long first, final long count)
+	{
+		return page.collect(super.iterator(first, count));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public IModel<T> model(final T object)
+	{
+		return page.model(object);
+	}
+
+}
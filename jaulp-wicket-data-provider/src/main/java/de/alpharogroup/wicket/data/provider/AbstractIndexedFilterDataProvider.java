@@ -0,0 +1,211 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.data.provider;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import de.alpharogroup.wicket.data.provider.index.DataIndex;
+import de.alpharogroup.wicket.data.provider.index.IndexQuery;
+
+/**
+ * The Class {@link AbstractIndexedFilterDataProvider} resolves the filter state with secondary
+ * indexes instead of scanning the whole data. The indexed properties are declared in
+ * {@link #onDeclareIndexes(DataIndex)} and the fields of the filter state are mapped to index
+ * lookups in {@link #onQuery(IndexQuery, Serializable)}. The indexes are kept across requests, so
+ * filtering costs the lookups and the sort of the matching rows. They are built again only if
+ * <ul>
+ * <li>{@link #dataChanged()} is invoked,</li>
+ * <li>the snapshot of the {@link IDataLoader} has changed or</li>
+ * <li>without a data loader, {@link #setData(List)} sets other rows than the indexed rows.</li>
+ * </ul>
+ * Data that is loaded again from an unchanged snapshot or set again with the same row instances in
+ * the same order is bound to the existing indexes. A data loader whose rows can change for the same
+ * snapshot has to include a version token in the snapshot. Criteria that cannot be indexed can
+ * still be implemented in {@link #filter(List)}, it is applied to the matching rows only.
+ *
+ * <pre>
+ * protected void onDeclareIndexes(DataIndex&lt;Person&gt; index)
+ * {
+ * 	index.addHashIndex(&quot;status&quot;).addRangeIndex(&quot;birthday&quot;);
+ * }
+ *
+ * protected void onQuery(IndexQuery&lt;Person&gt; query, PersonFilter filter)
+ * {
+ * 	query.equal(&quot;status&quot;, filter.getStatus()).range(&quot;birthday&quot;, filter.getFrom(),
+ * 		filter.getTo());
+ * }
+ * </pre>
+ *
+ * @param <T>
+ *            the generic type of the Model for the DataProvider.
+ * @param <S>
+ *            the generic type for the SortState.
+ * @param <F>
+ *            the generic type for the Filter.
+ */
+public abstract class AbstractIndexedFilterDataProvider<T extends Serializable, S, F extends Serializable>
+	extends
+		AbstractSortableFilterDataProvider<T, S, F>
+{
+
+	/**
+	 * The serialVersionUID.
+	 */
+	private static final long serialVersionUID = 1L;
+
+	/** The data index. */
+	private transient DataIndex<T> index;
+
+	/** The data the index was built or bound from. */
+	private transient List<T> indexedData;
+
+	/** The snapshot of the data the index was built from or null if no data loader is set. */
+	private transient Serializable indexedSnapshot;
+
+	/** The flag if the data was changed with {@link #dataChanged()} since the index was built. */
+	private transient boolean indexStale;
+
+	/**
+	 * Instantiates a new {@link AbstractIndexedFilterDataProvider}.
+	 */
+	public AbstractIndexedFilterDataProvider()
+	{
+		super();
+	}
+
+	/**
+	 * Instantiates a new {@link AbstractIndexedFilterDataProvider}.
+	 *
+	 * @param data
+	 *            the data
+	 */
+	public AbstractIndexedFilterDataProvider(final List<T> data)
+	{
+		super(data);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * The data index is built again.
+	 */
+	@Override
+	public void dataChanged()
+	{
+		super.dataChanged();
+		indexStale = true;
+	}
+
+	/**
+	 * Gets the data index. The index is built again if the data was changed with
+	 * {@link #dataChanged()}, if the snapshot of the data loader has changed or, without a data
+	 * loader, if the data holds other rows than the indexed rows. Otherwise new data is only bound
+	 * to the index.
+	 *
+	 * @return the data index
+	 */
+	protected DataIndex<T> getIndex()
+	{
+		final List<T> data = getData();
+		final Serializable snapshot = getDataSnapshot();
+		if (index == null)
+		{
+			index = newDataIndex();
+			onDeclareIndexes(index);
+			index.build(data);
+		}
+		else if (indexStale || !Objects.equals(indexedSnapshot, snapshot)
+			|| ((snapshot == null) && (indexedData != data) && !index.isIndexed(data)))
+		{
+			index.build(data);
+		}
+		else if (indexedData != data)
+		{
+			index.bind(data);
+		}
+		indexedData = data;
+		indexedSnapshot = snapshot;
+		indexStale = false;
+		return index;
+	}
+
+	/**
+	 * Factory method for creating the new {@link DataIndex}. This method is invoked once before the
+	 * indexes are declared and can be overridden so users can provide their own version of a new
+	 * {@link DataIndex}.
+	 *
+	 * @return the new {@link DataIndex}
+	 */
+	protected DataIndex<T> newDataIndex()
+	{
+		return new DataIndex<>();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected List<T> newView()
+	{
+		final IndexQuery<T> query = new IndexQuery<>(getIndex());
+		if (getFilterState() != null)
+		{
+			onQuery(query, getFilterState());
+		}
+		if (query.isEmpty())
+		{
+			return super.newView();
+		}
+		return new ArrayList<>(filter(sort(getIndex().getRows(query.getResult()))));
+	}
+
+	/**
+	 * Abstract callback method that declares the indexed properties of the data.
+	 *
+	 * @param index
+	 *            the data index
+	 */
+	protected abstract void onDeclareIndexes(final DataIndex<T> index);
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * The data index is only built again if the given data holds other rows than the indexed rows
+	 * or, with a data loader, has another snapshot.
+	 */
+	@Override
+	public void setData(final List<T> data)
+	{
+		final boolean stale = indexStale;
+		super.setData(data);
+		indexStale = stale;
+	}
+
+	/**
+	 * Abstract callback method that maps the fields of the given filter state to index lookups.
+	 * This method is only invoked if the filter state is not null.
+	 *
+	 * @param query
+	 *            the index query
+	 * @param filterState
+	 *            the filter state
+	 */
+	protected abstract void onQuery(final IndexQuery<T> query, final F filterState);
+
+}
@@ -0,0 +1,127 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.data.provider;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.wicket.extensions.markup.html.repeater.data.table.filter.IFilterStateLocator;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * The Class {@link AbstractMultiSortFilterDataProvider} is the filterable version of the
+ * {@link AbstractMultiSortableDataProvider}.
+ *
+ * @param <T>
+ *            the generic type of the Model for the DataProvider.
+ * @param <S>
+ *            the generic type for the SortState.
+ * @param <F>
+ *            the generic type for the Filter.
+ */
+public class AbstractMultiSortFilterDataProvider<T extends Serializable, S extends Serializable, F extends Serializable>
+	extends
+		AbstractMultiSortableDataProvider<T, S>
+	implements
+		IFilterStateLocator<F>
+{
+
+	/**
+	 * The serialVersionUID.
+	 */
+	private static final long serialVersionUID = 1L;
+
+	/** The filter. */
+	@Getter
+	@Setter
+	private F filterState;
+
+	/**
+	 * Instantiates a new {@link AbstractMultiSortFilterDataProvider}.
+	 */
+	public AbstractMultiSortFilterDataProvider()
+	{
+		super();
+	}
+
+	/**
+	 * Instantiates a new {@link AbstractMultiSortFilterDataProvider}.
+	 *
+	 * @param data
+	 *            the data
+	 */
+	public AbstractMultiSortFilterDataProvider(final List<T> data)
+	{
+		super(data);
+	}
+
+	/**
+	 * Filter the given list. Override this method to implement a filter.
+	 *
+	 * @param found
+	 *            the found
+	 * @return the list
+	 */
+	protected List<T> filter(final List<T> found)
+	{
+		return found;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * Only the requested page is copied from the filtered data that is sorted once and cached until
+	 * the sort state, the filter state or the data changes.
+	 */
+	@Override
+	public Iterator<? extends T> iterator(final long first, final long count)
+	{
+		final List<T> sorted = getSorted(getFilterState());
+		final long end = Math.min(sorted.size(), first + count);
+		if (first >= end)
+		{
+			return new ArrayList<T>().iterator();
+		}
+		return new ArrayList<>(sorted.subList((int)first, (int)end)).iterator();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * The rows are the filtered data.
+	 */
+	@Override
+	protected List<T> getUnsorted()
+	{
+		return filter(getData());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * The size is taken from the cached sorted and filtered data.
+	 */
+	@Override
+	public long size()
+	{
+		return getSorted(getFilterState()).size();
+	}
+
+}
@@ -0,0 +1,370 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.data.provider;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.wicket.extensions.markup.html.repeater.data.sort.SortOrder;
+import org.apache.wicket.extensions.markup.html.repeater.data.table.ISortableDataProvider;
+import org.apache.wicket.extensions.markup.html.repeater.util.SortParam;
+import org.apache.wicket.model.IModel;
+import org.apache.wicket.model.Model;
+
+import de.alpharogroup.wicket.data.provider.sort.CompositeComparator;
+import de.alpharogroup.wicket.data.provider.sort.MultiSortState;
+import de.alpharogroup.wicket.data.provider.sort.PropertyAccessors;
+import lombok.Getter;
+
+/**
+ * The Class {@link AbstractMultiSortableDataProvider} sorts the data by more than one property with
+ * a {@link MultiSortState}. All {@link SortParam}s are combined to one {@link CompositeComparator}
+ * that is cached until the sort state changes, so the data is sorted in one stable sort pass. The
+ * sorted copy of the data is cached until the sort state or the data changes, so consecutive pages
+ * are served without sorting again.
+ *
+ * @param <T>
+ *            the generic type of the Model for the DataProvider.
+ * @param <S>
+ *            the generic type for the SortState.
+ */
+public class AbstractMultiSortableDataProvider<T extends Serializable, S extends Serializable>
+	implements
+		ISortableDataProvider<T, S>
+{
+
+	/**
+	 * The serialVersionUID.
+	 */
+	private static final long serialVersionUID = 1L;
+
+	/** The data for this DataProvider. */
+	private final LoadableData<T> data = new LoadableData<>();
+
+	/** The version of the data, increased every time the data changes. */
+	private long dataVersion;
+
+	/** The cached sorted copy of the data. */
+	private final SortFilterView<T, S> sortedView = new SortFilterView<>();
+
+	/** The sort state. */
+	@Getter
+	private final MultiSortState<S> sortState;
+
+	/** The cached composite comparator. */
+	private transient Comparator<T> comparator;
+
+	/** The common class of the data the cached comparator was created for. */
+	private transient Class<?> comparatorType;
+
+	/** The version of the sort state the cached comparator was created for. */
+	private transient long comparatorVersion;
+
+	/**
+	 * Instantiates a new {@link AbstractMultiSortableDataProvider}.
+	 */
+	public AbstractMultiSortableDataProvider()
+	{
+		this(new ArrayList<T>());
+	}
+
+	/**
+	 * Instantiates a new {@link AbstractMultiSortableDataProvider}.
+	 *
+	 * @param data
+	 *            the data
+	 */
+	public AbstractMultiSortableDataProvider(final List<T> data)
+	{
+		setData(data);
+		this.sortState = newSortState();
+	}
+
+	/**
+	 * Adds the given sort param with the lowest priority.
+	 *
+	 * @param param
+	 *            parameter containing new sorting information
+	 */
+	public void addSort(final SortParam<S> param)
+	{
+		sortState.addSort(param);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void detach()
+	{
+		data.detach();
+		sortedView.clear();
+	}
+
+	/**
+	 * Notifies this provider that the content of the data list has changed in place, so the cached
+	 * sorted copy has to be computed again.
+	 */
+	public void dataChanged()
+	{
+		dataVersion++;
+		data.update();
+	}
+
+	/**
+	 * Gets the data, see {@link LoadableData#get()}.
+	 *
+	 * @return the data
+	 */
+	public List<T> getData()
+	{
+		return data.get();
+	}
+
+	/**
+	 * Gets the snapshot of the data or null if no data loader is set.
+	 *
+	 * @return the snapshot of the data
+	 */
+	public Serializable getDataSnapshot()
+	{
+		return data.getSnapshot();
+	}
+
+	/**
+	 * Sets the data loader of the {@link LoadableData} of this provider. Null removes the data
+	 * loader, so the data is serialized again.
+	 *
+	 * @param <K>
+	 *            the generic type of the snapshot
+	 * @param dataLoader
+	 *            the data loader or null
+	 */
+	public <K extends Serializable> void setDataLoader(final IDataLoader<T, K> dataLoader)
+	{
+		data.setLoader(dataLoader);
+	}
+
+	/**
+	 * Sets the data.
+	 *
+	 * @param data
+	 *            the new data
+	 */
+	public void setData(final List<T> data)
+	{
+		this.data.set(data);
+		dataChanged();
+	}
+
+	/**
+	 * Gets the cached composite comparator for the given list or creates a new one if the sort
+	 * state has changed.
+	 *
+	 * @param list
+	 *            the list to sort
+	 * @return the composite comparator or null if the list does not need to be sorted.
+	 */
+	protected Comparator<T> getComparator(final List<T> list)
+	{
+		final Class<?> type = PropertyAccessors.getCommonType(list);
+		if ((type == null) || getSort().isEmpty())
+		{
+			return null;
+		}
+		if ((this.comparator == null) || (this.comparatorType != type)
+			|| (this.comparatorVersion != sortState.getVersion()))
+		{
+			this.comparator = newComparator(type, getSort());
+			this.comparatorType = type;
+			this.comparatorVersion = sortState.getVersion();
+		}
+		return this.comparator;
+	}
+
+	/**
+	 * Gets the version of the data, the version is increased every time the data changes.
+	 *
+	 * @return the version of the data
+	 */
+	protected long getDataVersion()
+	{
+		return dataVersion;
+	}
+
+	/**
+	 * Gets the rows of {@link #getUnsorted()} in sorted order. The rows are copied and sorted once
+	 * and the sorted copy is cached until the sort state, the given filter state or the data
+	 * changes, so consecutive pages, for instance the chunks of an export, do not sort the whole
+	 * list again.
+	 *
+	 * @param filterState
+	 *            the filter state the rows are filtered with or null if not filtered
+	 * @return the cached sorted copy of the rows
+	 */
+	protected List<T> getSorted(final Object filterState)
+	{
+		final List<SortParam<S>> sortParams = getSort();
+		List<T> sorted = sortedView.get(getData(), dataVersion, sortParams, filterState);
+		if (sorted == null)
+		{
+			sorted = sortedView.set(sort(new ArrayList<>(getUnsorted())), getData(), dataVersion,
+				sortParams, filterState);
+		}
+		return sorted;
+	}
+
+	/**
+	 * Gets the rows that are sorted for the requested pages. The default implementation returns
+	 * the data, filtering subclasses return the filtered data.
+	 *
+	 * @return the rows that are sorted for the requested pages
+	 */
+	protected List<T> getUnsorted()
+	{
+		return getData();
+	}
+
+	/**
+	 * Returns the current ordered sort params.
+	 *
+	 * @return the current ordered sort params
+	 */
+	public List<SortParam<S>> getSort()
+	{
+		return sortState.getSortParams();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * Only the requested page is copied from the cached sorted data.
+	 */
+	@Override
+	public Iterator<? extends T> iterator(final long first, final long count)
+	{
+		final List<T> sorted = getSorted(null);
+		final long end = Math.min(sorted.size(), first + count);
+		if (first >= end)
+		{
+			return new ArrayList<T>().iterator();
+		}
+		return new ArrayList<>(sorted.subList((int)first, (int)end)).iterator();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public IModel<T> model(final T object)
+	{
+		return Model.of(object);
+	}
+
+	/**
+	 * Factory method for creating the composite {@link Comparator} from the given sort params. This
+	 * method is invoked only when the sort state has changed and can be overridden so users can
+	 * provide their own version of a {@link Comparator}.
+	 *
+	 * @param type
+	 *            the common class of the data
+	 * @param sortParams
+	 *            the ordered sort params
+	 * @return the new {@link Comparator}
+	 */
+	protected Comparator<T> newComparator(final Class<?> type, final List<SortParam<S>> sortParams)
+	{
+		return CompositeComparator.of(type, sortParams);
+	}
+
+	/**
+	 * Factory method for creating the new {@link MultiSortState} for the sort state. This method is
+	 * invoked in the constructor from the derived classes and can be overridden so users can provide
+	 * their own version of a new {@link MultiSortState} for the sort state.
+	 *
+	 * @return the new {@link MultiSortState} for the sort state.
+	 */
+	protected MultiSortState<S> newSortState()
+	{
+		return new MultiSortState<>();
+	}
+
+	/**
+	 * Sets the sort order of the given property.
+	 *
+	 * @param property
+	 *            sort property
+	 * @param order
+	 *            sort order
+	 */
+	public void setSort(final S property, final SortOrder order)
+	{
+		sortState.setPropertySortOrder(property, order);
+	}
+
+	/**
+	 * Replaces the current sort state with the given ordered sort params.
+	 *
+	 * @param params
+	 *            the ordered sort params
+	 */
+	public void setSort(final List<SortParam<S>> params)
+	{
+		sortState.setSort(params);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long size()
+	{
+		return getData().size();
+	}
+
+	/**
+	 * Sorts the data with the current sort params.
+	 *
+	 * @return the same list but sorted.
+	 */
+	protected List<T> sort()
+	{
+		return sort(getData());
+	}
+
+	/**
+	 * Sorts the given list with the composite comparator of the current sort params in one stable
+	 * sort pass.
+	 *
+	 * @param unsortedList
+	 *            the unsorted list
+	 * @return the same list but sorted.
+	 */
+	protected List<T> sort(final List<T> unsortedList)
+	{
+		final Comparator<T> comparator = getComparator(unsortedList);
+		if (comparator != null)
+		{
+			Collections.sort(unsortedList, comparator);
+		}
+		return unsortedList;
+	}
+
+}
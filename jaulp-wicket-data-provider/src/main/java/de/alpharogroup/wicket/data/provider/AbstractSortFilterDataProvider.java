@@ -71,6 +71,22 @@ public class AbstractSortFilterDataProvider<T extends Serializable, S extends Se
 		super(data);
 	}
 
+	/**
+	 * {@inheritDoc}
+	 *
+	 * The cached values of this provider in the {@link RequestScopedCache} are removed.
+	 */
+	@Override
+	public void detach()
+	{
+		super.detach();
+		final RequestScopedCache cache = RequestScopedCache.find();
+		if (cache != null)
+		{
+			cache.remove(this);
+		}
+	}
+
 	/**
 	 * Filter the given list. Override this method to implement a filter.
 	 *
@@ -83,22 +99,60 @@ public class AbstractSortFilterDataProvider<T extends Serializable, S extends Se
 		return found;
 	}
 
+	/**
+	 * Gets the filtered data. The filtered data is cached in the {@link RequestScopedCache}, so the
+	 * data is filtered only once per request for {@link #size()} and {@link #iterator(long, long)}
+	 * as long as the filter state and the data do not change.
+	 *
+	 * @return the filtered data
+	 */
+	protected List<T> getFiltered()
+	{
+		final RequestScopedCache cache = RequestScopedCache.get();
+		if (cache == null)
+		{
+			return filter(getData());
+		}
+		final StateKey key = new StateKey(getData(), getDataVersion(), null, getFilterState());
+		List<T> filtered = cache.get(this, "filtered", key);
+		if (filtered == null)
+		{
+			filtered = cache.put(this, "filtered", key, filter(getData()));
+		}
+		return filtered;
+	}
+
 	/**
 	 * {@inheritDoc}
+	 *
+	 * The pages are selected from the filtered data that is sorted once and cached until the sort
+	 * state, the filter state or the data changes.
 	 */
 	@Override
 	public Iterator<? extends T> iterator(final long first, final long count)
 	{
-		List<T> ret = new ArrayList<>(filter(sort()));
-		if (ret.size() > (first + count))
+		if (isPartialSort())
 		{
-			ret = ret.subList((int)first, (int)first + (int)count);
+			return select(getFiltered(), getFilterState(), first, count).iterator();
 		}
-		else
+		final List<T> sorted = getSorted(getFilterState());
+		final long end = Math.min(sorted.size(), first + count);
+		if (first >= end)
 		{
-			ret = ret.subList((int)first, ret.size());
+			return new ArrayList<T>().iterator();
 		}
-		return ret.iterator();
+		return sorted.subList((int)first, (int)end).iterator();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * The rows are the filtered data.
+	 */
+	@Override
+	protected List<T> getUnsorted()
+	{
+		return getFiltered();
 	}
 
 	/**
@@ -107,7 +161,7 @@ public class AbstractSortFilterDataProvider<T extends Serializable, S extends Se
 	@Override
 	public long size()
 	{
-		return filter(getData()).size();
+		return getFiltered().size();
 	}
 
 }
@@ -17,6 +17,8 @@ package de.alpharogroup.wicket.data.provider;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
 
@@ -27,7 +29,8 @@ import org.apache.wicket.extensions.markup.html.repeater.util.SortParam;
 import org.apache.wicket.model.IModel;
 import org.apache.wicket.model.Model;
 
-import de.alpharogroup.collections.ListExtensions;
+import de.alpharogroup.wicket.data.provider.sort.PartialSort;
+import de.alpharogroup.wicket.data.provider.sort.PropertyComparator;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -51,9 +54,29 @@ public class AbstractSortableDataProvider<T extends Serializable, S extends Seri
 	private static final long serialVersionUID = 1L;
 
 	/** The data for this DataProvider. */
+	private final LoadableData<T> data = new LoadableData<>();
+
+	/** The version of the data, increased every time the data changes. */
+	private long dataVersion;
+
+	/**
+	 * The flag if the requested page is selected with a partial sort instead of sorting the whole
+	 * data.
+	 */
+	@Getter
+	@Setter
+	private boolean partialSort;
+
+	/**
+	 * The maximum end of the requested page relative to the size of the data for that the partial
+	 * sort is used. Deeper pages fall back to a cached full sort.
+	 */
 	@Getter
 	@Setter
-	private List<T> data;
+	private double partialSortRatio = 0.25d;
+
+	/** The cached full sort, in the partial sort mode only for deep pages. */
+	private final SortFilterView<T, S> sortedView = new SortFilterView<>();
 
 	/** The sort state. */
 	@Getter
@@ -85,7 +108,62 @@ public class AbstractSortableDataProvider<T extends Serializable, S extends Seri
 	@Override
 	public void detach()
 	{
-		this.data = null;
+		data.detach();
+		sortedView.clear();
+	}
+
+	/**
+	 * Notifies this provider that the content of the data list has changed in place, so cached
+	 * sort results have to be computed again.
+	 */
+	public void dataChanged()
+	{
+		dataVersion++;
+		data.update();
+	}
+
+	/**
+	 * Gets the data, see {@link LoadableData#get()}.
+	 *
+	 * @return the data
+	 */
+	public List<T> getData()
+	{
+		return data.get();
+	}
+
+	/**
+	 * Gets the snapshot of the data or null if no data loader is set.
+	 *
+	 * @return the snapshot of the data
+	 */
+	public Serializable getDataSnapshot()
+	{
+		return data.getSnapshot();
+	}
+
+	/**
+	 * Sets the data loader of the {@link LoadableData} of this provider. Null removes the data
+	 * loader, so the data is serialized again.
+	 *
+	 * @param <K>
+	 *            the generic type of the snapshot
+	 * @param dataLoader
+	 *            the data loader or null
+	 */
+	public <K extends Serializable> void setDataLoader(final IDataLoader<T, K> dataLoader)
+	{
+		data.setLoader(dataLoader);
+	}
+
+	/**
+	 * Gets the version of the data, the version is increased every time the data changes.
+	 *
+	 * @return the version of the data
+	 */
+	protected long getDataVersion()
+	{
+		return dataVersion;
 	}
 
 	/**
@@ -104,16 +182,50 @@ public class AbstractSortableDataProvider<T extends Serializable, S extends Seri
 	@Override
 	public Iterator<? extends T> iterator(final long first, final long count)
 	{
-		List<T> result = new ArrayList<>(sort());
-		if (result.size() > (first + count))
+		if (isPartialSort())
 		{
-			result = result.subList((int)first, (int)first + (int)count);
+			return select(getData(), null, first, count).iterator();
 		}
-		else
+		final List<T> sorted = getSorted(null);
+		final long end = Math.min(sorted.size(), first + count);
+		if (first >= end)
 		{
-			result = result.subList((int)first, result.size());
+			return new ArrayList<T>().iterator();
 		}
-		return result.iterator();
+		return sorted.subList((int)first, (int)end).iterator();
+	}
+
+	/**
+	 * Gets the rows of {@link #getUnsorted()} in sorted order. The rows are copied and sorted once
+	 * and the sorted copy is cached until the sort state, the given filter state or the data
+	 * changes, so consecutive pages, for instance the chunks of an export, do not sort and copy the
+	 * whole list again.
+	 *
+	 * @param filterState
+	 *            the filter state the rows are filtered with or null if not filtered
+	 * @return the cached sorted copy of the rows
+	 */
+	protected List<T> getSorted(final Object filterState)
+	{
+		final SortParam<S> sortParam = getSort();
+		List<T> sorted = sortedView.get(getData(), dataVersion, sortParam, filterState);
+		if (sorted == null)
+		{
+			sorted = sortedView.set(sort(new ArrayList<>(getUnsorted())), getData(), dataVersion,
+				sortParam, filterState);
+		}
+		return sorted;
+	}
+
+	/**
+	 * Gets the rows that are sorted for the requested pages. The default implementation returns
+	 * the data, filtering subclasses return the filtered data.
+	 *
+	 * @return the rows that are sorted for the requested pages
+	 */
+	protected List<T> getUnsorted()
+	{
+		return getData();
 	}
 
 	/**
@@ -125,6 +237,24 @@ public class AbstractSortableDataProvider<T extends Serializable, S extends Seri
 		return Model.of(object);
 	}
 
+	/**
+	 * Factory method for creating the {@link Comparator} that sorts the data with the given sort
+	 * parameter. The default implementation compiles the property of the sort parameter once with
+	 * the {@link PropertyComparator}. This method can be overridden so users can provide their own
+	 * version of a {@link Comparator}.
+	 *
+	 * @param sortParam
+	 *            the sort parameter
+	 * @param list
+	 *            the list to sort
+	 * @return the new {@link Comparator} or null if the list does not need to be sorted.
+	 */
+	protected Comparator<T> newComparator(final SortParam<S> sortParam, final List<T> list)
+	{
+		return PropertyComparator.of(list, (String)sortParam.getProperty(),
+			sortParam.isAscending());
+	}
+
 	/**
 	 * Factory method for creating the new {@link SingleSortState} for the sort state. This method
 	 * is invoked in the constructor from the derived classes and can be overridden so users can
@@ -138,6 +268,55 @@ public class AbstractSortableDataProvider<T extends Serializable, S extends Seri
 
 	}
 
+	/**
+	 * Selects the requested page from the given list in sorted order. If the end of the page is
+	 * within the {@link #getPartialSortRatio()} of the list only the page is sorted with the
+	 * {@link PartialSort}, otherwise the whole list is sorted once and cached until the sort state,
+	 * the given filter state or the data changes.
+	 *
+	 * @param list
+	 *            the list to select the page from, the rows of {@link #getUnsorted()}
+	 * @param filterState
+	 *            the filter state the given list was filtered with or null if not filtered
+	 * @param first
+	 *            the index of the first element of the page
+	 * @param count
+	 *            the maximum number of elements of the page
+	 * @return the requested page in sorted order
+	 */
+	protected List<T> select(final List<T> list, final Object filterState, final long first,
+		final long count)
+	{
+		final SortParam<S> sortParam = getSort();
+		final long end = Math.min(list.size(), first + count);
+		if ((sortParam != null) && (end <= (list.size() * getPartialSortRatio())))
+		{
+			final Comparator<T> comparator = newComparator(sortParam, list);
+			if (comparator != null)
+			{
+				return PartialSort.window(list, comparator, (int)first, (int)count);
+			}
+		}
+		final List<T> sorted = getSorted(filterState);
+		if (first >= end)
+		{
+			return new ArrayList<>();
+		}
+		return sorted.subList((int)first, (int)end);
+	}
+
+	/**
+	 * Sets the data.
+	 *
+	 * @param data
+	 *            the new data
+	 */
+	public void setData(final List<T> data)
+	{
+		this.data.set(data);
+		dataChanged();
+	}
+
 	/**
 	 * Sets the current sort state.
 	 *
@@ -195,9 +374,11 @@ public class AbstractSortableDataProvider<T extends Serializable, S extends Seri
 		final SortParam<S> sortParam = getSort();
 		if (sortParam != null)
 		{
-			final String property = (String)sortParam.getProperty();
-			final boolean ascending = sortParam.isAscending();
-			ListExtensions.sortByProperty(unsortedList, property, ascending);
+			final Comparator<T> comparator = newComparator(sortParam, unsortedList);
+			if (comparator != null)
+			{
+				Collections.sort(unsortedList, comparator);
+			}
 		}
 		return unsortedList;
 	}
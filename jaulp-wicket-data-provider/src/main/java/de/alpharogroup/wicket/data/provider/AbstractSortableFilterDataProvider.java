@@ -17,8 +17,15 @@ package de.alpharogroup.wicket.data.provider;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
+import java.util.ListIterator;
+import java.util.concurrent.Callable;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 import org.apache.wicket.extensions.markup.html.repeater.data.sort.SortOrder;
 import org.apache.wicket.extensions.markup.html.repeater.data.table.ISortableDataProvider;
@@ -28,7 +35,7 @@ import org.apache.wicket.extensions.markup.html.repeater.util.SortParam;
 import org.apache.wicket.model.IModel;
 import org.apache.wicket.model.Model;
 
-import de.alpharogroup.collections.ListExtensions;
+import de.alpharogroup.wicket.data.provider.sort.PropertyComparator;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -60,10 +67,14 @@ public abstract class AbstractSortableFilterDataProvider<T extends Serializable,
 	@Setter
 	private F filterState;
 
-	/** The data. */
-	@Getter
-	@Setter
-	private List<T> data;
+	/** The data for this DataProvider. */
+	private final LoadableData<T> data = new LoadableData<>();
+
+	/** The version of the data, increased every time the data changes. */
+	private long dataVersion;
+
+	/** The cached sorted and filtered view of the data. */
+	private final SortFilterView<T, S> view = new SortFilterView<>();
 
 	/** The sort state. */
 	@Getter
@@ -95,11 +106,58 @@ public abstract class AbstractSortableFilterDataProvider<T extends Serializable,
 	@Override
 	public void detach()
 	{
-		setData(null);
+		data.detach();
+		view.clear();
+	}
+
+	/**
+	 * Notifies this provider that the content of the data list has changed in place, so the cached
+	 * sorted and filtered view has to be computed again.
+	 */
+	public void dataChanged()
+	{
+		dataVersion++;
+		data.update();
+	}
+
+	/**
+	 * Gets the data, see {@link LoadableData#get()}.
+	 *
+	 * @return the data
+	 */
+	public List<T> getData()
+	{
+		return data.get();
+	}
+
+	/**
+	 * Gets the snapshot of the data or null if no data loader is set.
+	 *
+	 * @return the snapshot of the data
+	 */
+	public Serializable getDataSnapshot()
+	{
+		return data.getSnapshot();
+	}
+
+	/**
+	 * Sets the data loader of the {@link LoadableData} of this provider. Null removes the data
+	 * loader, so the data is serialized again.
+	 *
+	 * @param <K>
+	 *            the generic type of the snapshot
+	 * @param dataLoader
+	 *            the data loader or null
+	 */
+	public <K extends Serializable> void setDataLoader(final IDataLoader<T, K> dataLoader)
+	{
+		data.setLoader(dataLoader);
 	}
 
 	/**
-	 * Filter the given list. Override this method to implement a filter.
+	 * Filter the given list. Override this method to implement a filter. The default implementation
+	 * filters the given list with the predicate from {@link #newFilterPredicate()}, lists with at
+	 * least {@link ParallelSettings#getThreshold()} elements are filtered in parallel.
 	 *
 	 * @param found
 	 *            the found
@@ -107,7 +165,53 @@ public abstract class AbstractSortableFilterDataProvider<T extends Serializable,
 	 */
 	protected List<T> filter(final List<T> found)
 	{
-		return found;
+		final Predicate<T> predicate = newFilterPredicate();
+		if (predicate == null)
+		{
+			return found;
+		}
+		final ParallelSettings settings = getParallelSettings();
+		if (settings.isParallel(found.size()))
+		{
+			return settings.execute(new Callable<List<T>>()
+			{
+				@Override
+				public List<T> call()
+				{
+					return found.parallelStream().filter(predicate).collect(Collectors.toList());
+				}
+			});
+		}
+		final List<T> filtered = new ArrayList<>();
+		for (final T object : found)
+		{
+			if (predicate.test(object))
+			{
+				filtered.add(object);
+			}
+		}
+		return filtered;
+	}
+
+	/**
+	 * Gets the version of the data, the version is increased every time the data changes.
+	 *
+	 * @return the version of the data
+	 */
+	protected long getDataVersion()
+	{
+		return dataVersion;
+	}
+
+	/**
+	 * Gets the settings for sorting and filtering large data in parallel. The default
+	 * implementation returns the settings of the current application.
+	 *
+	 * @return the parallel settings
+	 */
+	protected ParallelSettings getParallelSettings()
+	{
+		return ParallelSettings.get();
 	}
 
 	/**
@@ -126,7 +230,7 @@ public abstract class AbstractSortableFilterDataProvider<T extends Serializable,
 	@Override
 	public Iterator<? extends T> iterator(final long first, final long count)
 	{
-		List<T> ret = new ArrayList<>(filter(sort()));
+		List<T> ret = getView();
 		if (ret.size() > (first + count))
 		{
 			ret = ret.subList((int)first, (int)first + (int)count);
@@ -138,6 +242,24 @@ public abstract class AbstractSortableFilterDataProvider<T extends Serializable,
 		return ret.iterator();
 	}
 
+	/**
+	 * Gets the sorted and filtered view of the data. The view is computed once and cached until the
+	 * sort state, the filter state or the data changes.
+	 *
+	 * @return the sorted and filtered view of the data.
+	 */
+	protected List<T> getView()
+	{
+		final List<T> currentData = getData();
+		final SortParam<S> sortParam = getSort();
+		List<T> result = view.get(currentData, dataVersion, sortParam, getFilterState());
+		if (result == null)
+		{
+			result = view.set(newView(), currentData, dataVersion, sortParam, getFilterState());
+		}
+		return result;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -147,6 +269,50 @@ public abstract class AbstractSortableFilterDataProvider<T extends Serializable,
 		return Model.of(object);
 	}
 
+	/**
+	 * Factory method for creating the {@link Comparator} that sorts the data with the given sort
+	 * parameter. The default implementation compiles the property of the sort parameter once with
+	 * the {@link PropertyComparator}. This method can be overridden so users can provide their own
+	 * version of a {@link Comparator}.
+	 *
+	 * @param sortParam
+	 *            the sort parameter
+	 * @param list
+	 *            the list to sort
+	 * @return the new {@link Comparator} or null if the list does not need to be sorted.
+	 */
+	protected Comparator<T> newComparator(final SortParam<S> sortParam, final List<T> list)
+	{
+		return PropertyComparator.of(list, (String)sortParam.getProperty(),
+			sortParam.isAscending());
+	}
+
+	/**
+	 * Factory method for creating the predicate that is used from the default implementation of
+	 * {@link #filter(List)}. This method is invoked every time the data is filtered and can be
+	 * overridden so users can provide a predicate from the current filter state instead of
+	 * overriding {@link #filter(List)}. The predicate has to be thread safe because it is evaluated
+	 * in parallel for large data.
+	 *
+	 * @return the new predicate or null if the data is not filtered.
+	 */
+	protected Predicate<T> newFilterPredicate()
+	{
+		return null;
+	}
+
+	/**
+	 * Factory method for creating the sorted and filtered view of the data. This method is invoked
+	 * from {@link #getView()} only if the cached view is not valid anymore and can be overridden so
+	 * users can provide their own way to compute the view.
+	 *
+	 * @return the new sorted and filtered view of the data.
+	 */
+	protected List<T> newView()
+	{
+		return new ArrayList<>(filter(sort()));
+	}
+
 	/**
 	 * Factory method for creating the new {@link SingleSortState} for the sort state. This method
 	 * is invoked in the constructor from the derived classes and can be overridden so users can
@@ -184,13 +350,25 @@ public abstract class AbstractSortableFilterDataProvider<T extends Serializable,
 		sortState.setSort(param);
 	}
 
+	/**
+	 * Sets the data.
+	 *
+	 * @param data
+	 *            the new data
+	 */
+	public void setData(final List<T> data)
+	{
+		this.data.set(data);
+		dataChanged();
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
 	public long size()
 	{
-		return filter(getData()).size();
+		return getView().size();
 	}
 
 	/**
@@ -212,14 +390,37 @@ public abstract class AbstractSortableFilterDataProvider<T extends Serializable,
 	 *            the unsorted list
 	 * @return the same list but sorted.
 	 */
+	@SuppressWarnings("unchecked")
 	protected List<T> sort(final List<T> unsortedList)
 	{
 		final SortParam<S> sortParam = getSort();
 		if (sortParam != null)
 		{
-			final String property = (String)sortParam.getProperty();
-			final boolean ascending = sortParam.isAscending();
-			ListExtensions.sortByProperty(unsortedList, property, ascending);
+			final Comparator<T> comparator = newComparator(sortParam, unsortedList);
+			final ParallelSettings settings = getParallelSettings();
+			if ((comparator != null) && settings.isParallel(unsortedList.size()))
+			{
+				final Object[] array = unsortedList.toArray();
+				settings.execute(new Callable<Void>()
+				{
+					@Override
+					public Void call()
+					{
+						Arrays.parallelSort(array, (Comparator<Object>)(Comparator<?>)comparator);
+						return null;
+					}
+				});
+				final ListIterator<T> iterator = unsortedList.listIterator();
+				for (final Object element : array)
+				{
+					iterator.next();
+					iterator.set((T)element);
+				}
+			}
+			else if (comparator != null)
+			{
+				Collections.sort(unsortedList, comparator);
+			}
 		}
 		return unsortedList;
 	}
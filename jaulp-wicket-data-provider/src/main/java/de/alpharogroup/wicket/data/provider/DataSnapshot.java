@@ -0,0 +1,86 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.data.provider;
+
+import java.io.Serializable;
+import java.util.List;
+
+import org.apache.wicket.util.io.IClusterable;
+import org.apache.wicket.util.lang.Args;
+
+import lombok.Getter;
+
+/**
+ * The class {@link DataSnapshot} holds the {@link IDataLoader} of a data provider and the
+ * snapshot of the current data. Only the loader and the snapshot are serialized with the data
+ * provider.
+ *
+ * @param <T>
+ *            the generic type of the data
+ * @param <K>
+ *            the generic type of the snapshot
+ */
+public class DataSnapshot<T, K extends Serializable> implements IClusterable
+{
+
+	/** The serialVersionUID. */
+	private static final long serialVersionUID = 1L;
+
+	/** The loader. */
+	@Getter
+	private final IDataLoader<T, K> loader;
+
+	/** The snapshot of the current data. */
+	@Getter
+	private K snapshot;
+
+	/**
+	 * Instantiates a new {@link DataSnapshot}.
+	 *
+	 * @param loader
+	 *            the loader
+	 */
+	public DataSnapshot(final IDataLoader<T, K> loader)
+	{
+		this.loader = Args.notNull(loader, "loader");
+	}
+
+	/**
+	 * Loads the data of the current snapshot.
+	 *
+	 * @return the data or null if there is no snapshot
+	 */
+	public List<T> load()
+	{
+		return snapshot != null ? loader.load(snapshot) : null;
+	}
+
+	/**
+	 * Updates the snapshot from the given data. Null data keeps the current snapshot, so the data
+	 * can be loaded again after the data provider was detached.
+	 *
+	 * @param data
+	 *            the current data
+	 */
+	public void update(final List<T> data)
+	{
+		if (data != null)
+		{
+			snapshot = loader.snapshot(data);
+		}
+	}
+
+}
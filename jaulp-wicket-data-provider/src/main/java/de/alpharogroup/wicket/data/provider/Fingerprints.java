@@ -0,0 +1,115 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.data.provider;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+/**
+ * The class {@link Fingerprints} creates fingerprints from filter states. Filter states are usually
+ * mutable beans that are bound to a filter form, so the fingerprint is computed from the serialized
+ * form of the filter state and not from its reference. A filter state that overrides
+ * {@link Object#equals(Object)} can be compared with a copy instead, so it has to be serialized
+ * only once when the copy is taken.
+ */
+public final class Fingerprints
+{
+
+	/**
+	 * Creates a copy of the given filter state that can be compared with the filter state with
+	 * {@link Object#equals(Object)}.
+	 *
+	 * @param filterState
+	 *            the filter state
+	 * @return the copy or null if the filter state does not override {@link Object#equals(Object)}
+	 *         or could not be copied.
+	 */
+	public static Object copyOf(final Object filterState)
+	{
+		if ((filterState == null) || !overridesEquals(filterState.getClass()))
+		{
+			return null;
+		}
+		final byte[] bytes = of(filterState);
+		if (bytes == null)
+		{
+			return null;
+		}
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes)))
+		{
+			return in.readObject();
+		}
+		catch (final IOException | ClassNotFoundException e)
+		{
+			return null;
+		}
+	}
+
+	/**
+	 * Creates a fingerprint from the given filter state.
+	 *
+	 * @param filterState
+	 *            the filter state
+	 * @return the fingerprint or null if the filter state could not be serialized.
+	 */
+	public static byte[] of(final Object filterState)
+	{
+		if (filterState == null)
+		{
+			return new byte[0];
+		}
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes))
+		{
+			out.writeObject(filterState);
+		}
+		catch (final IOException e)
+		{
+			return null;
+		}
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Checks if the given class overrides {@link Object#equals(Object)}.
+	 *
+	 * @param type
+	 *            the class
+	 * @return true if the given class overrides {@link Object#equals(Object)}
+	 */
+	private static boolean overridesEquals(final Class<?> type)
+	{
+		try
+		{
+			return type.getMethod("equals", Object.class).getDeclaringClass() != Object.class;
+		}
+		catch (final NoSuchMethodException e)
+		{
+			return false;
+		}
+	}
+
+	/**
+	 * Private constructor.
+	 */
+	private Fingerprints()
+	{
+	}
+
+}
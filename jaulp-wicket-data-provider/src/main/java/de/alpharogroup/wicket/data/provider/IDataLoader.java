@@ -0,0 +1,59 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.data.provider;
+
+import java.io.Serializable;
+import java.util.List;
+
+import org.apache.wicket.util.io.IClusterable;
+
+/**
+ * The interface {@link IDataLoader} is the callback of a data provider that rebuilds its data
+ * after the data provider was detached or deserialized. The data provider serializes only the
+ * compact snapshot of its data, for instance the ids of the rows or a version token, instead of
+ * the data itself.
+ *
+ * @param <T>
+ *            the generic type of the data
+ * @param <K>
+ *            the generic type of the snapshot
+ */
+public interface IDataLoader<T, K extends Serializable> extends IClusterable
+{
+
+	/**
+	 * Loads the data that is identified from the given snapshot. Data that is loaded from the same
+	 * snapshot is expected to hold the same rows in the same order, so a data provider can keep its
+	 * indexes for it. If the rows can change for the same snapshot, the snapshot has to contain a
+	 * version token.
+	 *
+	 * @param snapshot
+	 *            the snapshot
+	 * @return the data
+	 */
+	List<T> load(K snapshot);
+
+	/**
+	 * Creates the compact snapshot that identifies the given data, for instance the ids of the rows
+	 * or a version token.
+	 *
+	 * @param data
+	 *            the data
+	 * @return the snapshot
+	 */
+	K snapshot(List<T> data);
+
+}
@@ -0,0 +1,266 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.data.provider;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+import org.apache.wicket.extensions.markup.html.repeater.util.SortParam;
+
+import de.alpharogroup.wicket.data.provider.source.IKeysetDataSource;
+import de.alpharogroup.wicket.data.provider.source.KeysetPage;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * The Class {@link KeysetDataProvider} pages with a keyset (seek) pagination instead of an offset.
+ * The key of the last row of every loaded page is remembered, so the next page is requested from
+ * the {@link IKeysetDataSource} as the rows after this key. A page without a remembered key is
+ * requested relative to the nearest remembered key before it, the
+ * {@link de.alpharogroup.wicket.data.navigation.KeysetPagingNavigator} keeps these jumps short. The
+ * remembered keys are dropped when the sort state, the filter state or the count of the data
+ * changes. A change of the data in the data source is counted in the next request or, if the count
+ * is kept across requests, after {@link #invalidateCount()}. Only the keys around the last loaded
+ * page are written to the page store, see {@link #getSerializedKeys()}.
+ *
+ * @param <T>
+ *            the generic type of the Model for the DataProvider.
+ * @param <S>
+ *            the generic type for the SortState.
+ * @param <F>
+ *            the generic type for the Filter.
+ */
+public class KeysetDataProvider<T extends Serializable, S, F extends Serializable>
+	extends
+		PushdownDataProvider<T, S, F>
+{
+
+	/**
+	 * The serialVersionUID.
+	 */
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The copy of the filter state the keys were remembered with, if the filter state overrides
+	 * {@link Object#equals(Object)}.
+	 */
+	private Serializable keysFilterCopy;
+
+	/** The fingerprint of the filter state the keys were remembered with if there is no copy. */
+	private byte[] keysFilterFingerprint;
+
+	/** The count of the data the keys were remembered with or -1 if no count is known. */
+	private long keysCount = -1;
+
+	/** The sort param the keys were remembered with. */
+	private SortParam<S> keysSort;
+
+	/** The maximum number of remembered keys. */
+	@Getter
+	@Setter
+	private int maxKeys = 1000;
+
+	/**
+	 * The maximum number of remembered keys before and after the last loaded page that are written
+	 * to the page store.
+	 */
+	@Getter
+	@Setter
+	private int serializedKeys = 10;
+
+	/** The offset of the last loaded page. */
+	private long lastOffset;
+
+	/**
+	 * The remembered keys, the key for an offset is the key of the row before this offset. The keys
+	 * are written to the page store in {@link #writeObject(ObjectOutputStream)}.
+	 */
+	private transient TreeMap<Long, Serializable> keys = new TreeMap<>();
+
+	/**
+	 * Instantiates a new {@link KeysetDataProvider}.
+	 *
+	 * @param source
+	 *            the data source
+	 */
+	public KeysetDataProvider(final IKeysetDataSource<T, S, F> source)
+	{
+		super(source);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public IKeysetDataSource<T, S, F> getSource()
+	{
+		return (IKeysetDataSource<T, S, F>)super.getSource();
+	}
+
+	/**
+	 * Drops all remembered keys.
+	 */
+	public void invalidateKeys()
+	{
+		keys.clear();
+		keysSort = null;
+		keysFilterCopy = null;
+		keysFilterFingerprint = null;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Iterator<? extends T> iterator(final long first, final long count)
+	{
+		validateKeys();
+		long keyOffset = 0;
+		Serializable afterKey = null;
+		final Map.Entry<Long, Serializable> entry = keys.floorEntry(first);
+		if (entry != null)
+		{
+			keyOffset = entry.getKey();
+			afterKey = entry.getValue();
+		}
+		final KeysetPage<T> page = getSource().loadAfter(newQuery(first - keyOffset, count),
+			afterKey);
+		lastOffset = first;
+		if (!page.getRows().isEmpty())
+		{
+			if (keys.size() >= maxKeys)
+			{
+				keys.clear();
+			}
+			keys.put(first + page.getRows().size(), page.getLastKey());
+		}
+		return page.getRows().iterator();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * The remembered keys are dropped if the count has changed, because rows were inserted or
+	 * deleted in the data source.
+	 */
+	@Override
+	public long size()
+	{
+		final long count = super.size();
+		if ((keysCount >= 0) && (keysCount != count))
+		{
+			keys.clear();
+		}
+		keysCount = count;
+		return count;
+	}
+
+	/**
+	 * Checks if the given filter state is the filter state the keys were remembered with. A filter
+	 * state that overrides {@link Object#equals(Object)} is compared with its copy, all other
+	 * filter states are compared by their fingerprint, see {@link Fingerprints}.
+	 *
+	 * @param filterState
+	 *            the current filter state
+	 * @return true if the keys were remembered with the given filter state
+	 */
+	private boolean isKeysFilterState(final F filterState)
+	{
+		if (keysFilterCopy != null)
+		{
+			return keysFilterCopy.equals(filterState);
+		}
+		final byte[] fingerprint = Fingerprints.of(filterState);
+		return (fingerprint != null) && Arrays.equals(keysFilterFingerprint, fingerprint);
+	}
+
+	/**
+	 * Reads the remembered keys that were written with {@link #writeObject(ObjectOutputStream)}.
+	 *
+	 * @param in
+	 *            the input stream
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 * @throws ClassNotFoundException
+	 *             occurs if the class of a key cannot be found
+	 */
+	@SuppressWarnings("unchecked")
+	private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException
+	{
+		in.defaultReadObject();
+		keys = (TreeMap<Long, Serializable>)in.readObject();
+	}
+
+	/**
+	 * Drops the remembered keys if the sort state or the filter state has changed.
+	 */
+	private void validateKeys()
+	{
+		final F filterState = getFilterState();
+		if (!Objects.equals(keysSort, getSort()) || !isKeysFilterState(filterState))
+		{
+			invalidateKeys();
+			keysFilterCopy = (Serializable)Fingerprints.copyOf(filterState);
+			keysFilterFingerprint = keysFilterCopy == null ? Fingerprints.of(filterState) : null;
+			keysSort = getSort();
+		}
+	}
+
+	/**
+	 * Writes only the remembered keys around the last loaded page, at most
+	 * {@link #getSerializedKeys()} keys before and after it, so the page store does not grow with
+	 * all remembered keys.
+	 *
+	 * @param out
+	 *            the output stream
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	private void writeObject(final ObjectOutputStream out) throws IOException
+	{
+		out.defaultWriteObject();
+		final TreeMap<Long, Serializable> nearKeys = new TreeMap<>();
+		int written = 0;
+		for (final Map.Entry<Long, Serializable> entry : keys.headMap(lastOffset, true)
+			.descendingMap().entrySet())
+		{
+			if (written++ >= serializedKeys)
+			{
+				break;
+			}
+			nearKeys.put(entry.getKey(), entry.getValue());
+		}
+		written = 0;
+		for (final Map.Entry<Long, Serializable> entry : keys.tailMap(lastOffset, false)
+			.entrySet())
+		{
+			if (written++ >= serializedKeys)
+			{
+				break;
+			}
+			nearKeys.put(entry.getKey(), entry.getValue());
+		}
+		out.writeObject(nearKeys);
+	}
+
+}
@@ -0,0 +1,151 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.data.provider;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.List;
+
+import org.apache.wicket.util.io.IClusterable;
+
+/**
+ * The class {@link LoadableData} holds the data of a data provider and the optional
+ * {@link DataSnapshot}. If a data loader is set only the snapshot is serialized and the data is
+ * loaded again with the data loader when it is requested after it was detached or deserialized,
+ * otherwise the data itself is serialized.
+ *
+ * @param <T>
+ *            the generic type of the data
+ */
+public class LoadableData<T> implements IClusterable
+{
+
+	/** The serialVersionUID. */
+	private static final long serialVersionUID = 1L;
+
+	/** The data. */
+	private transient List<T> data;
+
+	/** The snapshot of the data if a data loader is set. */
+	private DataSnapshot<T, ?> dataSnapshot;
+
+	/**
+	 * Detaches the data. The data is loaded again from the snapshot if a data loader is set.
+	 */
+	public void detach()
+	{
+		this.data = null;
+	}
+
+	/**
+	 * Gets the data. If a data loader is set and the data was detached or not serialized, the data
+	 * is loaded again from the snapshot.
+	 *
+	 * @return the data
+	 */
+	public List<T> get()
+	{
+		if ((data == null) && (dataSnapshot != null))
+		{
+			data = dataSnapshot.load();
+		}
+		return data;
+	}
+
+	/**
+	 * Gets the snapshot of the data or null if no data loader is set.
+	 *
+	 * @return the snapshot of the data
+	 */
+	public Serializable getSnapshot()
+	{
+		return dataSnapshot != null ? dataSnapshot.getSnapshot() : null;
+	}
+
+	/**
+	 * Sets the data. The snapshot is not updated until {@link #update()} is invoked.
+	 *
+	 * @param data
+	 *            the new data
+	 */
+	public void set(final List<T> data)
+	{
+		this.data = data;
+	}
+
+	/**
+	 * Sets the data loader. Null removes the data loader, so the data is serialized again.
+	 *
+	 * @param <K>
+	 *            the generic type of the snapshot
+	 * @param dataLoader
+	 *            the data loader or null
+	 */
+	public <K extends Serializable> void setLoader(final IDataLoader<T, K> dataLoader)
+	{
+		final List<T> currentData = get();
+		this.dataSnapshot = dataLoader != null ? new DataSnapshot<>(dataLoader) : null;
+		if (dataSnapshot != null)
+		{
+			dataSnapshot.update(currentData);
+		}
+	}
+
+	/**
+	 * Updates the snapshot from the current data after the data was set or has changed in place.
+	 */
+	public void update()
+	{
+		if ((dataSnapshot != null) && (data != null))
+		{
+			dataSnapshot.update(data);
+		}
+	}
+
+	/**
+	 * Reads the data only if it was serialized without a data loader.
+	 *
+	 * @param in
+	 *            the input stream
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 * @throws ClassNotFoundException
+	 *             if the class of a serialized object could not be found.
+	 */
+	@SuppressWarnings("unchecked")
+	private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException
+	{
+		in.defaultReadObject();
+		this.data = (List<T>)in.readObject();
+	}
+
+	/**
+	 * Writes the data only if no data loader is set, otherwise only the snapshot is written.
+	 *
+	 * @param out
+	 *            the output stream
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	private void writeObject(final ObjectOutputStream out) throws IOException
+	{
+		out.defaultWriteObject();
+		out.writeObject(dataSnapshot == null ? data : null);
+	}
+
+}
@@ -0,0 +1,241 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.data.provider;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+import org.apache.wicket.Application;
+import org.apache.wicket.MetaDataKey;
+import org.apache.wicket.WicketRuntimeException;
+import org.apache.wicket.util.lang.Args;
+
+import lombok.Getter;
+
+/**
+ * The class {@link ParallelSettings} holds the settings for sorting and filtering large data in
+ * parallel. Data with at least {@link #getThreshold()} elements is sorted and filtered in the
+ * {@link ForkJoinPool} of these settings, smaller data is processed sequentially on the request
+ * thread.
+ *
+ * Parallel processing is opt-in. Without settings for the application all data is processed
+ * sequentially, so no request thread hands work to a pool the application did not ask for. The
+ * settings can be set per application with a dedicated pool of a bounded parallelism, for instance:
+ *
+ * <pre>
+ * public void init()
+ * {
+ * 	super.init();
+ * 	ParallelSettings.set(this, new ParallelSettings(100000, 4));
+ * }
+ *
+ * protected void onDestroy()
+ * {
+ * 	ParallelSettings.get().destroy();
+ * 	super.onDestroy();
+ * }
+ * </pre>
+ *
+ * A parallelism less than one uses the common {@link ForkJoinPool}, which is shared with all other
+ * work of the JVM and should only be chosen on purpose.
+ */
+public class ParallelSettings
+{
+
+	/** The suggested threshold for applications that enable parallel processing. */
+	public static final int DEFAULT_THRESHOLD = 50000;
+
+	/**
+	 * The default settings that are used if no settings are set for the application. They process
+	 * all data sequentially.
+	 */
+	private static final ParallelSettings DEFAULT = new ParallelSettings(0, 0);
+
+	/** The key for the settings in the application meta data. */
+	private static final MetaDataKey<ParallelSettings> KEY = new MetaDataKey<ParallelSettings>()
+	{
+		private static final long serialVersionUID = 1L;
+	};
+
+	/**
+	 * Gets the settings of the current application or the default settings if no settings are set
+	 * or no application is attached to the current thread.
+	 *
+	 * @return the settings
+	 */
+	public static ParallelSettings get()
+	{
+		if (Application.exists())
+		{
+			final ParallelSettings settings = Application.get().getMetaData(KEY);
+			if (settings != null)
+			{
+				return settings;
+			}
+		}
+		return DEFAULT;
+	}
+
+	/**
+	 * Sets the given settings for the given application.
+	 *
+	 * @param application
+	 *            the application
+	 * @param settings
+	 *            the settings
+	 */
+	public static void set(final Application application, final ParallelSettings settings)
+	{
+		Args.notNull(application, "application");
+		application.setMetaData(KEY, Args.notNull(settings, "settings"));
+	}
+
+	/**
+	 * The parallelism of the pool, a value less than one uses the common {@link ForkJoinPool}.
+	 */
+	@Getter
+	private final int parallelism;
+
+	/** The pool that is created on first use. */
+	private volatile ForkJoinPool pool;
+
+	/**
+	 * The minimum size of the data that is processed in parallel, a value less than one disables
+	 * parallel processing.
+	 */
+	@Getter
+	private final int threshold;
+
+	/**
+	 * Instantiates a new {@link ParallelSettings}.
+	 *
+	 * @param threshold
+	 *            the minimum size of the data that is processed in parallel, a value less than one
+	 *            disables parallel processing
+	 * @param parallelism
+	 *            the parallelism of the pool, a value less than one uses the common
+	 *            {@link ForkJoinPool}
+	 */
+	public ParallelSettings(final int threshold, final int parallelism)
+	{
+		this.threshold = threshold;
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Shuts the pool of these settings down. The common {@link ForkJoinPool} is never shut down.
+	 */
+	public synchronized void destroy()
+	{
+		if (pool != null)
+		{
+			pool.shutdown();
+			pool = null;
+		}
+	}
+
+	/**
+	 * Executes the given task in the pool of these settings and waits for the result. A
+	 * {@link RuntimeException} of the task is rethrown unwrapped, the pool would otherwise rethrow
+	 * a copy of it.
+	 *
+	 * @param <R>
+	 *            the generic type of the result
+	 * @param task
+	 *            the task
+	 * @return the result of the task
+	 */
+	public <R> R execute(final Callable<R> task)
+	{
+		final RuntimeException[] failure = new RuntimeException[1];
+		try
+		{
+			return getPool().submit(new Callable<R>()
+			{
+				@Override
+				public R call() throws Exception
+				{
+					try
+					{
+						return task.call();
+					}
+					catch (final RuntimeException e)
+					{
+						failure[0] = e;
+						throw e;
+					}
+				}
+			}).get();
+		}
+		catch (final InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new WicketRuntimeException(e);
+		}
+		catch (final ExecutionException e)
+		{
+			if (failure[0] != null)
+			{
+				throw failure[0];
+			}
+			if (e.getCause() instanceof RuntimeException)
+			{
+				throw (RuntimeException)e.getCause();
+			}
+			throw new WicketRuntimeException(e.getCause());
+		}
+	}
+
+	/**
+	 * Gets the pool of these settings.
+	 *
+	 * @return the pool
+	 */
+	public ForkJoinPool getPool()
+	{
+		if (parallelism < 1)
+		{
+			return ForkJoinPool.commonPool();
+		}
+		ForkJoinPool result = pool;
+		if (result == null)
+		{
+			synchronized (this)
+			{
+				result = pool;
+				if (result == null)
+				{
+					result = pool = new ForkJoinPool(parallelism);
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Checks if data with the given size is processed in parallel.
+	 *
+	 * @param size
+	 *            the size of the data
+	 * @return true if the data is processed in parallel
+	 */
+	public boolean isParallel(final int size)
+	{
+		return (0 < threshold) && (size >= threshold);
+	}
+
+}
@@ -0,0 +1,282 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.data.provider;
+
+import java.io.Serializable;
+import java.util.Iterator;
+
+import org.apache.wicket.extensions.markup.html.repeater.data.sort.SortOrder;
+import org.apache.wicket.extensions.markup.html.repeater.data.table.ISortableDataProvider;
+import org.apache.wicket.extensions.markup.html.repeater.data.table.filter.IFilterStateLocator;
+import org.apache.wicket.extensions.markup.html.repeater.util.SingleSortState;
+import org.apache.wicket.extensions.markup.html.repeater.util.SortParam;
+import org.apache.wicket.model.IModel;
+import org.apache.wicket.model.Model;
+import org.apache.wicket.util.lang.Args;
+
+import de.alpharogroup.wicket.data.provider.source.DataQuery;
+import de.alpharogroup.wicket.data.provider.source.IApproximateCountDataSource;
+import de.alpharogroup.wicket.data.provider.source.IDataSource;
+import de.alpharogroup.wicket.data.provider.source.ListDataSource;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * The Class {@link PushdownDataProvider} pushes sorting, filtering and paging down to an
+ * {@link IDataSource}, so only the requested page is held in memory. The count of the rows is
+ * cached in the {@link RequestScopedCache} for the current request cycle and requested again when
+ * the filter state or the count mode changes, so rows that were inserted or deleted in the data
+ * source are counted in the next request. If the count is expensive, it can be kept across
+ * requests with {@link #setKeepCount(boolean)}. A kept count is requested again only when the
+ * filter state or the count mode changes or after {@link #invalidateCount()}, so changes of the
+ * data in the data source have to be signaled. For expensive sources an
+ * {@link IApproximateCountDataSource} can provide an approximate count instead. For data that is
+ * already in memory the {@link ListDataSource} can be used.
+ *
+ * @param <T>
+ *            the generic type of the Model for the DataProvider.
+ * @param <S>
+ *            the generic type for the SortState.
+ * @param <F>
+ *            the generic type for the Filter.
+ */
+public class PushdownDataProvider<T extends Serializable, S, F extends Serializable>
+	implements
+		ISortableDataProvider<T, S>,
+		IFilterStateLocator<F>
+{
+
+	/**
+	 * The serialVersionUID.
+	 */
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The flag if the approximate count of an {@link IApproximateCountDataSource} is used instead
+	 * of the exact count.
+	 */
+	@Getter
+	@Setter
+	private boolean approximateCount;
+
+	/** The count that is kept across requests. */
+	private transient long count = -1;
+
+	/** The key of the filter state and the count mode the kept count was computed with. */
+	private transient StateKey countKey;
+
+	/** The filter. */
+	@Getter
+	@Setter
+	private F filterState;
+
+	/**
+	 * The flag if the count is kept across requests instead of being cached only for the current
+	 * request cycle.
+	 */
+	@Getter
+	@Setter
+	private boolean keepCount;
+
+	/** The sort state. */
+	@Getter
+	private final SingleSortState<S> sortState;
+
+	/** The data source. */
+	@Getter
+	private final IDataSource<T, S, F> source;
+
+	/**
+	 * Instantiates a new {@link PushdownDataProvider}.
+	 *
+	 * @param source
+	 *            the data source
+	 */
+	public PushdownDataProvider(final IDataSource<T, S, F> source)
+	{
+		this.source = Args.notNull(source, "source");
+		this.sortState = newSortState();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * The count in the {@link RequestScopedCache} is removed, a count that is kept across requests
+	 * stays until {@link #invalidateCount()} is invoked.
+	 */
+	@Override
+	public void detach()
+	{
+		removeCachedCount();
+	}
+
+	/**
+	 * Returns current sort state.
+	 *
+	 * @return current sort state
+	 */
+	public SortParam<S> getSort()
+	{
+		return sortState.getSort();
+	}
+
+	/**
+	 * Invalidates the cached count, so the count is requested again from the data source. This
+	 * method has to be invoked when the data of the data source has changed in the current request
+	 * or if the count is kept across requests.
+	 */
+	public void invalidateCount()
+	{
+		this.count = -1;
+		this.countKey = null;
+		removeCachedCount();
+	}
+
+	/**
+	 * Requests the count for the given filter state from the data source. If the approximate count
+	 * mode is enabled and the data source provides an approximate count, the approximate count is
+	 * returned. Note that the last page can contain less rows than expected in this mode.
+	 *
+	 * @param filterState
+	 *            the filter state
+	 * @return the count
+	 */
+	protected long count(final F filterState)
+	{
+		if (isApproximateCount() && (source instanceof IApproximateCountDataSource))
+		{
+			return ((IApproximateCountDataSource<T, S, F>)source).approximateCount(filterState);
+		}
+		return source.count(filterState);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Iterator<? extends T> iterator(final long first, final long count)
+	{
+		return source.load(newQuery(first, count)).iterator();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public IModel<T> model(final T object)
+	{
+		return Model.of(object);
+	}
+
+	/**
+	 * Factory method for creating the query for the requested page. This method can be overridden
+	 * so users can provide their own version of a query.
+	 *
+	 * @param first
+	 *            the index of the first row of the page
+	 * @param count
+	 *            the maximum number of rows of the page
+	 * @return the new query
+	 */
+	protected DataQuery<S, F> newQuery(final long first, final long count)
+	{
+		return DataQuery.<S, F> builder().offset(first).limit(count).sort(getSort())
+			.filterState(getFilterState()).build();
+	}
+
+	/**
+	 * Factory method for creating the new {@link SingleSortState} for the sort state. This method
+	 * is invoked in the constructor and can be overridden so users can provide their own version of
+	 * a new {@link SingleSortState} for the sort state.
+	 *
+	 * @return the new {@link SingleSortState} for the sort state.
+	 */
+	protected SingleSortState<S> newSortState()
+	{
+		return new SingleSortState<>();
+	}
+
+	/**
+	 * Removes the count of this provider from the {@link RequestScopedCache} if the cache exists.
+	 */
+	private void removeCachedCount()
+	{
+		final RequestScopedCache cache = RequestScopedCache.find();
+		if (cache != null)
+		{
+			cache.remove(this);
+		}
+	}
+
+	/**
+	 * Sets the current sort state.
+	 *
+	 * @param property
+	 *            sort property
+	 * @param order
+	 *            sort order
+	 */
+	public void setSort(final S property, final SortOrder order)
+	{
+		sortState.setPropertySortOrder(property, order);
+	}
+
+	/**
+	 * Sets the current sort state.
+	 *
+	 * @param param
+	 *            parameter containing new sorting information
+	 */
+	public void setSort(final SortParam<S> param)
+	{
+		sortState.setSort(param);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * The count is cached in the {@link RequestScopedCache} or, if {@link #isKeepCount()} is set,
+	 * kept across requests. Without a request cycle the count is requested on every call unless it
+	 * is kept.
+	 */
+	@Override
+	public long size()
+	{
+		final F currentFilterState = getFilterState();
+		final StateKey key = new StateKey(null, 0, isApproximateCount(), currentFilterState);
+		if (isKeepCount())
+		{
+			if ((this.count < 0) || !key.matches(this.countKey))
+			{
+				this.count = count(currentFilterState);
+				this.countKey = key.store();
+			}
+			return this.count;
+		}
+		final RequestScopedCache cache = RequestScopedCache.get();
+		if (cache == null)
+		{
+			return count(currentFilterState);
+		}
+		Long cached = cache.get(this, "count", key);
+		if (cached == null)
+		{
+			cached = cache.put(this, "count", key, count(currentFilterState));
+		}
+		return cached;
+	}
+
+}
@@ -0,0 +1,156 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.data.provider;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.apache.wicket.MetaDataKey;
+import org.apache.wicket.request.cycle.RequestCycle;
+
+import de.alpharogroup.wicket.base.application.RequestCycleLocal;
+
+/**
+ * The class {@link RequestScopedCache} caches values of data providers like the filtered data for
+ * the current request cycle. Every value is stored with a {@link StateKey} of the data, the data
+ * version, the sort state and the filter state it was computed from, so a value is only returned
+ * as long as none of them has changed. The cache is stored with a {@link RequestCycleLocal} and is
+ * destroyed when the request is finished.
+ */
+public class RequestScopedCache implements Serializable
+{
+
+	/** The serialVersionUID. */
+	private static final long serialVersionUID = 1L;
+
+	/** The cache of the current request cycle. */
+	private static final RequestCycleLocal<RequestScopedCache> CACHE = new RequestCycleLocal<>(
+		new MetaDataKey<RequestScopedCache>()
+		{
+			private static final long serialVersionUID = 1L;
+		});
+
+	/**
+	 * Gets the cache of the current request cycle without creating it.
+	 *
+	 * @return the cache of the current request cycle or null if no value was cached in the current
+	 *         request cycle or no request cycle is attached to the current thread.
+	 */
+	public static RequestScopedCache find()
+	{
+		if (RequestCycle.get() == null)
+		{
+			return null;
+		}
+		return CACHE.get();
+	}
+
+	/**
+	 * Gets the cache of the current request cycle, the cache is created on first use.
+	 *
+	 * @return the cache of the current request cycle or null if no request cycle is attached to
+	 *         the current thread.
+	 */
+	public static RequestScopedCache get()
+	{
+		if (RequestCycle.get() == null)
+		{
+			return null;
+		}
+		RequestScopedCache cache = CACHE.get();
+		if (cache == null)
+		{
+			cache = new RequestScopedCache();
+			CACHE.set(cache);
+		}
+		return cache;
+	}
+
+	/** The cached keys per owner and name. */
+	private final transient Map<Object, Map<String, StateKey>> keys = new IdentityHashMap<>();
+
+	/** The cached values per owner and name. */
+	private final transient Map<Object, Map<String, Object>> values = new IdentityHashMap<>();
+
+	/**
+	 * Gets the cached value of the given owner with the given name if it was computed with the
+	 * given key.
+	 *
+	 * @param <V>
+	 *            the generic type of the value
+	 * @param owner
+	 *            the owner of the value, usually the data provider
+	 * @param name
+	 *            the name of the value
+	 * @param key
+	 *            the key of the current state
+	 * @return the cached value or null if there is no value for the given key
+	 */
+	@SuppressWarnings("unchecked")
+	public <V> V get(final Object owner, final String name, final StateKey key)
+	{
+		final Map<String, StateKey> ownerKeys = keys.get(owner);
+		if ((ownerKeys != null) && key.matches(ownerKeys.get(name)))
+		{
+			return (V)values.get(owner).get(name);
+		}
+		return null;
+	}
+
+	/**
+	 * Puts the given value of the given owner with the given name and key into the cache.
+	 *
+	 * @param <V>
+	 *            the generic type of the value
+	 * @param owner
+	 *            the owner of the value, usually the data provider
+	 * @param name
+	 *            the name of the value
+	 * @param key
+	 *            the key of the state the value was computed from
+	 * @param value
+	 *            the value
+	 * @return the given value
+	 */
+	public <V> V put(final Object owner, final String name, final StateKey key, final V value)
+	{
+		Map<String, StateKey> ownerKeys = keys.get(owner);
+		if (ownerKeys == null)
+		{
+			ownerKeys = new HashMap<>();
+			keys.put(owner, ownerKeys);
+			values.put(owner, new HashMap<String, Object>());
+		}
+		ownerKeys.put(name, key.store());
+		values.get(owner).put(name, value);
+		return value;
+	}
+
+	/**
+	 * Removes all cached values of the given owner.
+	 *
+	 * @param owner
+	 *            the owner
+	 */
+	public void remove(final Object owner)
+	{
+		keys.remove(owner);
+		values.remove(owner);
+	}
+
+}
@@ -0,0 +1,218 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.data.provider;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import org.apache.wicket.extensions.markup.html.repeater.util.SortParam;
+
+/**
+ * The class {@link SortFilterView} holds the sorted and filtered result of a data provider. The
+ * result is keyed by the sort parameter or the ordered sort parameters of a multi sort, the filter
+ * state, the data list instance and the data
+ * version and is only valid as long as none of them changes. A filter state that overrides
+ * {@link Object#equals(Object)} is compared with a copy that is taken when the view is stored, all
+ * other filter states are compared by their fingerprint, which serializes the filter state on every
+ * access. All fields are transient so the view is never written to the page store.
+ *
+ * @param <T>
+ *            the generic type of the data
+ * @param <S>
+ *            the generic type for the sort property
+ */
+public class SortFilterView<T, S> implements Serializable
+{
+
+	/**
+	 * The serialVersionUID.
+	 */
+	private static final long serialVersionUID = 1L;
+
+	/** The cached sorted and filtered result. */
+	private transient List<T> view;
+
+	/** The data list instance the view was computed from. */
+	private transient List<T> data;
+
+	/** The data version the view was computed from. */
+	private transient long dataVersion;
+
+	/** The sort parameter or the copy of the ordered sort parameters the view was computed with. */
+	private transient Object sort;
+
+	/** The copy of the filter state the view was computed with. */
+	private transient Object filterCopy;
+
+	/** The fingerprint of the filter state the view was computed with. */
+	private transient byte[] filterFingerprint;
+
+	/**
+	 * Gets the cached view if it was computed from the given arguments, otherwise null.
+	 *
+	 * @param data
+	 *            the current data
+	 * @param dataVersion
+	 *            the current data version
+	 * @param sort
+	 *            the current sort parameter
+	 * @param filterState
+	 *            the current filter state
+	 * @return the cached view or null if the view is not valid anymore.
+	 */
+	public List<T> get(final List<T> data, final long dataVersion, final SortParam<S> sort,
+		final Object filterState)
+	{
+		return getView(data, dataVersion, sort, filterState);
+	}
+
+	/**
+	 * Gets the cached view if it was computed from the given arguments, otherwise null.
+	 *
+	 * @param data
+	 *            the current data
+	 * @param dataVersion
+	 *            the current data version
+	 * @param sortParams
+	 *            the current ordered sort parameters
+	 * @param filterState
+	 *            the current filter state
+	 * @return the cached view or null if the view is not valid anymore.
+	 */
+	public List<T> get(final List<T> data, final long dataVersion,
+		final List<SortParam<S>> sortParams, final Object filterState)
+	{
+		return getView(data, dataVersion, sortParams, filterState);
+	}
+
+	/**
+	 * Gets the cached view if it was computed from the given arguments, otherwise null.
+	 *
+	 * @param data
+	 *            the current data
+	 * @param dataVersion
+	 *            the current data version
+	 * @param sort
+	 *            the current sort parameter or ordered sort parameters
+	 * @param filterState
+	 *            the current filter state
+	 * @return the cached view or null if the view is not valid anymore.
+	 */
+	private List<T> getView(final List<T> data, final long dataVersion, final Object sort,
+		final Object filterState)
+	{
+		if ((this.view != null) && (this.data == data) && (this.dataVersion == dataVersion)
+			&& Objects.equals(this.sort, sort))
+		{
+			if (this.filterCopy != null)
+			{
+				return this.filterCopy.equals(filterState) ? this.view : null;
+			}
+			final byte[] fingerprint = Fingerprints.of(filterState);
+			if ((fingerprint != null) && Arrays.equals(this.filterFingerprint, fingerprint))
+			{
+				return this.view;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Stores the given view with the arguments it was computed from.
+	 *
+	 * @param view
+	 *            the sorted and filtered view
+	 * @param data
+	 *            the data the view was computed from
+	 * @param dataVersion
+	 *            the data version the view was computed from
+	 * @param sort
+	 *            the sort parameter the view was computed with
+	 * @param filterState
+	 *            the filter state the view was computed with
+	 * @return the given view
+	 */
+	public List<T> set(final List<T> view, final List<T> data, final long dataVersion,
+		final SortParam<S> sort, final Object filterState)
+	{
+		return setView(view, data, dataVersion, sort, filterState);
+	}
+
+	/**
+	 * Stores the given view with the arguments it was computed from. The ordered sort parameters
+	 * are copied, so later changes of the sort state do not change the key of the view.
+	 *
+	 * @param view
+	 *            the sorted and filtered view
+	 * @param data
+	 *            the data the view was computed from
+	 * @param dataVersion
+	 *            the data version the view was computed from
+	 * @param sortParams
+	 *            the ordered sort parameters the view was computed with
+	 * @param filterState
+	 *            the filter state the view was computed with
+	 * @return the given view
+	 */
+	public List<T> set(final List<T> view, final List<T> data, final long dataVersion,
+		final List<SortParam<S>> sortParams, final Object filterState)
+	{
+		return setView(view, data, dataVersion, new ArrayList<>(sortParams), filterState);
+	}
+
+	/**
+	 * Stores the given view with the arguments it was computed from.
+	 *
+	 * @param view
+	 *            the sorted and filtered view
+	 * @param data
+	 *            the data the view was computed from
+	 * @param dataVersion
+	 *            the data version the view was computed from
+	 * @param sort
+	 *            the sort parameter or the copy of the ordered sort parameters
+	 * @param filterState
+	 *            the filter state the view was computed with
+	 * @return the given view
+	 */
+	private List<T> setView(final List<T> view, final List<T> data, final long dataVersion,
+		final Object sort, final Object filterState)
+	{
+		this.view = view;
+		this.data = data;
+		this.dataVersion = dataVersion;
+		this.sort = sort;
+		this.filterCopy = Fingerprints.copyOf(filterState);
+		this.filterFingerprint = this.filterCopy == null ? Fingerprints.of(filterState) : null;
+		return view;
+	}
+
+	/**
+	 * Clears the cached view.
+	 */
+	public void clear()
+	{
+		this.view = null;
+		this.data = null;
+		this.sort = null;
+		this.filterCopy = null;
+		this.filterFingerprint = null;
+	}
+
+}
@@ -0,0 +1,131 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.data.provider;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * The class {@link StateKey} identifies the state a cached value was computed from. The data is
+ * compared by its reference. A filter state that overrides {@link Object#equals(Object)} is
+ * compared with a copy that is taken when the value is stored, all other filter states are
+ * compared by their fingerprint, see {@link Fingerprints}. The keys of the
+ * {@link RequestScopedCache} live for one request, a data provider can also hold a key across
+ * requests.
+ */
+public final class StateKey
+{
+
+	/** The data or null. */
+	private final Object data;
+
+	/** The version of the data. */
+	private final long dataVersion;
+
+	/** The filter state. */
+	private final Object filterState;
+
+	/** The copy of the filter state, taken when the value is stored. */
+	private Object filterCopy;
+
+	/** The fingerprint of the filter state, computed only if it is compared. */
+	private byte[] filterFingerprint;
+
+	/** The sort state or null. */
+	private final Object sort;
+
+	/** The flag if this key was stored with a value. */
+	private boolean stored;
+
+	/**
+	 * Instantiates a new {@link StateKey}.
+	 *
+	 * @param data
+	 *            the data or null if the value does not depend on in-memory data
+	 * @param dataVersion
+	 *            the version of the data
+	 * @param sort
+	 *            the sort state or null if the value does not depend on the sort state
+	 * @param filterState
+	 *            the filter state
+	 */
+	public StateKey(final Object data, final long dataVersion, final Object sort,
+		final Object filterState)
+	{
+		this.data = data;
+		this.dataVersion = dataVersion;
+		this.sort = sort;
+		this.filterState = filterState;
+	}
+
+	/**
+	 * Gets the fingerprint of the filter state.
+	 *
+	 * @return the fingerprint or null if the filter state could not be serialized.
+	 */
+	private byte[] getFilterFingerprint()
+	{
+		if (filterFingerprint == null)
+		{
+			filterFingerprint = Fingerprints.of(filterState);
+		}
+		return filterFingerprint;
+	}
+
+	/**
+	 * Checks if the value that was stored with the given key can be used for this key.
+	 *
+	 * @param other
+	 *            the stored key
+	 * @return true if the value of the given key can be used for this key.
+	 */
+	boolean matches(final StateKey other)
+	{
+		if ((other == null) || (this.data != other.data)
+			|| (this.dataVersion != other.dataVersion) || !Objects.equals(this.sort, other.sort))
+		{
+			return false;
+		}
+		if (other.filterCopy != null)
+		{
+			return other.filterCopy.equals(this.filterState);
+		}
+		final byte[] fingerprint = getFilterFingerprint();
+		return (fingerprint != null) && Arrays.equals(fingerprint, other.filterFingerprint);
+	}
+
+	/**
+	 * Takes the copy or, if the filter state does not override {@link Object#equals(Object)},
+	 * the fingerprint of the filter state, so later changes of the filter state do not change
+	 * this key.
+	 *
+	 * @return this key
+	 */
+	StateKey store()
+	{
+		if (!stored)
+		{
+			stored = true;
+			filterCopy = Fingerprints.copyOf(filterState);
+			if (filterCopy == null)
+			{
+				getFilterFingerprint();
+			}
+		}
+		return this;
+	}
+
+}
@@ -0,0 +1,201 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.data.provider.column;
+
+import java.util.BitSet;
+
+import org.apache.wicket.util.io.IClusterable;
+import org.apache.wicket.util.lang.Args;
+
+import de.alpharogroup.wicket.data.provider.sort.IndexSort;
+import lombok.Getter;
+
+/**
+ * The class {@link Column} is the base class of the columns of a {@link ColumnarTable}. A column
+ * holds the values of one property of all rows in a primitive array, null values are marked in a
+ * {@link BitSet}. Rows are compared by their index, null values are sorted first.
+ */
+public abstract class Column implements IClusterable, IndexSort.RowComparator
+{
+
+	/** The serialVersionUID. */
+	private static final long serialVersionUID = 1L;
+
+	/** The name of the column, that is the property expression of the row objects. */
+	@Getter
+	private final String name;
+
+	/** The rows with a null value. */
+	private final BitSet nulls = new BitSet();
+
+	/** The number of rows. */
+	private int size;
+
+	/**
+	 * Instantiates a new {@link Column}.
+	 *
+	 * @param name
+	 *            the name of the column
+	 */
+	protected Column(final String name)
+	{
+		this.name = Args.notEmpty(name, "name");
+	}
+
+	/**
+	 * Adds the given value as a new row.
+	 *
+	 * @param value
+	 *            the value or null
+	 */
+	public void add(final Object value)
+	{
+		ensureCapacity(size + 1);
+		if (value == null)
+		{
+			nulls.set(size);
+			setNull(size);
+		}
+		else
+		{
+			set(size, value);
+		}
+		size++;
+	}
+
+	/**
+	 * Removes all rows.
+	 */
+	public void clear()
+	{
+		nulls.clear();
+		size = 0;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int compare(final int row1, final int row2)
+	{
+		final boolean null1 = nulls.get(row1);
+		final boolean null2 = nulls.get(row2);
+		if (null1 || null2)
+		{
+			return null1 == null2 ? 0 : null1 ? -1 : 1;
+		}
+		return compareValues(row1, row2);
+	}
+
+	/**
+	 * Compares the non null values of the given rows.
+	 *
+	 * @param row1
+	 *            the index of the first row
+	 * @param row2
+	 *            the index of the second row
+	 * @return the result of the comparison
+	 */
+	protected abstract int compareValues(int row1, int row2);
+
+	/**
+	 * Ensures that the column can hold the given number of rows.
+	 *
+	 * @param capacity
+	 *            the number of rows
+	 */
+	protected abstract void ensureCapacity(int capacity);
+
+	/**
+	 * Gets the boxed value of the given row.
+	 *
+	 * @param row
+	 *            the index of the row
+	 * @return the value or null
+	 */
+	public Object getValue(final int row)
+	{
+		return isNull(row) ? null : getNonNullValue(row);
+	}
+
+	/**
+	 * Gets the boxed non null value of the given row.
+	 *
+	 * @param row
+	 *            the index of the row
+	 * @return the value
+	 */
+	protected abstract Object getNonNullValue(int row);
+
+	/**
+	 * Checks if the value of the given row is null.
+	 *
+	 * @param row
+	 *            the index of the row
+	 * @return true if the value is null
+	 */
+	public boolean isNull(final int row)
+	{
+		return nulls.get(row);
+	}
+
+	/**
+	 * Computes a new capacity for the given array length and the needed capacity.
+	 *
+	 * @param length
+	 *            the current length of the array
+	 * @param capacity
+	 *            the needed capacity
+	 * @return the new capacity
+	 */
+	protected static int newCapacity(final int length, final int capacity)
+	{
+		return Math.max(capacity, Math.max(16, length + (length >> 1)));
+	}
+
+	/**
+	 * Sets the given non null value for the given row.
+	 *
+	 * @param row
+	 *            the index of the row
+	 * @param value
+	 *            the value
+	 */
+	protected abstract void set(int row, Object value);
+
+	/**
+	 * Sets the slot of the given row that has a null value. The default implementation does
+	 * nothing, primitive columns set the slot to zero, so a slot of a removed row is not returned
+	 * again.
+	 *
+	 * @param row
+	 *            the index of the row
+	 */
+	protected void setNull(final int row)
+	{
+	}
+
+	/**
+	 * Gets the number of rows.
+	 *
+	 * @return the number of rows
+	 */
+	public int size()
+	{
+		return size;
+	}
+
+}
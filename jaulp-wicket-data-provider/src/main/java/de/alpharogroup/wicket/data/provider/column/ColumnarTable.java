@@ -0,0 +1,207 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.data.provider.column;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.apache.wicket.WicketRuntimeException;
+import org.apache.wicket.util.io.IClusterable;
+import org.apache.wicket.util.lang.Args;
+
+import de.alpharogroup.wicket.data.provider.sort.PropertyAccessors;
+import lombok.Getter;
+
+/**
+ * The class {@link ColumnarTable} stores the declared properties of row objects column by column.
+ * Numeric properties are stored in primitive arrays and string properties are dictionary encoded,
+ * so a large table needs no object header and no boxed value per cell. The row objects itself are
+ * not stored, a row is identified by its index. For instance:
+ *
+ * <pre>
+ * ColumnarTable&lt;Sale&gt; table = new ColumnarTable&lt;&gt;();
+ * table.addStringColumn(&quot;region&quot;);
+ * table.addIntColumn(&quot;quantity&quot;);
+ * table.addDoubleColumn(&quot;amount&quot;);
+ * table.addAll(sales);
+ * </pre>
+ *
+ * @param <T>
+ *            the generic type of the row objects
+ */
+public class ColumnarTable<T> implements IClusterable
+{
+
+	/** The serialVersionUID. */
+	private static final long serialVersionUID = 1L;
+
+	/** The columns by their name. */
+	private final Map<String, Column> columns = new LinkedHashMap<>();
+
+	/** The number of rows. */
+	@Getter
+	private int rowCount;
+
+	/** The version of the table, increased every time the rows change. */
+	@Getter
+	private long version;
+
+	/**
+	 * Adds the given row object, the values of all declared columns are copied from the row
+	 * object.
+	 *
+	 * @param row
+	 *            the row object
+	 */
+	public void add(final T row)
+	{
+		Args.notNull(row, "row");
+		for (final Column column : columns.values())
+		{
+			final Function<Object, Object> accessor = PropertyAccessors.getAccessor(row.getClass(),
+				column.getName());
+			column.add(accessor.apply(row));
+		}
+		rowCount++;
+		version++;
+	}
+
+	/**
+	 * Adds all given row objects.
+	 *
+	 * @param rows
+	 *            the row objects
+	 */
+	public void addAll(final Collection<? extends T> rows)
+	{
+		Args.notNull(rows, "rows");
+		for (final T row : rows)
+		{
+			add(row);
+		}
+	}
+
+	/**
+	 * Adds the given column. Columns can only be added as long as the table has no rows.
+	 *
+	 * @param <C>
+	 *            the generic type of the column
+	 * @param column
+	 *            the column
+	 * @return the given column
+	 */
+	public <C extends Column> C addColumn(final C column)
+	{
+		Args.notNull(column, "column");
+		if (rowCount > 0)
+		{
+			throw new WicketRuntimeException(
+				"Column '" + column.getName() + "' can not be added to a table with rows.");
+		}
+		columns.put(column.getName(), column);
+		return column;
+	}
+
+	/**
+	 * Adds a new {@link DoubleColumn} for the given property.
+	 *
+	 * @param property
+	 *            the property expression
+	 * @return the new column
+	 */
+	public DoubleColumn addDoubleColumn(final String property)
+	{
+		return addColumn(new DoubleColumn(property));
+	}
+
+	/**
+	 * Adds a new {@link IntColumn} for the given property.
+	 *
+	 * @param property
+	 *            the property expression
+	 * @return the new column
+	 */
+	public IntColumn addIntColumn(final String property)
+	{
+		return addColumn(new IntColumn(property));
+	}
+
+	/**
+	 * Adds a new {@link LongColumn} for the given property.
+	 *
+	 * @param property
+	 *            the property expression
+	 * @return the new column
+	 */
+	public LongColumn addLongColumn(final String property)
+	{
+		return addColumn(new LongColumn(property));
+	}
+
+	/**
+	 * Adds a new {@link StringColumn} for the given property.
+	 *
+	 * @param property
+	 *            the property expression
+	 * @return the new column
+	 */
+	public StringColumn addStringColumn(final String property)
+	{
+		return addColumn(new StringColumn(property));
+	}
+
+	/**
+	 * Removes all rows, the columns are kept.
+	 */
+	public void clear()
+	{
+		for (final Column column : columns.values())
+		{
+			column.clear();
+		}
+		rowCount = 0;
+		version++;
+	}
+
+	/**
+	 * Gets the column with the given name.
+	 *
+	 * @param <C>
+	 *            the generic type of the column
+	 * @param name
+	 *            the name of the column
+	 * @return the column or null if no column with the given name exists
+	 */
+	@SuppressWarnings("unchecked")
+	public <C extends Column> C getColumn(final String name)
+	{
+		return (C)columns.get(name);
+	}
+
+	/**
+	 * Gets all columns by their name.
+	 *
+	 * @return an unmodifiable map of the columns
+	 */
+	public Map<String, Column> getColumns()
+	{
+		return Collections.unmodifiableMap(columns);
+	}
+
+}
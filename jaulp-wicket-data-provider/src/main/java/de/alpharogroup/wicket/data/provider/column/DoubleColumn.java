@@ -0,0 +1,103 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.data.provider.column;
+
+import java.util.Arrays;
+
+/**
+ * The class {@link DoubleColumn} holds the values of a double property in a primitive double array.
+ */
+public class DoubleColumn extends Column
+{
+
+	/** The serialVersionUID. */
+	private static final long serialVersionUID = 1L;
+
+	/** The values. */
+	private double[] values = new double[0];
+
+	/**
+	 * Instantiates a new {@link DoubleColumn}.
+	 *
+	 * @param name
+	 *            the name of the column
+	 */
+	public DoubleColumn(final String name)
+	{
+		super(name);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected int compareValues(final int row1, final int row2)
+	{
+		return Double.compare(values[row1], values[row2]);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void ensureCapacity(final int capacity)
+	{
+		if (capacity > values.length)
+		{
+			values = Arrays.copyOf(values, newCapacity(values.length, capacity));
+		}
+	}
+
+	/**
+	 * Gets the double value of the given row, a null value is returned as zero.
+	 *
+	 * @param row
+	 *            the index of the row
+	 * @return the double value
+	 */
+	public double getDouble(final int row)
+	{
+		return values[row];
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected Object getNonNullValue(final int row)
+	{
+		return values[row];
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void set(final int row, final Object value)
+	{
+		values[row] = ((Number)value).doubleValue();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void setNull(final int row)
+	{
+		values[row] = 0d;
+	}
+
+}
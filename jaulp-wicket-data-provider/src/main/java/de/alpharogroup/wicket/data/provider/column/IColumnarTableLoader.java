@@ -0,0 +1,39 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.data.provider.column;
+
+import org.apache.wicket.util.io.IClusterable;
+
+/**
+ * The interface {@link IColumnarTableLoader} is the callback of a columnar data provider that
+ * provides its {@link ColumnarTable} after the data provider was detached or deserialized. Only
+ * the loader is serialized with the data provider, so the columns are not written to the page
+ * store. A loader typically returns a table that is shared from an application scoped cache.
+ *
+ * @param <T>
+ *            the generic type of the row objects
+ */
+public interface IColumnarTableLoader<T> extends IClusterable
+{
+
+	/**
+	 * Loads the table.
+	 *
+	 * @return the table
+	 */
+	ColumnarTable<T> load();
+
+}
@@ -0,0 +1,191 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.data.provider.column;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The class {@link StringColumn} holds the values of a string property dictionary encoded. Every
+ * distinct value is stored once in the dictionary and the rows hold only the int code of their
+ * value, so columns with few distinct values like a status or a country need little memory.
+ * Values that are not strings are stored with their string representation.
+ */
+public class StringColumn extends Column
+{
+
+	/** The serialVersionUID. */
+	private static final long serialVersionUID = 1L;
+
+	/** The codes of the values of the rows. */
+	private int[] codes = new int[0];
+
+	/** The codes of the values in the dictionary. */
+	private final Map<String, Integer> codesByValue = new HashMap<>();
+
+	/** The distinct values, the index of a value is its code. */
+	private final List<String> dictionary = new ArrayList<>();
+
+	/** The sort ranks of the codes, computed on demand. */
+	private transient int[] ranks;
+
+	/**
+	 * Instantiates a new {@link StringColumn}.
+	 *
+	 * @param name
+	 *            the name of the column
+	 */
+	public StringColumn(final String name)
+	{
+		super(name);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void clear()
+	{
+		super.clear();
+		codesByValue.clear();
+		dictionary.clear();
+		ranks = null;
+	}
+
+	/**
+	 * Gets the code of the given value. Filters can compare the codes of the rows with this code
+	 * instead of comparing strings.
+	 *
+	 * @param value
+	 *            the value
+	 * @return the code or -1 if no row has the given value
+	 */
+	public int codeOf(final String value)
+	{
+		final Integer code = codesByValue.get(value);
+		return code != null ? code : -1;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected int compareValues(final int row1, final int row2)
+	{
+		final int[] ranks = getRanks();
+		return Integer.compare(ranks[codes[row1]], ranks[codes[row2]]);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void ensureCapacity(final int capacity)
+	{
+		if (capacity > codes.length)
+		{
+			codes = Arrays.copyOf(codes, newCapacity(codes.length, capacity));
+		}
+	}
+
+	/**
+	 * Gets the code of the value of the given row.
+	 *
+	 * @param row
+	 *            the index of the row
+	 * @return the code or -1 if the value is null
+	 */
+	public int getCode(final int row)
+	{
+		return isNull(row) ? -1 : codes[row];
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected Object getNonNullValue(final int row)
+	{
+		return dictionary.get(codes[row]);
+	}
+
+	/**
+	 * Gets the sort ranks of the codes.
+	 *
+	 * @return the sort ranks
+	 */
+	private int[] getRanks()
+	{
+		if (ranks == null)
+		{
+			final Integer[] sorted = new Integer[dictionary.size()];
+			for (int i = 0; i < sorted.length; i++)
+			{
+				sorted[i] = i;
+			}
+			Arrays.sort(sorted, new Comparator<Integer>()
+			{
+				@Override
+				public int compare(final Integer code1, final Integer code2)
+				{
+					return dictionary.get(code1).compareTo(dictionary.get(code2));
+				}
+			});
+			final int[] result = new int[sorted.length];
+			for (int rank = 0; rank < sorted.length; rank++)
+			{
+				result[sorted[rank]] = rank;
+			}
+			ranks = result;
+		}
+		return ranks;
+	}
+
+	/**
+	 * Gets the string value of the given row.
+	 *
+	 * @param row
+	 *            the index of the row
+	 * @return the string value or null
+	 */
+	public String getString(final int row)
+	{
+		return (String)getValue(row);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void set(final int row, final Object value)
+	{
+		final String string = value.toString();
+		Integer code = codesByValue.get(string);
+		if (code == null)
+		{
+			code = dictionary.size();
+			dictionary.add(string);
+			codesByValue.put(string, code);
+			ranks = null;
+		}
+		codes[row] = code;
+	}
+
+}
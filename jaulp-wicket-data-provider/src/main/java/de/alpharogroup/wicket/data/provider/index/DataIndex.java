@@ -0,0 +1,373 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.data.provider.index;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.apache.wicket.util.lang.Args;
+
+import de.alpharogroup.wicket.data.provider.sort.PropertyAccessors;
+import de.alpharogroup.wicket.data.provider.sort.PropertyComparator;
+
+/**
+ * The class {@link DataIndex} holds secondary indexes over the declared properties of a list of
+ * rows. A hash index resolves equality lookups and a sorted index resolves range lookups, the
+ * result of a lookup is a {@link BitSet} of the row positions so lookups can be intersected. The
+ * indexes are built from a snapshot of the rows, so sorting the original list in place does not
+ * invalidate the indexes.
+ *
+ * @param <T>
+ *            the generic type of the rows
+ */
+public class DataIndex<T>
+{
+
+	/** The names of the properties with a hash index. */
+	private final Set<String> hashProperties = new LinkedHashSet<>();
+
+	/** The names of the properties with a sorted index. */
+	private final Set<String> rangeProperties = new LinkedHashSet<>();
+
+	/** The hash indexes per property. */
+	private final Map<String, Map<Object, BitSet>> hashIndexes = new HashMap<>();
+
+	/** The row positions sorted by the value of the property per property. */
+	private final Map<String, int[]> rangePositions = new HashMap<>();
+
+	/** The sorted values of the property per property. */
+	private final Map<String, Object[]> rangeValues = new HashMap<>();
+
+	/** The snapshot of the indexed rows. */
+	private Object[] rows = new Object[0];
+
+	/**
+	 * Declares a hash index for equality lookups of the given property.
+	 *
+	 * @param property
+	 *            the property expression
+	 * @return this {@link DataIndex} object for chaining
+	 */
+	public DataIndex<T> addHashIndex(final String property)
+	{
+		hashProperties.add(Args.notEmpty(property, "property"));
+		return this;
+	}
+
+	/**
+	 * Declares a sorted index for range lookups of the given property.
+	 *
+	 * @param property
+	 *            the property expression
+	 * @return this {@link DataIndex} object for chaining
+	 */
+	public DataIndex<T> addRangeIndex(final String property)
+	{
+		rangeProperties.add(Args.notEmpty(property, "property"));
+		return this;
+	}
+
+	/**
+	 * Binds the indexes to the given rows without building them again. The given rows have to be
+	 * the indexed rows in the same order with the same indexed values, for instance the same data
+	 * that was loaded again from the same snapshot. Rows with another size are indexed again.
+	 *
+	 * @param data
+	 *            the rows that replace the indexed rows
+	 */
+	public void bind(final List<T> data)
+	{
+		if (data.size() != rows.length)
+		{
+			build(data);
+			return;
+		}
+		rows = data.toArray();
+	}
+
+	/**
+	 * Builds all declared indexes from the given rows.
+	 *
+	 * @param data
+	 *            the rows to index
+	 */
+	public void build(final List<T> data)
+	{
+		rows = data.toArray();
+		hashIndexes.clear();
+		rangePositions.clear();
+		rangeValues.clear();
+		final Class<?> type = PropertyAccessors.getCommonType(data);
+		if (type == null)
+		{
+			return;
+		}
+		for (final String property : hashProperties)
+		{
+			final Function<Object, Object> accessor = PropertyAccessors.getCommonAccessor(type,
+				property);
+			final Map<Object, BitSet> hashIndex = new HashMap<>();
+			for (int i = 0; i < rows.length; i++)
+			{
+				if (rows[i] != null)
+				{
+					final Object value = accessor.apply(rows[i]);
+					BitSet positions = hashIndex.get(value);
+					if (positions == null)
+					{
+						positions = new BitSet(rows.length);
+						hashIndex.put(value, positions);
+					}
+					positions.set(i);
+				}
+			}
+			hashIndexes.put(property, hashIndex);
+		}
+		for (final String property : rangeProperties)
+		{
+			buildRangeIndex(property, PropertyAccessors.getCommonAccessor(type, property));
+		}
+	}
+
+	/**
+	 * Builds the sorted index of the given property. Rows with a null value are not part of the
+	 * sorted index.
+	 *
+	 * @param property
+	 *            the property expression
+	 * @param accessor
+	 *            the accessor of the property
+	 */
+	private void buildRangeIndex(final String property, final Function<Object, Object> accessor)
+	{
+		final List<Object[]> entries = new ArrayList<>(rows.length);
+		for (int i = 0; i < rows.length; i++)
+		{
+			if (rows[i] != null)
+			{
+				final Object value = accessor.apply(rows[i]);
+				if (value != null)
+				{
+					entries.add(new Object[] { value, i });
+				}
+			}
+		}
+		entries.sort(new Comparator<Object[]>()
+		{
+			@Override
+			public int compare(final Object[] o1, final Object[] o2)
+			{
+				return PropertyComparator.compareValues(o1[0], o2[0]);
+			}
+		});
+		final int[] positions = new int[entries.size()];
+		final Object[] values = new Object[entries.size()];
+		for (int i = 0; i < positions.length; i++)
+		{
+			values[i] = entries.get(i)[0];
+			positions[i] = (Integer)entries.get(i)[1];
+		}
+		rangePositions.put(property, positions);
+		rangeValues.put(property, values);
+	}
+
+	/**
+	 * Looks up the positions of the rows whose property is equal to the given value.
+	 *
+	 * @param property
+	 *            the property expression with a hash index
+	 * @param value
+	 *            the value
+	 * @return a new {@link BitSet} with the positions of the matching rows
+	 */
+	public BitSet equal(final String property, final Object value)
+	{
+		final BitSet positions = getHashIndex(property).get(value);
+		return positions != null ? (BitSet)positions.clone() : new BitSet();
+	}
+
+	/**
+	 * Gets the hash index of the given property.
+	 *
+	 * @param property
+	 *            the property expression
+	 * @return the hash index
+	 */
+	private Map<Object, BitSet> getHashIndex(final String property)
+	{
+		if (!hashProperties.contains(property))
+		{
+			throw new IllegalArgumentException(
+				"No hash index is declared for the property '" + property + "'.");
+		}
+		final Map<Object, BitSet> hashIndex = hashIndexes.get(property);
+		return hashIndex != null ? hashIndex : new HashMap<Object, BitSet>();
+	}
+
+	/**
+	 * Gets the rows at the positions of the given {@link BitSet} in the order of the indexed
+	 * list.
+	 *
+	 * @param positions
+	 *            the positions of the rows
+	 * @return a new list with the rows
+	 */
+	@SuppressWarnings("unchecked")
+	public List<T> getRows(final BitSet positions)
+	{
+		final List<T> result = new ArrayList<>(positions.cardinality());
+		for (int i = positions.nextSetBit(0); i >= 0; i = positions.nextSetBit(i + 1))
+		{
+			result.add((T)rows[i]);
+		}
+		return result;
+	}
+
+	/**
+	 * Looks up the positions of the rows whose property is equal to one of the given values.
+	 *
+	 * @param property
+	 *            the property expression with a hash index
+	 * @param values
+	 *            the values
+	 * @return a new {@link BitSet} with the positions of the matching rows
+	 */
+	public BitSet in(final String property, final Collection<?> values)
+	{
+		final Map<Object, BitSet> hashIndex = getHashIndex(property);
+		final BitSet result = new BitSet();
+		for (final Object value : values)
+		{
+			final BitSet positions = hashIndex.get(value);
+			if (positions != null)
+			{
+				result.or(positions);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Checks if the given rows are the indexed rows, that is the same row instances in the same
+	 * order.
+	 *
+	 * @param data
+	 *            the rows
+	 * @return true if the given rows are the indexed rows
+	 */
+	public boolean isIndexed(final List<T> data)
+	{
+		if (data.size() != rows.length)
+		{
+			return false;
+		}
+		int i = 0;
+		for (final T row : data)
+		{
+			if (row != rows[i++])
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Looks up the positions of the rows whose property is within the given bounds. The bounds are
+	 * inclusive, a null bound is open.
+	 *
+	 * @param property
+	 *            the property expression with a sorted index
+	 * @param from
+	 *            the lower bound or null
+	 * @param to
+	 *            the upper bound or null
+	 * @return a new {@link BitSet} with the positions of the matching rows
+	 */
+	public BitSet range(final String property, final Object from, final Object to)
+	{
+		if (!rangeProperties.contains(property))
+		{
+			throw new IllegalArgumentException(
+				"No range index is declared for the property '" + property + "'.");
+		}
+		final BitSet result = new BitSet();
+		final Object[] values = rangeValues.get(property);
+		if (values == null)
+		{
+			return result;
+		}
+		final int[] positions = rangePositions.get(property);
+		final int lower = from != null ? search(values, from, false) : 0;
+		final int upper = to != null ? search(values, to, true) : values.length;
+		for (int i = lower; i < upper; i++)
+		{
+			result.set(positions[i]);
+		}
+		return result;
+	}
+
+	/**
+	 * Searches the first index of the given sorted values whose value is greater than the given
+	 * value or, if the flag after is false, greater or equal to the given value.
+	 *
+	 * @param values
+	 *            the sorted values
+	 * @param value
+	 *            the value to search
+	 * @param after
+	 *            the flag if equal values are skipped
+	 * @return the index
+	 */
+	private static int search(final Object[] values, final Object value, final boolean after)
+	{
+		int low = 0;
+		int high = values.length;
+		while (low < high)
+		{
+			final int middle = (low + high) >>> 1;
+			final int result = PropertyComparator.compareValues(values[middle], value);
+			if ((result < 0) || (after && (result == 0)))
+			{
+				low = middle + 1;
+			}
+			else
+			{
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Gets the number of indexed rows.
+	 *
+	 * @return the number of indexed rows
+	 */
+	public int size()
+	{
+		return rows.length;
+	}
+
+}
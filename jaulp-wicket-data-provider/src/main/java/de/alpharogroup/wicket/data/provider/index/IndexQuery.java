@@ -0,0 +1,144 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.data.provider.index;
+
+import java.util.BitSet;
+import java.util.Collection;
+
+import org.apache.wicket.util.lang.Args;
+
+/**
+ * The class {@link IndexQuery} intersects the lookups of a {@link DataIndex}. Criteria with a null
+ * value are ignored, so the fields of a filter state can be added without checking them for null.
+ *
+ * @param <T>
+ *            the generic type of the rows
+ */
+public class IndexQuery<T>
+{
+
+	/** The data index. */
+	private final DataIndex<T> index;
+
+	/** The intersection of all lookups or null if no criteria was added. */
+	private BitSet result;
+
+	/**
+	 * Instantiates a new {@link IndexQuery}.
+	 *
+	 * @param index
+	 *            the data index
+	 */
+	public IndexQuery(final DataIndex<T> index)
+	{
+		this.index = Args.notNull(index, "index");
+	}
+
+	/**
+	 * Adds a criteria that the given property has to be equal to the given value.
+	 *
+	 * @param property
+	 *            the property expression with a hash index
+	 * @param value
+	 *            the value or null to ignore this criteria
+	 * @return this {@link IndexQuery} object for chaining
+	 */
+	public IndexQuery<T> equal(final String property, final Object value)
+	{
+		if (value != null)
+		{
+			intersect(index.equal(property, value));
+		}
+		return this;
+	}
+
+	/**
+	 * Checks if no criteria was added.
+	 *
+	 * @return true if no criteria was added.
+	 */
+	public boolean isEmpty()
+	{
+		return result == null;
+	}
+
+	/**
+	 * Adds a criteria that the given property has to be equal to one of the given values.
+	 *
+	 * @param property
+	 *            the property expression with a hash index
+	 * @param values
+	 *            the values or null to ignore this criteria
+	 * @return this {@link IndexQuery} object for chaining
+	 */
+	public IndexQuery<T> in(final String property, final Collection<?> values)
+	{
+		if (values != null)
+		{
+			intersect(index.in(property, values));
+		}
+		return this;
+	}
+
+	/**
+	 * Intersects the result with the given positions.
+	 *
+	 * @param positions
+	 *            the positions
+	 */
+	private void intersect(final BitSet positions)
+	{
+		if (result == null)
+		{
+			result = positions;
+		}
+		else
+		{
+			result.and(positions);
+		}
+	}
+
+	/**
+	 * Adds a criteria that the given property has to be within the given inclusive bounds.
+	 *
+	 * @param property
+	 *            the property expression with a sorted index
+	 * @param from
+	 *            the lower bound or null for an open bound
+	 * @param to
+	 *            the upper bound or null for an open bound
+	 * @return this {@link IndexQuery} object for chaining
+	 */
+	public IndexQuery<T> range(final String property, final Object from, final Object to)
+	{
+		if ((from != null) || (to != null))
+		{
+			intersect(index.range(property, from, to));
+		}
+		return this;
+	}
+
+	/**
+	 * Gets the positions of the rows that match all criteria.
+	 *
+	 * @return the positions of the matching rows or null if no criteria was added.
+	 */
+	public BitSet getResult()
+	{
+		return result;
+	}
+
+}
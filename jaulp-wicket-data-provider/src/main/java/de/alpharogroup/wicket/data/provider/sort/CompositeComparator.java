@@ -0,0 +1,98 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.data.provider.sort;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.apache.wicket.extensions.markup.html.repeater.util.SortParam;
+import org.apache.wicket.util.lang.Args;
+
+/**
+ * The class {@link CompositeComparator} compares objects with an ordered list of comparators. The
+ * next comparator is only used if all previous comparators consider the objects as equal.
+ *
+ * @param <T>
+ *            the generic type of the compared objects
+ */
+public class CompositeComparator<T> implements Comparator<T>
+{
+
+	/**
+	 * Factory method for creating a new {@link CompositeComparator} with a
+	 * {@link PropertyComparator} for every given {@link SortParam}. The property expressions are
+	 * compiled with {@link PropertyAccessors#getCommonAccessor(Class, String)}.
+	 *
+	 * @param <T>
+	 *            the generic type of the compared objects
+	 * @param <S>
+	 *            the generic type for the sort property
+	 * @param type
+	 *            the common class of the compared objects
+	 * @param sortParams
+	 *            the ordered sort params
+	 * @return the new {@link CompositeComparator}
+	 */
+	public static <T, S> CompositeComparator<T> of(final Class<?> type,
+		final List<SortParam<S>> sortParams)
+	{
+		Args.notNull(type, "type");
+		Args.notNull(sortParams, "sortParams");
+		final List<Comparator<? super T>> comparators = new ArrayList<>(sortParams.size());
+		for (final SortParam<S> sortParam : sortParams)
+		{
+			comparators.add(new PropertyComparator<T>(
+				PropertyAccessors.getCommonAccessor(type, (String)sortParam.getProperty()),
+				sortParam.isAscending()));
+		}
+		return new CompositeComparator<>(comparators);
+	}
+
+	/** The ordered comparators. */
+	private final Comparator<? super T>[] comparators;
+
+	/**
+	 * Instantiates a new {@link CompositeComparator}.
+	 *
+	 * @param comparators
+	 *            the ordered comparators
+	 */
+	@SuppressWarnings("unchecked")
+	public CompositeComparator(final List<Comparator<? super T>> comparators)
+	{
+		Args.notNull(comparators, "comparators");
+		this.comparators = comparators.toArray(new Comparator[comparators.size()]);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int compare(final T o1, final T o2)
+	{
+		for (final Comparator<? super T> comparator : comparators)
+		{
+			final int result = comparator.compare(o1, o2);
+			if (result != 0)
+			{
+				return result;
+			}
+		}
+		return 0;
+	}
+
+}
@@ -0,0 +1,130 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.data.provider.sort;
+
+import org.apache.wicket.util.lang.Args;
+
+/**
+ * The class {@link IndexSort} sorts arrays of row indexes with a comparator of rows. The sort is a
+ * stable merge sort on primitive ints, so no row index is boxed and rows that compare as equal keep
+ * their order.
+ */
+public final class IndexSort
+{
+
+	/**
+	 * The interface {@link RowComparator} compares two rows by their index.
+	 */
+	public interface RowComparator
+	{
+
+		/**
+		 * Compares the given rows.
+		 *
+		 * @param row1
+		 *            the index of the first row
+		 * @param row2
+		 *            the index of the second row
+		 * @return a negative integer, zero, or a positive integer as the first row is less than,
+		 *         equal to, or greater than the second row.
+		 */
+		int compare(int row1, int row2);
+
+	}
+
+	/** The size of ranges that are sorted with an insertion sort. */
+	private static final int INSERTION_SORT_THRESHOLD = 16;
+
+	/**
+	 * Sorts the given row indexes with the given comparator.
+	 *
+	 * @param rows
+	 *            the row indexes
+	 * @param comparator
+	 *            the comparator of rows
+	 */
+	public static void sort(final int[] rows, final RowComparator comparator)
+	{
+		Args.notNull(rows, "rows");
+		Args.notNull(comparator, "comparator");
+		if (rows.length > 1)
+		{
+			mergeSort(rows.clone(), rows, 0, rows.length, comparator);
+		}
+	}
+
+	/**
+	 * Sorts the range of the source into the same range of the destination, the source and the
+	 * destination must contain the same values in this range.
+	 *
+	 * @param source
+	 *            the source
+	 * @param destination
+	 *            the destination
+	 * @param low
+	 *            the inclusive index of the first element
+	 * @param high
+	 *            the exclusive index of the last element
+	 * @param comparator
+	 *            the comparator of rows
+	 */
+	private static void mergeSort(final int[] source, final int[] destination, final int low,
+		final int high, final RowComparator comparator)
+	{
+		if (high - low <= INSERTION_SORT_THRESHOLD)
+		{
+			for (int i = low + 1; i < high; i++)
+			{
+				final int row = destination[i];
+				int j = i - 1;
+				while ((j >= low) && (comparator.compare(destination[j], row) > 0))
+				{
+					destination[j + 1] = destination[j];
+					j--;
+				}
+				destination[j + 1] = row;
+			}
+			return;
+		}
+		final int middle = (low + high) >>> 1;
+		mergeSort(destination, source, low, middle, comparator);
+		mergeSort(destination, source, middle, high, comparator);
+		if (comparator.compare(source[middle - 1], source[middle]) <= 0)
+		{
+			System.arraycopy(source, low, destination, low, high - low);
+			return;
+		}
+		for (int i = low, p = low, q = middle; i < high; i++)
+		{
+			if ((q >= high) || ((p < middle) && (comparator.compare(source[p], source[q]) <= 0)))
+			{
+				destination[i] = source[p++];
+			}
+			else
+			{
+				destination[i] = source[q++];
+			}
+		}
+	}
+
+	/**
+	 * Private constructor, this class has only static methods.
+	 */
+	private IndexSort()
+	{
+	}
+
+}
@@ -0,0 +1,222 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.data.provider.sort;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.wicket.extensions.markup.html.repeater.data.sort.ISortState;
+import org.apache.wicket.extensions.markup.html.repeater.data.sort.SortOrder;
+import org.apache.wicket.extensions.markup.html.repeater.util.SortParam;
+import org.apache.wicket.util.io.IClusterable;
+import org.apache.wicket.util.lang.Args;
+
+import lombok.Getter;
+
+/**
+ * The class {@link MultiSortState} holds an ordered list of {@link SortParam}s, so data can be
+ * sorted by more than one property like "status, then date". The first {@link SortParam} is the
+ * primary sort order and every following {@link SortParam} is only used if the previous ones are
+ * equal. Every change increases the version of this sort state, so sort results can be cached until
+ * the sort state changes.
+ *
+ * @param <S>
+ *            the generic type for the sort property
+ */
+public class MultiSortState<S> implements ISortState<S>, IClusterable
+{
+
+	/** The serialVersionUID. */
+	private static final long serialVersionUID = 1L;
+
+	/** The maximum number of {@link SortParam}s. */
+	@Getter
+	private final int maxSortParams;
+
+	/** The ordered sort params. */
+	private final List<SortParam<S>> sortParams = new ArrayList<>();
+
+	/** The version of this sort state, increased on every change. */
+	@Getter
+	private long version;
+
+	/**
+	 * Instantiates a new {@link MultiSortState} without a limit for the number of sort params.
+	 */
+	public MultiSortState()
+	{
+		this(Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Instantiates a new {@link MultiSortState}.
+	 *
+	 * @param maxSortParams
+	 *            the maximum number of {@link SortParam}s
+	 */
+	public MultiSortState(final int maxSortParams)
+	{
+		this.maxSortParams = Args.withinRange(1, Integer.MAX_VALUE, maxSortParams,
+			"maxSortParams");
+	}
+
+	/**
+	 * Adds the given {@link SortParam} as the sort param with the lowest priority. An existing
+	 * {@link SortParam} for the same property is removed.
+	 *
+	 * @param param
+	 *            the sort param to add
+	 */
+	public void addSort(final SortParam<S> param)
+	{
+		Args.notNull(param, "param");
+		remove(param.getProperty());
+		if (sortParams.size() < maxSortParams)
+		{
+			sortParams.add(param);
+		}
+		version++;
+	}
+
+	/**
+	 * Removes all {@link SortParam}s.
+	 */
+	public void clear()
+	{
+		sortParams.clear();
+		version++;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public SortOrder getPropertySortOrder(final S property)
+	{
+		Args.notNull(property, "property");
+		for (final SortParam<S> param : sortParams)
+		{
+			if (param.getProperty().equals(property))
+			{
+				return param.isAscending() ? SortOrder.ASCENDING : SortOrder.DESCENDING;
+			}
+		}
+		return SortOrder.NONE;
+	}
+
+	/**
+	 * Gets the ordered {@link SortParam}s.
+	 *
+	 * @return an unmodifiable list of the {@link SortParam}s.
+	 */
+	public List<SortParam<S>> getSortParams()
+	{
+		return Collections.unmodifiableList(sortParams);
+	}
+
+	/**
+	 * Removes the {@link SortParam} of the given property.
+	 *
+	 * @param property
+	 *            the property
+	 * @return true if a {@link SortParam} was removed.
+	 */
+	private boolean remove(final S property)
+	{
+		for (final Iterator<SortParam<S>> iterator = sortParams.iterator(); iterator.hasNext();)
+		{
+			if (iterator.next().getProperty().equals(property))
+			{
+				iterator.remove();
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * A property that is already sorted keeps its position, so toggling the sort order of a column
+	 * does not change the priority. A property that is not sorted yet becomes the primary sort
+	 * param. The sort order {@link SortOrder#NONE} removes the property.
+	 */
+	@Override
+	public void setPropertySortOrder(final S property, final SortOrder order)
+	{
+		Args.notNull(property, "property");
+		Args.notNull(order, "order");
+		if (order == SortOrder.NONE)
+		{
+			remove(property);
+		}
+		else
+		{
+			final SortParam<S> param = new SortParam<>(property, order == SortOrder.ASCENDING);
+			int index = -1;
+			for (int i = 0; i < sortParams.size(); i++)
+			{
+				if (sortParams.get(i).getProperty().equals(property))
+				{
+					index = i;
+					break;
+				}
+			}
+			if (index < 0)
+			{
+				sortParams.add(0, param);
+				while (sortParams.size() > maxSortParams)
+				{
+					sortParams.remove(sortParams.size() - 1);
+				}
+			}
+			else
+			{
+				sortParams.set(index, param);
+			}
+		}
+		version++;
+	}
+
+	/**
+	 * Replaces all {@link SortParam}s with the given ones.
+	 *
+	 * @param params
+	 *            the ordered sort params
+	 */
+	public void setSort(final List<SortParam<S>> params)
+	{
+		Args.notNull(params, "params");
+		sortParams.clear();
+		for (final SortParam<S> param : params)
+		{
+			addSort(param);
+		}
+		version++;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString()
+	{
+		return "[MultiSortState sortParams=" + sortParams + "]";
+	}
+
+}
@@ -0,0 +1,185 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.data.provider.sort;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.apache.wicket.util.lang.Args;
+
+/**
+ * The class {@link PartialSort} selects a window of a list in sorted order without sorting the
+ * whole list. The first <code>first + count</code> elements are selected with a bounded max heap in
+ * O(n log k), so only the selected elements are sorted. Equal elements keep the order of the given
+ * list, so the result is the same as the window of a stable sort of the whole list.
+ */
+public final class PartialSort
+{
+
+	/**
+	 * Selects the elements from the index <code>first</code> to <code>first + count</code> of the
+	 * given list as if the list would be sorted with the given comparator. The given list is not
+	 * modified.
+	 *
+	 * @param <T>
+	 *            the generic type of the elements
+	 * @param list
+	 *            the list
+	 * @param comparator
+	 *            the comparator
+	 * @param first
+	 *            the index of the first element of the window
+	 * @param count
+	 *            the maximum number of elements of the window
+	 * @return a new list with the elements of the window in sorted order
+	 */
+	public static <T> List<T> window(final List<T> list, final Comparator<? super T> comparator,
+		final int first, final int count)
+	{
+		Args.notNull(list, "list");
+		Args.notNull(comparator, "comparator");
+		final int size = list.size();
+		final int end = (int)Math.min(size, (long)first + count);
+		if (first >= end)
+		{
+			return new ArrayList<>();
+		}
+		final Object[] elements = list.toArray();
+		final int[] heap = new int[end];
+		int heapSize = 0;
+		for (int i = 0; i < size; i++)
+		{
+			if (heapSize < end)
+			{
+				heap[heapSize] = i;
+				siftUp(elements, comparator, heap, heapSize);
+				heapSize++;
+			}
+			else if (compare(elements, comparator, i, heap[0]) < 0)
+			{
+				heap[0] = i;
+				siftDown(elements, comparator, heap, heapSize);
+			}
+		}
+		// the heap holds the indexes of the first elements, now remove the greatest one by one
+		final int[] sorted = new int[heapSize];
+		for (int i = heapSize - 1; i >= 0; i--)
+		{
+			sorted[i] = heap[0];
+			heapSize--;
+			heap[0] = heap[heapSize];
+			siftDown(elements, comparator, heap, heapSize);
+		}
+		final List<T> window = new ArrayList<>(end - first);
+		for (int i = first; i < end; i++)
+		{
+			window.add(PartialSort.<T> cast(elements[sorted[i]]));
+		}
+		return window;
+	}
+
+	/**
+	 * Compares the elements at the given indexes, equal elements are ordered by their index.
+	 */
+	private static <T> int compare(final Object[] elements, final Comparator<? super T> comparator,
+		final int i, final int j)
+	{
+		final int result = comparator.compare(PartialSort.<T> cast(elements[i]),
+			PartialSort.<T> cast(elements[j]));
+		if (result != 0)
+		{
+			return result;
+		}
+		return i < j ? -1 : (i == j ? 0 : 1);
+	}
+
+	/**
+	 * Moves the element at the given position of the max heap up to its place.
+	 */
+	private static <T> void siftUp(final Object[] elements, final Comparator<? super T> comparator,
+		final int[] heap, final int position)
+	{
+		int child = position;
+		while (child > 0)
+		{
+			final int parent = (child - 1) >>> 1;
+			if (compare(elements, comparator, heap[child], heap[parent]) <= 0)
+			{
+				return;
+			}
+			swap(heap, child, parent);
+			child = parent;
+		}
+	}
+
+	/**
+	 * Moves the root element of the max heap down to its place.
+	 */
+	private static <T> void siftDown(final Object[] elements,
+		final Comparator<? super T> comparator, final int[] heap, final int heapSize)
+	{
+		int parent = 0;
+		while (true)
+		{
+			final int left = (parent << 1) + 1;
+			if (left >= heapSize)
+			{
+				return;
+			}
+			int greatest = left;
+			final int right = left + 1;
+			if ((right < heapSize)
+				&& (compare(elements, comparator, heap[right], heap[left]) > 0))
+			{
+				greatest = right;
+			}
+			if (compare(elements, comparator, heap[greatest], heap[parent]) <= 0)
+			{
+				return;
+			}
+			swap(heap, parent, greatest);
+			parent = greatest;
+		}
+	}
+
+	/**
+	 * Swaps the given positions of the heap.
+	 */
+	private static void swap(final int[] heap, final int i, final int j)
+	{
+		final int tmp = heap[i];
+		heap[i] = heap[j];
+		heap[j] = tmp;
+	}
+
+	/**
+	 * Casts the given element.
+	 */
+	@SuppressWarnings("unchecked")
+	private static <T> T cast(final Object element)
+	{
+		return (T)element;
+	}
+
+	/**
+	 * Private constructor.
+	 */
+	private PartialSort()
+	{
+	}
+
+}
@@ -0,0 +1,385 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.data.provider.sort;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+import org.apache.wicket.util.lang.Args;
+
+/**
+ * The class {@link PropertyAccessors} compiles property expressions like <code>a.b.c</code> into
+ * accessor functions. Every property expression is compiled only once per class and the resulting
+ * accessor is cached, so no reflective lookup takes place when the accessor is invoked. Objects of
+ * different subclasses are accessed with an accessor that is compiled against their common class,
+ * see {@link #getCommonType(Collection)} and {@link #getCommonAccessor(Class, String)}.
+ */
+public final class PropertyAccessors
+{
+
+	/**
+	 * The cached accessors per class and property expression. The accessors are stored with a
+	 * {@link ClassValue}, so the cache does not keep the class loader of a class alive, for instance
+	 * after a redeploy of the web application.
+	 */
+	private static final ClassValue<ConcurrentMap<String, Function<Object, Object>>> accessors = new ClassValue<ConcurrentMap<String, Function<Object, Object>>>()
+	{
+		@Override
+		protected ConcurrentMap<String, Function<Object, Object>> computeValue(final Class<?> type)
+		{
+			return new ConcurrentHashMap<>();
+		}
+	};
+
+	/**
+	 * Gets the compiled accessor for the given class and property expression.
+	 *
+	 * @param type
+	 *            the class that declares the first property of the expression
+	 * @param propertyExpression
+	 *            the property expression, nested properties are separated by a dot
+	 * @return the compiled accessor
+	 * @throws IllegalArgumentException
+	 *             if a property of the given expression does not exist
+	 */
+	public static Function<Object, Object> getAccessor(final Class<?> type,
+		final String propertyExpression)
+	{
+		Args.notNull(type, "type");
+		Args.notEmpty(propertyExpression, "propertyExpression");
+		final ConcurrentMap<String, Function<Object, Object>> classAccessors = accessors.get(type);
+		Function<Object, Object> accessor = classAccessors.get(propertyExpression);
+		if (accessor == null)
+		{
+			accessor = compile(type, propertyExpression);
+			final Function<Object, Object> existing = classAccessors.putIfAbsent(propertyExpression,
+				accessor);
+			if (existing != null)
+			{
+				accessor = existing;
+			}
+		}
+		return accessor;
+	}
+
+	/**
+	 * Gets the accessor for the given property expression that is compiled against the given
+	 * common class of the accessed objects. If a property of the expression is not declared in the
+	 * common class but only in some of its subclasses, the accessor is looked up for the class of
+	 * every accessed object, an object without the property throws an
+	 * {@link IllegalArgumentException}.
+	 *
+	 * @param type
+	 *            the common class of the accessed objects
+	 * @param propertyExpression
+	 *            the property expression, nested properties are separated by a dot
+	 * @return the accessor
+	 */
+	public static Function<Object, Object> getCommonAccessor(final Class<?> type,
+		final String propertyExpression)
+	{
+		try
+		{
+			return getAccessor(type, propertyExpression);
+		}
+		catch (final IllegalArgumentException e)
+		{
+			Args.notEmpty(propertyExpression, "propertyExpression");
+			return new Function<Object, Object>()
+			{
+				@Override
+				public Object apply(final Object object)
+				{
+					return getAccessor(object.getClass(), propertyExpression).apply(object);
+				}
+			};
+		}
+	}
+
+	/**
+	 * Gets the most specific common class of the given objects, null values are ignored.
+	 *
+	 * @param objects
+	 *            the objects
+	 * @return the common class or null if the given objects contain no object that is not null
+	 */
+	public static Class<?> getCommonType(final Collection<?> objects)
+	{
+		Class<?> type = null;
+		for (final Object object : objects)
+		{
+			if ((object == null) || ((type != null) && type.isInstance(object)))
+			{
+				continue;
+			}
+			if (type == null)
+			{
+				type = object.getClass();
+			}
+			else
+			{
+				while (!type.isInstance(object))
+				{
+					type = type.getSuperclass();
+				}
+			}
+		}
+		return type;
+	}
+
+	/**
+	 * Compiles the given property expression to a chain of accessors.
+	 *
+	 * @param type
+	 *            the class that declares the first property of the expression
+	 * @param propertyExpression
+	 *            the property expression
+	 * @return the compiled accessor
+	 */
+	private static Function<Object, Object> compile(final Class<?> type,
+		final String propertyExpression)
+	{
+		final String[] properties = propertyExpression.split("\\.");
+		final Function<Object, Object>[] chain = newChain(properties.length);
+		Class<?> currentType = type;
+		for (int i = 0; i < properties.length; i++)
+		{
+			final Member member = findMember(currentType, properties[i]);
+			if (member instanceof Method)
+			{
+				chain[i] = compile((Method)member);
+				currentType = ((Method)member).getReturnType();
+			}
+			else
+			{
+				chain[i] = compile((Field)member);
+				currentType = ((Field)member).getType();
+			}
+		}
+		if (chain.length == 1)
+		{
+			return chain[0];
+		}
+		return new Function<Object, Object>()
+		{
+			@Override
+			public Object apply(final Object object)
+			{
+				Object value = object;
+				for (int i = 0; (i < chain.length) && (value != null); i++)
+				{
+					value = chain[i].apply(value);
+				}
+				return value;
+			}
+		};
+	}
+
+	/**
+	 * Compiles the given getter method. A {@link LambdaMetafactory} based accessor is used for a
+	 * public getter of a public class. A getter that is not public or that is declared in a class
+	 * that is not public is compiled to a {@link MethodHandle} based accessor, because a lambda
+	 * generated for it can fail with an {@link IllegalAccessError} when it is invoked.
+	 *
+	 * @param getter
+	 *            the getter method
+	 * @return the compiled accessor
+	 */
+	@SuppressWarnings("unchecked")
+	private static Function<Object, Object> compile(final Method getter)
+	{
+		final MethodHandles.Lookup lookup = MethodHandles.lookup();
+		final boolean accessible = Modifier.isPublic(getter.getModifiers())
+			&& isPublic(getter.getDeclaringClass());
+		final MethodHandle handle;
+		try
+		{
+			if (!accessible)
+			{
+				getter.setAccessible(true);
+			}
+			handle = lookup.unreflect(getter);
+		}
+		catch (final IllegalAccessException e)
+		{
+			throw new IllegalArgumentException("Getter " + getter + " is not accessible.", e);
+		}
+		if (!accessible)
+		{
+			return newMethodHandleAccessor(handle);
+		}
+		try
+		{
+			final CallSite site = LambdaMetafactory.metafactory(lookup, "apply",
+				MethodType.methodType(Function.class), MethodType.methodType(Object.class, Object.class),
+				handle, handle.type().wrap());
+			return (Function<Object, Object>)site.getTarget().invokeExact();
+		}
+		catch (final Throwable e)
+		{
+			return newMethodHandleAccessor(handle);
+		}
+	}
+
+	/**
+	 * Compiles the given field to a {@link MethodHandle} based accessor.
+	 *
+	 * @param field
+	 *            the field
+	 * @return the compiled accessor
+	 */
+	private static Function<Object, Object> compile(final Field field)
+	{
+		try
+		{
+			field.setAccessible(true);
+			return newMethodHandleAccessor(MethodHandles.lookup().unreflectGetter(field));
+		}
+		catch (final IllegalAccessException e)
+		{
+			throw new IllegalArgumentException("Field " + field + " is not accessible.", e);
+		}
+	}
+
+	/**
+	 * Finds the getter method of the given property or, if there is no getter, the field with the
+	 * name of the given property.
+	 *
+	 * @param type
+	 *            the class to search
+	 * @param property
+	 *            the property name
+	 * @return the getter method or the field
+	 */
+	private static Member findMember(final Class<?> type, final String property)
+	{
+		try
+		{
+			for (final PropertyDescriptor descriptor : Introspector.getBeanInfo(type)
+				.getPropertyDescriptors())
+			{
+				if (descriptor.getName().equals(property) && (descriptor.getReadMethod() != null))
+				{
+					return descriptor.getReadMethod();
+				}
+			}
+		}
+		catch (final IntrospectionException e)
+		{
+			throw new IllegalArgumentException(
+				"Could not introspect class " + type.getName() + ".", e);
+		}
+		for (Class<?> current = type; current != null; current = current.getSuperclass())
+		{
+			try
+			{
+				return current.getDeclaredField(property);
+			}
+			catch (final NoSuchFieldException e)
+			{
+				// continue with the super class
+			}
+		}
+		throw new IllegalArgumentException(
+			"Property '" + property + "' does not exist in class " + type.getName() + ".");
+	}
+
+	/**
+	 * Checks if the given class and all its enclosing classes are public.
+	 *
+	 * @param type
+	 *            the class
+	 * @return true if the given class and all its enclosing classes are public
+	 */
+	private static boolean isPublic(final Class<?> type)
+	{
+		for (Class<?> current = type; current != null; current = current.getEnclosingClass())
+		{
+			if (!Modifier.isPublic(current.getModifiers()))
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Factory method for creating a new {@link MethodHandle} based accessor.
+	 *
+	 * @param handle
+	 *            the method handle of the getter or field
+	 * @return the new accessor
+	 */
+	private static Function<Object, Object> newMethodHandleAccessor(final MethodHandle handle)
+	{
+		final MethodHandle getter = handle
+			.asType(MethodType.methodType(Object.class, Object.class));
+		return new Function<Object, Object>()
+		{
+			@Override
+			public Object apply(final Object object)
+			{
+				try
+				{
+					return getter.invokeExact(object);
+				}
+				catch (final RuntimeException e)
+				{
+					throw e;
+				}
+				catch (final Throwable e)
+				{
+					throw new IllegalStateException(e);
+				}
+			}
+		};
+	}
+
+	/**
+	 * Creates a new array for the accessor chain.
+	 *
+	 * @param length
+	 *            the length of the chain
+	 * @return the new array
+	 */
+	@SuppressWarnings("unchecked")
+	private static Function<Object, Object>[] newChain(final int length)
+	{
+		return new Function[length];
+	}
+
+	/**
+	 * Private constructor.
+	 */
+	private PropertyAccessors()
+	{
+	}
+
+}
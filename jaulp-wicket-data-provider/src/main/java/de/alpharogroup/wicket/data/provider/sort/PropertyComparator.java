@@ -0,0 +1,241 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.data.provider.sort;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.apache.wicket.util.lang.Args;
+
+/**
+ * The class {@link PropertyComparator} compares objects by the value of a property expression. The
+ * property expression is compiled once with the {@link PropertyAccessors}. Null values are sorted
+ * before all other values in ascending order.
+ *
+ * @param <T>
+ *            the generic type of the compared objects
+ */
+public class PropertyComparator<T> implements Comparator<T>
+{
+
+	/**
+	 * Factory method for creating a new {@link PropertyComparator} for the elements of the given
+	 * list. The property expression is compiled against the common class of the elements that are
+	 * not null, see {@link PropertyAccessors#getCommonAccessor(Class, String)}.
+	 *
+	 * @param <T>
+	 *            the generic type of the compared objects
+	 * @param list
+	 *            the list to sort
+	 * @param propertyExpression
+	 *            the property expression
+	 * @param ascending
+	 *            the flag if the sort order is ascending
+	 * @return the new {@link PropertyComparator} or null if the list contains no element that is not
+	 *         null.
+	 */
+	public static <T> PropertyComparator<T> of(final List<T> list, final String propertyExpression,
+		final boolean ascending)
+	{
+		final Class<?> type = PropertyAccessors.getCommonType(list);
+		if (type == null)
+		{
+			return null;
+		}
+		return new PropertyComparator<>(
+			PropertyAccessors.getCommonAccessor(type, propertyExpression), ascending);
+	}
+
+	/** The compiled accessor of the property. */
+	private final Function<Object, Object> accessor;
+
+	/** The flag if the sort order is ascending. */
+	private final boolean ascending;
+
+	/**
+	 * Instantiates a new {@link PropertyComparator}.
+	 *
+	 * @param type
+	 *            the class of the compared objects
+	 * @param propertyExpression
+	 *            the property expression
+	 * @param ascending
+	 *            the flag if the sort order is ascending
+	 */
+	public PropertyComparator(final Class<?> type, final String propertyExpression,
+		final boolean ascending)
+	{
+		this(PropertyAccessors.getAccessor(type, propertyExpression), ascending);
+	}
+
+	/**
+	 * Instantiates a new {@link PropertyComparator}.
+	 *
+	 * @param accessor
+	 *            the accessor of the property
+	 * @param ascending
+	 *            the flag if the sort order is ascending
+	 */
+	public PropertyComparator(final Function<Object, Object> accessor, final boolean ascending)
+	{
+		this.accessor = Args.notNull(accessor, "accessor");
+		this.ascending = ascending;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int compare(final T o1, final T o2)
+	{
+		final Object value1 = o1 != null ? accessor.apply(o1) : null;
+		final Object value2 = o2 != null ? accessor.apply(o2) : null;
+		final int result = compareValues(value1, value2);
+		return ascending ? result : -result;
+	}
+
+	/**
+	 * Gets the value of the property from the given object.
+	 *
+	 * @param object
+	 *            the object
+	 * @return the value of the property
+	 */
+	public Object getValue(final T object)
+	{
+		return accessor.apply(Args.notNull(object, "object"));
+	}
+
+	/**
+	 * Compares the given property values. Values that are {@link Comparable} are compared with
+	 * their natural order and {@link Number}s of different classes are compared by their numeric
+	 * value. All other values are ordered by the name of their class first and only values of the
+	 * same class are compared by their string representation, so the order stays consistent for
+	 * mixed values.
+	 *
+	 * @param value1
+	 *            the first value
+	 * @param value2
+	 *            the second value
+	 * @return the result of the comparison
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public static int compareValues(final Object value1, final Object value2)
+	{
+		if (value1 == value2)
+		{
+			return 0;
+		}
+		if (value1 == null)
+		{
+			return -1;
+		}
+		if (value2 == null)
+		{
+			return 1;
+		}
+		if ((value1 instanceof Comparable) && value1.getClass().isInstance(value2))
+		{
+			return ((Comparable)value1).compareTo(value2);
+		}
+		if ((value2 instanceof Comparable) && value2.getClass().isInstance(value1))
+		{
+			return -((Comparable)value2).compareTo(value1);
+		}
+		if ((value1 instanceof Number) && (value2 instanceof Number))
+		{
+			return compareNumbers((Number)value1, (Number)value2);
+		}
+		final int result = getTypeName(value1).compareTo(getTypeName(value2));
+		if (result != 0)
+		{
+			return result;
+		}
+		return String.valueOf(value1).compareTo(String.valueOf(value2));
+	}
+
+	/**
+	 * Compares the given numbers of different classes by their numeric value. Finite values are
+	 * compared exactly as {@link BigDecimal}s, infinite values and NaN are compared like
+	 * {@link Double#compare(double, double)} does.
+	 *
+	 * @param number1
+	 *            the first number
+	 * @param number2
+	 *            the second number
+	 * @return the result of the comparison
+	 */
+	private static int compareNumbers(final Number number1, final Number number2)
+	{
+		final BigDecimal decimal1 = toBigDecimal(number1);
+		final BigDecimal decimal2 = toBigDecimal(number2);
+		if ((decimal1 == null) || (decimal2 == null))
+		{
+			return Double.compare(number1.doubleValue(), number2.doubleValue());
+		}
+		return decimal1.compareTo(decimal2);
+	}
+
+	/**
+	 * Gets the name that orders values of different classes. All {@link Number}s share one name,
+	 * so numbers are never ordered between values of other classes.
+	 *
+	 * @param value
+	 *            the value
+	 * @return the name of the class of the given value
+	 */
+	private static String getTypeName(final Object value)
+	{
+		return value instanceof Number ? Number.class.getName() : value.getClass().getName();
+	}
+
+	/**
+	 * Converts the given number to a {@link BigDecimal} without losing precision.
+	 *
+	 * @param number
+	 *            the number
+	 * @return the {@link BigDecimal} or null if the number is infinite or NaN
+	 */
+	private static BigDecimal toBigDecimal(final Number number)
+	{
+		if (number instanceof BigDecimal)
+		{
+			return (BigDecimal)number;
+		}
+		if (number instanceof BigInteger)
+		{
+			return new BigDecimal((BigInteger)number);
+		}
+		if ((number instanceof Long) || (number instanceof Integer) || (number instanceof Short)
+			|| (number instanceof Byte) || (number instanceof AtomicLong)
+			|| (number instanceof AtomicInteger))
+		{
+			return BigDecimal.valueOf(number.longValue());
+		}
+		final double value = number.doubleValue();
+		if (Double.isNaN(value) || Double.isInfinite(value))
+		{
+			return null;
+		}
+		return new BigDecimal(value);
+	}
+
+}
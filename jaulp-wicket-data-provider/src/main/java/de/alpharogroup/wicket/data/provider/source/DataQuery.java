@@ -0,0 +1,60 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.data.provider.source;
+
+import java.io.Serializable;
+
+import org.apache.wicket.extensions.markup.html.repeater.util.SortParam;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * The class {@link DataQuery} describes one page of data that is requested from an
+ * {@link IDataSource}.
+ *
+ * @param <S>
+ *            the generic type for the sort property
+ * @param <F>
+ *            the generic type for the filter state
+ */
+@Getter
+@EqualsAndHashCode
+@ToString
+@AllArgsConstructor
+@Builder
+public class DataQuery<S, F> implements Serializable
+{
+
+	/** The serialVersionUID. */
+	private static final long serialVersionUID = 1L;
+
+	/** The index of the first row of the page. */
+	private final long offset;
+
+	/** The maximum number of rows of the page. */
+	private final long limit;
+
+	/** The sort param or null if the page is not sorted. */
+	private final SortParam<S> sort;
+
+	/** The filter state or null if the page is not filtered. */
+	private final F filterState;
+
+}
@@ -0,0 +1,42 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.data.provider.source;
+
+/**
+ * The interface {@link IApproximateCountDataSource} is a data source that can provide an
+ * approximate count of the rows, for instance from the statistics of a database table, if the exact
+ * count is too expensive. The approximate count is only used if it is enabled on the data provider.
+ *
+ * @param <T>
+ *            the generic type of the data
+ * @param <S>
+ *            the generic type for the sort property
+ * @param <F>
+ *            the generic type for the filter state
+ */
+public interface IApproximateCountDataSource<T, S, F> extends IDataSource<T, S, F>
+{
+
+	/**
+	 * Counts approximately the rows that match the given filter state.
+	 *
+	 * @param filterState
+	 *            the filter state or null if the data is not filtered
+	 * @return the approximate number of rows
+	 */
+	long approximateCount(F filterState);
+
+}
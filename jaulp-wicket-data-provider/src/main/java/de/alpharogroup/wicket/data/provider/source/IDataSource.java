@@ -0,0 +1,55 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.data.provider.source;
+
+import java.util.List;
+
+import org.apache.wicket.util.io.IClusterable;
+
+/**
+ * The interface {@link IDataSource} is the callback of a data provider to the backing store. The
+ * backing store sorts, filters and pages the data, so only one page of data is loaded into the
+ * heap.
+ *
+ * @param <T>
+ *            the generic type of the data
+ * @param <S>
+ *            the generic type for the sort property
+ * @param <F>
+ *            the generic type for the filter state
+ */
+public interface IDataSource<T, S, F> extends IClusterable
+{
+
+	/**
+	 * Counts the rows that match the given filter state.
+	 *
+	 * @param filterState
+	 *            the filter state or null if the data is not filtered
+	 * @return the number of rows
+	 */
+	long count(F filterState);
+
+	/**
+	 * Loads exactly the page that is described from the given query.
+	 *
+	 * @param query
+	 *            the query
+	 * @return the rows of the page in sorted order
+	 */
+	List<T> load(DataQuery<S, F> query);
+
+}
@@ -0,0 +1,47 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.data.provider.source;
+
+import java.io.Serializable;
+
+/**
+ * The interface {@link IKeysetDataSource} is an {@link IDataSource} that supports keyset (seek)
+ * pagination. Instead of skipping all rows before the requested offset the backing store seeks
+ * directly to the rows after a key that was returned with a previous page.
+ *
+ * @param <T>
+ *            the generic type of the data
+ * @param <S>
+ *            the generic type for the sort property
+ * @param <F>
+ *            the generic type for the filter state
+ */
+public interface IKeysetDataSource<T, S, F> extends IDataSource<T, S, F>
+{
+
+	/**
+	 * Loads the rows after the given key. The offset of the given query is relative to the given
+	 * key, so an offset of zero returns the rows directly after the key.
+	 *
+	 * @param query
+	 *            the query
+	 * @param afterKey
+	 *            the key of the last row of a previous page or null to start with the first row
+	 * @return the page with the rows in sorted order and the key of the last row
+	 */
+	KeysetPage<T> loadAfter(DataQuery<S, F> query, Serializable afterKey);
+
+}
@@ -0,0 +1,44 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.data.provider.source;
+
+import java.io.Serializable;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * The class {@link KeysetPage} holds the rows of a page that was loaded with a keyset and the key
+ * of the last row, so the next page can be requested with the rows after this key.
+ *
+ * @param <T>
+ *            the generic type of the data
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class KeysetPage<T>
+{
+
+	/** The rows of the page in sorted order. */
+	private final List<T> rows;
+
+	/** The key of the last row or null if the page is empty. */
+	private final Serializable lastKey;
+
+}
@@ -0,0 +1,306 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.data.provider.source;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+import org.apache.wicket.extensions.markup.html.repeater.util.SortParam;
+import org.apache.wicket.util.lang.Args;
+
+import de.alpharogroup.wicket.data.provider.Fingerprints;
+import de.alpharogroup.wicket.data.provider.sort.PartialSort;
+import de.alpharogroup.wicket.data.provider.sort.PropertyComparator;
+import lombok.Getter;
+
+/**
+ * The class {@link ListDataSource} is the in-memory reference implementation of an
+ * {@link IDataSource}. The requested page is selected with a {@link PartialSort}, so the whole
+ * list is never sorted. For keyset pagination a sorted index of the data positions is built once per
+ * sort param and filter state, so the rows after a key are found with a binary search in
+ * O(log n + page size).
+ *
+ * @param <T>
+ *            the generic type of the data
+ * @param <S>
+ *            the generic type for the sort property
+ * @param <F>
+ *            the generic type for the filter state
+ */
+public class ListDataSource<T extends Serializable, S, F> implements IKeysetDataSource<T, S, F>
+{
+
+	/** The serialVersionUID. */
+	private static final long serialVersionUID = 1L;
+
+	/** The data. */
+	@Getter
+	private final List<T> data;
+
+	/** The version of the data, increased every time the data changes. */
+	private long dataVersion;
+
+	/** The cached sorted index with the data positions of the filtered rows. */
+	private transient int[] index;
+
+	/** The data version the sorted index was built from. */
+	private transient long indexDataVersion;
+
+	/** The fingerprint of the filter state the sorted index was built with. */
+	private transient byte[] indexFilterFingerprint;
+
+	/** The sort param the sorted index was built with. */
+	private transient SortParam<S> indexSort;
+
+	/** The comparator the sorted index was built with or null if the data is not sorted. */
+	private transient PropertyComparator<T> indexComparator;
+
+	/**
+	 * Instantiates a new {@link ListDataSource}.
+	 *
+	 * @param data
+	 *            the data
+	 */
+	public ListDataSource(final List<T> data)
+	{
+		this.data = Args.notNull(data, "data");
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long count(final F filterState)
+	{
+		return filter(filterState).size();
+	}
+
+	/**
+	 * Compares the row at the given data position with the given key in the order of the sorted
+	 * index.
+	 *
+	 * @param position
+	 *            the data position of the row
+	 * @param keyValue
+	 *            the value of the key
+	 * @param keyPosition
+	 *            the data position of the key
+	 * @param ascending
+	 *            the flag if the sort order is ascending
+	 * @return the result of the comparison
+	 */
+	private int compareToKey(final int position, final Object keyValue, final int keyPosition,
+		final boolean ascending)
+	{
+		if (indexComparator != null)
+		{
+			final int result = PropertyComparator
+				.compareValues(indexComparator.getValue(data.get(position)), keyValue);
+			if (result != 0)
+			{
+				return ascending ? result : -result;
+			}
+		}
+		return Integer.compare(position, keyPosition);
+	}
+
+	/**
+	 * Notifies this data source that the content of the data list has changed, so the sorted index
+	 * has to be built again.
+	 */
+	public void dataChanged()
+	{
+		dataVersion++;
+	}
+
+	/**
+	 * Filters the data with the predicate for the given filter state.
+	 *
+	 * @param filterState
+	 *            the filter state
+	 * @return the filtered data
+	 */
+	protected List<T> filter(final F filterState)
+	{
+		final Predicate<T> predicate = newPredicate(filterState);
+		if (predicate == null)
+		{
+			return data;
+		}
+		final List<T> filtered = new ArrayList<>();
+		for (final T object : data)
+		{
+			if (predicate.test(object))
+			{
+				filtered.add(object);
+			}
+		}
+		return filtered;
+	}
+
+	/**
+	 * Gets the sorted index with the data positions of the rows that match the given filter state.
+	 * The index is cached until the sort param, the filter state or the data changes.
+	 *
+	 * @param sort
+	 *            the sort param
+	 * @param filterState
+	 *            the filter state
+	 * @return the sorted index
+	 */
+	protected int[] getIndex(final SortParam<S> sort, final F filterState)
+	{
+		final byte[] fingerprint = Fingerprints.of(filterState);
+		if ((index != null) && (indexDataVersion == dataVersion) && (fingerprint != null)
+			&& Arrays.equals(indexFilterFingerprint, fingerprint) && Objects.equals(indexSort, sort))
+		{
+			return index;
+		}
+		final Predicate<T> predicate = newPredicate(filterState);
+		final List<Integer> positions = new ArrayList<>();
+		for (int i = 0; i < data.size(); i++)
+		{
+			if ((predicate == null) || predicate.test(data.get(i)))
+			{
+				positions.add(i);
+			}
+		}
+		indexComparator = sort != null
+			? PropertyComparator.of(data, (String)sort.getProperty(), true) : null;
+		if (indexComparator != null)
+		{
+			Collections.sort(positions, new Comparator<Integer>()
+			{
+				@Override
+				public int compare(final Integer o1, final Integer o2)
+				{
+					final int result = indexComparator.compare(data.get(o1), data.get(o2));
+					if (result != 0)
+					{
+						return sort.isAscending() ? result : -result;
+					}
+					return o1.compareTo(o2);
+				}
+			});
+		}
+		final int[] newIndex = new int[positions.size()];
+		for (int i = 0; i < newIndex.length; i++)
+		{
+			newIndex[i] = positions.get(i);
+		}
+		index = newIndex;
+		indexDataVersion = dataVersion;
+		indexFilterFingerprint = fingerprint;
+		indexSort = sort;
+		return index;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<T> load(final DataQuery<S, F> query)
+	{
+		final List<T> filtered = filter(query.getFilterState());
+		final int first = (int)Math.min(query.getOffset(), filtered.size());
+		final int end = (int)Math.min(filtered.size(), query.getOffset() + query.getLimit());
+		final SortParam<S> sort = query.getSort();
+		if (sort != null)
+		{
+			final Comparator<T> comparator = PropertyComparator.of(filtered,
+				(String)sort.getProperty(), sort.isAscending());
+			if (comparator != null)
+			{
+				return PartialSort.window(filtered, comparator, first, end - first);
+			}
+		}
+		return new ArrayList<>(filtered.subList(first, end));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public KeysetPage<T> loadAfter(final DataQuery<S, F> query, final Serializable afterKey)
+	{
+		final SortParam<S> sort = query.getSort();
+		final int[] sortedIndex = getIndex(sort, query.getFilterState());
+		int start = 0;
+		if (afterKey instanceof RowKey)
+		{
+			final RowKey key = (RowKey)afterKey;
+			final boolean ascending = (sort == null) || sort.isAscending();
+			Object keyValue = key.getValue();
+			if ((keyValue == null) && (indexComparator != null) && (key.getPosition() < data.size()))
+			{
+				// the value was not serializable, so take it from the row of the key
+				keyValue = indexComparator.getValue(data.get(key.getPosition()));
+			}
+			// binary search for the first row that is greater than the key
+			int low = 0;
+			int high = sortedIndex.length;
+			while (low < high)
+			{
+				final int middle = (low + high) >>> 1;
+				if (compareToKey(sortedIndex[middle], keyValue, key.getPosition(), ascending) <= 0)
+				{
+					low = middle + 1;
+				}
+				else
+				{
+					high = middle;
+				}
+			}
+			start = low;
+		}
+		final int first = (int)Math.min(sortedIndex.length, start + query.getOffset());
+		final int end = (int)Math.min(sortedIndex.length, first + query.getLimit());
+		final List<T> rows = new ArrayList<>(end - first);
+		for (int i = first; i < end; i++)
+		{
+			rows.add(data.get(sortedIndex[i]));
+		}
+		if (rows.isEmpty())
+		{
+			return new KeysetPage<>(rows, afterKey);
+		}
+		final int lastPosition = sortedIndex[end - 1];
+		final Object value = indexComparator != null
+			? indexComparator.getValue(data.get(lastPosition)) : null;
+		return new KeysetPage<>(rows, new RowKey(
+			value instanceof Serializable ? (Serializable)value : null, lastPosition));
+	}
+
+	/**
+	 * Factory method for creating the predicate for the given filter state. This method can be
+	 * overridden so users can provide their own filter.
+	 *
+	 * @param filterState
+	 *            the filter state
+	 * @return the new predicate or null if the data is not filtered.
+	 */
+	protected Predicate<T> newPredicate(final F filterState)
+	{
+		return null;
+	}
+
+}
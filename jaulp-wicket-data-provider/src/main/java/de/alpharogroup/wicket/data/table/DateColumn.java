@@ -15,8 +15,8 @@
  */
 package de.alpharogroup.wicket.data.table;
 
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.time.ZoneId;
+import java.util.Locale;
 
 import org.apache.wicket.extensions.markup.html.repeater.data.grid.ICellPopulator;
 import org.apache.wicket.extensions.markup.html.repeater.data.table.PropertyColumn;
@@ -27,7 +27,10 @@ import org.apache.wicket.model.IModel;
 import org.apache.wicket.util.lang.Args;
 
 /**
- * The class {@link DateColumn} can format a date.
+ * The class {@link DateColumn} can format a date. The value can be a {@link java.util.Date}, a
+ * {@link java.time.Instant}, a {@link java.time.LocalDate}, a {@link java.time.LocalDateTime} or
+ * any other value that is supported from {@link DateFormatters}. The formatter is cached per
+ * pattern, locale and zone, so no formatter is created for a cell.
  *
  * @param <T>
  *            the generic type from the model object
@@ -40,6 +43,12 @@ public class DateColumn<T> extends PropertyColumn<T, Void>
 	/** The date format. */
 	private final String dateFormat;
 
+	/** The locale or null for the default locale. */
+	private final Locale locale;
+
+	/** The zone or null for the default zone. */
+	private final ZoneId zone;
+
 	/**
 	 * Instantiates a new {@link DateColumn} object.
 	 *
@@ -48,13 +57,55 @@ public class DateColumn<T> extends PropertyColumn<T, Void>
 	 * @param propertyExpression
 	 *            the property expression
 	 * @param dateFormat
-	 *            the date format
+	 *            the date format with the syntax of {@link java.text.SimpleDateFormat}
 	 */
 	public DateColumn(final IModel<String> displayModel, final String propertyExpression,
 		final String dateFormat)
+	{
+		this(displayModel, propertyExpression, dateFormat, null, null);
+	}
+
+	/**
+	 * Instantiates a new {@link DateColumn} object.
+	 *
+	 * @param displayModel
+	 *            the display model
+	 * @param propertyExpression
+	 *            the property expression
+	 * @param dateFormat
+	 *            the date format with the syntax of {@link java.text.SimpleDateFormat}
+	 * @param locale
+	 *            the locale or null for the default locale
+	 * @param zone
+	 *            the zone or null for the default zone
+	 */
+	public DateColumn(final IModel<String> displayModel, final String propertyExpression,
+		final String dateFormat, final Locale locale, final ZoneId zone)
 	{
 		super(displayModel, propertyExpression);
 		this.dateFormat = Args.notNull(dateFormat, "dateFormat");
+		this.locale = locale;
+		this.zone = zone;
+	}
+
+	/**
+	 * Gets the locale for the date format.
+	 *
+	 * @return the locale
+	 */
+	protected Locale getLocale()
+	{
+		return locale != null ? locale : Locale.getDefault(Locale.Category.FORMAT);
+	}
+
+	/**
+	 * Gets the zone for date values without a zone.
+	 *
+	 * @return the zone
+	 */
+	protected ZoneId getZone()
+	{
+		return zone != null ? zone : ZoneId.systemDefault();
 	}
 
 	/**
@@ -63,14 +114,12 @@ public class DateColumn<T> extends PropertyColumn<T, Void>
 	 *
 	 * @param rowModel
 	 *            the row model
-	 * @return the string
+	 * @return the string or null if the date is null
 	 */
 	protected String onGetObject(final IModel<T> rowModel)
 	{
 		final IModel<?> propertyModel = DateColumn.this.getDataModel(rowModel);
-		final Date value = (Date)propertyModel.getObject();
-		final SimpleDateFormat format = new SimpleDateFormat(dateFormat);
-		return format.format(value);
+		return DateFormatters.format(propertyModel.getObject(), dateFormat, getLocale(), getZone());
 	}
 
 	/**
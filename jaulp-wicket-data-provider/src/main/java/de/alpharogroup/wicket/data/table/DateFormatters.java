@@ -0,0 +1,567 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.data.table;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.SignStyle;
+import java.time.format.TextStyle;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
+import java.time.temporal.TemporalField;
+import java.time.temporal.WeekFields;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+import org.apache.wicket.util.lang.Args;
+
+import de.alpharogroup.wicket.base.request.mapper.LruCache;
+
+/**
+ * The class {@link DateFormatters} formats date values with immutable {@link DateTimeFormatter}s
+ * that are cached per pattern, locale and zone. Other than {@link java.text.SimpleDateFormat} a
+ * {@link DateTimeFormatter} is thread safe, so one instance is shared by all cells and requests.
+ * <p>
+ * The patterns have the syntax of {@link java.text.SimpleDateFormat}, not the syntax of
+ * {@link DateTimeFormatter#ofPattern(String)}. Letters like <code>u</code>, <code>S</code>,
+ * <code>F</code> and <code>Z</code> have another meaning in both classes, so every pattern is
+ * translated once into an equivalent {@link DateTimeFormatter}. Letters that are not valid for a
+ * {@link java.text.SimpleDateFormat} are rejected with an {@link IllegalArgumentException}.
+ * <p>
+ * Eras, months, weekdays and the am/pm marker are formatted with the names of
+ * {@link Calendar#getDisplayName(int, int, Locale)} like a {@link java.text.SimpleDateFormat} does,
+ * because the names of the java.time text provider differ in some locales. Only the Gregorian
+ * calendar is supported.
+ */
+public final class DateFormatters
+{
+
+	/**
+	 * The key of a cached formatter.
+	 */
+	private static final class Key
+	{
+
+		/** The locale. */
+		private final Locale locale;
+
+		/** The pattern. */
+		private final String pattern;
+
+		/** The zone. */
+		private final ZoneId zone;
+
+		/**
+		 * Instantiates a new {@link Key}.
+		 *
+		 * @param pattern
+		 *            the pattern
+		 * @param locale
+		 *            the locale
+		 * @param zone
+		 *            the zone
+		 */
+		private Key(final String pattern, final Locale locale, final ZoneId zone)
+		{
+			this.pattern = pattern;
+			this.locale = locale;
+			this.zone = zone;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean equals(final Object obj)
+		{
+			if (this == obj)
+			{
+				return true;
+			}
+			if (!(obj instanceof Key))
+			{
+				return false;
+			}
+			final Key other = (Key)obj;
+			return pattern.equals(other.pattern) && locale.equals(other.locale)
+				&& zone.equals(other.zone);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public int hashCode()
+		{
+			return Objects.hash(pattern, locale, zone);
+		}
+
+	}
+
+	/** The maximum number of cached formatters. */
+	private static final int MAX_FORMATTERS = 512;
+
+	/** The cached formatters, bounded because the patterns can come from user settings. */
+	private static final LruCache<Key, DateTimeFormatter> FORMATTERS = new LruCache<>(
+		MAX_FORMATTERS, 16);
+
+	/**
+	 * Appends the field of the given pattern letter with the given count like a
+	 * {@link java.text.SimpleDateFormat} formats it.
+	 *
+	 * @param builder
+	 *            the builder
+	 * @param letter
+	 *            the pattern letter
+	 * @param count
+	 *            the number of the repeated letter
+	 * @param locale
+	 *            the locale
+	 * @param pattern
+	 *            the whole pattern for the message of an exception
+	 * @param monthOnly
+	 *            true if the month is the only field of the pattern
+	 */
+	private static void appendField(final DateTimeFormatterBuilder builder, final char letter,
+		final int count, final Locale locale, final String pattern, final boolean monthOnly)
+	{
+		final int style = count < 4 ? Calendar.SHORT : Calendar.LONG;
+		final int standaloneStyle = count < 4 ? Calendar.SHORT_STANDALONE
+			: Calendar.LONG_STANDALONE;
+		switch (letter)
+		{
+			case 'G' :
+				appendText(builder, ChronoField.ERA, getDisplayNames(Calendar.ERA, style, locale),
+					count);
+				break;
+			case 'y' :
+				appendYear(builder, ChronoField.YEAR_OF_ERA, count);
+				break;
+			case 'Y' :
+				appendYear(builder, WeekFields.of(locale).weekBasedYear(), count);
+				break;
+			case 'M' :
+				if (count < 3)
+				{
+					appendNumber(builder, ChronoField.MONTH_OF_YEAR, count);
+					break;
+				}
+				// a month without other fields is formatted in the standalone form if the
+				// locale has one
+				Map<Long, String> months = null;
+				if (monthOnly)
+				{
+					months = getDisplayNames(Calendar.MONTH, standaloneStyle, locale);
+				}
+				if (months == null)
+				{
+					months = getDisplayNames(Calendar.MONTH, style, locale);
+				}
+				appendText(builder, ChronoField.MONTH_OF_YEAR, months, count);
+				break;
+			case 'L' :
+				appendText(builder, ChronoField.MONTH_OF_YEAR, count < 3 ? null
+					: getDisplayNames(Calendar.MONTH, standaloneStyle, locale), count);
+				break;
+			case 'w' :
+				appendNumber(builder, WeekFields.of(locale).weekOfWeekBasedYear(), count);
+				break;
+			case 'W' :
+				appendNumber(builder, WeekFields.of(locale).weekOfMonth(), count);
+				break;
+			case 'D' :
+				appendNumber(builder, ChronoField.DAY_OF_YEAR, count);
+				break;
+			case 'd' :
+				appendNumber(builder, ChronoField.DAY_OF_MONTH, count);
+				break;
+			case 'F' :
+				appendNumber(builder, ChronoField.ALIGNED_WEEK_OF_MONTH, count);
+				break;
+			case 'E' :
+				appendText(builder, ChronoField.DAY_OF_WEEK,
+					getDisplayNames(Calendar.DAY_OF_WEEK, style, locale), count);
+				break;
+			case 'u' :
+				appendNumber(builder, ChronoField.DAY_OF_WEEK, count);
+				break;
+			case 'a' :
+				appendText(builder, ChronoField.AMPM_OF_DAY,
+					getDisplayNames(Calendar.AM_PM, style, locale), count);
+				break;
+			case 'H' :
+				appendNumber(builder, ChronoField.HOUR_OF_DAY, count);
+				break;
+			case 'k' :
+				appendNumber(builder, ChronoField.CLOCK_HOUR_OF_DAY, count);
+				break;
+			case 'K' :
+				appendNumber(builder, ChronoField.HOUR_OF_AMPM, count);
+				break;
+			case 'h' :
+				appendNumber(builder, ChronoField.CLOCK_HOUR_OF_AMPM, count);
+				break;
+			case 'm' :
+				appendNumber(builder, ChronoField.MINUTE_OF_HOUR, count);
+				break;
+			case 's' :
+				appendNumber(builder, ChronoField.SECOND_OF_MINUTE, count);
+				break;
+			case 'S' :
+				appendNumber(builder, ChronoField.MILLI_OF_SECOND, count);
+				break;
+			case 'z' :
+				builder.appendZoneText(count < 4 ? TextStyle.SHORT : TextStyle.FULL);
+				break;
+			case 'Z' :
+				builder.appendOffset("+HHMM", "+0000");
+				break;
+			case 'X' :
+				if (count > 3)
+				{
+					throw new IllegalArgumentException(
+						"Invalid ISO 8601 format: length=" + count + " in pattern " + pattern);
+				}
+				builder.appendOffset(count == 1 ? "+HH" : count == 2 ? "+HHMM" : "+HH:MM", "Z");
+				break;
+			default :
+				throw new IllegalArgumentException(
+					"Illegal pattern character '" + letter + "' in pattern " + pattern);
+		}
+	}
+
+	/**
+	 * Appends the given field as a number with at least the given number of digits.
+	 *
+	 * @param builder
+	 *            the builder
+	 * @param field
+	 *            the field
+	 * @param count
+	 *            the minimum number of digits
+	 */
+	private static void appendNumber(final DateTimeFormatterBuilder builder,
+		final TemporalField field, final int count)
+	{
+		builder.appendValue(field, Math.min(count, 19), 19, SignStyle.NORMAL);
+	}
+
+	/**
+	 * Appends the given field as text with the given names or as a number if no names exist.
+	 *
+	 * @param builder
+	 *            the builder
+	 * @param field
+	 *            the field
+	 * @param names
+	 *            the names of the field values or null if no names exist
+	 * @param count
+	 *            the minimum number of digits of a number
+	 */
+	private static void appendText(final DateTimeFormatterBuilder builder,
+		final TemporalField field, final Map<Long, String> names, final int count)
+	{
+		if (names == null)
+		{
+			appendNumber(builder, field, count);
+		}
+		else
+		{
+			builder.appendText(field, names);
+		}
+	}
+
+	/**
+	 * Appends the given year field, two letters are formatted as the last two digits of the year.
+	 *
+	 * @param builder
+	 *            the builder
+	 * @param field
+	 *            the year field
+	 * @param count
+	 *            the number of the repeated letter
+	 */
+	private static void appendYear(final DateTimeFormatterBuilder builder,
+		final TemporalField field, final int count)
+	{
+		if (count == 2)
+		{
+			// the base date is only used to parse, like the default century of a
+			// SimpleDateFormat that starts 80 years ago
+			builder.appendValueReduced(field, 2, 2, LocalDate.now().minusYears(80));
+		}
+		else
+		{
+			appendNumber(builder, field, count);
+		}
+	}
+
+	/**
+	 * Gets the names of the values of the given calendar field in the given style like a
+	 * {@link java.text.SimpleDateFormat} formats them. The keys are the values of the matching
+	 * {@link ChronoField}.
+	 *
+	 * @param field
+	 *            the calendar field, one of {@link Calendar#ERA}, {@link Calendar#MONTH},
+	 *            {@link Calendar#DAY_OF_WEEK} and {@link Calendar#AM_PM}
+	 * @param style
+	 *            the style of the names
+	 * @param locale
+	 *            the locale
+	 * @return the names or null if the locale has no name for a value in the given style
+	 */
+	private static Map<Long, String> getDisplayNames(final int field, final int style,
+		final Locale locale)
+	{
+		final Calendar calendar = new GregorianCalendar(locale);
+		final Map<Long, String> names = new HashMap<>();
+		for (int value = calendar.getMinimum(field); value <= calendar.getMaximum(field); value++)
+		{
+			calendar.clear();
+			calendar.set(field, value);
+			final String name = calendar.getDisplayName(field, style, locale);
+			if (name == null)
+			{
+				return null;
+			}
+			long key = value;
+			if (field == Calendar.MONTH)
+			{
+				key = value + 1;
+			}
+			else if (field == Calendar.DAY_OF_WEEK)
+			{
+				// the week of a calendar starts on sunday, the iso week on monday
+				key = value == Calendar.SUNDAY ? 7 : value - 1;
+			}
+			names.put(key, name);
+		}
+		return names;
+	}
+
+	/**
+	 * Formats the given value with the given pattern. Fast paths exist for {@link Date},
+	 * {@link Instant}, {@link LocalDate} and {@link LocalDateTime}, a {@link LocalDate} is formatted
+	 * as the start of the day. A {@link LocalDate} and a {@link LocalDateTime} are formatted in the
+	 * given zone. {@link Calendar}s and all other {@link TemporalAccessor}s are
+	 * supported as well, any other value is formatted with {@link String#valueOf(Object)}.
+	 *
+	 * @param value
+	 *            the value to format
+	 * @param pattern
+	 *            the pattern
+	 * @param locale
+	 *            the locale
+	 * @param zone
+	 *            the zone for values without a zone like {@link Date} and {@link Instant}
+	 * @return the formatted value or null if the given value is null
+	 */
+	public static String format(final Object value, final String pattern, final Locale locale,
+		final ZoneId zone)
+	{
+		if (value == null)
+		{
+			return null;
+		}
+		final DateTimeFormatter formatter = get(pattern, locale, zone);
+		if (value instanceof Date)
+		{
+			// Date#toInstant() is not supported from java.sql.Date
+			return formatter.format(Instant.ofEpochMilli(((Date)value).getTime()));
+		}
+		if (value instanceof Instant)
+		{
+			return formatter.format((Instant)value);
+		}
+		if (value instanceof LocalDateTime)
+		{
+			return formatter.format(((LocalDateTime)value).atZone(zone));
+		}
+		if (value instanceof LocalDate)
+		{
+			return formatter.format(((LocalDate)value).atStartOfDay(zone));
+		}
+		if (value instanceof Calendar)
+		{
+			return formatter.format(Instant.ofEpochMilli(((Calendar)value).getTimeInMillis()));
+		}
+		if (value instanceof TemporalAccessor)
+		{
+			return formatter.format((TemporalAccessor)value);
+		}
+		return String.valueOf(value);
+	}
+
+	/**
+	 * Gets the cached formatter for the given pattern, locale and zone.
+	 *
+	 * @param pattern
+	 *            the pattern with the syntax of {@link java.text.SimpleDateFormat}
+	 * @param locale
+	 *            the locale
+	 * @param zone
+	 *            the zone
+	 * @return the formatter
+	 * @throws IllegalArgumentException
+	 *             if the given pattern is not a valid pattern of a
+	 *             {@link java.text.SimpleDateFormat}
+	 */
+	public static DateTimeFormatter get(final String pattern, final Locale locale,
+		final ZoneId zone)
+	{
+		Args.notNull(pattern, "pattern");
+		Args.notNull(locale, "locale");
+		Args.notNull(zone, "zone");
+		final Key key = new Key(pattern, locale, zone);
+		DateTimeFormatter formatter = FORMATTERS.get(key);
+		if (formatter == null)
+		{
+			formatter = newFormatter(pattern, locale).withZone(zone);
+			FORMATTERS.put(key, formatter);
+		}
+		return formatter;
+	}
+
+	/**
+	 * Checks if the month is the only field of the given pattern.
+	 *
+	 * @param pattern
+	 *            the pattern
+	 * @return true if the month is the only field of the given pattern
+	 */
+	private static boolean isMonthOnly(final String pattern)
+	{
+		int fields = 0;
+		char field = 0;
+		char previous = 0;
+		boolean quoted = false;
+		for (int i = 0; i < pattern.length(); i++)
+		{
+			final char c = pattern.charAt(i);
+			if (c == '\'')
+			{
+				quoted = !quoted;
+				previous = 0;
+			}
+			else if (!quoted && (((c >= 'a') && (c <= 'z')) || ((c >= 'A') && (c <= 'Z'))))
+			{
+				if (c != previous)
+				{
+					fields++;
+					field = c;
+					previous = c;
+				}
+			}
+			else
+			{
+				previous = 0;
+			}
+		}
+		return (fields == 1) && (field == 'M');
+	}
+
+	/**
+	 * Factory method for creating the new {@link DateTimeFormatter} that formats like a
+	 * {@link java.text.SimpleDateFormat} with the given pattern and locale.
+	 *
+	 * @param pattern
+	 *            the pattern with the syntax of {@link java.text.SimpleDateFormat}
+	 * @param locale
+	 *            the locale
+	 * @return the new {@link DateTimeFormatter}
+	 * @throws IllegalArgumentException
+	 *             if the given pattern is not a valid pattern of a
+	 *             {@link java.text.SimpleDateFormat}
+	 */
+	public static DateTimeFormatter newFormatter(final String pattern, final Locale locale)
+	{
+		final DateTimeFormatterBuilder builder = new DateTimeFormatterBuilder();
+		final boolean monthOnly = isMonthOnly(pattern);
+		final int length = pattern.length();
+		int i = 0;
+		while (i < length)
+		{
+			final char c = pattern.charAt(i);
+			if (c == '\'')
+			{
+				if ((i + 1 < length) && (pattern.charAt(i + 1) == '\''))
+				{
+					builder.appendLiteral('\'');
+					i += 2;
+					continue;
+				}
+				final StringBuilder literal = new StringBuilder();
+				i++;
+				while (true)
+				{
+					if (i >= length)
+					{
+						throw new IllegalArgumentException(
+							"Unterminated quote in pattern " + pattern);
+					}
+					final char quoted = pattern.charAt(i++);
+					if (quoted != '\'')
+					{
+						literal.append(quoted);
+					}
+					else if ((i < length) && (pattern.charAt(i) == '\''))
+					{
+						literal.append('\'');
+						i++;
+					}
+					else
+					{
+						break;
+					}
+				}
+				builder.appendLiteral(literal.toString());
+			}
+			else if (((c >= 'a') && (c <= 'z')) || ((c >= 'A') && (c <= 'Z')))
+			{
+				int count = 1;
+				while ((i + count < length) && (pattern.charAt(i + count) == c))
+				{
+					count++;
+				}
+				appendField(builder, c, count, locale, pattern, monthOnly);
+				i += count;
+			}
+			else
+			{
+				builder.appendLiteral(c);
+				i++;
+			}
+		}
+		return builder.toFormatter(locale);
+	}
+
+	/**
+	 * Private constructor, this class has only static methods.
+	 */
+	private DateFormatters()
+	{
+	}
+
+}
@@ -0,0 +1,335 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.data.export;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.wicket.extensions.markup.html.repeater.data.sort.SortOrder;
+import org.apache.wicket.extensions.markup.html.repeater.data.table.ISortableDataProvider;
+import org.apache.wicket.extensions.markup.html.repeater.data.table.PropertyColumn;
+import org.apache.wicket.extensions.markup.html.repeater.data.table.export.IExportableColumn;
+import org.apache.wicket.extensions.markup.html.repeater.util.SortParam;
+import org.apache.wicket.model.Model;
+import org.testng.AssertJUnit;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import de.alpharogroup.wicket.data.provider.AbstractMultiSortFilterDataProvider;
+import de.alpharogroup.wicket.data.provider.AbstractSortFilterDataProvider;
+import de.alpharogroup.wicket.data.provider.AbstractSortableDataProvider;
+import de.alpharogroup.wicket.data.provider.PushdownDataProvider;
+import de.alpharogroup.wicket.data.provider.source.DataQuery;
+import de.alpharogroup.wicket.data.provider.source.IApproximateCountDataSource;
+import de.alpharogroup.wicket.data.provider.source.KeysetPage;
+import de.alpharogroup.wicket.data.provider.source.ListDataSource;
+
+/**
+ * Test for the class {@link DataExportResourceStreamWriter}.
+ */
+public class DataExportResourceStreamWriterTest
+{
+
+	public static class CountingDataSource extends ListDataSource<Person, String, Integer>
+	{
+		private static final long serialVersionUID = 1L;
+		private int loadAfterCalls;
+		private int loadCalls;
+
+		public CountingDataSource(final List<Person> data)
+		{
+			super(data);
+		}
+
+		@Override
+		public List<Person> load(final DataQuery<String, Integer> query)
+		{
+			loadCalls++;
+			return super.load(query);
+		}
+
+		@Override
+		public KeysetPage<Person> loadAfter(final DataQuery<String, Integer> query,
+			final Serializable afterKey)
+		{
+			loadAfterCalls++;
+			return super.loadAfter(query, afterKey);
+		}
+	}
+
+	public static class ApproximateCountDataSource extends CountingDataSource
+		implements
+			IApproximateCountDataSource<Person, String, Integer>
+	{
+		private static final long serialVersionUID = 1L;
+
+		public ApproximateCountDataSource(final List<Person> data)
+		{
+			super(data);
+		}
+
+		@Override
+		public long approximateCount(final Integer filterState)
+		{
+			// an estimate that is too low
+			return 1;
+		}
+	}
+
+	public static class FilterDataProvider
+		extends
+			AbstractSortFilterDataProvider<Person, String, Integer>
+	{
+		private static final long serialVersionUID = 1L;
+		private int sorts;
+
+		public FilterDataProvider(final List<Person> data)
+		{
+			super(data);
+		}
+
+		@Override
+		protected List<Person> filter(final List<Person> found)
+		{
+			final List<Person> filtered = new ArrayList<>();
+			for (final Person person : found)
+			{
+				if ((getFilterState() == null) || (person.getAge() >= getFilterState()))
+				{
+					filtered.add(person);
+				}
+			}
+			return filtered;
+		}
+
+		@Override
+		protected List<Person> sort(final List<Person> unsortedList)
+		{
+			sorts++;
+			return super.sort(unsortedList);
+		}
+	}
+
+	public static class MultiSortDataProvider
+		extends
+			AbstractMultiSortFilterDataProvider<Person, String, Integer>
+	{
+		private static final long serialVersionUID = 1L;
+		private int sorts;
+
+		public MultiSortDataProvider(final List<Person> data)
+		{
+			super(data);
+		}
+
+		@Override
+		protected List<Person> filter(final List<Person> found)
+		{
+			final List<Person> filtered = new ArrayList<>();
+			for (final Person person : found)
+			{
+				if ((getFilterState() == null) || (person.getAge() >= getFilterState()))
+				{
+					filtered.add(person);
+				}
+			}
+			return filtered;
+		}
+
+		@Override
+		protected List<Person> sort(final List<Person> unsortedList)
+		{
+			sorts++;
+			return super.sort(unsortedList);
+		}
+	}
+
+	public static class InMemoryDataProvider extends AbstractSortableDataProvider<Person, String>
+	{
+		private static final long serialVersionUID = 1L;
+		private final List<String> pages = new ArrayList<>();
+		private int sorts;
+
+		public InMemoryDataProvider(final List<Person> data)
+		{
+			super(data);
+		}
+
+		@Override
+		public Iterator<? extends Person> iterator(final long first, final long count)
+		{
+			pages.add(first + "+" + count);
+			return super.iterator(first, count);
+		}
+
+		@Override
+		protected List<Person> sort(final List<Person> unsortedList)
+		{
+			sorts++;
+			return super.sort(unsortedList);
+		}
+	}
+
+	public static class Person implements Serializable
+	{
+		private static final long serialVersionUID = 1L;
+		private final String name;
+		private final int age;
+
+		public Person(final String name, final int age)
+		{
+			this.name = name;
+			this.age = age;
+		}
+
+		public int getAge()
+		{
+			return age;
+		}
+
+		public String getName()
+		{
+			return name;
+		}
+	}
+
+	private List<IExportableColumn<Person, ?>> columns;
+	private List<Person> data;
+	private PushdownDataProvider<Person, String, Integer> provider;
+	private CountingDataSource source;
+
+	private String export(final DelimitedFormat format) throws IOException
+	{
+		return export(provider, format);
+	}
+
+	private String export(final ISortableDataProvider<Person, String> provider,
+		final DelimitedFormat format) throws IOException
+	{
+		final DataExportResourceStreamWriter<Person, String> writer = new DataExportResourceStreamWriter<>(
+			provider, columns, format);
+		writer.setChunkSize(2);
+		final ByteArrayOutputStream output = new ByteArrayOutputStream();
+		writer.write(output);
+		return new String(output.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	@BeforeMethod
+	public void setUp()
+	{
+		data = new ArrayList<>();
+		data.add(new Person("dora", 40));
+		data.add(new Person("anna, \"ann\"", 20));
+		data.add(new Person("emil\tx", 50));
+		source = new CountingDataSource(data);
+		provider = new PushdownDataProvider<>(source);
+		provider.setSort("age", SortOrder.ASCENDING);
+		columns = new ArrayList<>();
+		columns.add(new PropertyColumn<Person, String>(Model.of("Name"), "name"));
+		columns.add(new PropertyColumn<Person, String>(Model.of("Age"), "age"));
+	}
+
+	@Test
+	public void testCsv() throws IOException
+	{
+		AssertJUnit.assertEquals(
+			"Name,Age\r\n\"anna, \"\"ann\"\"\",20\r\ndora,40\r\nemil\tx,50\r\n",
+			export(DelimitedFormat.CSV));
+	}
+
+	@Test
+	public void testInMemoryChunks() throws IOException
+	{
+		data.add(new Person("bert", 30));
+		data.add(new Person("carl", 10));
+		final InMemoryDataProvider inMemory = new InMemoryDataProvider(data);
+		inMemory.setSort("age", SortOrder.ASCENDING);
+		AssertJUnit.assertEquals(
+			"Name,Age\r\ncarl,10\r\n\"anna, \"\"ann\"\"\",20\r\nbert,30\r\ndora,40\r\n"
+				+ "emil\tx,50\r\n",
+			export(inMemory, DelimitedFormat.CSV));
+		// the rows are requested in chunks from the sorted view that is sorted only once
+		AssertJUnit.assertEquals(Arrays.asList("0+2", "2+2", "4+1"), inMemory.pages);
+		AssertJUnit.assertEquals(1, inMemory.sorts);
+	}
+
+	@Test
+	public void testFilterChunks() throws IOException
+	{
+		data.add(new Person("bert", 30));
+		data.add(new Person("carl", 10));
+		final FilterDataProvider filterProvider = new FilterDataProvider(data);
+		filterProvider.setFilterState(20);
+		filterProvider.setSort("age", SortOrder.DESCENDING);
+		AssertJUnit.assertEquals(
+			"Name,Age\r\nemil\tx,50\r\ndora,40\r\nbert,30\r\n\"anna, \"\"ann\"\"\",20\r\n",
+			export(filterProvider, DelimitedFormat.CSV));
+		// the filtered data is sorted once for all chunks
+		AssertJUnit.assertEquals(1, filterProvider.sorts);
+	}
+
+	@Test
+	public void testMultiSortChunks() throws IOException
+	{
+		data.add(new Person("bert", 40));
+		data.add(new Person("carl", 10));
+		final MultiSortDataProvider multiSort = new MultiSortDataProvider(data);
+		multiSort.setFilterState(20);
+		multiSort.addSort(new SortParam<>("age", false));
+		multiSort.addSort(new SortParam<>("name", true));
+		AssertJUnit.assertEquals(
+			"Name,Age\r\nemil\tx,50\r\nbert,40\r\ndora,40\r\n\"anna, \"\"ann\"\"\",20\r\n",
+			export(multiSort, DelimitedFormat.CSV));
+		// the filtered data is sorted once for the size and all chunks
+		AssertJUnit.assertEquals(1, multiSort.sorts);
+	}
+
+	@Test
+	public void testKeysetChunks() throws IOException
+	{
+		export(DelimitedFormat.CSV);
+		AssertJUnit.assertEquals(0, source.loadCalls);
+		// the chunks are loaded until an empty chunk is loaded
+		AssertJUnit.assertEquals(3, source.loadAfterCalls);
+	}
+
+	@Test
+	public void testKeysetChunksWithApproximateCount() throws IOException
+	{
+		provider = new PushdownDataProvider<>(new ApproximateCountDataSource(data));
+		provider.setApproximateCount(true);
+		provider.setSort("age", SortOrder.ASCENDING);
+		AssertJUnit.assertEquals(1, provider.size());
+		AssertJUnit.assertEquals(
+			"Name,Age\r\n\"anna, \"\"ann\"\"\",20\r\ndora,40\r\nemil\tx,50\r\n",
+			export(DelimitedFormat.CSV));
+	}
+
+	@Test
+	public void testTsv() throws IOException
+	{
+		AssertJUnit.assertEquals(
+			Arrays.asList("Name\tAge", "anna, \"ann\"\t20", "dora\t40", "emil x\t50", ""),
+			Arrays.asList(export(DelimitedFormat.TSV).split("\r\n", -1)));
+	}
+
+}
@@ -0,0 +1,193 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.data.model;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.wicket.mock.MockHomePage;
+import org.apache.wicket.model.IModel;
+import org.apache.wicket.util.tester.WicketTester;
+import org.testng.AssertJUnit;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import de.alpharogroup.wicket.data.provider.AbstractIdSortableDataProvider;
+import de.alpharogroup.wicket.data.provider.DataProviderFixtures;
+import de.alpharogroup.wicket.data.provider.DataProviderFixtures.Person;
+
+/**
+ * Test for the classes {@link BatchLoadingModel} and {@link BatchLoadingContext}.
+ */
+public class BatchLoadingModelTest
+{
+
+	static final Map<String, Person> REPOSITORY = new LinkedHashMap<>();
+
+	static final List<List<String>> BATCHES = new ArrayList<>();
+
+	public static class PersonLoader implements IBatchLoader<Person, String>
+	{
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public String getId(final Person object)
+		{
+			return object.getName();
+		}
+
+		@Override
+		public Map<String, Person> load(final Collection<String> ids)
+		{
+			BATCHES.add(new ArrayList<>(ids));
+			final Map<String, Person> result = new LinkedHashMap<>();
+			for (final String id : ids)
+			{
+				result.put(id, REPOSITORY.get(id));
+			}
+			return result;
+		}
+	}
+
+	private List<Person> data;
+	private PersonLoader loader;
+	private WicketTester tester;
+
+	/**
+	 * Processes a request, so the tester is left with a new request cycle.
+	 */
+	private void nextRequest()
+	{
+		tester.startPage(MockHomePage.class);
+		BATCHES.clear();
+	}
+
+	@BeforeMethod
+	public void setUp()
+	{
+		tester = new WicketTester();
+		REPOSITORY.clear();
+		BATCHES.clear();
+		data = new ArrayList<>();
+		for (int i = 0; i < 10; i++)
+		{
+			final Person person = new Person("person" + i, i);
+			REPOSITORY.put(person.getName(), person);
+			data.add(person);
+		}
+		loader = new PersonLoader();
+	}
+
+	@AfterMethod
+	public void tearDown()
+	{
+		tester.destroy();
+	}
+
+	@Test
+	public void testLivePageIsLoadedWithOneBatch()
+	{
+		final AbstractIdSortableDataProvider<Person, String, String> provider = new AbstractIdSortableDataProvider<>(
+			data, loader);
+		final List<IModel<Person>> models = new ArrayList<>();
+		final Iterator<? extends Person> iterator = provider.iterator(2, 3);
+		while (iterator.hasNext())
+		{
+			models.add(provider.model(iterator.next()));
+		}
+		AssertJUnit.assertTrue(BATCHES.isEmpty());
+		for (final IModel<Person> model : models)
+		{
+			model.detach();
+		}
+
+		// the models stay in memory and are loaded in the next request
+		nextRequest();
+		for (final IModel<Person> model : models)
+		{
+			model.getObject();
+		}
+		AssertJUnit.assertEquals(Arrays.asList(Arrays.asList("person2", "person3", "person4")),
+			BATCHES);
+		AssertJUnit.assertSame(REPOSITORY.get("person4"), models.get(2).getObject());
+	}
+
+	@Test
+	public void testStoredPageIsLoadedWithOneBatch() throws IOException, ClassNotFoundException
+	{
+		final List<BatchLoadingModel<Person, String>> models = new ArrayList<>();
+		for (final Person person : data.subList(0, 4))
+		{
+			models.add(new BatchLoadingModel<>(person.getName(), loader));
+		}
+		nextRequest();
+
+		// the models are read from the page store in the next request
+		final List<BatchLoadingModel<Person, String>> stored = DataProviderFixtures.copy(models);
+		for (final BatchLoadingModel<Person, String> model : stored)
+		{
+			model.getObject();
+		}
+		AssertJUnit.assertEquals(1, BATCHES.size());
+		AssertJUnit.assertEquals(4, BATCHES.get(0).size());
+		AssertJUnit.assertEquals("person3", stored.get(3).getObject().getName());
+	}
+
+	@Test
+	public void testEntityIsResolvedOncePerRequest()
+	{
+		final BatchLoadingModel<Person, String> first = new BatchLoadingModel<>("person1", loader);
+		final BatchLoadingModel<Person, String> second = new BatchLoadingModel<>("person1", loader);
+		AssertJUnit.assertEquals(first, second);
+		AssertJUnit.assertSame(REPOSITORY.get("person1"), first.getObject());
+		first.detach();
+		AssertJUnit.assertSame(first.getObject(), second.getObject());
+		AssertJUnit.assertEquals(1, BATCHES.size());
+
+		// a model from an already loaded entity does not load it again
+		final BatchLoadingModel<Person, String> loaded = BatchLoadingModel
+			.of(REPOSITORY.get("person5"), loader);
+		loaded.detach();
+		AssertJUnit.assertSame(REPOSITORY.get("person5"), loaded.getObject());
+		AssertJUnit.assertEquals(1, BATCHES.size());
+
+		// the next request loads the entity again
+		nextRequest();
+		first.detach();
+		first.getObject();
+		AssertJUnit.assertEquals(1, BATCHES.size());
+	}
+
+	@Test
+	public void testWithoutRequestCycle()
+	{
+		tester.destroy();
+		final BatchLoadingModel<Person, String> first = new BatchLoadingModel<>("person1", loader);
+		final BatchLoadingModel<Person, String> second = new BatchLoadingModel<>("person2", loader);
+		AssertJUnit.assertSame(REPOSITORY.get("person1"), first.getObject());
+		AssertJUnit.assertSame(REPOSITORY.get("person2"), second.getObject());
+		AssertJUnit.assertEquals(2, BATCHES.size());
+		tester = new WicketTester();
+	}
+
+}
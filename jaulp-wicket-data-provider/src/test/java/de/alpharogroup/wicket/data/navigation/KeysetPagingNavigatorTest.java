@@ -0,0 +1,106 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.data.navigation;
+
+import org.apache.wicket.markup.html.navigation.paging.IPageable;
+import org.apache.wicket.markup.html.navigation.paging.PagingNavigation;
+import org.apache.wicket.util.tester.WicketTester;
+import org.testng.AssertJUnit;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Test for the class {@link KeysetPagingNavigator}.
+ */
+public class KeysetPagingNavigatorTest
+{
+
+	public static class Pageable implements IPageable
+	{
+		private static final long serialVersionUID = 1L;
+		private final long pageCount;
+		private long currentPage;
+
+		public Pageable(final long pageCount, final long currentPage)
+		{
+			this.pageCount = pageCount;
+			this.currentPage = currentPage;
+		}
+
+		@Override
+		public long getCurrentPage()
+		{
+			return currentPage;
+		}
+
+		@Override
+		public long getPageCount()
+		{
+			return pageCount;
+		}
+
+		@Override
+		public void setCurrentPage(final long page)
+		{
+			currentPage = page;
+		}
+	}
+
+	private WicketTester tester;
+
+	@BeforeMethod
+	public void setUp()
+	{
+		tester = new WicketTester();
+	}
+
+	@AfterMethod
+	public void tearDown()
+	{
+		tester.destroy();
+	}
+
+	@Test
+	public void testLastPageLinkIsHidden()
+	{
+		tester.startComponentInPage(new KeysetPagingNavigator("navigator", new Pageable(100, 0)));
+
+		tester.assertInvisible("navigator:last");
+		tester.assertVisible("navigator:first");
+		tester.assertVisible("navigator:prev");
+		tester.assertVisible("navigator:next");
+	}
+
+	@Test
+	public void testPageLinksAroundCurrentPage()
+	{
+		final Pageable pageable = new Pageable(100, 50);
+		tester.startComponentInPage(new KeysetPagingNavigator("navigator", pageable));
+
+		final PagingNavigation navigation = (PagingNavigation)tester
+			.getComponentFromLastRenderedPage("navigator:navigation");
+		AssertJUnit.assertEquals(KeysetPagingNavigator.DEFAULT_VIEW_SIZE, navigation.getViewSize());
+		AssertJUnit.assertEquals(0, navigation.getMargin());
+		AssertJUnit.assertEquals(KeysetPagingNavigator.DEFAULT_VIEW_SIZE, navigation.size());
+
+		// paging forward reaches the following pages without a link to the last page
+		tester.clickLink("navigator:next");
+		AssertJUnit.assertEquals(51, pageable.getCurrentPage());
+		tester.assertInvisible("navigator:last");
+	}
+
+}
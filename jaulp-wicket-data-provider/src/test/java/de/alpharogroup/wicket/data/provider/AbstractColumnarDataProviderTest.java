@@ -0,0 +1,175 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.data.provider;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+import org.apache.wicket.extensions.markup.html.repeater.data.sort.SortOrder;
+import org.testng.AssertJUnit;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import de.alpharogroup.wicket.data.provider.DataProviderFixtures.Person;
+import de.alpharogroup.wicket.data.provider.column.ColumnarTable;
+import de.alpharogroup.wicket.data.provider.column.IColumnarTableLoader;
+import de.alpharogroup.wicket.data.provider.column.IntColumn;
+import de.alpharogroup.wicket.data.provider.column.StringColumn;
+
+/**
+ * Test for the class {@link AbstractColumnarDataProvider}.
+ */
+public class AbstractColumnarDataProviderTest
+{
+
+	public static class PersonDataProvider extends AbstractColumnarDataProvider<Person, Integer>
+	{
+		private static final long serialVersionUID = 1L;
+
+		public PersonDataProvider(final IColumnarTableLoader<Person> tableLoader)
+		{
+			super(tableLoader);
+		}
+
+		@Override
+		protected Person newRow(final int row)
+		{
+			final StringColumn name = getTable().getColumn("name");
+			final IntColumn age = getTable().getColumn("age");
+			return new Person(name.getString(row), age.getInt(row));
+		}
+	}
+
+	public static class SharedTableLoader implements IColumnarTableLoader<Person>
+	{
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public ColumnarTable<Person> load()
+		{
+			loads++;
+			return sharedTable;
+		}
+	}
+
+	private static int loads;
+	private static ColumnarTable<Person> sharedTable;
+
+	private AbstractColumnarDataProvider<Person, Integer> provider;
+
+	private List<String> names(final Iterator<? extends Person> iterator)
+	{
+		final List<String> names = new ArrayList<>();
+		while (iterator.hasNext())
+		{
+			names.add(iterator.next().getName());
+		}
+		return names;
+	}
+
+	@BeforeMethod
+	public void setUp()
+	{
+		final ColumnarTable<Person> table = new ColumnarTable<>();
+		final StringColumn name = table.addStringColumn("name");
+		final IntColumn age = table.addIntColumn("age");
+		table.addAll(Arrays.asList(new Person("dora", 40), new Person("anna", 20),
+			new Person("emil", 50), new Person("bert", 30), new Person("carl", 10)));
+		provider = new AbstractColumnarDataProvider<Person, Integer>(table)
+		{
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected Person newRow(final int row)
+			{
+				return new Person(name.getString(row), age.getInt(row));
+			}
+
+			@Override
+			protected IntPredicate newRowFilter(final Integer filterState)
+			{
+				return new IntPredicate()
+				{
+					@Override
+					public boolean test(final int row)
+					{
+						return age.getInt(row) >= filterState;
+					}
+				};
+			}
+		};
+	}
+
+	@Test
+	public void testFilteredAndSortedPage()
+	{
+		provider.setFilterState(30);
+		provider.setSort("age", SortOrder.DESCENDING);
+		AssertJUnit.assertEquals(3, provider.size());
+		AssertJUnit.assertEquals(Arrays.asList("emil", "dora"), names(provider.iterator(0, 2)));
+		AssertJUnit.assertEquals(Arrays.asList("bert"), names(provider.iterator(2, 2)));
+	}
+
+	@Test
+	public void testNullValueAfterClear()
+	{
+		final IntColumn column = new IntColumn("age");
+		column.add(42);
+		column.clear();
+		column.add(null);
+		AssertJUnit.assertTrue(column.isNull(0));
+		AssertJUnit.assertEquals(0, column.getInt(0));
+	}
+
+	@Test
+	public void testSortedByStringColumn()
+	{
+		provider.setSort("name", SortOrder.ASCENDING);
+		AssertJUnit.assertEquals(Arrays.asList("anna", "bert", "carl", "dora", "emil"),
+			names(provider.iterator(0, 10)));
+	}
+
+	@Test
+	public void testTableIsLoadedWithTableLoader() throws IOException, ClassNotFoundException
+	{
+		loads = 0;
+		sharedTable = provider.getTable();
+		final PersonDataProvider loaded = new PersonDataProvider(new SharedTableLoader());
+		loaded.setSort("age", SortOrder.ASCENDING);
+		AssertJUnit.assertEquals(Arrays.asList("carl", "anna"), names(loaded.iterator(0, 2)));
+		final PersonDataProvider copy = DataProviderFixtures.copy(loaded);
+		AssertJUnit.assertEquals(1, loads);
+		AssertJUnit.assertSame(sharedTable, copy.getTable());
+		AssertJUnit.assertEquals(2, loads);
+		loaded.detach();
+		AssertJUnit.assertEquals(5, loaded.size());
+		AssertJUnit.assertEquals(3, loads);
+	}
+
+	@Test
+	public void testTableChange()
+	{
+		AssertJUnit.assertEquals(5, provider.size());
+		provider.getTable().add(new Person("fred", 60));
+		AssertJUnit.assertEquals(6, provider.size());
+		AssertJUnit.assertEquals(Arrays.asList("fred"), names(provider.iterator(5, 1)));
+	}
+
+}
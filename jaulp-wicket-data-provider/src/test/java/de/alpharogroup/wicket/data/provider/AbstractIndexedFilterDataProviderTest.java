@@ -0,0 +1,268 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.data.provider;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Predicate;
+
+import org.apache.wicket.extensions.markup.html.repeater.data.sort.SortOrder;
+import org.testng.AssertJUnit;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import de.alpharogroup.wicket.data.provider.DataProviderFixtures.Item;
+import de.alpharogroup.wicket.data.provider.index.DataIndex;
+import de.alpharogroup.wicket.data.provider.index.IndexQuery;
+
+/**
+ * Test for the class {@link AbstractIndexedFilterDataProvider}.
+ */
+public class AbstractIndexedFilterDataProviderTest
+{
+
+	public static class ItemFilter implements Serializable
+	{
+		private static final long serialVersionUID = 1L;
+		private final String category;
+		private final Integer from;
+		private final String prefix;
+
+		public ItemFilter(final String category, final Integer from, final String prefix)
+		{
+			this.category = category;
+			this.from = from;
+			this.prefix = prefix;
+		}
+	}
+
+	public static class ItemDataProvider
+		extends
+			AbstractIndexedFilterDataProvider<Item, String, ItemFilter>
+	{
+		private static final long serialVersionUID = 1L;
+		private int declarations;
+		private int builds;
+
+		public ItemDataProvider(final List<Item> data)
+		{
+			super(data);
+		}
+
+		@Override
+		protected DataIndex<Item> newDataIndex()
+		{
+			return new DataIndex<Item>()
+			{
+				@Override
+				public void build(final List<Item> data)
+				{
+					builds++;
+					super.build(data);
+				}
+			};
+		}
+
+		@Override
+		protected Predicate<Item> newFilterPredicate()
+		{
+			final ItemFilter filter = getFilterState();
+			if ((filter == null) || (filter.prefix == null))
+			{
+				return null;
+			}
+			return new Predicate<Item>()
+			{
+				@Override
+				public boolean test(final Item item)
+				{
+					return item.getName().startsWith(filter.prefix);
+				}
+			};
+		}
+
+		@Override
+		protected void onDeclareIndexes(final DataIndex<Item> index)
+		{
+			declarations++;
+			index.addHashIndex("category").addRangeIndex("price");
+		}
+
+		@Override
+		protected void onQuery(final IndexQuery<Item> query, final ItemFilter filterState)
+		{
+			query.equal("category", filterState.category).range("price", filterState.from, null);
+		}
+	}
+
+	public static class RecategorizingDataLoader implements IDataLoader<Item, ArrayList<Item>>
+	{
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public List<Item> load(final ArrayList<Item> snapshot)
+		{
+			// the same rows in the same order, but the cake is a fruit now
+			final List<Item> data = new ArrayList<>();
+			for (final Item item : snapshot)
+			{
+				data.add(new Item(item.getName(),
+					"cake".equals(item.getName()) ? "fruit" : item.getCategory(), item.getPrice()));
+			}
+			return data;
+		}
+
+		@Override
+		public ArrayList<Item> snapshot(final List<Item> data)
+		{
+			return new ArrayList<>(data);
+		}
+	}
+
+	private List<Item> data;
+	private ItemDataProvider provider;
+
+	private List<String> names(final Iterator<? extends Item> iterator)
+	{
+		final List<String> names = new ArrayList<>();
+		while (iterator.hasNext())
+		{
+			names.add(iterator.next().getName());
+		}
+		return names;
+	}
+
+	@BeforeMethod
+	public void setUp()
+	{
+		data = new ArrayList<>();
+		data.add(new Item("fig", "fruit", 5));
+		data.add(new Item("bread", "bakery", 2));
+		data.add(new Item("cherry", "fruit", 7));
+		data.add(new Item("donut", "bakery", 5));
+		data.add(new Item("apple", "fruit", 3));
+		data.add(new Item("cake", "bakery", 9));
+		provider = new ItemDataProvider(data);
+		provider.setSort("name", SortOrder.ASCENDING);
+	}
+
+	@Test
+	public void testFilterWithIndexes()
+	{
+		provider.setFilterState(new ItemFilter("fruit", 4, null));
+		AssertJUnit.assertEquals(2, provider.size());
+		AssertJUnit.assertEquals(Arrays.asList("cherry", "fig"),
+			names(provider.iterator(0, 10)));
+
+		provider.setFilterState(new ItemFilter(null, 5, null));
+		AssertJUnit.assertEquals(Arrays.asList("cake", "cherry", "donut", "fig"),
+			names(provider.iterator(0, 10)));
+		AssertJUnit.assertEquals(Arrays.asList("donut", "fig"), names(provider.iterator(2, 2)));
+	}
+
+	@Test
+	public void testFilterIsAppliedToMatchingRows()
+	{
+		provider.setFilterState(new ItemFilter("bakery", null, "c"));
+		AssertJUnit.assertEquals(Arrays.asList("cake"), names(provider.iterator(0, 10)));
+	}
+
+	@Test
+	public void testWithoutCriteria()
+	{
+		AssertJUnit.assertEquals(6, provider.size());
+		provider.setFilterState(new ItemFilter(null, null, null));
+		AssertJUnit.assertEquals(Arrays.asList("apple", "bread", "cake", "cherry", "donut", "fig"),
+			names(provider.iterator(0, 10)));
+		provider.setFilterState(new ItemFilter(null, null, "c"));
+		AssertJUnit.assertEquals(Arrays.asList("cake", "cherry"), names(provider.iterator(0, 10)));
+	}
+
+	@Test
+	public void testIndexIsBuiltAgainAfterSetData()
+	{
+		provider.setFilterState(new ItemFilter("fruit", null, null));
+		AssertJUnit.assertEquals(3, provider.size());
+
+		final List<Item> other = new ArrayList<>();
+		other.add(new Item("grape", "fruit", 4));
+		other.add(new Item("muffin", "bakery", 3));
+		provider.setData(other);
+		AssertJUnit.assertEquals(Arrays.asList("grape"), names(provider.iterator(0, 10)));
+		AssertJUnit.assertEquals(2, provider.builds);
+		AssertJUnit.assertEquals(1, provider.declarations);
+	}
+
+	@Test
+	public void testIndexIsBuiltAgainAfterDataChanged()
+	{
+		provider.setFilterState(new ItemFilter("fruit", null, null));
+		AssertJUnit.assertEquals(3, provider.size());
+
+		data.add(new Item("grape", "fruit", 4));
+		provider.dataChanged();
+		AssertJUnit.assertEquals(Arrays.asList("apple", "cherry", "fig", "grape"),
+			names(provider.iterator(0, 10)));
+		AssertJUnit.assertEquals(1, provider.declarations);
+	}
+
+	@Test
+	public void testIndexIsKeptForTheSameRowsOfTheNextRequest()
+	{
+		provider.setFilterState(new ItemFilter("fruit", null, null));
+		AssertJUnit.assertEquals(3, provider.size());
+
+		// the next request sets the same rows again
+		provider.detach();
+		provider.setData(new ArrayList<>(data));
+		AssertJUnit.assertEquals(Arrays.asList("apple", "cherry", "fig"),
+			names(provider.iterator(0, 10)));
+		AssertJUnit.assertEquals(1, provider.builds);
+	}
+
+	@Test
+	public void testIndexIsBoundToDataReloadedFromTheSameSnapshot()
+	{
+		provider.setDataLoader(new RecategorizingDataLoader());
+		provider.setFilterState(new ItemFilter("fruit", null, null));
+		AssertJUnit.assertEquals(Arrays.asList("apple", "cherry", "fig"),
+			names(provider.iterator(0, 10)));
+
+		provider.detach();
+		final List<Item> loaded = provider.getData();
+		final List<Item> page = new ArrayList<>();
+		final Iterator<? extends Item> iterator = provider.iterator(0, 10);
+		while (iterator.hasNext())
+		{
+			page.add(iterator.next());
+		}
+		// the index is bound to the reloaded rows without building it again
+		AssertJUnit.assertEquals(3, page.size());
+		AssertJUnit.assertTrue(loaded.containsAll(page));
+		AssertJUnit.assertEquals(1, provider.builds);
+
+		// the changed rows are signaled, so the reloaded cake matches the filter state now
+		provider.dataChanged();
+		AssertJUnit.assertEquals(Arrays.asList("apple", "cake", "cherry", "fig"),
+			names(provider.iterator(0, 10)));
+		AssertJUnit.assertEquals(2, provider.builds);
+		AssertJUnit.assertEquals(1, provider.declarations);
+	}
+
+}
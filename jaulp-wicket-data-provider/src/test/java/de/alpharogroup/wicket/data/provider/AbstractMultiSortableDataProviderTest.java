@@ -0,0 +1,198 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.data.provider;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.wicket.extensions.markup.html.repeater.data.sort.SortOrder;
+import org.apache.wicket.extensions.markup.html.repeater.util.SortParam;
+import org.testng.AssertJUnit;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import de.alpharogroup.wicket.data.provider.DataProviderFixtures.NameDataLoader;
+import de.alpharogroup.wicket.data.provider.DataProviderFixtures.Person;
+import de.alpharogroup.wicket.data.provider.sort.MultiSortState;
+
+/**
+ * Test for the class {@link AbstractMultiSortableDataProvider} and its data loader mode.
+ */
+public class AbstractMultiSortableDataProviderTest
+{
+
+	public static class Item implements Serializable
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final String name;
+
+		private final int rank;
+
+		public Item(final String name, final int rank)
+		{
+			this.name = name;
+			this.rank = rank;
+		}
+
+		public String getName()
+		{
+			return name;
+		}
+
+		public int getRank()
+		{
+			return rank;
+		}
+	}
+
+	private List<Person> data;
+
+	private List<Item> items;
+
+	private static List<String> names(final Iterator<? extends Item> iterator)
+	{
+		final List<String> names = new ArrayList<>();
+		while (iterator.hasNext())
+		{
+			names.add(iterator.next().getName());
+		}
+		return names;
+	}
+
+	@BeforeMethod
+	public void setUpItems()
+	{
+		items = new ArrayList<>();
+		items.add(new Item("c", 1));
+		items.add(new Item("a", 2));
+		items.add(new Item("b", 1));
+		items.add(new Item("d", 2));
+	}
+
+	@Test
+	public void testSortByMoreThanOneProperty()
+	{
+		final AbstractMultiSortableDataProvider<Item, String> provider = new AbstractMultiSortableDataProvider<>(
+			items);
+		provider.setSort("rank", SortOrder.DESCENDING);
+		provider.addSort(new SortParam<>("name", true));
+		AssertJUnit.assertEquals("[a, d, b, c]", names(provider.iterator(0, 4)).toString());
+		AssertJUnit.assertEquals("[d, b]", names(provider.iterator(1, 2)).toString());
+	}
+
+	@Test
+	public void testNewPropertyBecomesPrimarySortParam()
+	{
+		final MultiSortState<String> sortState = new MultiSortState<>();
+		sortState.setPropertySortOrder("name", SortOrder.ASCENDING);
+		sortState.setPropertySortOrder("rank", SortOrder.ASCENDING);
+		AssertJUnit.assertEquals("rank", sortState.getSortParams().get(0).getProperty());
+		sortState.setPropertySortOrder("name", SortOrder.DESCENDING);
+		AssertJUnit.assertEquals("rank", sortState.getSortParams().get(0).getProperty());
+		AssertJUnit.assertEquals(SortOrder.DESCENDING, sortState.getPropertySortOrder("name"));
+		sortState.setPropertySortOrder("rank", SortOrder.NONE);
+		AssertJUnit.assertEquals(1, sortState.getSortParams().size());
+	}
+
+	@Test
+	public void testMaxSortParams()
+	{
+		final MultiSortState<String> sortState = new MultiSortState<>(1);
+		sortState.setPropertySortOrder("name", SortOrder.ASCENDING);
+		sortState.setPropertySortOrder("rank", SortOrder.ASCENDING);
+		AssertJUnit.assertEquals(1, sortState.getSortParams().size());
+		AssertJUnit.assertEquals("rank", sortState.getSortParams().get(0).getProperty());
+	}
+
+	@Test
+	public void testComparatorIsReusedUntilSortStateChanges()
+	{
+		final AbstractMultiSortableDataProvider<Item, String> provider = new AbstractMultiSortableDataProvider<>(
+			items);
+		AssertJUnit.assertNull(provider.getComparator(items));
+		provider.setSort("name", SortOrder.ASCENDING);
+		final Object comparator = provider.getComparator(items);
+		AssertJUnit.assertNotNull(comparator);
+		AssertJUnit.assertSame(comparator, provider.getComparator(items));
+		provider.setSort("name", SortOrder.DESCENDING);
+		AssertJUnit.assertNotSame(comparator, provider.getComparator(items));
+	}
+
+	private AbstractMultiSortableDataProvider<Person, String> newProvider()
+	{
+		final AbstractMultiSortableDataProvider<Person, String> provider = new AbstractMultiSortableDataProvider<>(
+			data);
+		provider.setSort("age", SortOrder.DESCENDING);
+		provider.addSort(new SortParam<>("name", true));
+		return provider;
+	}
+
+	@BeforeMethod
+	public void setUp()
+	{
+		DataProviderFixtures.REPOSITORY.clear();
+		data = new ArrayList<>();
+		for (int i = 0; i < 100; i++)
+		{
+			final Person person = new Person("person" + i, i % 10);
+			DataProviderFixtures.REPOSITORY.put(person.getName(), person);
+			data.add(person);
+		}
+	}
+
+	@Test
+	public void testDataIsReloadedAfterDetach()
+	{
+		final AbstractMultiSortableDataProvider<Person, String> provider = newProvider();
+		provider.setDataLoader(new NameDataLoader());
+		provider.detach();
+		AssertJUnit.assertEquals(100, provider.size());
+		AssertJUnit.assertSame(DataProviderFixtures.REPOSITORY.get("person19"),
+			provider.iterator(0, 1).next());
+	}
+
+	@Test
+	public void testSetDataUpdatesSnapshot() throws IOException, ClassNotFoundException
+	{
+		final AbstractMultiSortableDataProvider<Person, String> provider = newProvider();
+		provider.setDataLoader(new NameDataLoader());
+		provider.setData(new ArrayList<>(data.subList(0, 10)));
+		final AbstractMultiSortableDataProvider<Person, String> copy = DataProviderFixtures
+			.copy(provider);
+		AssertJUnit.assertEquals(provider.getDataSnapshot(), copy.getDataSnapshot());
+		AssertJUnit.assertEquals(10, copy.size());
+		AssertJUnit.assertSame(DataProviderFixtures.REPOSITORY.get("person9"),
+			copy.iterator(0, 1).next());
+	}
+
+	@Test
+	public void testDataIsSerializedWithoutDataLoader() throws IOException, ClassNotFoundException
+	{
+		final AbstractMultiSortableDataProvider<Person, String> provider = newProvider();
+		final AbstractMultiSortableDataProvider<Person, String> copy = DataProviderFixtures
+			.copy(provider);
+		AssertJUnit.assertNull(copy.getDataSnapshot());
+		AssertJUnit.assertEquals(100, copy.size());
+		AssertJUnit.assertEquals("person19", copy.iterator(0, 1).next().getName());
+		AssertJUnit.assertNotSame(DataProviderFixtures.REPOSITORY.get("person19"),
+			copy.iterator(0, 1).next());
+	}
+
+}
@@ -0,0 +1,166 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.data.provider;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import org.apache.wicket.util.tester.WicketTester;
+import org.testng.AssertJUnit;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Test for the request scoped cache of the class {@link AbstractSortFilterDataProvider}.
+ */
+public class AbstractSortFilterDataProviderTest
+{
+
+	public static class PrefixFilter implements Serializable
+	{
+		private static final long serialVersionUID = 1L;
+
+		static int written;
+
+		private final String prefix;
+
+		public PrefixFilter(final String prefix)
+		{
+			this.prefix = prefix;
+		}
+
+		@Override
+		public boolean equals(final Object obj)
+		{
+			return (obj instanceof PrefixFilter) && Objects.equals(prefix, ((PrefixFilter)obj).prefix);
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return Objects.hashCode(prefix);
+		}
+
+		private void writeObject(final ObjectOutputStream out) throws IOException
+		{
+			written++;
+			out.defaultWriteObject();
+		}
+	}
+
+	public static class NameDataProvider
+		extends
+			AbstractSortFilterDataProvider<String, String, PrefixFilter>
+	{
+		private static final long serialVersionUID = 1L;
+		private int filterCalls;
+
+		public NameDataProvider(final List<String> data)
+		{
+			super(data);
+		}
+
+		@Override
+		protected List<String> filter(final List<String> found)
+		{
+			filterCalls++;
+			final PrefixFilter filter = getFilterState();
+			if (filter == null)
+			{
+				return found;
+			}
+			final List<String> filtered = new ArrayList<>();
+			for (final String name : found)
+			{
+				if (name.startsWith(filter.prefix))
+				{
+					filtered.add(name);
+				}
+			}
+			return filtered;
+		}
+	}
+
+	private NameDataProvider provider;
+	private WicketTester tester;
+
+	@BeforeMethod
+	public void setUp()
+	{
+		tester = new WicketTester();
+		provider = new NameDataProvider(
+			new ArrayList<>(Arrays.asList("anna", "bert", "alex", "carl")));
+	}
+
+	@AfterMethod
+	public void tearDown()
+	{
+		tester.destroy();
+	}
+
+	@Test
+	public void testFilteredDataIsCachedPerRequest()
+	{
+		provider.setFilterState(new PrefixFilter("a"));
+		AssertJUnit.assertEquals(2, provider.size());
+		AssertJUnit.assertEquals(2, provider.size());
+		AssertJUnit.assertEquals(1, provider.filterCalls);
+		provider.setFilterState(new PrefixFilter("b"));
+		AssertJUnit.assertEquals(1, provider.size());
+		AssertJUnit.assertEquals(2, provider.filterCalls);
+	}
+
+	@Test
+	public void testDetachRemovesCachedValues()
+	{
+		AssertJUnit.assertEquals(4, provider.size());
+		provider.detach();
+		AssertJUnit.assertEquals(4, provider.size());
+		AssertJUnit.assertEquals(2, provider.filterCalls);
+	}
+
+	@Test
+	public void testDetachDoesNotCreateCache()
+	{
+		AssertJUnit.assertNull(RequestScopedCache.find());
+		provider.detach();
+		AssertJUnit.assertNull(RequestScopedCache.find());
+		tester.destroy();
+		provider.detach();
+		tester = new WicketTester();
+	}
+
+	@Test
+	public void testEqualsFilterIsNotSerializedOnLookup()
+	{
+		provider.setFilterState(new PrefixFilter("a"));
+		PrefixFilter.written = 0;
+		AssertJUnit.assertEquals(2, provider.size());
+		// the copy of the filter state is taken once when the filtered data is stored
+		AssertJUnit.assertEquals(1, PrefixFilter.written);
+		AssertJUnit.assertEquals(2, provider.size());
+		AssertJUnit.assertEquals(2, provider.size());
+		AssertJUnit.assertEquals(1, PrefixFilter.written);
+		AssertJUnit.assertEquals(1, provider.filterCalls);
+	}
+
+}
@@ -0,0 +1,86 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.data.provider;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.AssertJUnit;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import de.alpharogroup.wicket.data.provider.DataProviderFixtures.NameDataLoader;
+import de.alpharogroup.wicket.data.provider.DataProviderFixtures.Person;
+
+/**
+ * Test for the data loader mode of the class {@link AbstractSortableDataProvider}.
+ */
+public class AbstractSortableDataProviderTest
+{
+
+	private List<Person> data;
+
+	@BeforeMethod
+	public void setUp()
+	{
+		DataProviderFixtures.REPOSITORY.clear();
+		data = new ArrayList<>();
+		for (int i = 0; i < 100; i++)
+		{
+			final Person person = new Person("person" + i, i);
+			DataProviderFixtures.REPOSITORY.put(person.getName(), person);
+			data.add(person);
+		}
+	}
+
+	@Test
+	public void testDataIsReloadedAfterDetach()
+	{
+		final AbstractSortableDataProvider<Person, String> provider = new AbstractSortableDataProvider<>(
+			data);
+		provider.setDataLoader(new NameDataLoader());
+		provider.detach();
+		AssertJUnit.assertEquals(100, provider.size());
+		AssertJUnit.assertSame(DataProviderFixtures.REPOSITORY.get("person7"),
+			provider.iterator(7, 1).next());
+	}
+
+	@Test
+	public void testSnapshotIsSerialized() throws IOException, ClassNotFoundException
+	{
+		final AbstractSortableDataProvider<Person, String> provider = new AbstractSortableDataProvider<>(
+			data);
+		provider.setDataLoader(new NameDataLoader());
+		final AbstractSortableDataProvider<Person, String> copy = DataProviderFixtures.copy(provider);
+		AssertJUnit.assertEquals(provider.getDataSnapshot(), copy.getDataSnapshot());
+		AssertJUnit.assertEquals(100, copy.size());
+		AssertJUnit.assertSame(DataProviderFixtures.REPOSITORY.get("person42"), copy.getData().get(42));
+	}
+
+	@Test
+	public void testDataIsSerializedWithoutDataLoader() throws IOException, ClassNotFoundException
+	{
+		final AbstractSortableDataProvider<Person, String> provider = new AbstractSortableDataProvider<>(
+			data);
+		final AbstractSortableDataProvider<Person, String> copy = DataProviderFixtures.copy(provider);
+		AssertJUnit.assertNull(copy.getDataSnapshot());
+		AssertJUnit.assertEquals(100, copy.size());
+		AssertJUnit.assertNotSame(DataProviderFixtures.REPOSITORY.get("person42"),
+			copy.getData().get(42));
+	}
+
+}
@@ -0,0 +1,124 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.data.provider;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import org.apache.wicket.extensions.markup.html.repeater.data.sort.SortOrder;
+import org.testng.AssertJUnit;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import de.alpharogroup.wicket.data.provider.DataProviderFixtures.NameDataLoader;
+import de.alpharogroup.wicket.data.provider.DataProviderFixtures.Person;
+
+/**
+ * Test for the data loader mode of the class {@link AbstractSortableFilterDataProvider}.
+ */
+public class AbstractSortableFilterDataProviderTest
+{
+
+	public static class AdultDataProvider
+		extends
+			AbstractSortableFilterDataProvider<Person, String, Integer>
+	{
+		private static final long serialVersionUID = 1L;
+
+		public AdultDataProvider(final List<Person> data)
+		{
+			super(data);
+		}
+
+		@Override
+		protected Predicate<Person> newFilterPredicate()
+		{
+			return new Predicate<Person>()
+			{
+				@Override
+				public boolean test(final Person person)
+				{
+					return person.getAge() >= 18;
+				}
+			};
+		}
+	}
+
+	private List<Person> data;
+
+	@BeforeMethod
+	public void setUp()
+	{
+		DataProviderFixtures.REPOSITORY.clear();
+		data = new ArrayList<>();
+		for (int i = 0; i < 100; i++)
+		{
+			final Person person = new Person("person" + i, i);
+			DataProviderFixtures.REPOSITORY.put(person.getName(), person);
+			data.add(person);
+		}
+	}
+
+	@Test
+	public void testDataChangedUpdatesSnapshot() throws IOException, ClassNotFoundException
+	{
+		final AdultDataProvider provider = new AdultDataProvider(data);
+		provider.setDataLoader(new NameDataLoader());
+		data.remove(0);
+		provider.dataChanged();
+		final AdultDataProvider copy = DataProviderFixtures.copy(provider);
+		AssertJUnit.assertEquals(99, copy.getData().size());
+		AssertJUnit.assertEquals(82, copy.size());
+	}
+
+	@Test
+	public void testDataIsReloadedAfterDetach()
+	{
+		final AdultDataProvider provider = new AdultDataProvider(data);
+		provider.setDataLoader(new NameDataLoader());
+		provider.setSort("age", SortOrder.DESCENDING);
+		AssertJUnit.assertEquals(82, provider.size());
+		provider.detach();
+		AssertJUnit.assertEquals(82, provider.size());
+		AssertJUnit.assertSame(DataProviderFixtures.REPOSITORY.get("person99"),
+			provider.iterator(0, 1).next());
+	}
+
+	@Test
+	public void testSnapshotIsSerialized() throws IOException, ClassNotFoundException
+	{
+		final AdultDataProvider provider = new AdultDataProvider(data);
+		provider.setDataLoader(new NameDataLoader());
+		final AdultDataProvider copy = DataProviderFixtures.copy(provider);
+		AssertJUnit.assertEquals(provider.getDataSnapshot(), copy.getDataSnapshot());
+		AssertJUnit.assertSame(DataProviderFixtures.REPOSITORY.get("person18"),
+			copy.iterator(0, 1).next());
+	}
+
+	@Test
+	public void testDataIsSerializedWithoutDataLoader() throws IOException, ClassNotFoundException
+	{
+		final AdultDataProvider provider = new AdultDataProvider(data);
+		final AdultDataProvider copy = DataProviderFixtures.copy(provider);
+		AssertJUnit.assertNull(copy.getDataSnapshot());
+		AssertJUnit.assertEquals(82, copy.size());
+		AssertJUnit.assertNotSame(DataProviderFixtures.REPOSITORY.get("person18"),
+			copy.iterator(0, 1).next());
+	}
+
+}
@@ -0,0 +1,199 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.data.provider;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import de.alpharogroup.wicket.data.provider.source.ListDataSource;
+
+/**
+ * The class {@link DataProviderFixtures} holds the fixtures that are shared by the tests of the
+ * data providers, so the test classes do not depend on each other.
+ */
+public final class DataProviderFixtures
+{
+
+	/**
+	 * The persons that are loaded from the {@link NameDataLoader} by their name.
+	 */
+	public static final Map<String, Person> REPOSITORY = new LinkedHashMap<>();
+
+	public static class CountingDataSource extends ListDataSource<Person, String, Integer>
+	{
+		private static final long serialVersionUID = 1L;
+		private int countCalls;
+
+		public CountingDataSource(final List<Person> data)
+		{
+			super(data);
+		}
+
+		@Override
+		public long count(final Integer filterState)
+		{
+			countCalls++;
+			return super.count(filterState);
+		}
+
+		public int getCountCalls()
+		{
+			return countCalls;
+		}
+
+		@Override
+		protected Predicate<Person> newPredicate(final Integer filterState)
+		{
+			if (filterState == null)
+			{
+				return null;
+			}
+			return new Predicate<Person>()
+			{
+				@Override
+				public boolean test(final Person person)
+				{
+					return person.getAge() >= filterState;
+				}
+			};
+		}
+	}
+
+	public static class Item implements Serializable
+	{
+		private static final long serialVersionUID = 1L;
+		private final String name;
+		private final String category;
+		private final Integer price;
+
+		public Item(final String name, final String category, final Integer price)
+		{
+			this.name = name;
+			this.category = category;
+			this.price = price;
+		}
+
+		public String getCategory()
+		{
+			return category;
+		}
+
+		public String getName()
+		{
+			return name;
+		}
+
+		public Integer getPrice()
+		{
+			return price;
+		}
+	}
+
+	public static class NameDataLoader implements IDataLoader<Person, ArrayList<String>>
+	{
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public List<Person> load(final ArrayList<String> snapshot)
+		{
+			final List<Person> data = new ArrayList<>();
+			for (final String name : snapshot)
+			{
+				data.add(REPOSITORY.get(name));
+			}
+			return data;
+		}
+
+		@Override
+		public ArrayList<String> snapshot(final List<Person> data)
+		{
+			final ArrayList<String> names = new ArrayList<>();
+			for (final Person person : data)
+			{
+				names.add(person.getName());
+			}
+			return names;
+		}
+	}
+
+	public static class Person implements Serializable
+	{
+		private static final long serialVersionUID = 1L;
+		private final String name;
+		private final int age;
+
+		public Person(final String name, final int age)
+		{
+			this.name = name;
+			this.age = age;
+		}
+
+		public int getAge()
+		{
+			return age;
+		}
+
+		public String getName()
+		{
+			return name;
+		}
+	}
+
+	/**
+	 * Copies the given object with a serialization round trip.
+	 *
+	 * @param <T>
+	 *            the generic type of the object
+	 * @param object
+	 *            the object
+	 * @return the copy
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 * @throws ClassNotFoundException
+	 *             if the class of a serialized object could not be found.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> T copy(final T object) throws IOException, ClassNotFoundException
+	{
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes))
+		{
+			out.writeObject(object);
+		}
+		try (ObjectInputStream in = new ObjectInputStream(
+			new ByteArrayInputStream(bytes.toByteArray())))
+		{
+			return (T)in.readObject();
+		}
+	}
+
+	/**
+	 * Private constructor.
+	 */
+	private DataProviderFixtures()
+	{
+	}
+
+}
@@ -0,0 +1,227 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.data.provider;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.wicket.extensions.markup.html.repeater.data.sort.SortOrder;
+import org.apache.wicket.util.tester.WicketTester;
+import org.testng.AssertJUnit;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import de.alpharogroup.wicket.data.provider.DataProviderFixtures.Person;
+import de.alpharogroup.wicket.data.provider.source.DataQuery;
+import de.alpharogroup.wicket.data.provider.source.KeysetPage;
+import de.alpharogroup.wicket.data.provider.source.ListDataSource;
+
+/**
+ * Test for the class {@link KeysetDataProvider} with the {@link ListDataSource}.
+ */
+public class KeysetDataProviderTest
+{
+
+	public static class RecordingDataSource extends ListDataSource<Person, String, Integer>
+	{
+		private static final long serialVersionUID = 1L;
+		private final List<Long> offsets = new ArrayList<>();
+		private final List<Serializable> afterKeys = new ArrayList<>();
+
+		public RecordingDataSource(final List<Person> data)
+		{
+			super(data);
+		}
+
+		@Override
+		public KeysetPage<Person> loadAfter(final DataQuery<String, Integer> query,
+			final Serializable afterKey)
+		{
+			offsets.add(query.getOffset());
+			afterKeys.add(afterKey);
+			return super.loadAfter(query, afterKey);
+		}
+	}
+
+	private List<Person> data;
+	private RecordingDataSource source;
+	private KeysetDataProvider<Person, String, Integer> provider;
+	private WicketTester tester;
+
+	private List<String> names(final Iterator<? extends Person> iterator)
+	{
+		final List<String> names = new ArrayList<>();
+		while (iterator.hasNext())
+		{
+			names.add(iterator.next().getName());
+		}
+		return names;
+	}
+
+	/**
+	 * The expected names of the rows from first to end in ascending order of the age.
+	 */
+	private List<String> expected(final int first, final int end)
+	{
+		final List<String> names = new ArrayList<>();
+		for (int i = first; i < end; i++)
+		{
+			names.add("p" + i);
+		}
+		return names;
+	}
+
+	private Serializable lastAfterKey()
+	{
+		return source.afterKeys.get(source.afterKeys.size() - 1);
+	}
+
+	private long lastOffset()
+	{
+		return source.offsets.get(source.offsets.size() - 1);
+	}
+
+	@BeforeMethod
+	public void setUp()
+	{
+		tester = new WicketTester();
+		data = new ArrayList<>();
+		// insert in reverse order, so the rows are only in order if they are sorted
+		for (int i = 39; i >= 0; i--)
+		{
+			data.add(new Person("p" + i, i));
+		}
+		source = new RecordingDataSource(data);
+		provider = new KeysetDataProvider<>(source);
+		provider.setSort("age", SortOrder.ASCENDING);
+	}
+
+	@AfterMethod
+	public void tearDown()
+	{
+		tester.destroy();
+	}
+
+	@Test
+	public void testDeepPageSeeksFromNearestKey()
+	{
+		AssertJUnit.assertEquals(expected(0, 5), names(provider.iterator(0, 5)));
+		AssertJUnit.assertEquals(expected(5, 10), names(provider.iterator(5, 5)));
+		final Serializable keyOfSecondPage = source.loadAfter(
+			DataQuery.<String, Integer> builder().offset(5).limit(5).sort(provider.getSort())
+				.build(), null).getLastKey();
+
+		// jump three pages ahead, the rows are skipped from the key at offset 10
+		AssertJUnit.assertEquals(expected(25, 30), names(provider.iterator(25, 5)));
+		AssertJUnit.assertEquals(15, lastOffset());
+		AssertJUnit.assertEquals(keyOfSecondPage, lastAfterKey());
+
+		// a page before the deep page seeks from the key at offset 10 as well
+		AssertJUnit.assertEquals(expected(20, 25), names(provider.iterator(20, 5)));
+		AssertJUnit.assertEquals(10, lastOffset());
+		AssertJUnit.assertEquals(keyOfSecondPage, lastAfterKey());
+
+		// the page after the deep page seeks directly after the key of the deep page
+		AssertJUnit.assertEquals(expected(30, 35), names(provider.iterator(30, 5)));
+		AssertJUnit.assertEquals(0, lastOffset());
+		AssertJUnit.assertNotNull(lastAfterKey());
+	}
+
+	@Test
+	public void testKeysAreClearedAtMaxKeys()
+	{
+		provider.setMaxKeys(2);
+		AssertJUnit.assertEquals(expected(0, 5), names(provider.iterator(0, 5)));
+		AssertJUnit.assertEquals(expected(5, 10), names(provider.iterator(5, 5)));
+		// the keys at offset 5 and 10 are remembered, so the next page seeks after the key
+		AssertJUnit.assertEquals(expected(10, 15), names(provider.iterator(10, 5)));
+		AssertJUnit.assertEquals(0, lastOffset());
+		AssertJUnit.assertNotNull(lastAfterKey());
+
+		// the third key has cleared the keys, only the key at offset 15 is left
+		AssertJUnit.assertEquals(expected(5, 10), names(provider.iterator(5, 5)));
+		AssertJUnit.assertEquals(5, lastOffset());
+		AssertJUnit.assertNull(lastAfterKey());
+		AssertJUnit.assertEquals(expected(15, 20), names(provider.iterator(15, 5)));
+		AssertJUnit.assertEquals(0, lastOffset());
+		AssertJUnit.assertNotNull(lastAfterKey());
+	}
+
+	@Test
+	public void testKeysAreDroppedWhenSortChanges()
+	{
+		AssertJUnit.assertEquals(expected(0, 5), names(provider.iterator(0, 5)));
+		AssertJUnit.assertEquals(expected(5, 10), names(provider.iterator(5, 5)));
+
+		provider.setSort("age", SortOrder.DESCENDING);
+		final List<String> descending = new ArrayList<>();
+		for (int i = 34; i >= 30; i--)
+		{
+			descending.add("p" + i);
+		}
+		AssertJUnit.assertEquals(descending, names(provider.iterator(5, 5)));
+		AssertJUnit.assertEquals(5, lastOffset());
+		AssertJUnit.assertNull(lastAfterKey());
+	}
+
+	@Test
+	public void testOnlyKeysAroundTheLastPageAreSerialized()
+		throws IOException, ClassNotFoundException
+	{
+		provider.setSerializedKeys(2);
+		for (int first = 0; first < 35; first += 5)
+		{
+			AssertJUnit.assertEquals(expected(first, first + 5),
+				names(provider.iterator(first, 5)));
+		}
+		final KeysetDataProvider<Person, String, Integer> copy = DataProviderFixtures
+			.copy(provider);
+		final RecordingDataSource copySource = (RecordingDataSource)copy.getSource();
+
+		// the keys at offset 25, 30 and 35 around the last page are kept
+		AssertJUnit.assertEquals(expected(35, 40), names(copy.iterator(35, 5)));
+		AssertJUnit.assertEquals(0, (long)copySource.offsets.get(copySource.offsets.size() - 1));
+		AssertJUnit.assertEquals(expected(25, 30), names(copy.iterator(25, 5)));
+		AssertJUnit.assertEquals(0, (long)copySource.offsets.get(copySource.offsets.size() - 1));
+
+		// the key at offset 20 was not serialized
+		AssertJUnit.assertEquals(expected(20, 25), names(copy.iterator(20, 5)));
+		AssertJUnit.assertEquals(20, (long)copySource.offsets.get(copySource.offsets.size() - 1));
+		AssertJUnit.assertNull(copySource.afterKeys.get(copySource.afterKeys.size() - 1));
+	}
+
+	@Test
+	public void testKeysAreDroppedWhenCountChanges()
+	{
+		AssertJUnit.assertEquals(40, provider.size());
+		AssertJUnit.assertEquals(expected(0, 5), names(provider.iterator(0, 5)));
+		AssertJUnit.assertEquals(expected(5, 10), names(provider.iterator(5, 5)));
+
+		// remove the row p2 in the data source
+		data.remove(37);
+		source.dataChanged();
+		provider.invalidateCount();
+		AssertJUnit.assertEquals(39, provider.size());
+		AssertJUnit.assertEquals(expected(6, 11), names(provider.iterator(5, 5)));
+		AssertJUnit.assertEquals(5, lastOffset());
+		AssertJUnit.assertNull(lastAfterKey());
+	}
+
+}
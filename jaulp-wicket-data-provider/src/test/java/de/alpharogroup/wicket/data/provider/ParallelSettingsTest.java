@@ -0,0 +1,234 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.data.provider;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
+
+import org.apache.wicket.extensions.markup.html.repeater.data.sort.SortOrder;
+import org.testng.AssertJUnit;
+import org.testng.annotations.Test;
+
+/**
+ * Test for the class {@link ParallelSettings} and the parallel sort and filter of the class
+ * {@link AbstractSortableFilterDataProvider}.
+ */
+public class ParallelSettingsTest
+{
+
+	public static class Item implements Serializable
+	{
+		private static final long serialVersionUID = 1L;
+		private final int group;
+		private final int number;
+
+		public Item(final int group, final int number)
+		{
+			this.group = group;
+			this.number = number;
+		}
+
+		public int getGroup()
+		{
+			return group;
+		}
+
+		public int getNumber()
+		{
+			return number;
+		}
+	}
+
+	public static class ItemDataProvider
+		extends
+			AbstractSortableFilterDataProvider<Item, String, Integer>
+	{
+		private static final long serialVersionUID = 1L;
+		private final transient ParallelSettings settings;
+
+		public ItemDataProvider(final List<Item> data, final ParallelSettings settings)
+		{
+			super(data);
+			this.settings = settings;
+		}
+
+		@Override
+		protected ParallelSettings getParallelSettings()
+		{
+			return settings;
+		}
+
+		@Override
+		protected Predicate<Item> newFilterPredicate()
+		{
+			final Integer minimum = getFilterState();
+			if (minimum == null)
+			{
+				return null;
+			}
+			return new Predicate<Item>()
+			{
+				@Override
+				public boolean test(final Item item)
+				{
+					return item.getNumber() >= minimum;
+				}
+			};
+		}
+	}
+
+	private static List<Item> newData()
+	{
+		final List<Item> data = new ArrayList<>();
+		for (int i = 0; i < 1000; i++)
+		{
+			data.add(new Item((i * 7) % 10, i));
+		}
+		return data;
+	}
+
+	private static List<Integer> numbers(final Iterator<? extends Item> iterator)
+	{
+		final List<Integer> numbers = new ArrayList<>();
+		while (iterator.hasNext())
+		{
+			numbers.add(iterator.next().getNumber());
+		}
+		return numbers;
+	}
+
+	private static List<Integer> view(final ParallelSettings settings, final Integer filterState,
+		final SortOrder order)
+	{
+		final ItemDataProvider provider = new ItemDataProvider(newData(), settings);
+		provider.setFilterState(filterState);
+		provider.setSort("group", order);
+		return numbers(provider.iterator(0, provider.size()));
+	}
+
+	@Test
+	public void testParallelResultIsEqualToSequentialResult()
+	{
+		final ParallelSettings sequential = new ParallelSettings(Integer.MAX_VALUE, 2);
+		final ParallelSettings parallel = new ParallelSettings(10, 2);
+		try
+		{
+			AssertJUnit.assertFalse(sequential.isParallel(1000));
+			AssertJUnit.assertTrue(parallel.isParallel(1000));
+			AssertJUnit.assertEquals(view(sequential, null, SortOrder.ASCENDING),
+				view(parallel, null, SortOrder.ASCENDING));
+			AssertJUnit.assertEquals(view(sequential, 500, SortOrder.DESCENDING),
+				view(parallel, 500, SortOrder.DESCENDING));
+			AssertJUnit.assertEquals(500, view(parallel, 500, SortOrder.ASCENDING).size());
+		}
+		finally
+		{
+			sequential.destroy();
+			parallel.destroy();
+		}
+	}
+
+	@Test
+	public void testParallelSortIsStable()
+	{
+		final ParallelSettings parallel = new ParallelSettings(10, 2);
+		try
+		{
+			final List<Integer> numbers = view(parallel, null, SortOrder.ASCENDING);
+			final List<Item> data = newData();
+			for (int i = 1; i < numbers.size(); i++)
+			{
+				final Item previous = data.get(numbers.get(i - 1));
+				final Item current = data.get(numbers.get(i));
+				AssertJUnit.assertTrue(previous.getGroup() <= current.getGroup());
+				if (previous.getGroup() == current.getGroup())
+				{
+					// equal elements keep the order of the data
+					AssertJUnit.assertTrue(previous.getNumber() < current.getNumber());
+				}
+			}
+		}
+		finally
+		{
+			parallel.destroy();
+		}
+	}
+
+	@Test
+	public void testDefaultIsSequential()
+	{
+		AssertJUnit.assertFalse(ParallelSettings.get().isParallel(Integer.MAX_VALUE));
+		AssertJUnit.assertFalse(new ParallelSettings(0, 2).isParallel(Integer.MAX_VALUE));
+		AssertJUnit.assertTrue(new ParallelSettings(10, 2).isParallel(10));
+	}
+
+	@Test
+	public void testDestroyShutsDownDedicatedPool()
+	{
+		final ParallelSettings settings = new ParallelSettings(10, 2);
+		final ForkJoinPool pool = settings.getPool();
+		AssertJUnit.assertSame(pool, settings.getPool());
+		AssertJUnit.assertNotSame(ForkJoinPool.commonPool(), pool);
+		settings.destroy();
+		AssertJUnit.assertTrue(pool.isShutdown());
+		final ForkJoinPool newPool = settings.getPool();
+		AssertJUnit.assertNotSame(pool, newPool);
+		settings.destroy();
+		AssertJUnit.assertTrue(newPool.isShutdown());
+	}
+
+	@Test
+	public void testDestroyKeepsCommonPool()
+	{
+		final ParallelSettings settings = new ParallelSettings(10, 0);
+		AssertJUnit.assertSame(ForkJoinPool.commonPool(), settings.getPool());
+		settings.destroy();
+		AssertJUnit.assertFalse(ForkJoinPool.commonPool().isShutdown());
+	}
+
+	@Test
+	public void testExecuteRethrowsRuntimeExceptionUnwrapped()
+	{
+		final ParallelSettings settings = new ParallelSettings(10, 2);
+		final IllegalStateException failure = new IllegalStateException("failure");
+		try
+		{
+			settings.execute(new Callable<Void>()
+			{
+				@Override
+				public Void call()
+				{
+					throw failure;
+				}
+			});
+			AssertJUnit.fail("The exception of the task was not rethrown.");
+		}
+		catch (final IllegalStateException e)
+		{
+			AssertJUnit.assertSame(failure, e);
+		}
+		finally
+		{
+			settings.destroy();
+		}
+	}
+
+}
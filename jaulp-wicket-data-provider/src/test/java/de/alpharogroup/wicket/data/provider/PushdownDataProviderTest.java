@@ -0,0 +1,161 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.data.provider;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.wicket.extensions.markup.html.repeater.data.sort.SortOrder;
+import org.apache.wicket.util.tester.WicketTester;
+import org.testng.AssertJUnit;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import de.alpharogroup.wicket.data.provider.DataProviderFixtures.CountingDataSource;
+import de.alpharogroup.wicket.data.provider.DataProviderFixtures.Person;
+import de.alpharogroup.wicket.data.provider.source.ListDataSource;
+
+/**
+ * Test for the class {@link PushdownDataProvider} with the {@link ListDataSource}.
+ */
+public class PushdownDataProviderTest
+{
+
+	private CountingDataSource source;
+	private PushdownDataProvider<Person, String, Integer> provider;
+	private WicketTester tester;
+
+	private List<String> names(final Iterator<? extends Person> iterator)
+	{
+		final List<String> names = new ArrayList<>();
+		while (iterator.hasNext())
+		{
+			names.add(iterator.next().getName());
+		}
+		return names;
+	}
+
+	@BeforeMethod
+	public void setUp()
+	{
+		tester = new WicketTester();
+		final List<Person> data = new ArrayList<>();
+		data.add(new Person("dora", 40));
+		data.add(new Person("anna", 20));
+		data.add(new Person("emil", 50));
+		data.add(new Person("bert", 30));
+		data.add(new Person("carl", 10));
+		source = new CountingDataSource(data);
+		provider = new PushdownDataProvider<>(source);
+	}
+
+	@AfterMethod
+	public void tearDown()
+	{
+		tester.destroy();
+	}
+
+	@Test
+	public void testCountIsCachedPerRequest()
+	{
+		AssertJUnit.assertEquals(5, provider.size());
+		AssertJUnit.assertEquals(5, provider.size());
+		AssertJUnit.assertEquals(1, source.getCountCalls());
+		provider.setFilterState(30);
+		AssertJUnit.assertEquals(3, provider.size());
+		AssertJUnit.assertEquals(2, source.getCountCalls());
+		provider.invalidateCount();
+		AssertJUnit.assertEquals(3, provider.size());
+		AssertJUnit.assertEquals(3, source.getCountCalls());
+		// the next request counts again
+		provider.detach();
+		AssertJUnit.assertEquals(3, provider.size());
+		AssertJUnit.assertEquals(4, source.getCountCalls());
+	}
+
+	@Test
+	public void testCountIsKeptAcrossRequests()
+	{
+		provider.setKeepCount(true);
+		AssertJUnit.assertEquals(5, provider.size());
+		provider.setFilterState(30);
+		AssertJUnit.assertEquals(3, provider.size());
+		AssertJUnit.assertEquals(2, source.getCountCalls());
+		provider.detach();
+		AssertJUnit.assertEquals(3, provider.size());
+		AssertJUnit.assertEquals(2, source.getCountCalls());
+		provider.invalidateCount();
+		AssertJUnit.assertEquals(3, provider.size());
+		AssertJUnit.assertEquals(3, source.getCountCalls());
+	}
+
+	@Test
+	public void testCountWithoutRequestCycle()
+	{
+		tester.destroy();
+		AssertJUnit.assertEquals(5, provider.size());
+		AssertJUnit.assertEquals(5, provider.size());
+		AssertJUnit.assertEquals(2, source.getCountCalls());
+		provider.setKeepCount(true);
+		AssertJUnit.assertEquals(5, provider.size());
+		AssertJUnit.assertEquals(5, provider.size());
+		AssertJUnit.assertEquals(3, source.getCountCalls());
+		tester = new WicketTester();
+	}
+
+	@Test
+	public void testCountIsRequestedAgainForOtherCountMode()
+	{
+		AssertJUnit.assertEquals(5, provider.size());
+		provider.setApproximateCount(true);
+		AssertJUnit.assertEquals(5, provider.size());
+		AssertJUnit.assertEquals(2, source.getCountCalls());
+	}
+
+	@Test
+	public void testFilteredPage()
+	{
+		provider.setFilterState(30);
+		provider.setSort("age", SortOrder.DESCENDING);
+		AssertJUnit.assertEquals(3, provider.size());
+		AssertJUnit.assertEquals(Arrays.asList("emil", "dora"),
+			names(provider.iterator(0, 2)));
+		AssertJUnit.assertEquals(Arrays.asList("bert"), names(provider.iterator(2, 2)));
+	}
+
+	@Test
+	public void testSortedPage()
+	{
+		provider.setSort("name", SortOrder.ASCENDING);
+		AssertJUnit.assertEquals(Arrays.asList("anna", "bert"),
+			names(provider.iterator(0, 2)));
+		AssertJUnit.assertEquals(Arrays.asList("carl", "dora"),
+			names(provider.iterator(2, 2)));
+		AssertJUnit.assertEquals(Arrays.asList("emil"), names(provider.iterator(4, 2)));
+		AssertJUnit.assertTrue(names(provider.iterator(6, 2)).isEmpty());
+	}
+
+	@Test
+	public void testUnsortedPage()
+	{
+		AssertJUnit.assertEquals(Arrays.asList("emil", "bert"),
+			names(provider.iterator(2, 2)));
+	}
+
+}
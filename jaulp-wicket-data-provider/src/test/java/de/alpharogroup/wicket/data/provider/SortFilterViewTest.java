@@ -0,0 +1,131 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.data.provider;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import org.apache.wicket.extensions.markup.html.repeater.util.SortParam;
+import org.testng.AssertJUnit;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Test for the class {@link SortFilterView}.
+ */
+public class SortFilterViewTest
+{
+
+	public static class Filter implements Serializable
+	{
+		private static final long serialVersionUID = 1L;
+
+		static int written;
+
+		String name;
+
+		private void writeObject(final ObjectOutputStream out) throws IOException
+		{
+			written++;
+			out.defaultWriteObject();
+		}
+	}
+
+	public static class EqualsFilter extends Filter
+	{
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public boolean equals(final Object obj)
+		{
+			return (obj instanceof EqualsFilter) && Objects.equals(name, ((EqualsFilter)obj).name);
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return Objects.hashCode(name);
+		}
+	}
+
+	private List<String> data;
+
+	private List<String> result;
+
+	private final SortParam<String> sort = new SortParam<>("name", true);
+
+	private final SortFilterView<String, String> view = new SortFilterView<>();
+
+	@BeforeMethod
+	public void setUp()
+	{
+		data = new ArrayList<>(Arrays.asList("b", "a"));
+		result = Arrays.asList("a", "b");
+		view.clear();
+		Filter.written = 0;
+	}
+
+	@Test
+	public void testViewIsReused()
+	{
+		final Filter filter = new Filter();
+		view.set(result, data, 1, sort, filter);
+		AssertJUnit.assertSame(result, view.get(data, 1, new SortParam<>("name", true), filter));
+	}
+
+	@Test
+	public void testViewIsInvalidated()
+	{
+		final Filter filter = new Filter();
+		view.set(result, data, 1, sort, filter);
+		AssertJUnit.assertNull(view.get(data, 2, sort, filter));
+		AssertJUnit.assertNull(view.get(new ArrayList<>(data), 1, sort, filter));
+		AssertJUnit.assertNull(view.get(data, 1, new SortParam<>("name", false), filter));
+		filter.name = "a";
+		AssertJUnit.assertNull(view.get(data, 1, sort, filter));
+		view.clear();
+		AssertJUnit.assertNull(view.get(data, 1, sort, filter));
+	}
+
+	@Test
+	public void testFilterWithEqualsIsNotSerializedOnGet()
+	{
+		final EqualsFilter filter = new EqualsFilter();
+		view.set(result, data, 1, sort, filter);
+		final int written = Filter.written;
+		AssertJUnit.assertSame(result, view.get(data, 1, sort, filter));
+		AssertJUnit.assertSame(result, view.get(data, 1, sort, filter));
+		AssertJUnit.assertEquals(written, Filter.written);
+		filter.name = "a";
+		AssertJUnit.assertNull(view.get(data, 1, sort, filter));
+	}
+
+	@Test
+	public void testFilterWithoutEqualsIsComparedByFingerprint()
+	{
+		final Filter filter = new Filter();
+		view.set(result, data, 1, sort, filter);
+		final Filter other = new Filter();
+		AssertJUnit.assertSame(result, view.get(data, 1, sort, other));
+		AssertJUnit.assertTrue(Filter.written > 1);
+	}
+
+}
@@ -0,0 +1,181 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.data.provider.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.testng.AssertJUnit;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import de.alpharogroup.wicket.data.provider.DataProviderFixtures.Item;
+
+/**
+ * Test for the classes {@link DataIndex} and {@link IndexQuery}.
+ */
+public class DataIndexTest
+{
+
+	private List<Item> data;
+	private DataIndex<Item> index;
+
+	private List<String> names(final List<Item> items)
+	{
+		final List<String> names = new ArrayList<>();
+		for (final Item item : items)
+		{
+			names.add(item.getName());
+		}
+		return names;
+	}
+
+	@BeforeMethod
+	public void setUp()
+	{
+		data = new ArrayList<>();
+		data.add(new Item("apple", "fruit", 3));
+		data.add(new Item("bread", "bakery", 2));
+		data.add(new Item("cherry", "fruit", 7));
+		data.add(new Item("donut", "bakery", 5));
+		data.add(new Item("egg", null, null));
+		data.add(new Item("fig", "fruit", 5));
+		index = new DataIndex<Item>().addHashIndex("category").addRangeIndex("price");
+		index.build(data);
+	}
+
+	@Test
+	public void testEqual()
+	{
+		AssertJUnit.assertEquals(Arrays.asList("apple", "cherry", "fig"),
+			names(index.getRows(index.equal("category", "fruit"))));
+		AssertJUnit.assertEquals(Arrays.asList("egg"),
+			names(index.getRows(index.equal("category", null))));
+		AssertJUnit.assertTrue(index.equal("category", "dairy").isEmpty());
+	}
+
+	@Test
+	public void testEqualReturnsCopy()
+	{
+		index.equal("category", "fruit").clear();
+		AssertJUnit.assertEquals(3, index.equal("category", "fruit").cardinality());
+	}
+
+	@Test
+	public void testIn()
+	{
+		AssertJUnit.assertEquals(Arrays.asList("bread", "donut", "egg"),
+			names(index.getRows(index.in("category", Arrays.asList("bakery", null, "dairy")))));
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void testUndeclaredHashIndex()
+	{
+		index.equal("price", 5);
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void testUndeclaredRangeIndex()
+	{
+		index.range("category", "a", "z");
+	}
+
+	@Test
+	public void testRange()
+	{
+		// the bounds are inclusive
+		AssertJUnit.assertEquals(Arrays.asList("apple", "donut", "fig"),
+			names(index.getRows(index.range("price", 3, 5))));
+		// open bounds, rows with a null value are not part of the range index
+		AssertJUnit.assertEquals(Arrays.asList("cherry", "donut", "fig"),
+			names(index.getRows(index.range("price", 4, null))));
+		AssertJUnit.assertEquals(Arrays.asList("apple", "bread"),
+			names(index.getRows(index.range("price", null, 4))));
+		AssertJUnit.assertEquals(5, index.range("price", null, null).cardinality());
+		AssertJUnit.assertTrue(index.range("price", 8, null).isEmpty());
+		AssertJUnit.assertTrue(index.range("price", 5, 3).isEmpty());
+	}
+
+	@Test
+	public void testRangeWithBoundsOfAnotherNumberClass()
+	{
+		AssertJUnit.assertEquals(Arrays.asList("apple", "donut", "fig"),
+			names(index.getRows(index.range("price", 3L, 5L))));
+		AssertJUnit.assertEquals(Arrays.asList("cherry"),
+			names(index.getRows(index.range("price", 5.5d, null))));
+	}
+
+	@Test
+	public void testQueryIntersectsLookups()
+	{
+		final IndexQuery<Item> query = new IndexQuery<>(index);
+		AssertJUnit.assertTrue(query.isEmpty());
+		AssertJUnit.assertNull(query.getResult());
+
+		query.equal("category", "fruit").range("price", 4, null);
+		AssertJUnit.assertFalse(query.isEmpty());
+		AssertJUnit.assertEquals(Arrays.asList("cherry", "fig"),
+			names(index.getRows(query.getResult())));
+
+		query.in("category", Arrays.asList("bakery"));
+		AssertJUnit.assertTrue(query.getResult().isEmpty());
+	}
+
+	@Test
+	public void testQueryIgnoresNullCriteria()
+	{
+		final IndexQuery<Item> query = new IndexQuery<>(index);
+		query.equal("category", null).in("category", null).range("price", null, null);
+		AssertJUnit.assertTrue(query.isEmpty());
+
+		query.equal("category", "bakery").range("price", null, null);
+		AssertJUnit.assertEquals(Arrays.asList("bread", "donut"),
+			names(index.getRows(query.getResult())));
+	}
+
+	@Test
+	public void testIndexIsNotChangedBySortInPlace()
+	{
+		Collections.reverse(data);
+		AssertJUnit.assertEquals(Arrays.asList("apple", "cherry", "fig"),
+			names(index.getRows(index.equal("category", "fruit"))));
+	}
+
+	@Test
+	public void testBuildAgain()
+	{
+		data.add(new Item("grape", "fruit", 4));
+		data.remove(0);
+		index.build(data);
+		AssertJUnit.assertEquals(6, index.size());
+		AssertJUnit.assertEquals(Arrays.asList("cherry", "fig", "grape"),
+			names(index.getRows(index.equal("category", "fruit"))));
+		AssertJUnit.assertEquals(Arrays.asList("donut", "fig", "grape"),
+			names(index.getRows(index.range("price", 4, 5))));
+	}
+
+	@Test
+	public void testEmptyData()
+	{
+		index.build(new ArrayList<Item>());
+		AssertJUnit.assertEquals(0, index.size());
+		AssertJUnit.assertTrue(index.equal("category", "fruit").isEmpty());
+		AssertJUnit.assertTrue(index.range("price", null, null).isEmpty());
+	}
+
+}
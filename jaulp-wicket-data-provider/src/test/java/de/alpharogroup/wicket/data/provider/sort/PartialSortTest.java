@@ -0,0 +1,146 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.data.provider.sort;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.wicket.extensions.markup.html.repeater.data.sort.SortOrder;
+import org.testng.AssertJUnit;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import de.alpharogroup.wicket.data.provider.AbstractSortableDataProvider;
+import de.alpharogroup.wicket.data.provider.DataProviderFixtures.Person;
+
+/**
+ * Test for the class {@link PartialSort} and the partial sort mode of the
+ * {@link AbstractSortableDataProvider}.
+ */
+public class PartialSortTest
+{
+
+	private static final Comparator<Person> BY_AGE = new Comparator<Person>()
+	{
+		@Override
+		public int compare(final Person o1, final Person o2)
+		{
+			return Integer.compare(o1.getAge(), o2.getAge());
+		}
+	};
+
+	private static class CountingDataProvider extends AbstractSortableDataProvider<Person, String>
+	{
+		private static final long serialVersionUID = 1L;
+
+		private int fullSorts;
+
+		private CountingDataProvider(final List<Person> data)
+		{
+			super(data);
+		}
+
+		@Override
+		protected List<Person> sort(final List<Person> unsortedList)
+		{
+			fullSorts++;
+			return super.sort(unsortedList);
+		}
+	}
+
+	private List<Person> data;
+
+	private static List<Person> list(final Iterator<? extends Person> iterator)
+	{
+		final List<Person> list = new ArrayList<>();
+		while (iterator.hasNext())
+		{
+			list.add(iterator.next());
+		}
+		return list;
+	}
+
+	@BeforeMethod
+	public void setUp()
+	{
+		final Random random = new Random(42);
+		data = new ArrayList<>();
+		for (int i = 0; i < 200; i++)
+		{
+			data.add(new Person("person" + i, random.nextInt(20)));
+		}
+	}
+
+	private List<Person> sorted()
+	{
+		final List<Person> sorted = new ArrayList<>(data);
+		Collections.sort(sorted, BY_AGE);
+		return sorted;
+	}
+
+	@Test
+	public void testWindowsMatchStableSort()
+	{
+		final List<Person> sorted = sorted();
+		for (final int first : new int[] { 0, 1, 95, 190, 199 })
+		{
+			AssertJUnit.assertEquals("first=" + first,
+				sorted.subList(first, Math.min(sorted.size(), first + 10)),
+				PartialSort.window(data, BY_AGE, first, 10));
+		}
+		AssertJUnit.assertEquals(sorted, PartialSort.window(data, BY_AGE, 0, data.size()));
+	}
+
+	@Test
+	public void testWindowOutOfRange()
+	{
+		AssertJUnit.assertTrue(PartialSort.window(data, BY_AGE, 200, 10).isEmpty());
+		AssertJUnit.assertTrue(PartialSort.window(data, BY_AGE, 0, 0).isEmpty());
+		AssertJUnit.assertEquals(sorted().subList(195, 200),
+			PartialSort.window(data, BY_AGE, 195, Integer.MAX_VALUE));
+	}
+
+	@Test
+	public void testListIsNotModified()
+	{
+		final List<Person> copy = new ArrayList<>(data);
+		PartialSort.window(data, BY_AGE, 10, 10);
+		AssertJUnit.assertEquals(copy, data);
+	}
+
+	@Test
+	public void testProviderFallsBackToCachedFullSort()
+	{
+		final List<Person> sorted = sorted();
+		final CountingDataProvider provider = new CountingDataProvider(data);
+		provider.setPartialSort(true);
+		provider.setSort("age", SortOrder.ASCENDING);
+		AssertJUnit.assertEquals(sorted.subList(0, 10), list(provider.iterator(0, 10)));
+		AssertJUnit.assertEquals(sorted.subList(40, 50), list(provider.iterator(40, 10)));
+		AssertJUnit.assertEquals(0, provider.fullSorts);
+		AssertJUnit.assertEquals(sorted.subList(100, 110), list(provider.iterator(100, 10)));
+		AssertJUnit.assertEquals(sorted.subList(190, 200), list(provider.iterator(190, 10)));
+		AssertJUnit.assertEquals(1, provider.fullSorts);
+		provider.setSort("age", SortOrder.DESCENDING);
+		provider.iterator(190, 10);
+		AssertJUnit.assertEquals(2, provider.fullSorts);
+	}
+
+}
@@ -0,0 +1,99 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.data.provider.sort;
+
+import java.util.Arrays;
+import java.util.function.Function;
+
+import org.testng.AssertJUnit;
+import org.testng.annotations.Test;
+
+import de.alpharogroup.wicket.data.provider.sort.SortFixtures.Address;
+import de.alpharogroup.wicket.data.provider.sort.SortFixtures.Customer;
+import de.alpharogroup.wicket.data.provider.sort.SortFixtures.Employee;
+import de.alpharogroup.wicket.data.provider.sort.SortFixtures.Person;
+import de.alpharogroup.wicket.data.provider.sort.hidden.HiddenBeans;
+
+/**
+ * Test for the class {@link PropertyAccessors}.
+ */
+public class PropertyAccessorsTest
+{
+
+	public static class FieldOnly
+	{
+		@SuppressWarnings("unused")
+		private final String secret = "field";
+	}
+
+	@Test
+	public void testNestedProperty()
+	{
+		final Function<Object, Object> accessor = PropertyAccessors.getAccessor(Person.class,
+			"address.city");
+		AssertJUnit.assertEquals("Berlin", accessor.apply(new Person("a", new Address("Berlin"))));
+		AssertJUnit.assertNull(accessor.apply(new Person("a", null)));
+		AssertJUnit.assertSame(accessor, PropertyAccessors.getAccessor(Person.class, "address.city"));
+	}
+
+	@Test
+	public void testField()
+	{
+		AssertJUnit.assertEquals("field",
+			PropertyAccessors.getAccessor(FieldOnly.class, "secret").apply(new FieldOnly()));
+	}
+
+	@Test
+	public void testPackagePrivateClassOfAnotherPackage()
+	{
+		final Object bean = HiddenBeans.newHiddenBean("hidden");
+		final Function<Object, Object> accessor = PropertyAccessors.getAccessor(bean.getClass(),
+			"name");
+		AssertJUnit.assertEquals("hidden", accessor.apply(bean));
+		AssertJUnit.assertEquals("other", accessor.apply(HiddenBeans.newHiddenBean("other")));
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void testUnknownProperty()
+	{
+		PropertyAccessors.getAccessor(Person.class, "unknown");
+	}
+
+	@Test
+	public void testCommonType()
+	{
+		AssertJUnit.assertNull(PropertyAccessors.getCommonType(Arrays.asList(null, null)));
+		AssertJUnit.assertEquals(Employee.class,
+			PropertyAccessors.getCommonType(Arrays.asList(null, new Employee("a", 1))));
+		AssertJUnit.assertEquals(Person.class, PropertyAccessors.getCommonType(
+			Arrays.asList(new Employee("a", 1), new Person("b", null), new Customer("c", 2))));
+		AssertJUnit.assertEquals(Object.class,
+			PropertyAccessors.getCommonType(Arrays.asList("a", new Person("b", null))));
+	}
+
+	@Test
+	public void testCommonAccessorOfMixedSubclasses()
+	{
+		final Function<Object, Object> name = PropertyAccessors.getCommonAccessor(Person.class,
+			"name");
+		AssertJUnit.assertEquals("c", name.apply(new Customer("c", 2)));
+		final Function<Object, Object> salary = PropertyAccessors
+			.getCommonAccessor(Person.class, "salary");
+		AssertJUnit.assertEquals(1, salary.apply(new Employee("a", 1)));
+		AssertJUnit.assertEquals(2, salary.apply(new Customer("c", 2)));
+	}
+
+}
@@ -0,0 +1,136 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.data.provider.sort;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.testng.AssertJUnit;
+import org.testng.annotations.Test;
+
+import de.alpharogroup.wicket.data.provider.sort.SortFixtures.Address;
+import de.alpharogroup.wicket.data.provider.sort.SortFixtures.Customer;
+import de.alpharogroup.wicket.data.provider.sort.SortFixtures.Employee;
+import de.alpharogroup.wicket.data.provider.sort.SortFixtures.Person;
+
+/**
+ * Test for the class {@link PropertyComparator}.
+ */
+public class PropertyComparatorTest
+{
+
+	public static class Value
+	{
+		private final Object content;
+
+		public Value(final Object content)
+		{
+			this.content = content;
+		}
+
+		public Object getContent()
+		{
+			return content;
+		}
+
+		@Override
+		public String toString()
+		{
+			return String.valueOf(content);
+		}
+	}
+
+	private static List<String> names(final List<? extends Person> persons)
+	{
+		final List<String> names = new ArrayList<>();
+		for (final Person person : persons)
+		{
+			names.add(person == null ? null : person.getName());
+		}
+		return names;
+	}
+
+	@Test
+	public void testNestedPropertyWithNulls()
+	{
+		final List<Person> persons = new ArrayList<>(Arrays.asList(
+			new Person("b", new Address("Rome")), null, new Person("a", null),
+			new Person("c", new Address("Athens"))));
+		Collections.sort(persons, PropertyComparator.of(persons, "address.city", true));
+		AssertJUnit.assertEquals("[null, a, c, b]", names(persons).toString());
+		Collections.sort(persons, PropertyComparator.of(persons, "address.city", false));
+		AssertJUnit.assertEquals("[b, c, null, a]", names(persons).toString());
+	}
+
+	@Test
+	public void testNotComparableValues()
+	{
+		final List<Value> values = new ArrayList<>(Arrays.asList(new Value(new Value("b")),
+			new Value(new Value("a")), new Value(3), new Value(null)));
+		Collections.sort(values, PropertyComparator.of(values, "content", true));
+		AssertJUnit.assertEquals("[null, a, b, 3]", values.toString());
+		AssertJUnit.assertTrue(PropertyComparator.compareValues(2, 10) < 0);
+		AssertJUnit.assertTrue(PropertyComparator.compareValues(null, 1) < 0);
+	}
+
+	@Test
+	public void testMixedNumbers()
+	{
+		AssertJUnit.assertTrue(PropertyComparator.compareValues(9, 10L) < 0);
+		AssertJUnit.assertTrue(PropertyComparator.compareValues(10L, 9) > 0);
+		AssertJUnit.assertEquals(0, PropertyComparator.compareValues(10, 10L));
+		AssertJUnit.assertTrue(PropertyComparator.compareValues(new BigDecimal("9.5"), 10) < 0);
+		AssertJUnit.assertTrue(PropertyComparator.compareValues(Long.MAX_VALUE, 1e30d) < 0);
+		AssertJUnit.assertTrue(
+			PropertyComparator.compareValues(Double.POSITIVE_INFINITY, Long.MAX_VALUE) > 0);
+		final List<Value> values = new ArrayList<>(Arrays.asList(new Value(10L), new Value(9),
+			new Value(2.5d), new Value(new BigInteger("100")), new Value(-1)));
+		Collections.sort(values, PropertyComparator.of(values, "content", true));
+		AssertJUnit.assertEquals("[-1, 2.5, 9, 10, 100]", values.toString());
+	}
+
+	@Test
+	public void testMixedTypesAreOrderedByClassName()
+	{
+		final List<Value> values = new ArrayList<>(Arrays.asList(new Value("b"), new Value(10),
+			new Value(9L), new Value("a"), new Value(new Value("x"))));
+		Collections.sort(values, PropertyComparator.of(values, "content", true));
+		AssertJUnit.assertEquals("[x, 9, 10, a, b]", values.toString());
+	}
+
+	@Test
+	public void testMixedSubclasses()
+	{
+		final List<Person> persons = new ArrayList<>(Arrays.asList(new Employee("e", 3),
+			new Customer("c", 1), new Employee("f", 2)));
+		Collections.sort(persons, PropertyComparator.of(persons, "salary", true));
+		AssertJUnit.assertEquals("[c, f, e]", names(persons).toString());
+		Collections.sort(persons, PropertyComparator.of(persons, "name", false));
+		AssertJUnit.assertEquals("[f, e, c]", names(persons).toString());
+	}
+
+	@Test
+	public void testEmptyList()
+	{
+		AssertJUnit.assertNull(
+			PropertyComparator.of(Arrays.<Person> asList(null, null), "name", true));
+	}
+
+}
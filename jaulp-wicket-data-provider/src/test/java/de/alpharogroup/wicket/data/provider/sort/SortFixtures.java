@@ -0,0 +1,98 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.data.provider.sort;
+
+/**
+ * The class {@link SortFixtures} holds the beans that are shared by the tests of the sort package.
+ */
+public final class SortFixtures
+{
+
+	public static class Address
+	{
+		private final String city;
+
+		public Address(final String city)
+		{
+			this.city = city;
+		}
+
+		public String getCity()
+		{
+			return city;
+		}
+	}
+
+	public static class Person
+	{
+		private final String name;
+
+		private final Address address;
+
+		public Person(final String name, final Address address)
+		{
+			this.name = name;
+			this.address = address;
+		}
+
+		public Address getAddress()
+		{
+			return address;
+		}
+
+		public String getName()
+		{
+			return name;
+		}
+	}
+
+	public static class Employee extends Person
+	{
+		private final int salary;
+
+		public Employee(final String name, final int salary)
+		{
+			super(name, null);
+			this.salary = salary;
+		}
+
+		public int getSalary()
+		{
+			return salary;
+		}
+	}
+
+	public static class Customer extends Person
+	{
+		private final int salary;
+
+		public Customer(final String name, final int salary)
+		{
+			super(name, null);
+			this.salary = salary;
+		}
+
+		public int getSalary()
+		{
+			return salary;
+		}
+	}
+
+	private SortFixtures()
+	{
+	}
+
+}
@@ -0,0 +1,56 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.data.provider.sort.hidden;
+
+/**
+ * The class {@link HiddenBeans} creates beans of a class that is not visible outside of its
+ * package.
+ */
+public final class HiddenBeans
+{
+
+	/**
+	 * Factory method for creating a new bean of a package-private class.
+	 *
+	 * @param name
+	 *            the name of the bean
+	 * @return the new bean
+	 */
+	public static Object newHiddenBean(final String name)
+	{
+		return new HiddenBean(name);
+	}
+
+	private HiddenBeans()
+	{
+	}
+
+}
+
+class HiddenBean
+{
+	private final String name;
+
+	HiddenBean(final String name)
+	{
+		this.name = name;
+	}
+
+	public String getName()
+	{
+		return name;
+	}
+}
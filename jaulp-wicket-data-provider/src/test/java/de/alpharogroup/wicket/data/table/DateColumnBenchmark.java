@@ -0,0 +1,99 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.data.table;
+
+import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmark for the per cell cost of the {@link DateColumn}. The benchmark compares the former
+ * {@link SimpleDateFormat} per cell with the cached formatters of {@link DateFormatters}. Run it
+ * with the main method from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DateColumnBenchmark
+{
+
+	private static final String PATTERN = "dd.MM.yyyy HH:mm";
+
+	public static void main(final String[] args) throws RunnerException
+	{
+		new Runner(new OptionsBuilder().include(DateColumnBenchmark.class.getSimpleName()).build())
+			.run();
+	}
+
+	private final Date date = new Date();
+	private final Instant instant = Instant.now();
+	private final LocalDate localDate = LocalDate.now();
+	private final LocalDateTime localDateTime = LocalDateTime.now();
+	private final Locale locale = Locale.GERMANY;
+	private final ZoneId zone = ZoneId.systemDefault();
+
+	@Benchmark
+	public String cachedDate()
+	{
+		return DateFormatters.format(date, PATTERN, locale, zone);
+	}
+
+	@Benchmark
+	public String cachedInstant()
+	{
+		return DateFormatters.format(instant, PATTERN, locale, zone);
+	}
+
+	@Benchmark
+	public String cachedLocalDate()
+	{
+		return DateFormatters.format(localDate, PATTERN, locale, zone);
+	}
+
+	@Benchmark
+	public String cachedLocalDateTime()
+	{
+		return DateFormatters.format(localDateTime, PATTERN, locale, zone);
+	}
+
+	@Benchmark
+	public String simpleDateFormatPerCell()
+	{
+		return new SimpleDateFormat(PATTERN, locale).format(date);
+	}
+
+}
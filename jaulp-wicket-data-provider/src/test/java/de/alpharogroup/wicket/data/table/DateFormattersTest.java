@@ -0,0 +1,119 @@
+/**
+ * Copyright (C) 2010 Asterios Raptis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.alpharogroup.wicket.data.table;
+
+import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import org.testng.AssertJUnit;
+import org.testng.annotations.Test;
+
+/**
+ * Test for the class {@link DateFormatters}.
+ */
+public class DateFormattersTest
+{
+
+	private static final String LETTERS = "GyYMLwWDdFEuaHkKhmsSzZX";
+
+	private static final Locale[] LOCALES = { Locale.US, Locale.GERMANY, Locale.FRANCE,
+			new Locale("ru", "RU"), new Locale("pl", "PL"), new Locale("cs", "CZ"), Locale.JAPAN };
+
+	private static final long[] TIMES = { 1234L, -2000000000000L, 1700000000123L, 1709251200000L,
+			1719999999999L, 4102444800000L };
+
+	private static final String[] PATTERNS = { "dd.MM.yyyy HH:mm",
+			"yyyy-MM-dd'T'HH:mm:ss.SSSZ", "yy M MMM MMMM d D F E EEEE u a h k K H m s S SS",
+			"G yyyy Y w W", "z zzzz X XX XXX Z ZZZZ", "'o''clock' '' h", "yyyyy ddd [] {} #" };
+
+	private static final TimeZone TIME_ZONE = TimeZone.getTimeZone("America/Los_Angeles");
+
+	private static final ZoneId ZONE = TIME_ZONE.toZoneId();
+
+	@Test
+	public void testEveryLetterLikeSimpleDateFormat()
+	{
+		for (final Locale locale : LOCALES)
+		{
+			for (final char letter : LETTERS.toCharArray())
+			{
+				for (int count = 1; count <= (letter == 'X' ? 3 : 5); count++)
+				{
+					final StringBuilder field = new StringBuilder();
+					for (int i = 0; i < count; i++)
+					{
+						field.append(letter);
+					}
+					// a month is formatted in another form if it is the only field
+					for (final String pattern : new String[] { field.toString(), "d " + field,
+							field + " yyyy", "'d' " + field })
+					{
+						for (final long time : TIMES)
+						{
+							final SimpleDateFormat format = new SimpleDateFormat(pattern, locale);
+							format.setTimeZone(TIME_ZONE);
+							AssertJUnit.assertEquals(locale + " " + pattern,
+								format.format(new Date(time)),
+								DateFormatters.format(new Date(time), pattern, locale, ZONE));
+						}
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testLocalDate()
+	{
+		AssertJUnit.assertEquals("02.01.2020 00:00 -0800",
+			DateFormatters.format(LocalDate.of(2020, 1, 2), "dd.MM.yyyy HH:mm Z", Locale.US, ZONE));
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void testPatternLetterOfDateTimeFormatter()
+	{
+		DateFormatters.get("yyyy-MM-dd xxx", Locale.US, ZONE);
+	}
+
+	@Test
+	public void testSimpleDateFormatPatterns()
+	{
+		for (final Locale locale : new Locale[] { Locale.GERMANY, Locale.US })
+		{
+			for (final String pattern : PATTERNS)
+			{
+				for (final long time : new long[] { 1234L, 1700000000123L, 1719999999999L })
+				{
+					final SimpleDateFormat format = new SimpleDateFormat(pattern, locale);
+					format.setTimeZone(TIME_ZONE);
+					AssertJUnit.assertEquals(pattern, format.format(new Date(time)),
+						DateFormatters.format(new Date(time), pattern, locale, ZONE));
+				}
+			}
+		}
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void testUnterminatedQuote()
+	{
+		DateFormatters.get("yyyy 'at", Locale.US, ZONE);
+	}
+
+}